@@ -0,0 +1,27 @@
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks of the hot paths of the ray tracing
+ * (geometries.IntersectionBenchmark, elements.CameraBenchmark, renderer.TraceRayBenchmark,
+ * renderer.RenderScalingBenchmark and scene.OBJtoMeshBenchmark) and reports their throughput and their allocation rate (with the GC profiler)
+ */
+public final class BenchmarkMain {
+
+    /**
+     * run the benchmarks
+     *
+     * @param args optional regular expression of the benchmarks to run, e.g. "IntersectionBenchmark.sphere"
+     * @throws RunnerException if a benchmark fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder() //
+                .include(args.length > 0 ? args[0] : ".*Benchmark.*") //
+                .addProfiler(GCProfiler.class) //
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,84 @@
+package elements;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import primitives.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the construction of the rays through the pixels -
+ * a single ray, and the beam of a pixel with AA and DOF (16 rays in the pixel, 16 rays in the aperture for each)
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraBenchmark {
+    /**
+     * resolution of the view plane
+     */
+    private static final int PIXELS = 200;
+
+    /**
+     * camera without AA and DOF
+     */
+    private Camera _camera;
+    /**
+     * camera with AA and DOF
+     */
+    private Camera _beamCamera;
+    /**
+     * index of the next pixel
+     */
+    private int _pixel;
+
+    /**
+     * create the cameras
+     */
+    @Setup
+    public void setup() {
+        _camera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(200, 200);
+        _beamCamera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(200, 200) //
+                .setAA(true).setNumberOfRaysInPixel(16) //
+                .set_DOF(true).setApertureSize(4).setFocalDistance(300).setNumberOfRaysInAperture(16);
+    }
+
+    /**
+     * benchmark of the ray through the center of a pixel
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public Ray constructRayThroughPixel() {
+        _pixel = (_pixel + 1) % (PIXELS * PIXELS);
+        return _camera.constructRayThroughPixel(PIXELS, PIXELS, _pixel % PIXELS, _pixel / PIXELS);
+    }
+
+    /**
+     * benchmark of the list of the rays of a pixel's beam
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<Ray> constructRaysThroughPixel() {
+        _pixel = (_pixel + 1) % (PIXELS * PIXELS);
+        return _beamCamera.constructRaysThroughPixel(PIXELS, PIXELS, _pixel % PIXELS, _pixel / PIXELS);
+    }
+
+    /**
+     * benchmark of the rays of a pixel's beam, streamed to the blackhole
+     *
+     * @param blackhole - consumes the rays
+     */
+    @Benchmark
+    public void constructRaysThroughPixelStream(Blackhole blackhole) {
+        _pixel = (_pixel + 1) % (PIXELS * PIXELS);
+        _beamCamera.constructRaysThroughPixel(PIXELS, PIXELS, _pixel % PIXELS, _pixel / PIXELS, blackhole::consume);
+    }
+}
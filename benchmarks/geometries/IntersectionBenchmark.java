@@ -0,0 +1,134 @@
+package geometries;
+
+import geometries.Intersectable.GeoPoint;
+import org.openjdk.jmh.annotations.*;
+import primitives.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the intersections of the geometries and of the bounding box -
+ * the throughput of a single intersection, with a ray which hits the geometries and with a ray which misses them
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntersectionBenchmark {
+    /**
+     * the ray - hits all the geometries, or misses all of them
+     */
+    @Param({"hit", "miss"})
+    public String ray;
+
+    /**
+     * the benchmarked ray
+     */
+    private Ray _ray;
+    /**
+     * the benchmarked geometries
+     */
+    private Sphere _sphere;
+    private Plane _plane;
+    private Polygon _polygon;
+    private Triangle _triangle;
+    private Tube _tube;
+    private Cylinder _cylinder;
+    /**
+     * the benchmarked bounding box
+     */
+    private BoundingBox _box;
+
+    /**
+     * create the geometries around the point (0, 0, 10) and the ray
+     */
+    @Setup
+    public void setup() {
+        _sphere = new Sphere(new Point3D(0, 0, 10), 1);
+        _plane = new Plane(new Point3D(0, 0, 10), new Vector(0, 0, 1));
+        _polygon = new Polygon(new Point3D(-1, -1, 10), new Point3D(1, -1, 10),
+                new Point3D(1, 1, 10), new Point3D(-1, 1, 10));
+        _triangle = new Triangle(new Point3D(-1, -1, 10), new Point3D(1, -1, 10), new Point3D(0, 1, 10));
+        _tube = new Tube(new Ray(new Point3D(0, 0, 10), new Vector(1, 0, 0)), 1);
+        _cylinder = new Cylinder(new Ray(new Point3D(-5, 0, 10), new Vector(1, 0, 0)), 1, 10);
+        _box = new BoundingBox();
+        _box.setBoundingBox(-1, 1, -1, 1, 9, 11);
+
+        _ray = ray.equals("hit") //
+                ? new Ray(new Point3D(0.1, 0.2, 0), new Vector(0, 0, 1)) //
+                : new Ray(new Point3D(5, 5, 0), new Vector(0, 0.1, -1));
+    }
+
+    /**
+     * benchmark of intersections of the sphere
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<GeoPoint> sphere() {
+        return _sphere.findGeoIntersections(_ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * benchmark of intersection of the plane
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<GeoPoint> plane() {
+        return _plane.findGeoIntersections(_ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * benchmark of intersection of the polygon
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<GeoPoint> polygon() {
+        return _polygon.findGeoIntersections(_ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * benchmark of intersection of the triangle
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<GeoPoint> triangle() {
+        return _triangle.findGeoIntersections(_ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * benchmark of intersections of the tube
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<GeoPoint> tube() {
+        return _tube.findGeoIntersections(_ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * benchmark of intersections of the cylinder
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public List<GeoPoint> cylinder() {
+        return _cylinder.findGeoIntersections(_ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * benchmark of intersection of the bounding box
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public boolean boundingBox() {
+        return _box.intersectBV(_ray);
+    }
+}
@@ -0,0 +1,82 @@
+package renderer;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.PointLight;
+import geometries.Sphere;
+import org.openjdk.jmh.annotations.*;
+import primitives.*;
+import scene.Scene;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of the scaling of the multi-threaded rendering - the time of rendering a whole image
+ * of random spheres by a number of threads, pixel by pixel or in Hilbert ordered tiles
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RenderScalingBenchmark {
+    /**
+     * resolution of the image
+     */
+    private static final int PIXELS = 300;
+
+    /**
+     * number of the rendering threads
+     */
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+    /**
+     * size of the tiles' side, 0 renders pixel by pixel
+     */
+    @Param({"0", "16"})
+    public int tileSize;
+
+    /**
+     * the benchmarked rendering
+     */
+    private Render _render;
+
+    /**
+     * build the scene of 300 random spheres, its hierarchy and the rendering
+     */
+    @Setup
+    public void setup() {
+        Scene scene = new Scene("Scaling scene").setAmbientLight(new AmbientLight(new Color(30, 30, 30), 1));
+        Random rand = new Random(7);
+        for (int i = 0; i < 300; ++i) {
+            scene.geometries.add(new Sphere(
+                    new Point3D(rand.nextDouble() * 200 - 100, rand.nextDouble() * 200 - 100, -rand.nextDouble() * 200),
+                    2 + rand.nextDouble() * 6) //
+                    .setEmission(new Color(rand.nextInt(200), rand.nextInt(200), rand.nextInt(200))) //
+                    .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)));
+        }
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(0, 0, 200)));
+        scene.geometries.BuildTreeSAH();
+        Camera camera = new Camera(new Point3D(0, 0, 500), new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(500).setViewPlaneSize(220, 220);
+        _render = new Render() //
+                .setImageWriter(new ImageWriter("scaling", PIXELS, PIXELS)) //
+                .setCamera(camera) //
+                .setRayTracer(new BasicRayTracer(scene).set_bb(true)) //
+                .setMultithreading(threads) //
+                .setTileSize(tileSize).setTileOrder(Render.TileOrder.HILBERT);
+    }
+
+    /**
+     * benchmark of rendering the whole image
+     *
+     * @return the rendered image, so it is not optimized away
+     */
+    @Benchmark
+    public ImageWriter renderImage() {
+        _render.renderImage();
+        return _render.getImageWriter();
+    }
+}
@@ -0,0 +1,82 @@
+package renderer;
+
+import elements.Camera;
+import org.openjdk.jmh.annotations.*;
+import primitives.*;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of tracing the rays of whole scenes - the teapot model ({@link TeapotTest}),
+ * as separate triangles or as one triangle mesh, and the trees of MP1 ({@link MP1}),
+ * through their BVH tree or through the flat BVH.
+ * each invocation traces the ray through the center of the next pixel of the image
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TraceRayBenchmark {
+    /**
+     * resolution of the image
+     */
+    private static final int PIXELS = 200;
+
+    /**
+     * the traced scene
+     */
+    @Param({"teapot", "teapotMesh", "trees"})
+    public String scene;
+    /**
+     * whether the rays are traced through the flat BVH instead of the tree
+     */
+    @Param({"false", "true"})
+    public boolean flatBVH;
+
+    /**
+     * camera of the scene
+     */
+    private Camera _camera;
+    /**
+     * ray tracer of the scene
+     */
+    private BasicRayTracer _tracer;
+    /**
+     * index of the next pixel
+     */
+    private int _pixel;
+
+    /**
+     * build the scene, its hierarchy and its camera (without AA or DOF)
+     */
+    @Setup
+    public void setup() {
+        Scene theScene;
+        if (scene.startsWith("teapot")) {
+            theScene = scene.equals("teapot") ? TeapotTest.createScene() : TeapotTest.createMeshScene();
+            theScene.geometries.BuildTreeSAH();
+            _camera = new Camera(new Point3D(0, 0, -1000), new Vector(0, 0, 1), new Vector(0, 1, 0)) //
+                    .setDistance(1000).setViewPlaneSize(200, 200);
+        } else {
+            theScene = MP1.createTreeScene();
+            theScene.getGeometries().BuildTree();
+            _camera = new Camera(new Point3D(30, 150, 20), new Vector(-5, -27, -3), new Vector(-1.2, -2, 20)) //
+                    .setDistance(200).setViewPlaneSize(250, 250);
+        }
+        _tracer = new BasicRayTracer(theScene).set_bb(true).set_flatBVH(flatBVH);
+    }
+
+    /**
+     * benchmark of the color of the ray through the center of a pixel
+     *
+     * @return the result, so it is not optimized away
+     */
+    @Benchmark
+    public Color traceRay() {
+        _pixel = (_pixel + 1) % (PIXELS * PIXELS);
+        return _tracer.traceRay(_camera.constructRayThroughPixel(PIXELS, PIXELS, _pixel % PIXELS, _pixel / PIXELS));
+    }
+}
@@ -0,0 +1,65 @@
+package scene;
+
+import geometries.TriangleMesh;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmark of loading a large OBJ model - a heightfield of 1M faces ({@link OBJtoMeshTest}),
+ * read into a triangle mesh with its hierarchy. each invocation loads the whole file
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OBJtoMeshBenchmark {
+    /**
+     * number of the squares of the heightfield along each axis (2 faces in every square)
+     */
+    @Param({"708"})
+    public int size;
+
+    /**
+     * the OBJ file
+     */
+    private Path _file;
+
+    /**
+     * write the OBJ file of the heightfield
+     *
+     * @throws IOException if the file can not be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        _file = Files.createTempFile("heightfield", ".obj");
+        OBJtoMeshTest.writeHeightfield(_file, size, new Random(19));
+    }
+
+    /**
+     * delete the OBJ file
+     *
+     * @throws IOException if the file can not be deleted
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.delete(_file);
+    }
+
+    /**
+     * benchmark of loading the model
+     *
+     * @return the mesh, so it is not optimized away
+     * @throws IOException if the file can not be read
+     */
+    @Benchmark
+    public TriangleMesh readMesh() throws IOException {
+        return OBJtoMesh.ReadMesh(_file.toString());
+    }
+}
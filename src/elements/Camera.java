@@ -3,8 +3,8 @@ package elements;
 import primitives.*;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static primitives.Util.alignZero;
 import static primitives.Util.isZero;
@@ -73,6 +73,20 @@ public class Camera {
      * boolean value to set whether the camera has depth of field (bokeh) effect of not
      */
     private boolean _DOF;
+    /**
+     * boolean value to determine adaptive DOF - the rays of a pixel are traced in batches,
+     * until the average color converged or all the rays were traced
+     */
+    private boolean _adaptiveDOF;
+    /**
+     * number of rays in each batch of adaptive DOF
+     */
+    private int _DOFBatchSize = 8;
+    /**
+     * the convergence target of adaptive DOF - maximal half width (in RGB units, 0-255)
+     * of the 95% confidence interval of the pixel's average color
+     */
+    private double _DOFTolerance = 2;
 
 
     // ****************************************** params for AA effect ******************************************
@@ -84,6 +98,19 @@ public class Camera {
      * bolean value to determine anti aliasing
      */
     private boolean _AA;
+    /**
+     * boolean value to determine adaptive anti aliasing - the pixel corners and center are traced first,
+     * and the pixel is subdivided only where their colors differ
+     */
+    private boolean _adaptiveAA;
+    /**
+     * maximal number of recursive subdivisions of a pixel in adaptive anti aliasing
+     */
+    private int _maxAdaptiveDepth = 3;
+    /**
+     * maximal standard deviation (in RGB units, 0-255) of the samples of a square which is not subdivided
+     */
+    private double _adaptiveThreshold = 8;
 
 
 
@@ -181,6 +208,42 @@ public class Camera {
         return _DOF;
     }
 
+    /**
+     * get if adaptive DOF is activated in camera
+     *
+     * @return whether the adaptive DOF is activated or not
+     */
+    public boolean is_adaptiveDOF() {
+        return _adaptiveDOF;
+    }
+
+    /**
+     * get the number of rays in each batch of adaptive DOF
+     *
+     * @return the batch size
+     */
+    public int get_DOFBatchSize() {
+        return _DOFBatchSize;
+    }
+
+    /**
+     * get the convergence target of adaptive DOF
+     *
+     * @return maximal half width of the 95% confidence interval of the pixel's color
+     */
+    public double get_DOFTolerance() {
+        return _DOFTolerance;
+    }
+
+    /**
+     * get the number of rays in a single pixel for super sampling
+     *
+     * @return number of rays in a pixel
+     */
+    public int get_numberOfRaysInPixel() {
+        return _numberOfRaysInPixel;
+    }
+
     /**
      * get if AA is activated in camera
      *
@@ -190,6 +253,33 @@ public class Camera {
         return _AA;
     }
 
+    /**
+     * get if adaptive AA is activated in camera
+     *
+     * @return whether the adaptive AA is activated or not
+     */
+    public boolean is_adaptiveAA() {
+        return _adaptiveAA;
+    }
+
+    /**
+     * get the maximal number of recursive subdivisions of a pixel in adaptive AA
+     *
+     * @return maximal depth
+     */
+    public int get_maxAdaptiveDepth() {
+        return _maxAdaptiveDepth;
+    }
+
+    /**
+     * get the color threshold for subdividing a square in adaptive AA
+     *
+     * @return maximal standard deviation of the samples of a square which is not subdivided
+     */
+    public double get_adaptiveThreshold() {
+        return _adaptiveThreshold;
+    }
+
     /**
      * get width of camera
      *
@@ -285,6 +375,48 @@ public class Camera {
         return this;
     }
 
+    /**
+     * setter - chaining method
+     * adaptive DOF is used when DOF is also on,
+     * the number of rays in the aperture (times the number of rays in the pixel with AA) is the budget of a pixel
+     *
+     * @param adaptiveDOF - does the DOF stop tracing the rays of a pixel when its color converged
+     * @return the camera with the configured adaptive DOF
+     */
+    public Camera setAdaptiveDOF(boolean adaptiveDOF) {
+        _adaptiveDOF = adaptiveDOF;
+        return this;
+    }
+
+    /**
+     * setter - chaining method
+     *
+     * @param batchSize - number of rays in each batch of adaptive DOF
+     * @return the camera with the configured batch size
+     */
+    public Camera setDOFBatchSize(int batchSize) {
+        if (batchSize < 2) {
+            throw new IllegalArgumentException("batch size must be at least 2");
+        }
+        _DOFBatchSize = batchSize;
+        return this;
+    }
+
+    /**
+     * setter - chaining method
+     *
+     * @param tolerance - maximal half width (in RGB units, 0-255) of the 95% confidence interval
+     *                  of the pixel's average color
+     * @return the camera with the configured tolerance
+     */
+    public Camera setDOFTolerance(double tolerance) {
+        if (tolerance < 0) {
+            throw new IllegalArgumentException("tolerance can not be negative");
+        }
+        _DOFTolerance = tolerance;
+        return this;
+    }
+
     /**
      * setter - chaining method
      *
@@ -307,6 +439,47 @@ public class Camera {
         return this;
     }
 
+    /**
+     * setter - chaining method
+     * adaptive AA is used when AA is also on (and DOF is off)
+     *
+     * @param adaptiveAA - does the Anti Aliasing subdivide the pixels adaptively
+     * @return the camera with the configured adaptive AA
+     */
+    public Camera setAdaptiveAA(boolean adaptiveAA) {
+        _adaptiveAA = adaptiveAA;
+        return this;
+    }
+
+    /**
+     * setter - chaining method
+     *
+     * @param maxAdaptiveDepth - maximal number of recursive subdivisions of a pixel (0 - only corners and center)
+     * @return the camera with the configured depth
+     */
+    public Camera setMaxAdaptiveDepth(int maxAdaptiveDepth) {
+        if (maxAdaptiveDepth < 0) {
+            throw new IllegalArgumentException("adaptive depth can not be negative");
+        }
+        _maxAdaptiveDepth = maxAdaptiveDepth;
+        return this;
+    }
+
+    /**
+     * setter - chaining method
+     *
+     * @param adaptiveThreshold - maximal standard deviation (in RGB units, 0-255) of the colors of a square
+     *                          which is not subdivided
+     * @return the camera with the configured threshold
+     */
+    public Camera setAdaptiveThreshold(double adaptiveThreshold) {
+        if (adaptiveThreshold < 0) {
+            throw new IllegalArgumentException("adaptive threshold can not be negative");
+        }
+        _adaptiveThreshold = adaptiveThreshold;
+        return this;
+    }
+
     /**
      * this function gets the view plane size and a selected pixel,
      * and return the ray from the camera which intersects this pixel
@@ -318,6 +491,21 @@ public class Camera {
      * @return - the ray which goes through the pixel
      */
     public Ray constructRayThroughPixel(int nX, int nY, int j, int i) {
+        return constructRayThroughPoint(nX, nY, j, i);
+    }
+
+    /**
+     * this function gets the view plane size and a point on the view plane in pixel units,
+     * and return the ray from the camera which goes through this point.
+     * the center of pixel (j, i) is the point (j, i), so its corners are (j ± 0.5, i ± 0.5)
+     *
+     * @param nX - amount of columns in view plane (number of pixels)
+     * @param nY - amount of rows in view plane (number of pixels)
+     * @param x  - X's coordinate (in pixels)
+     * @param y  - Y's coordinate (in pixels)
+     * @return - the ray which goes through the point
+     */
+    public Ray constructRayThroughPoint(int nX, int nY, double x, double y) {
 
         Point3D Pc = _P0.add(_Vto.scale(_distance)); // image center
 
@@ -325,20 +513,18 @@ public class Camera {
         double Rx = _width / nX;
         double Ry = _height / nY;
 
-        Point3D Pij = Pc;
-        double Yi = -Ry * (i - (nY - 1) / 2d);
-        double Xj = Rx * (j - (nX - 1) / 2d);
+        Point3D Pxy = Pc;
+        double Yi = -Ry * (y - (nY - 1) / 2d);
+        double Xj = Rx * (x - (nX - 1) / 2d);
 
         if (!isZero(Xj)) {
-            Pij = Pij.add(_Vright.scale(Xj));
+            Pxy = Pxy.add(_Vright.scale(Xj));
         }
         if (!isZero(Yi)) {
-            Pij = Pij.add(_Vup.scale(Yi));
+            Pxy = Pxy.add(_Vup.scale(Yi));
         }
 
-        Vector Vij = Pij.subtract(_P0); // vector to pixel center
-
-        return new Ray(_P0, Vij);
+        return new Ray(_P0, Pxy.subtract(_P0));
     }
 
     /**
@@ -352,45 +538,107 @@ public class Camera {
      * @return - the list of rays which goes from the pixel through the focal plane
      */
     public List<Ray> constructRaysThroughPixel(int nX, int nY, int j, int i) {
+        List<Ray> rays = new ArrayList<>();
+        constructRaysThroughPixel(nX, nY, j, i, rays::add);
+        return rays;
+    }
 
-        // the returned list of rays
+    /**
+     * this function gets the view plane size and a selected pixel,
+     * and streams the rays from the pixel through the focal plane to a consumer, one by one, without collecting them
+     * (the same rays as {@link #constructRaysThroughPixel(int, int, int, int)})
+     *
+     * @param nX       - amount of columns in view plane (number of pixels)
+     * @param nY       - amount of rows in view plane (number of pixels)
+     * @param j        - X's index
+     * @param i        - Y's index
+     * @param consumer - receives the rays which goes from the pixel through the focal plane
+     */
+    public void constructRaysThroughPixel(int nX, int nY, int j, int i, Consumer<Ray> consumer) {
+        // if more then one ray is emitted (DOF effect)
+        if (_numberOfRaysInAperture != 1) {
+            double apertureRadius = getApertureRadius(nX, nY);
+            // creating the focal rays (from the aperture on the view plane to the point on the focal plane)
+            // of each ray through the pixel, the original rays included
+            constructAARaysThroughPixel(nX, nY, j, i, ray -> ray.randomRaysInCircle(
+                    ray.getP0(), _Vup, _Vright, apertureRadius, _numberOfRaysInAperture, _focalDistance, consumer));
+        } else {
+            constructAARaysThroughPixel(nX, nY, j, i, consumer);
+        }
+    }
+
+    /**
+     * this function gets the view plane size and a selected pixel,
+     * and return the ray through the pixel center and the rays scattered in the pixel (for AA effect),
+     * without the DOF effect
+     *
+     * @param nX - amount of columns in view plane (number of pixels)
+     * @param nY - amount of rows in view plane (number of pixels)
+     * @param j  - X's index
+     * @param i  - Y's index
+     * @return - the list of rays which goes through the pixel, the center ray first
+     */
+    public List<Ray> constructAARaysThroughPixel(int nX, int nY, int j, int i) {
         List<Ray> rays = new ArrayList<>();
+        constructAARaysThroughPixel(nX, nY, j, i, rays::add);
+        return rays;
+    }
 
-        // add the center ray to the list
+    /**
+     * this function gets the view plane size and a selected pixel,
+     * and streams the ray through the pixel center and the rays scattered in the pixel (for AA effect)
+     * to a consumer, without the DOF effect
+     *
+     * @param nX       - amount of columns in view plane (number of pixels)
+     * @param nY       - amount of rows in view plane (number of pixels)
+     * @param j        - X's index
+     * @param i        - Y's index
+     * @param consumer - receives the rays which goes through the pixel, the center ray first
+     */
+    public void constructAARaysThroughPixel(int nX, int nY, int j, int i, Consumer<Ray> consumer) {
+        // the center ray first
         Ray centerRay = constructRayThroughPixel(nX, nY, j, i);
-        rays.add(centerRay);
-
-        // calculate the actual size of a pixel
-        // pixel height is the division of the view plane height in the number of rows of pixels
-        double pixelHeight = alignZero(_height / nY);   //  Ry = h/Ny
-        // pixel width is the division of the view plane width in the number of columns of pixels
-        double pixelWidth = alignZero(_width / nX);   //  Rx = w/Nx
+        consumer.accept(centerRay);
 
         if (_numberOfRaysInPixel != 1) {
-            rays.addAll(centerRay.randomRaysInGrid(
+            centerRay.randomRaysInGrid(
                     _Vup,
                     _Vright,
                     _numberOfRaysInPixel,
                     _distance,
-                    pixelWidth,
-                    pixelHeight)
-            );
+                    alignZero(_width / nX),
+                    alignZero(_height / nY),
+                    consumer);
         }
+    }
 
-        // if more then one ray is emitted (DOF effect)
-        if (_numberOfRaysInAperture != 1) {
-            List<Ray> temp_rays = new LinkedList<>();
-            // apertureSize is the value of how many pixels it spreads on
-            double apertureRadius = Math.sqrt(_apertureSize * (pixelHeight * pixelWidth)) / 2d;
-            for (Ray ray : rays) {
-                // creating list of focal rays (from the aperture on the view plane to the point on the focal plane)
-                temp_rays.addAll(ray.randomRaysInCircle(ray.getP0(), _Vup, _Vright, apertureRadius, _numberOfRaysInAperture, _focalDistance));
-            }
-            // the original rays included in the temp rays
-            rays = temp_rays;
-        }
+    /**
+     * calculate the radius of the aperture for the DOF effect
+     *
+     * @param nX - amount of columns in view plane (number of pixels)
+     * @param nY - amount of rows in view plane (number of pixels)
+     * @return the radius of the aperture
+     */
+    public double getApertureRadius(int nX, int nY) {
+        // calculate the actual size of a pixel
+        // pixel height is the division of the view plane height in the number of rows of pixels
+        double pixelHeight = alignZero(_height / nY);   //  Ry = h/Ny
+        // pixel width is the division of the view plane width in the number of columns of pixels
+        double pixelWidth = alignZero(_width / nX);   //  Rx = w/Nx
 
-        return rays;
+        // apertureSize is the value of how many pixels it spreads on
+        return Math.sqrt(_apertureSize * (pixelHeight * pixelWidth)) / 2d;
+    }
+
+    /**
+     * create a single ray of the DOF effect - from a random point of the aperture to the focal point of a ray
+     *
+     * @param ray            - a ray through the pixel (from the camera location)
+     * @param apertureRadius - the radius of the aperture
+     * @return the ray from the aperture through the focal plane
+     */
+    public Ray constructFocalRay(Ray ray, double apertureRadius) {
+        return ray.randomRayInCircle(ray.getP0(), _Vup, _Vright, apertureRadius, _focalDistance);
     }
 
 
@@ -31,6 +31,15 @@ public class DirectionalLight extends Light implements LightSource {
         this.direction = direction;
     }
 
+    /**
+     * get the direction of the light
+     *
+     * @return the direction of the light beam
+     */
+    public Vector getDirection() {
+        return direction;
+    }
+
     /**
      * function calculates the color of the light in a given point in the 3D space
      *
@@ -48,6 +48,36 @@ public class PointLight extends Light implements LightSource {
         this.position = position;
     }
 
+    /**
+     * get the position of the light source
+     *
+     * @return the point which the light is being emitted from
+     */
+    public Point3D getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the constant attenuation factor
+     */
+    public double getkC() {
+        return kC;
+    }
+
+    /**
+     * @return the linear attenuation factor
+     */
+    public double getkL() {
+        return kL;
+    }
+
+    /**
+     * @return the quadratic attenuation factor
+     */
+    public double getkQ() {
+        return kQ;
+    }
+
     /**
      * setter - chaining method design pattern
      *
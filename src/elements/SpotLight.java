@@ -33,6 +33,22 @@ public class SpotLight extends PointLight {
         _direction = direction.normalized();
     }
 
+    /**
+     * get the direction of the light
+     *
+     * @return the normalized direction
+     */
+    public Vector getDirection() {
+        return _direction;
+    }
+
+    /**
+     * @return the narrowing factor of the beam
+     */
+    public double getFocus() {
+        return _focus;
+    }
+
     /**
      * setter - chaining method design pattern
      *
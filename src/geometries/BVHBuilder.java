@@ -0,0 +1,289 @@
+package geometries;
+
+import java.util.Arrays;
+
+/**
+ * class which builds a bounding volume hierarchy with the Surface Area Heuristic (SAH).
+ * the centroids of the primitives' bounding boxes are sorted into a fixed number of bins
+ * along the longest axis, and the split between the bins which has the lowest SAH cost is chosen.
+ * every level costs linear time in the number of primitives, so the whole build is O(n log n)
+ * (instead of the O(n^3) closest pair search in {@link Geometries#BuildTree()})
+ */
+class BVHBuilder {
+
+    /**
+     * number of bins used to estimate the SAH cost of the splits along an axis
+     */
+    private static final int BINS = 12;
+
+    /**
+     * maximal number of primitives which may be kept together in one leaf
+     */
+    static final int MAX_LEAF_SIZE = 4;
+
+    /**
+     * relative cost of checking a ray against a bounding box
+     */
+    static final double TRAVERSAL_COST = 1;
+
+    /**
+     * relative cost of intersecting a ray with a primitive
+     */
+    static final double INTERSECTION_COST = 2;
+
+    /**
+     * bounds of the primitives, 6 values per primitive: minX, minY, minZ, maxX, maxY, maxZ
+     */
+    private final double[] _bounds;
+
+    /**
+     * centroids of the primitives' bounds, 3 values per primitive
+     */
+    private final double[] _centroids;
+
+    /**
+     * indices of the primitives, reordered in place by the splits -
+     * every node of the hierarchy covers a continuous range of this array
+     */
+    final int[] order;
+
+    /**
+     * the axis (0 - x, 1 - y, 2 - z) of the last successful split
+     */
+    int splitAxis;
+
+    // reusable buffers for the binning (the build is single threaded)
+    private final int[] _binCount = new int[BINS];
+    private final double[] _binBounds = new double[BINS * 6];
+    private final double[] _rightArea = new double[BINS];
+
+    /**
+     * constructor of the builder
+     *
+     * @param bounds - bounds of the primitives, 6 values per primitive: minX, minY, minZ, maxX, maxY, maxZ
+     * @param count  - number of primitives
+     */
+    BVHBuilder(double[] bounds, int count) {
+        _bounds = bounds;
+        _centroids = new double[count * 3];
+        order = new int[count];
+        for (int i = 0; i < count; ++i) {
+            order[i] = i;
+            for (int axis = 0; axis < 3; ++axis) {
+                _centroids[i * 3 + axis] = (bounds[i * 6 + axis] + bounds[i * 6 + 3 + axis]) / 2d;
+            }
+        }
+    }
+
+    /**
+     * find the best split of the primitives in order[start..end) and partition them accordingly
+     *
+     * @param start - first index of the range (inclusive)
+     * @param end   - last index of the range (exclusive)
+     * @return the index where the right part of the range begins, or -1 if the range should become a leaf
+     */
+    int split(int start, int end) {
+        int count = end - start;
+        if (count <= 1) {
+            return -1;
+        }
+
+        // bounds of the centroids (to choose the axis) and of the whole node (for the SAH normalization)
+        double[] cBox = emptyBox();
+        double[] nodeBox = emptyBox();
+        for (int i = start; i < end; ++i) {
+            int p = order[i];
+            for (int axis = 0; axis < 3; ++axis) {
+                double c = _centroids[p * 3 + axis];
+                cBox[axis] = Math.min(cBox[axis], c);
+                cBox[axis + 3] = Math.max(cBox[axis + 3], c);
+            }
+            grow(nodeBox, 0, _bounds, p * 6);
+        }
+
+        // split along the axis where the centroids are spread the most
+        int axis = 0;
+        for (int a = 1; a < 3; ++a) {
+            if (cBox[a + 3] - cBox[a] > cBox[axis + 3] - cBox[axis]) {
+                axis = a;
+            }
+        }
+        double min = cBox[axis];
+        double extent = cBox[axis + 3] - min;
+
+        // all the centroids are in the same point - no split would separate them
+        if (extent <= 0) {
+            if (count <= MAX_LEAF_SIZE) {
+                return -1;
+            }
+            splitAxis = axis;
+            return start + count / 2;
+        }
+
+        // sort the primitives into the bins
+        double scale = BINS / extent;
+        Arrays.fill(_binCount, 0);
+        for (int b = 0; b < BINS; ++b) {
+            setEmpty(_binBounds, b * 6);
+        }
+        for (int i = start; i < end; ++i) {
+            int p = order[i];
+            int b = bin(_centroids[p * 3 + axis], min, scale);
+            ++_binCount[b];
+            grow(_binBounds, b * 6, _bounds, p * 6);
+        }
+
+        // sweep from the right to get the area of everything right of each split plane
+        double[] box = emptyBox();
+        for (int b = BINS - 1; b > 0; --b) {
+            grow(box, 0, _binBounds, b * 6);
+            _rightArea[b] = area(box, 0);
+        }
+
+        // sweep from the left and evaluate the cost of each split plane
+        setEmpty(box, 0);
+        int leftCount = 0;
+        int bestBin = -1;
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (int b = 1; b < BINS; ++b) {
+            grow(box, 0, _binBounds, (b - 1) * 6);
+            leftCount += _binCount[b - 1];
+            int rightCount = count - leftCount;
+            if (leftCount == 0 || rightCount == 0) {
+                continue;
+            }
+            double cost = area(box, 0) * leftCount + _rightArea[b] * rightCount;
+            if (cost < bestCost) {
+                bestCost = cost;
+                bestBin = b;
+            }
+        }
+
+        // compare the split with keeping all the primitives in one leaf
+        double nodeArea = area(nodeBox, 0);
+        if (count <= MAX_LEAF_SIZE
+                && (bestBin == -1 || (nodeArea > 0 &&
+                TRAVERSAL_COST + INTERSECTION_COST * bestCost / nodeArea >= INTERSECTION_COST * count))) {
+            return -1;
+        }
+
+        // partition the range according to the chosen bin
+        int mid = start;
+        if (bestBin != -1) {
+            int j = end - 1;
+            while (mid <= j) {
+                if (bin(_centroids[order[mid] * 3 + axis], min, scale) < bestBin) {
+                    ++mid;
+                } else {
+                    int temp = order[mid];
+                    order[mid] = order[j];
+                    order[j--] = temp;
+                }
+            }
+        }
+        // guard against a degenerate partition (rounding of the bins)
+        if (mid == start || mid == end) {
+            mid = start + count / 2;
+        }
+        splitAxis = axis;
+        return mid;
+    }
+
+    /**
+     * get the bin of a centroid coordinate
+     *
+     * @param c     - the centroid coordinate on the split axis
+     * @param min   - minimal centroid coordinate on the split axis
+     * @param scale - number of bins divided by the centroids extent
+     * @return the index of the bin
+     */
+    private static int bin(double c, double min, double scale) {
+        return Math.min(BINS - 1, (int) ((c - min) * scale));
+    }
+
+    /**
+     * @return a new empty box: minimums are +infinity and maximums are -infinity
+     */
+    static double[] emptyBox() {
+        double[] box = new double[6];
+        setEmpty(box, 0);
+        return box;
+    }
+
+    /**
+     * reset a box stored in an array to the empty box
+     *
+     * @param box    - the array of boxes
+     * @param offset - offset of the box in the array
+     */
+    static void setEmpty(double[] box, int offset) {
+        for (int axis = 0; axis < 3; ++axis) {
+            box[offset + axis] = Double.POSITIVE_INFINITY;
+            box[offset + 3 + axis] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * grow a box to contain another box
+     *
+     * @param box         - the array of the box to grow
+     * @param offset      - offset of the box to grow
+     * @param other       - the array of the contained box
+     * @param otherOffset - offset of the contained box
+     */
+    static void grow(double[] box, int offset, double[] other, int otherOffset) {
+        for (int axis = 0; axis < 3; ++axis) {
+            box[offset + axis] = Math.min(box[offset + axis], other[otherOffset + axis]);
+            box[offset + 3 + axis] = Math.max(box[offset + 3 + axis], other[otherOffset + 3 + axis]);
+        }
+    }
+
+    /**
+     * calculate the surface area of a box
+     *
+     * @param box    - the array of boxes
+     * @param offset - offset of the box in the array
+     * @return the surface area of the box, 0 for an empty box
+     */
+    static double area(double[] box, int offset) {
+        double dx = box[offset + 3] - box[offset];
+        double dy = box[offset + 4] - box[offset + 1];
+        double dz = box[offset + 5] - box[offset + 2];
+        if (dx < 0 || dy < 0 || dz < 0) {
+            return 0;
+        }
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * calculate the surface area of a bounding box
+     *
+     * @param box - the bounding box
+     * @return the surface area of the box, 0 for an empty box
+     */
+    static double area(BoundingBox box) {
+        return area(new double[]{
+                box.getMinX(), box.getMinY(), box.getMinZ(),
+                box.getMaxX(), box.getMaxY(), box.getMaxZ()}, 0);
+    }
+
+    /**
+     * estimate the expected cost of tracing a ray through a hierarchy of containers with the SAH:
+     * the probability that a ray which hits a node also hits its child is the ratio of their surface areas
+     *
+     * @param container - the root of the hierarchy
+     * @return the SAH cost of the hierarchy, in units of {@link #TRAVERSAL_COST} and {@link #INTERSECTION_COST}
+     */
+    static double sahCost(Container container) {
+        if (!(container instanceof Geometries)) {
+            return INTERSECTION_COST;
+        }
+        double area = area(container._boundingBox);
+        double cost = 0;
+        for (Container child : ((Geometries) container).getContainers()) {
+            double ratio = area > 0 ? area(child._boundingBox) / area : 1;
+            cost += TRAVERSAL_COST + ratio * sahCost(child);
+        }
+        return cost;
+    }
+}
@@ -219,6 +219,116 @@ public class BoundingBox {
         return (!(t_xMin > t_zMax)) && (!(t_zMin > t_xMax));
     }
 
+    /**
+     * Function which calculates the distance where a ray enters the bounding region
+     *
+     * @param ray the ray to check for intersection
+     * @return the distance from the ray's starting point to the bounding region (0 if the ray starts inside it),
+     * or positive infinity if the ray does not intersect the bounding region
+     */
+    public double entryDistance(Ray ray) {
+        Point3D p0 = ray.getP0();
+        Point3D dirHead = ray.getDir().getHead();
+
+        double tMin = 0;
+        double tMax = Double.POSITIVE_INFINITY;
+
+        // same slabs method as in intersectBV, for all 3 axes (unrolled, so nothing is allocated per ray):
+        // narrow the range [tMin, tMax] of distances where the ray is between the two planes of the axis
+        // x axis
+        double dX = dirHead.getX();
+        double oX = p0.getX();
+        if (dX == 0) {
+            // parallel to the axis - the ray is either between the planes or misses the box
+            if (oX < _xMin || oX > _xMax) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_xMin - oX) / dX;
+            double t2 = (_xMax - oX) / dX;
+            if (dX < 0) {
+                double temp = t1;
+                t1 = t2;
+                t2 = temp;
+            }
+            // the box is behind the ray
+            if (t2 <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            tMin = Math.max(tMin, t1);
+            tMax = Math.min(tMax, t2);
+            if (tMin > tMax) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // y axis
+        double dY = dirHead.getY();
+        double oY = p0.getY();
+        if (dY == 0) {
+            // parallel to the axis - the ray is either between the planes or misses the box
+            if (oY < _yMin || oY > _yMax) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_yMin - oY) / dY;
+            double t2 = (_yMax - oY) / dY;
+            if (dY < 0) {
+                double temp = t1;
+                t1 = t2;
+                t2 = temp;
+            }
+            // the box is behind the ray
+            if (t2 <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            tMin = Math.max(tMin, t1);
+            tMax = Math.min(tMax, t2);
+            if (tMin > tMax) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        // z axis
+        double dZ = dirHead.getZ();
+        double oZ = p0.getZ();
+        if (dZ == 0) {
+            // parallel to the axis - the ray is either between the planes or misses the box
+            if (oZ < _zMin || oZ > _zMax) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_zMin - oZ) / dZ;
+            double t2 = (_zMax - oZ) / dZ;
+            if (dZ < 0) {
+                double temp = t1;
+                t1 = t2;
+                t2 = temp;
+            }
+            // the box is behind the ray
+            if (t2 <= 0) {
+                return Double.POSITIVE_INFINITY;
+            }
+            tMin = Math.max(tMin, t1);
+            tMax = Math.min(tMax, t2);
+            if (tMin > tMax) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+        return tMin;
+    }
+
+    /**
+     * check whether the bounding box is a finite box (not empty and not infinite)
+     *
+     * @return true if all the minimum and maximum values are finite and ordered, false otherwise
+     */
+    public boolean isFinite() {
+        return Double.isFinite(_xMin) && Double.isFinite(_xMax) && _xMin <= _xMax &&
+                Double.isFinite(_yMin) && Double.isFinite(_yMax) && _yMin <= _yMax &&
+                Double.isFinite(_zMin) && Double.isFinite(_zMax) && _zMin <= _zMax;
+    }
+
     /**
      * calculate volume of BoundingBox
      *
@@ -0,0 +1,518 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * class represents a compiled, read only bounding volume hierarchy.
+ * instead of nested containers (each with its own bounding box object), the nodes are packed
+ * in depth first order into two arrays - one for the bounds and one for the child/primitive offsets,
+ * and the traversal uses an explicit stack of node indices, without recursion and without lists of children.
+ * the hierarchy is built with the SAH builder over all the simple geometries of the compiled composite,
+ * later changes in the composite are not reflected in the compiled hierarchy
+ */
+public class FlatBVH extends Container {
+
+    /**
+     * bounds of the nodes, 6 values per node: minX, minY, minZ, maxX, maxY, maxZ
+     */
+    private final double[] _nodeBounds;
+
+    /**
+     * 2 values per node:
+     * for an inner node - the index of the right child (the left child is always the next node)
+     * and -(split axis + 1),
+     * for a leaf - the offset of its first primitive in the primitives array and the number of primitives
+     */
+    private final int[] _nodeData;
+
+    /**
+     * number of nodes in the hierarchy
+     */
+    private final int _nodeCount;
+
+    /**
+     * the primitives, ordered so every leaf covers a continuous range
+     */
+    private final Container[] _primitives;
+
+    /**
+     * components without a finite bounding box (e.g. planes), which are checked for every ray
+     */
+    private final Container[] _unbounded;
+
+    /**
+     * maximal depth of the hierarchy, which is the size of the traversal stack
+     */
+    private final int _maxDepth;
+
+    /**
+     * the traversal stack of every thread, of the maximal depth of the hierarchy -
+     * a query does not query this object again, so a thread uses a single stack
+     */
+    private final ThreadLocal<int[]> _stack;
+
+    /**
+     * constructor which compiles the hierarchy from a composite of geometries
+     *
+     * @param geometries - the geometries to compile
+     */
+    public FlatBVH(Geometries geometries) {
+        geometries.setBoundingBox();
+
+        // collect the simple components of the composite
+        List<Container> bounded = new ArrayList<>();
+        List<Container> unbounded = new LinkedList<>();
+        collect(geometries, bounded, unbounded);
+        _unbounded = unbounded.toArray(new Container[0]);
+
+        int n = bounded.size();
+        double[] bounds = new double[n * 6];
+        for (int i = 0; i < n; ++i) {
+            BoundingBox box = bounded.get(i)._boundingBox;
+            bounds[i * 6] = box.getMinX();
+            bounds[i * 6 + 1] = box.getMinY();
+            bounds[i * 6 + 2] = box.getMinZ();
+            bounds[i * 6 + 3] = box.getMaxX();
+            bounds[i * 6 + 4] = box.getMaxY();
+            bounds[i * 6 + 5] = box.getMaxZ();
+        }
+
+        // a binary tree with n leaves has at most 2n - 1 nodes
+        int maxNodes = Math.max(1, 2 * n - 1);
+        double[] nodeBounds = new double[maxNodes * 6];
+        int[] nodeData = new int[maxNodes * 2];
+        _primitives = new Container[n];
+
+        int nodeCount = 0;
+        int[] maxDepth = {0};
+        if (n > 0) {
+            BVHBuilder builder = new BVHBuilder(bounds, n);
+            nodeCount = emit(builder, bounds, nodeBounds, nodeData, 0, n, 0, 1, maxDepth);
+            for (int i = 0; i < n; ++i) {
+                _primitives[i] = bounded.get(builder.order[i]);
+            }
+        }
+        _nodeCount = nodeCount;
+        _nodeBounds = nodeBounds;
+        _nodeData = nodeData;
+        _maxDepth = maxDepth[0];
+        _stack = ThreadLocal.withInitial(() -> new int[_maxDepth + 1]);
+
+        // the bounding box of the whole hierarchy
+        _boundingBox = new BoundingBox();
+        if (_nodeCount > 0) {
+            _boundingBox.setBoundingBox(
+                    _nodeBounds[0], _nodeBounds[3],
+                    _nodeBounds[1], _nodeBounds[4],
+                    _nodeBounds[2], _nodeBounds[5]);
+        }
+    }
+
+    /**
+     * recursive func to gather the simple components of a composite
+     *
+     * @param geometries - the composite
+     * @param bounded    - the list to add the components with a finite bounding box to
+     * @param unbounded  - the list to add the components without a finite bounding box to
+     */
+    private static void collect(Geometries geometries, List<Container> bounded, List<Container> unbounded) {
+        for (Container container : geometries.getContainers()) {
+            if (container instanceof Geometries) {
+                collect((Geometries) container, bounded, unbounded);
+            } else if (container._boundingBox != null && container._boundingBox.isFinite()) {
+                bounded.add(container);
+            } else {
+                unbounded.add(container);
+            }
+        }
+    }
+
+    /**
+     * recursive func to write a node of the hierarchy (and its subtree) in depth first order
+     *
+     * @param builder    - the SAH builder which holds the order of the primitives
+     * @param bounds     - the bounds of the primitives
+     * @param nodeBounds - the array of the nodes' bounds to fill
+     * @param nodeData   - the array of the nodes' offsets to fill
+     * @param start      - first index of the range in the builder's order (inclusive)
+     * @param end        - last index of the range in the builder's order (exclusive)
+     * @param node       - the index of the node to write
+     * @param depth      - the depth of the node
+     * @param maxDepth   - holder of the maximal depth of the written nodes, updated by the subtree
+     * @return the index of the next free node
+     */
+    private static int emit(BVHBuilder builder, double[] bounds, double[] nodeBounds, int[] nodeData,
+                            int start, int end, int node, int depth, int[] maxDepth) {
+        maxDepth[0] = Math.max(maxDepth[0], depth);
+
+        BVHBuilder.setEmpty(nodeBounds, node * 6);
+        for (int i = start; i < end; ++i) {
+            BVHBuilder.grow(nodeBounds, node * 6, bounds, builder.order[i] * 6);
+        }
+
+        int mid = builder.split(start, end);
+        if (mid < 0) {
+            nodeData[node * 2] = start;
+            nodeData[node * 2 + 1] = end - start;
+            return node + 1;
+        }
+
+        int axis = builder.splitAxis;
+        int right = emit(builder, bounds, nodeBounds, nodeData, start, mid, node + 1, depth + 1, maxDepth);
+        nodeData[node * 2] = right;
+        nodeData[node * 2 + 1] = -(axis + 1);
+        return emit(builder, bounds, nodeBounds, nodeData, mid, end, right, depth + 1, maxDepth);
+    }
+
+    /**
+     * get the number of nodes in the hierarchy
+     *
+     * @return number of nodes
+     */
+    public int getNodeCount() {
+        return _nodeCount;
+    }
+
+    /**
+     * check a ray against the bounds of a node (slab test)
+     *
+     * @param node        - the index of the node
+     * @param oX          - x of the starting point of the ray
+     * @param oY          - y of the starting point of the ray
+     * @param oZ          - z of the starting point of the ray
+     * @param iX          - the inverse of x of the direction of the ray
+     * @param iY          - the inverse of y of the direction of the ray
+     * @param iZ          - the inverse of z of the direction of the ray
+     * @param maxDistance - the upper bound of distance
+     * @return the distance where the ray enters the node's bounds (0 if it starts inside),
+     * or positive infinity if the ray misses the bounds within the distance
+     */
+    private double entryDistance(int node, double oX, double oY, double oZ,
+                                 double iX, double iY, double iZ, double maxDistance) {
+        int offset = node * 6;
+        double tMin = 0;
+        double tMax = maxDistance;
+        // the axes are unrolled, a ray which is parallel to an axis (infinite inverse)
+        // is either between the slabs of the axis or misses the box
+        if (Double.isInfinite(iX)) {
+            if (oX < _nodeBounds[offset] || oX > _nodeBounds[offset + 3]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_nodeBounds[offset] - oX) * iX;
+            double t2 = (_nodeBounds[offset + 3] - oX) * iX;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // y axis
+        if (Double.isInfinite(iY)) {
+            if (oY < _nodeBounds[offset + 1] || oY > _nodeBounds[offset + 4]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_nodeBounds[offset + 1] - oY) * iY;
+            double t2 = (_nodeBounds[offset + 4] - oY) * iY;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // z axis
+        if (Double.isInfinite(iZ)) {
+            if (oZ < _nodeBounds[offset + 2] || oZ > _nodeBounds[offset + 5]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_nodeBounds[offset + 2] - oZ) * iZ;
+            double t2 = (_nodeBounds[offset + 5] - oZ) * iZ;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin > tMax ? Double.POSITIVE_INFINITY : tMin;
+    }
+
+    /**
+     * find all the intersections of the ray, without counting the traversal
+     *
+     * @see #findGeoIntersections(Ray, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
+        return findGeoIntersections(ray, maxDistance, bb, null);
+    }
+
+    /**
+     * a method that receive a ray and find all intersections of this ray with the compiled geometries,
+     * the hierarchy is always used (regardless of the bounding box flag)
+     *
+     * @param ray         - the ray to be checked with the shapes
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          - ignored, the compiled hierarchy is a bounding volume structure
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return list of all intersections in a form of GeoPoint
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb,
+                                               TraversalStatistics statistics) {
+        List<GeoPoint> intersections = new LinkedList<>();
+
+        for (Container container : _unbounded) {
+            if (statistics != null) {
+                statistics.countTest(container);
+            }
+            List<GeoPoint> geoIntersections = container.findGeoIntersections(ray, maxDistance, false, statistics);
+            if (geoIntersections != null) {
+                intersections.addAll(geoIntersections);
+            }
+        }
+
+        if (_nodeCount > 0) {
+            Point3D p0 = ray.getP0();
+            Point3D dir = ray.getDir().getHead();
+            double oX = p0.getX(), oY = p0.getY(), oZ = p0.getZ();
+            double iX = 1 / dir.getX(), iY = 1 / dir.getY(), iZ = 1 / dir.getZ();
+
+            int[] stack = _stack.get();
+            int top = 0;
+            int node = 0;
+            while (true) {
+                if (statistics != null) {
+                    statistics.countNodeVisit();
+                }
+                if (entryDistance(node, oX, oY, oZ, iX, iY, iZ, maxDistance) != Double.POSITIVE_INFINITY) {
+                    int count = _nodeData[node * 2 + 1];
+                    // inner node - visit the left child now and the right child later
+                    if (count < 0) {
+                        stack[top++] = _nodeData[node * 2];
+                        ++node;
+                        continue;
+                    }
+                    // leaf - intersect its primitives
+                    int first = _nodeData[node * 2];
+                    for (int i = first; i < first + count; ++i) {
+                        if (statistics != null) {
+                            statistics.countTest(_primitives[i]);
+                        }
+                        List<GeoPoint> geoIntersections =
+                                _primitives[i].findGeoIntersections(ray, maxDistance, false, statistics);
+                        if (geoIntersections != null) {
+                            intersections.addAll(geoIntersections);
+                        }
+                    }
+                }
+                if (top == 0) {
+                    break;
+                }
+                node = stack[--top];
+            }
+        }
+
+        if (intersections.size() > 0) {
+            return intersections;
+        }
+        return null;
+    }
+
+    /**
+     * find the closest intersection of the ray, without counting the traversal
+     *
+     * @see #findClosestGeoIntersection(Ray, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb) {
+        return findClosestGeoIntersection(ray, maxDistance, bb, null);
+    }
+
+    /**
+     * a method that receive a ray and find the closest intersection of this ray with the compiled geometries.
+     * the children of every node are visited front-to-back according to the direction of the ray
+     * on the node's split axis, and the distance bound shrinks whenever a closer point is found,
+     * so nodes whose bounds are entered beyond the best point so far are skipped
+     *
+     * @param ray         - the ray to be checked with the shapes
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          - ignored, the compiled hierarchy is a bounding volume structure
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb,
+                                               TraversalStatistics statistics) {
+        Point3D p0 = ray.getP0();
+        GeoPoint closest = null;
+        double best = maxDistance;
+
+        // the unbounded components first - they give an initial distance bound for the hierarchy
+        for (Container container : _unbounded) {
+            if (statistics != null) {
+                statistics.countTest(container);
+            }
+            GeoPoint geoPoint = container.findClosestGeoIntersection(ray, best, false, statistics);
+            if (geoPoint != null) {
+                double distance = geoPoint.point.distance(p0);
+                if (closest == null || distance < best) {
+                    best = distance;
+                    closest = geoPoint;
+                }
+            }
+        }
+
+        if (_nodeCount == 0) {
+            return closest;
+        }
+
+        Point3D dir = ray.getDir().getHead();
+        double oX = p0.getX(), oY = p0.getY(), oZ = p0.getZ();
+        double dX = dir.getX(), dY = dir.getY(), dZ = dir.getZ();
+        double iX = 1 / dX, iY = 1 / dY, iZ = 1 / dZ;
+
+        int[] stack = _stack.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (statistics != null) {
+                statistics.countNodeVisit();
+            }
+            // the bounds are checked against the current best distance, also for nodes popped from the stack
+            if (entryDistance(node, oX, oY, oZ, iX, iY, iZ, best) != Double.POSITIVE_INFINITY) {
+                int count = _nodeData[node * 2 + 1];
+                // inner node - visit the near child now and the far child later
+                if (count < 0) {
+                    int axis = -count - 1;
+                    int left = node + 1;
+                    int right = _nodeData[node * 2];
+                    if ((axis == 0 ? dX : axis == 1 ? dY : dZ) >= 0) {
+                        stack[top++] = right;
+                        node = left;
+                    } else {
+                        stack[top++] = left;
+                        node = right;
+                    }
+                    continue;
+                }
+                // leaf - intersect its primitives within the current best distance
+                int first = _nodeData[node * 2];
+                for (int i = first; i < first + count; ++i) {
+                    if (statistics != null) {
+                        statistics.countTest(_primitives[i]);
+                    }
+                    GeoPoint geoPoint = _primitives[i].findClosestGeoIntersection(ray, best, false, statistics);
+                    if (geoPoint != null) {
+                        double distance = geoPoint.point.distance(p0);
+                        if (closest == null || distance < best) {
+                            best = distance;
+                            closest = geoPoint;
+                        }
+                    }
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+        return closest;
+    }
+
+    /**
+     * find the transparency along the ray, without counting the traversal
+     *
+     * @see #findTransparency(Ray, double, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb) {
+        return findTransparency(ray, maxDistance, minKt, bb, null);
+    }
+
+    /**
+     * occlusion query - multiply the transparency of the compiled geometries along the ray up to a distance.
+     * the order of the nodes does not matter here, so the traversal stops
+     * at the first geometry which drops the product below the minimum (e.g. an opaque one)
+     *
+     * @param ray         - ray from the point towards the light
+     * @param maxDistance - the distance of the light, intersections beyond it do not block the light
+     * @param minKt       - the minimal transparency which is still considered, below it the ray is blocked
+     * @param bb          - ignored, the compiled hierarchy is a bounding volume structure
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the transparency along the ray, 1.0 if nothing blocks it and 0.0 if it is blocked
+     */
+    @Override
+    public double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb,
+                                   TraversalStatistics statistics) {
+        double ktr = 1.0;
+        for (Container container : _unbounded) {
+            if (statistics != null) {
+                statistics.countTest(container);
+            }
+            ktr *= container.findTransparency(ray, maxDistance, minKt / ktr, false, statistics);
+            if (ktr < minKt) {
+                return 0.0;
+            }
+        }
+
+        if (_nodeCount == 0) {
+            return ktr;
+        }
+
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double oX = p0.getX(), oY = p0.getY(), oZ = p0.getZ();
+        double dX = dir.getX(), dY = dir.getY(), dZ = dir.getZ();
+        double iX = 1 / dX, iY = 1 / dY, iZ = 1 / dZ;
+
+        int[] stack = _stack.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (statistics != null) {
+                statistics.countNodeVisit();
+            }
+            if (entryDistance(node, oX, oY, oZ, iX, iY, iZ, maxDistance) != Double.POSITIVE_INFINITY) {
+                int count = _nodeData[node * 2 + 1];
+                if (count < 0) {
+                    stack[top++] = _nodeData[node * 2];
+                    ++node;
+                    continue;
+                }
+                int first = _nodeData[node * 2];
+                for (int i = first; i < first + count; ++i) {
+                    if (statistics != null) {
+                        statistics.countTest(_primitives[i]);
+                    }
+                    ktr *= _primitives[i].findTransparency(ray, maxDistance, minKt / ktr, false, statistics);
+                    if (ktr < minKt) {
+                        return 0.0;
+                    }
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+        return ktr;
+    }
+
+    /**
+     * the compiled hierarchy is read only, its bounding box is set when it is compiled
+     */
+    @Override
+    public void setBoundingBox() {
+    }
+
+    @Override
+    public String toString() {
+        return "FlatBVH{" +
+                "nodes=" + _nodeCount +
+                ", primitives=" + _primitives.length +
+                ", unbounded=" + _unbounded.length +
+                '}';
+    }
+}
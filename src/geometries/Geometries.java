@@ -2,7 +2,9 @@ package geometries;
 
 import primitives.Ray;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -17,6 +19,35 @@ public class Geometries extends Container {
      */
     private List<Container> _containers = null;
 
+    /**
+     * maximal number of components which are ordered front-to-back in the closest intersection search
+     */
+    private static final int MAX_SORTED_COMPONENTS = 8;
+
+    /**
+     * the arrays which the components are ordered in by the closest intersection search of a thread -
+     * a pair of arrays for every level of the nested composites which the search is in
+     */
+    private static final class SortScratch {
+        /**
+         * the components whose boxes are entered by the ray, by level
+         */
+        private Container[][] hits = new Container[0][];
+        /**
+         * the distances where the ray enters the boxes of the components, by level
+         */
+        private double[][] entries = new double[0][];
+        /**
+         * the level of the current search (the number of searches which it is nested in)
+         */
+        private int depth = 0;
+    }
+
+    /**
+     * the ordering arrays of every thread, so the search allocates nothing after its deepest level was reached
+     */
+    private static final ThreadLocal<SortScratch> SORT_SCRATCH = ThreadLocal.withInitial(SortScratch::new);
+
     /**
      * constructor of class, creates the list and for now it is empty.
      * implements as a linked list that allows to delete members if necessary.
@@ -68,27 +99,57 @@ public class Geometries extends Container {
         _containers.addAll(geometries);
     }
 
+    /**
+     * getter for the components of this composite
+     *
+     * @return the list of the components (read only)
+     */
+    public List<Container> getContainers() {
+        return Collections.unmodifiableList(_containers);
+    }
+
+    /**
+     * find all the intersections of the ray, without counting the traversal
+     *
+     * @see #findGeoIntersections(Ray, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
+        return findGeoIntersections(ray, maxDistance, bb, null);
+    }
+
     /**
      * a method that receive a ray and find all intersections of this ray with the shapes in this class
      *
      * @param ray         - the ray to be checked with the shapes
      * @param maxDistance - the upper bound of distance, any point which
      *                    its distance is greater than this bound will not be returned
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
      * @return list of all intersections in a form of GeoPoint
      */
     @Override
-    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb,
+                                               TraversalStatistics statistics) {
+        if (statistics != null) {
+            statistics.countNodeVisit();
+        }
         List<GeoPoint> intersections = new LinkedList<>();
         for (Container geometry : _containers) {
             // declare list as null
             List<Intersectable.GeoPoint> geoIntersections = null;
             // if we don't want to use bounding boxes, find intersections as usual
             if (!bb) {
-                geoIntersections = geometry.findGeoIntersections(ray, maxDistance, false);
+                if (statistics != null) {
+                    statistics.countTest(geometry);
+                }
+                geoIntersections = geometry.findGeoIntersections(ray, maxDistance, false, statistics);
             }
             // but if we do want to use it, if the ray intersects the bounding box...
             else if (geometry._boundingBox.intersectBV(ray)) {
-                geoIntersections = geometry.findGeoIntersections(ray, maxDistance, true);
+                if (statistics != null) {
+                    statistics.countTest(geometry);
+                }
+                geoIntersections = geometry.findGeoIntersections(ray, maxDistance, true, statistics);
             }
             // else - geoIntersections will stay null as defined earlier..
 
@@ -104,6 +165,182 @@ public class Geometries extends Container {
     }
 
 
+    /**
+     * find the closest intersection of the ray, without counting the traversal
+     *
+     * @see #findClosestGeoIntersection(Ray, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb) {
+        return findClosestGeoIntersection(ray, maxDistance, bb, null);
+    }
+
+    /**
+     * a method that receive a ray and find the closest intersection of this ray with the shapes in this class.
+     * the distance bound shrinks whenever a closer point is found, and with bounding boxes the components
+     * are visited front-to-back by the distance where the ray enters their boxes, so components whose box
+     * is entered beyond the best point so far are skipped
+     *
+     * @param ray         - the ray to be checked with the shapes
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          - whether to use the bounding boxes of the components
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb,
+                                               TraversalStatistics statistics) {
+        if (statistics != null) {
+            statistics.countNodeVisit();
+        }
+        GeoPoint closest = null;
+        double best = maxDistance;
+
+        // without bounding boxes, only the distance bound prunes the search
+        if (!bb) {
+            for (Container geometry : _containers) {
+                if (statistics != null) {
+                    statistics.countTest(geometry);
+                }
+                GeoPoint geoPoint = geometry.findClosestGeoIntersection(ray, best, false, statistics);
+                if (geoPoint != null) {
+                    double distance = geoPoint.point.distance(ray.getP0());
+                    if (closest == null || distance < best) {
+                        best = distance;
+                        closest = geoPoint;
+                    }
+                }
+            }
+            return closest;
+        }
+
+        // an unbuilt composite may have thousands of components, it is scanned in order with the distance check only
+        if (_containers.size() > MAX_SORTED_COMPONENTS) {
+            for (Container geometry : _containers) {
+                // the box is entered after the best point so far
+                if (geometry._boundingBox.entryDistance(ray) > best) {
+                    continue;
+                }
+                if (statistics != null) {
+                    statistics.countTest(geometry);
+                }
+                GeoPoint geoPoint = geometry.findClosestGeoIntersection(ray, best, true, statistics);
+                if (geoPoint != null) {
+                    double distance = geoPoint.point.distance(ray.getP0());
+                    if (closest == null || distance < best) {
+                        best = distance;
+                        closest = geoPoint;
+                    }
+                }
+            }
+            return closest;
+        }
+
+        // the nodes of a built tree have only a few components, they are ordered front-to-back
+        // in the arrays of this level of the search
+        SortScratch scratch = SORT_SCRATCH.get();
+        int depth = scratch.depth;
+        if (depth == scratch.hits.length) {
+            scratch.hits = Arrays.copyOf(scratch.hits, depth + 1);
+            scratch.entries = Arrays.copyOf(scratch.entries, depth + 1);
+            scratch.hits[depth] = new Container[MAX_SORTED_COMPONENTS];
+            scratch.entries[depth] = new double[MAX_SORTED_COMPONENTS];
+        }
+        Container[] hits = scratch.hits[depth];
+        double[] entries = scratch.entries[depth];
+
+        // find where the ray enters the box of every component
+        int count = 0;
+        for (Container geometry : _containers) {
+            double entry = geometry._boundingBox.entryDistance(ray);
+            if (entry <= best) {
+                hits[count] = geometry;
+                entries[count++] = entry;
+            }
+        }
+        for (int i = 1; i < count; ++i) {
+            Container geometry = hits[i];
+            double entry = entries[i];
+            int j = i - 1;
+            for (; j >= 0 && entries[j] > entry; --j) {
+                hits[j + 1] = hits[j];
+                entries[j + 1] = entries[j];
+            }
+            hits[j + 1] = geometry;
+            entries[j + 1] = entry;
+        }
+
+        // the components search the arrays of the next level
+        scratch.depth = depth + 1;
+        try {
+            for (int i = 0; i < count; ++i) {
+                // the box is entered after the best point so far, and so are the boxes after it
+                if (entries[i] > best) {
+                    break;
+                }
+                if (statistics != null) {
+                    statistics.countTest(hits[i]);
+                }
+                GeoPoint geoPoint = hits[i].findClosestGeoIntersection(ray, best, true, statistics);
+                if (geoPoint != null) {
+                    double distance = geoPoint.point.distance(ray.getP0());
+                    if (closest == null || distance < best) {
+                        best = distance;
+                        closest = geoPoint;
+                    }
+                }
+            }
+        } finally {
+            scratch.depth = depth;
+        }
+        return closest;
+    }
+
+    /**
+     * find the transparency along the ray, without counting the traversal
+     *
+     * @see #findTransparency(Ray, double, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb) {
+        return findTransparency(ray, maxDistance, minKt, bb, null);
+    }
+
+    /**
+     * occlusion query - multiply the transparency of the components along the ray up to a distance,
+     * and stop at the first component which drops the product below the minimum (e.g. an opaque one)
+     *
+     * @param ray         - ray from the point towards the light
+     * @param maxDistance - the distance of the light, intersections beyond it do not block the light
+     * @param minKt       - the minimal transparency which is still considered, below it the ray is blocked
+     * @param bb          - whether to use the bounding boxes of the components
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the transparency along the ray, 1.0 if nothing blocks it and 0.0 if it is blocked
+     */
+    @Override
+    public double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb,
+                                   TraversalStatistics statistics) {
+        if (statistics != null) {
+            statistics.countNodeVisit();
+        }
+        double ktr = 1.0;
+        for (Container geometry : _containers) {
+            if (bb && !geometry._boundingBox.intersectBV(ray)) {
+                continue;
+            }
+            if (statistics != null) {
+                statistics.countTest(geometry);
+            }
+            // the component only needs to find whether it drops the accumulated product below the minimum
+            ktr *= geometry.findTransparency(ray, maxDistance, minKt / ktr, bb, statistics);
+            if (ktr < minKt) {
+                return 0.0;
+            }
+        }
+        return ktr;
+    }
+
     @Override
     public String toString() {
         return "Geometries{" +
@@ -121,6 +358,15 @@ public class Geometries extends Container {
         for (Container geo : _containers) {     // in a recursive call set bounding region for all the
             geo.setBoundingBox();               // components and composites inside
         }
+        unionBoundingBox();
+    }
+
+    /**
+     * method sets the bounding volume of this composite to contain the bounding volumes of its components,
+     * without recalculating the bounding volumes of the components themselves
+     */
+    private void unionBoundingBox() {
+        super.setBoundingBox();
 
         double minX = Double.POSITIVE_INFINITY;
         double minY = Double.POSITIVE_INFINITY;
@@ -189,6 +435,78 @@ public class Geometries extends Container {
         }
     }
 
+    /**
+     * automated build of the bounding volume hierarchy tree with the Surface Area Heuristic,
+     * a drop-in replacement for {@link #BuildTree()} which runs in O(n log n) instead of O(n^3).
+     * geometries without a finite bounding box (e.g. planes) stay as direct components of this instance
+     */
+    public void BuildTreeSAH() {
+
+        // flatten the list of Geometries
+        this.flatten();
+
+        // separate the geometries which can be put in the hierarchy
+        List<Container> bounded = new ArrayList<>(_containers.size());
+        List<Container> unbounded = new LinkedList<>();
+        for (Container container : _containers) {
+            if (container._boundingBox != null && container._boundingBox.isFinite()) {
+                bounded.add(container);
+            } else {
+                unbounded.add(container);
+            }
+        }
+
+        // copy the bounds of the geometries to a flat array for the builder
+        int n = bounded.size();
+        double[] bounds = new double[n * 6];
+        for (int i = 0; i < n; ++i) {
+            BoundingBox box = bounded.get(i)._boundingBox;
+            bounds[i * 6] = box.getMinX();
+            bounds[i * 6 + 1] = box.getMinY();
+            bounds[i * 6 + 2] = box.getMinZ();
+            bounds[i * 6 + 3] = box.getMaxX();
+            bounds[i * 6 + 4] = box.getMaxY();
+            bounds[i * 6 + 5] = box.getMaxZ();
+        }
+
+        _containers.clear();
+        if (n > 0) {
+            BVHBuilder builder = new BVHBuilder(bounds, n);
+            _containers.add(buildNode(builder, bounded.toArray(new Container[n]), 0, n));
+        }
+        _containers.addAll(unbounded);
+        unionBoundingBox();
+    }
+
+    /**
+     * recursive func to build a node of the SAH hierarchy from a range of geometries
+     *
+     * @param builder    - the SAH builder which holds the order of the geometries
+     * @param geometries - the geometries, indexed by the builder's order
+     * @param start      - first index of the range in the builder's order (inclusive)
+     * @param end        - last index of the range in the builder's order (exclusive)
+     * @return the node which contains the range of geometries
+     */
+    private static Container buildNode(BVHBuilder builder, Container[] geometries, int start, int end) {
+        int mid = builder.split(start, end);
+        // a leaf with a single geometry needs no container of its own
+        if (mid < 0 && end - start == 1) {
+            return geometries[builder.order[start]];
+        }
+        Geometries node = new Geometries();
+        if (mid < 0) {
+            for (int i = start; i < end; ++i) {
+                node._containers.add(geometries[builder.order[i]]);
+            }
+        } else {
+            node._containers.add(buildNode(builder, geometries, start, mid));
+            node._containers.add(buildNode(builder, geometries, mid, end));
+        }
+        // the components' bounding volumes are already set, only the union is needed
+        node.unionBoundingBox();
+        return node;
+    }
+
     /**
      * method to flatten the geometries list
      */
@@ -56,7 +56,8 @@ public interface Intersectable {
 
         /** Ray direction from point of view to the point*/
         public Vector v;
-        /** Normal vector to the geometry at the point*/
+        /** Normal vector to the geometry at the point,
+         * set by the geometries whose normal depends on more than the point (e.g. the face of a mesh)*/
         public Vector n;
         /** n*v - dotProduct*/
         public double nv;
@@ -65,6 +66,15 @@ public interface Intersectable {
         /** Geometry's material */
         public Material m;
 
+        /** get the normal of the geometry at the point
+         *
+         * @return the normal which the geometry set when the point was found,
+         * or the normal of the geometry at the point if none was set
+         */
+        public Vector getNormal() {
+            return n != null ? n : geometry.getNormal(point);
+        }
+
         /** Initialize geo point cache data according to the direction of the ray
          * that produced the point.
          * GeoPoint now will include all the info for any functions using it thus avoiding
@@ -73,7 +83,7 @@ public interface Intersectable {
          */
         public void initCache(Vector v) {
             this.v = v;
-            n = geometry.getNormal(point);
+            n = getNormal();
             nv = v.dotProduct(n);
             c = geometry.getEmission();
             m = geometry.getMaterial();
@@ -106,4 +116,101 @@ public interface Intersectable {
      * @return list of intersection points that were found and has valid distance value
      */
     List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb);
-}
\ No newline at end of file
+
+    /**
+     * find the intersection points and count the work of the traversal into statistics.
+     * the composites override it to count their visited nodes and the tests of their components,
+     * a simple geometry has nothing to count
+     *
+     * @param ray         - ray that cross the geometry
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          boolean for bounding box
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return list of intersection points that were found and has valid distance value
+     */
+    default List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb,
+                                                TraversalStatistics statistics) {
+        return findGeoIntersections(ray, maxDistance, bb);
+    }
+
+    /**
+     * @param ray ray that cross the geometry
+     * @return the closest intersection point, or null if there is none
+     */
+    default GeoPoint findClosestGeoIntersection(Ray ray) {
+        return findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, false);
+    }
+
+    /**
+     * find only the closest intersection point of the ray.
+     * composites override it to shrink the distance bound whenever a closer point is found,
+     * so components which are further than the best point so far are not checked at all
+     *
+     * @param ray         - ray that cross the geometry
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          boolean for bounding box
+     * @return the closest intersection point which has valid distance value, or null if there is none
+     */
+    default GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb) {
+        List<GeoPoint> geoList = findGeoIntersections(ray, maxDistance, bb);
+        return geoList == null ? null : ray.findClosestGeoPoint(geoList);
+    }
+
+    /**
+     * find only the closest intersection point of the ray and count the work of the traversal into statistics
+     *
+     * @param ray         - ray that cross the geometry
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          boolean for bounding box
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the closest intersection point which has valid distance value, or null if there is none
+     */
+    default GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb,
+                                                TraversalStatistics statistics) {
+        return findClosestGeoIntersection(ray, maxDistance, bb);
+    }
+
+    /**
+     * occlusion query - find how much light passes along a ray up to a distance (e.g. a shadow ray to a light).
+     * the transparency factors (Kt) of the materials at all the intersections are multiplied,
+     * and the search stops as soon as the product drops below the given minimum,
+     * so an opaque geometry ends the search at its first intersection
+     *
+     * @param ray         - ray from the point towards the light
+     * @param maxDistance - the distance of the light, intersections beyond it do not block the light
+     * @param minKt       - the minimal transparency which is still considered, below it the ray is blocked
+     * @param bb          boolean for bounding box
+     * @return the transparency along the ray, 1.0 if nothing blocks it and 0.0 if it is blocked
+     */
+    default double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb) {
+        List<GeoPoint> geoList = findGeoIntersections(ray, maxDistance, bb);
+        double ktr = 1.0;
+        if (geoList != null) {
+            for (GeoPoint gp : geoList) {
+                ktr *= gp.geometry.getMaterial().Kt;
+                if (ktr < minKt) {
+                    return 0.0;
+                }
+            }
+        }
+        return ktr;
+    }
+
+    /**
+     * occlusion query which counts the work of the traversal into statistics
+     *
+     * @param ray         - ray from the point towards the light
+     * @param maxDistance - the distance of the light, intersections beyond it do not block the light
+     * @param minKt       - the minimal transparency which is still considered, below it the ray is blocked
+     * @param bb          boolean for bounding box
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the transparency along the ray, 1.0 if nothing blocks it and 0.0 if it is blocked
+     */
+    default double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb,
+                                    TraversalStatistics statistics) {
+        return findTransparency(ray, maxDistance, minKt, bb);
+    }
+}
@@ -4,11 +4,11 @@ import primitives.Point3D;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 
 import static primitives.Util.*;
+import static primitives.VectorMath.*;
 
 /**
  * Class Plane is 2D basic object in geometry which represented by two vectors which come from the same point and
@@ -54,6 +54,14 @@ public class Plane extends FlatGeometry {
         _normal = U.crossProduct(V).normalized();
     }
 
+    /**
+     * get the point on the plane (field in class)
+     * @return the point
+     */
+    public Point3D getQ0() {
+        return _q0;
+    }
+
     /**
      * get normal to plane (field in class)
      * @return the normal
@@ -71,6 +79,30 @@ public class Plane extends FlatGeometry {
         return getNormal();
     }
 
+    /**
+     * find the distance along a ray to its intersection with the plane,
+     * calculated on the coordinates without creating temporary vectors
+     *
+     * @param ray         - the ray
+     * @param maxDistance - is the maximum distance to find intersections in
+     * @return the distance t of the intersection point (p0 + t*v), or 0 if there is no intersection
+     */
+    double findDistance(Ray ray, double maxDistance) {
+        Point3D P0 = ray.getP0();
+        Point3D v = ray.getDir().getHead();
+        Point3D N = _normal.getHead();
+
+        // t = N * (Q0 - P0) / N * v
+        double nQ0P0 = dotProduct(N.getX(), N.getY(), N.getZ(),
+                _q0.getX() - P0.getX(), _q0.getY() - P0.getY(), _q0.getZ() - P0.getZ());
+        double t = alignZero(nQ0P0 / dotProduct(N.getX(), N.getY(), N.getZ(), v.getX(), v.getY(), v.getZ()));
+
+        if ((t > 0) && alignZero(t - maxDistance) <= 0) {
+            return t;
+        }
+        return 0;
+    }
+
     /**
      * @param ray         - ray that cross the geometry
      * @param maxDistance - the upper bound of distance, any point which
@@ -80,15 +112,9 @@ public class Plane extends FlatGeometry {
     @Override
     public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
 
-        Point3D P0 = ray.getP0();
-        Vector v = ray.getDir();
-        Point3D Q0 = _q0;
-        Vector N = _normal;
-
-        double t = alignZero((N.dotProduct(Q0.subtract(P0))) / (N.dotProduct(v)));
+        double t = findDistance(ray, maxDistance);
 
-        if ((t > 0) && alignZero(t - maxDistance) <= 0) {
-            List<Point3D> ans = new LinkedList<Point3D>();
+        if (t > 0) {
             return List.of(new GeoPoint(this, ray.getPoint(t)));
         }
 
@@ -1,11 +1,11 @@
 package geometries;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import primitives.*;
 
 import static primitives.Util.*;
+import static primitives.VectorMath.*;
 
 /**
  * Polygon class represents two-dimensional polygon in 3D Cartesian coordinate
@@ -22,6 +22,17 @@ public class Polygon extends FlatGeometry {
      * Associated plane in which the polygon lays
      */
     protected Plane plane;
+    /**
+     * coordinates of the unit normal of the plane and its distance from the origin (N * Q0) -
+     * the points of the plane satisfy N * P = d
+     */
+    private final double _nX, _nY, _nZ, _d;
+    /**
+     * the inner normals of the edges in the plane of the polygon and their distances, 4 values for each edge:
+     * (x, y, z) of the unit normal Ni = N x (Vi+1 - Vi), which points into the polygon, and di = Ni * Vi.
+     * a point of the plane is inside the polygon if Ni * P - di > 0 for every edge
+     */
+    private final double[] _edges;
 
 
     /**
@@ -53,11 +64,38 @@ public class Polygon extends FlatGeometry {
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         plane = new Plane(vertices[0], vertices[1], vertices[2]);
+        Vector n = plane.getNormal(null);
+
+        // precompute the plane and the edges for the intersections
+        Point3D nHead = n.getHead();
+        _nX = nHead.getX();
+        _nY = nHead.getY();
+        _nZ = nHead.getZ();
+        _d = dotProduct(_nX, _nY, _nZ, vertices[0].getX(), vertices[0].getY(), vertices[0].getZ());
+        _edges = new double[vertices.length * 4];
+        for (int i = 0; i < vertices.length; ++i) {
+            Point3D from = vertices[i];
+            Point3D to = vertices[(i + 1) % vertices.length];
+            double eX = to.getX() - from.getX(), eY = to.getY() - from.getY(), eZ = to.getZ() - from.getZ();
+            double niX = crossX(_nY, _nZ, eY, eZ);
+            double niY = crossY(_nX, _nZ, eX, eZ);
+            double niZ = crossZ(_nX, _nY, eX, eY);
+            double length = Math.sqrt(lengthSquared(niX, niY, niZ));
+            // a zero edge leaves a zero normal, which rejects all the points - the constructor throws on it below
+            if (length > 0) {
+                niX /= length;
+                niY /= length;
+                niZ /= length;
+            }
+            _edges[i * 4] = niX;
+            _edges[i * 4 + 1] = niY;
+            _edges[i * 4 + 2] = niZ;
+            _edges[i * 4 + 3] = dotProduct(niX, niY, niZ, from.getX(), from.getY(), from.getZ());
+        }
+
         if (vertices.length == 3)
             return; // no need for more tests for a Triangle
 
-        Vector n = plane.getNormal(null);
-
         // Subtracting any subsequent points will throw an IllegalArgumentException
         // because of Zero Vector if they are in the same point
         Vector edge1 = vertices[vertices.length - 1].subtract(vertices[vertices.length - 2]);
@@ -119,6 +157,10 @@ public class Polygon extends FlatGeometry {
 
 
     /**
+     * the intersection point of the ray with the plane is checked against the precomputed edges,
+     * and the check stops at the first edge which the point is not inside of
+     * (a point on an edge or on a vertex is not an intersection)
+     *
      * @param ray ray that cross the geometry
      * @param maxDistance - is the maximum distance to find intersections in
      * @param bb -
@@ -126,59 +168,30 @@ public class Polygon extends FlatGeometry {
      */
     @Override
     public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
-
-        // First of all, check if there is a point of intersection with the plane
-        if (plane.findGeoIntersections(ray, maxDistance, bb) == null)
-            return null;
-
         Point3D p0 = ray.getP0();
-        Vector v = ray.getDir();
-
-        List<Vector> vectors = new LinkedList<>();
-        List<Vector> normalVectors = new LinkedList<>();
+        Point3D v = ray.getDir().getHead();
+        double p0X = p0.getX(), p0Y = p0.getY(), p0Z = p0.getZ();
+        double vX = v.getX(), vY = v.getY(), vZ = v.getZ();
 
-
-        for (Point3D pt : vertices) {
-            Vector Vi = pt.subtract(p0);
-            vectors.add(Vi);
+        // t = (d - N * P0) / N * v
+        double nv = dotProduct(_nX, _nY, _nZ, vX, vY, vZ);
+        if (isZero(nv)) {
+            return null;
         }
-
-        int n = vectors.size() - 1;
-
-        for (int i = 0; i < n; i++) {
-
-            Vector Vi = vectors.get(i);
-            Vector Vii = vectors.get(i + 1);
-
-            Vector Ni = (Vi.crossProduct(Vii)).normalize();
-
-            normalVectors.add(Ni);
+        double t = alignZero((_d - dotProduct(_nX, _nY, _nZ, p0X, p0Y, p0Z)) / nv);
+        if (t <= 0 || alignZero(t - maxDistance) > 0) {
+            return null;
         }
 
-        Vector Vn = vectors.get(n);
-        Vector V1 = vectors.get(0);
-
-        Vector Nn = (Vn.crossProduct(V1)).normalize();
-
-        normalVectors.add(Nn);
-
-        List<Double> Vns = new LinkedList<>();
-
-        for (Vector N : normalVectors) {
-            double Vni = alignZero(N.dotProduct(v));
-            // one Vni equals to zero is enough to determine that we have no intersection points
-            if (isZero(Vni)) {
+        double pX = p0X + vX * t, pY = p0Y + vY * t, pZ = p0Z + vZ * t;
+        double[] edges = _edges;
+        for (int i = 0; i < edges.length; i += 4) {
+            if (alignZero(dotProduct(edges[i], edges[i + 1], edges[i + 2], pX, pY, pZ) - edges[i + 3]) <= 0) {
                 return null;
-            } else Vns.add(Vni);
+            }
         }
 
-        // check that all of the elements
-        if (!Vns.stream().allMatch(i -> i > 0) && !Vns.stream().allMatch(i -> i < 0)) {
-            return null;
-        } else {
-            Plane plane = new Plane(vertices.get(0), vertices.get(1), vertices.get(2));
-            return List.of(new GeoPoint(this, plane.findGeoIntersections(ray, maxDistance, bb).get(0).point));
-        }
+        return List.of(new GeoPoint(this, ray.getPoint(t)));
     }
 
     /**
@@ -5,8 +5,8 @@ import primitives.Ray;
 import primitives.Vector;
 
 import static primitives.Util.*;
+import static primitives.VectorMath.*;
 
-import java.util.LinkedList;
 import java.util.List;
 
 /**
@@ -66,15 +66,19 @@ public class Sphere extends RadialGeometry {
     @Override
     public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
 
-        // redefine all needed variables (copied from the presentation, same names)
-        Point3D O = _center;
+        // redefine all needed variables (copied from the presentation, same names),
+        // the vectors are kept as coordinates so no temporary objects are created
         Point3D p0 = ray.getP0();
+        Point3D v = ray.getDir().getHead();
         double r = _radius;
-        Vector v = ray.getDir();
-        Vector u = O.subtract(p0);
 
-        double t_m = alignZero(v.dotProduct(u));
-        double d = alignZero(Math.sqrt(u.lengthSquared() - (t_m * t_m)));
+        // u = O - p0
+        double ux = _center.getX() - p0.getX();
+        double uy = _center.getY() - p0.getY();
+        double uz = _center.getZ() - p0.getZ();
+
+        double t_m = alignZero(dotProduct(v.getX(), v.getY(), v.getZ(), ux, uy, uz));
+        double d = alignZero(Math.sqrt(lengthSquared(ux, uy, uz) - (t_m * t_m)));
         double t_h = alignZero(Math.sqrt(r * r - d * d));
 
         // if d is equal to or bigger than r, there will be no intersections at all
@@ -85,21 +89,20 @@ public class Sphere extends RadialGeometry {
         double t1 = alignZero(t_m + t_h);
         double t2 = alignZero(t_m - t_h);
 
-        List<GeoPoint> ans = new LinkedList<>();
-
         // t must be positive
-        if (t1 > 0 && ((alignZero(t1 - maxDistance) <= 0))) {
-            ans.add(new GeoPoint(this, ray.getPoint(t1)));
-        }
+        boolean isT1 = t1 > 0 && alignZero(t1 - maxDistance) <= 0;
 
         // t2 must be positive, and significantly different from t1
-        if (t2 > 0 && (alignZero(t2 - maxDistance) <= 0) && !isZero(t1 - t2)) {
-            ans.add(new GeoPoint(this, ray.getPoint(t2)));
-        }
+        boolean isT2 = t2 > 0 && alignZero(t2 - maxDistance) <= 0 && !isZero(t1 - t2);
 
-        // if any intersections were found, return them
-        if (ans.size() > 0) {
-            return ans;
+        if (isT1 && isT2) {
+            return List.of(new GeoPoint(this, ray.getPoint(t1)), new GeoPoint(this, ray.getPoint(t2)));
+        }
+        if (isT1) {
+            return List.of(new GeoPoint(this, ray.getPoint(t1)));
+        }
+        if (isT2) {
+            return List.of(new GeoPoint(this, ray.getPoint(t2)));
         }
 
         // else, return null
@@ -0,0 +1,110 @@
+package geometries;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TraversalStatistics class counts the work of the intersections' traversal -
+ * the visited nodes of the bounding volume hierarchy (the composites and the nodes of the flat BVH whose bounds
+ * are checked) and the intersection tests of the primitives, by their type.
+ * the counting is opt-in: the statistics of a rendering are passed down the queries of the composites
+ * (e.g. {@link Intersectable#findClosestGeoIntersection(primitives.Ray, double, boolean, TraversalStatistics)}),
+ * and a query without statistics counts nothing, so concurrent renders are counted separately.
+ * the counters are {@link LongAdder}s in fixed slots per type, so the rendering threads do not serialize on them
+ */
+public class TraversalStatistics {
+    /**
+     * the types of the primitives which have their own counter, a primitive of another type
+     * is counted by its closest counted super type (or as a geometry)
+     */
+    private static final Class<?>[] TYPES = {
+            Sphere.class, Plane.class, Triangle.class, Polygon.class, Cylinder.class, Tube.class,
+            TriangleMesh.class, Geometry.class
+    };
+
+    /**
+     * number of visited nodes
+     */
+    private final LongAdder _nodeVisits = new LongAdder();
+    /**
+     * number of intersection tests of the primitives, a counter for every type of {@link #TYPES}
+     */
+    private final LongAdder[] _primitiveTests = new LongAdder[TYPES.length];
+
+    /**
+     * constructor of statistics with all the counters zero
+     */
+    public TraversalStatistics() {
+        for (int i = 0; i < _primitiveTests.length; ++i) {
+            _primitiveTests[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * count a visited node
+     */
+    void countNodeVisit() {
+        _nodeVisits.increment();
+    }
+
+    /**
+     * count an intersection test of a component - only primitives are counted
+     * (the composites count their own visits)
+     *
+     * @param component - the tested component
+     */
+    void countTest(Intersectable component) {
+        if (!(component instanceof Geometry)) {
+            return;
+        }
+        // the exact types first, the sub types are before their super types in the table
+        Class<?> type = component.getClass();
+        for (int i = 0; i < TYPES.length; ++i) {
+            if (TYPES[i] == type) {
+                _primitiveTests[i].increment();
+                return;
+            }
+        }
+        for (int i = 0; i < TYPES.length; ++i) {
+            if (TYPES[i].isInstance(component)) {
+                _primitiveTests[i].increment();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return number of visited nodes of the hierarchy
+     */
+    public long getNodeVisits() {
+        return _nodeVisits.sum();
+    }
+
+    /**
+     * get the number of intersection tests of the primitives
+     *
+     * @return the number of tests by the name of the primitives' type, sorted by the name
+     * (only the types which were tested)
+     */
+    public Map<String, Long> getPrimitiveTests() {
+        Map<String, Long> tests = new TreeMap<>();
+        for (int i = 0; i < TYPES.length; ++i) {
+            long count = _primitiveTests[i].sum();
+            if (count > 0) {
+                tests.put(TYPES[i].getSimpleName(), count);
+            }
+        }
+        return tests;
+    }
+
+    /**
+     * reset all the counters
+     */
+    public void reset() {
+        _nodeVisits.reset();
+        for (LongAdder counter : _primitiveTests) {
+            counter.reset();
+        }
+    }
+}
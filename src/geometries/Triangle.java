@@ -4,15 +4,29 @@ import primitives.Point3D;
 import primitives.Ray;
 import primitives.Vector;
 
-import java.util.LinkedList;
 import java.util.List;
 
 import static primitives.Util.*;
+import static primitives.VectorMath.*;
 
 /**
- * this class represents a triangle in the space, containing 3 points (in the polygon vertices list)
+ * this class represents a triangle in the space, containing 3 points (in the polygon vertices list).
+ * the intersections are found by the Möller–Trumbore algorithm, on the first vertex and the two edges from it
+ * which are calculated once in the constructor, so finding an intersection allocates only the result
  */
 public class Triangle extends Polygon {
+    /**
+     * coordinates of the first vertex
+     */
+    private final double _v0X, _v0Y, _v0Z;
+    /**
+     * coordinates of the 1st edge (from the first vertex to the second one)
+     */
+    private final double _e1X, _e1Y, _e1Z;
+    /**
+     * coordinates of the 2nd edge (from the first vertex to the third one)
+     */
+    private final double _e2X, _e2Y, _e2Z;
 
     /**
      * constructor for a triangle
@@ -24,6 +38,99 @@ public class Triangle extends Polygon {
     public Triangle(Point3D p1, Point3D p2, Point3D p3) {
         super(p1, p2, p3);
         super.setBoundingBox();
+
+        _v0X = p1.getX();
+        _v0Y = p1.getY();
+        _v0Z = p1.getZ();
+        _e1X = p2.getX() - _v0X;
+        _e1Y = p2.getY() - _v0Y;
+        _e1Z = p2.getZ() - _v0Z;
+        _e2X = p3.getX() - _v0X;
+        _e2Y = p3.getY() - _v0Y;
+        _e2Z = p3.getZ() - _v0Z;
+    }
+
+    /**
+     * @param ray         ray that cross the geometry
+     * @param maxDistance - is the maximum distance to find intersections in
+     * @param bb          -
+     * @return list of intersection points that were found
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
+        double t = findDistance(ray, maxDistance, null);
+        return t == 0 ? null : List.of(new GeoPoint(this, ray.getPoint(t)));
+    }
+
+    /**
+     * find the intersection of a ray with the triangle and its barycentric coordinates -
+     * the intersection point is (1 - u - v) * p1 + u * p2 + v * p3
+     *
+     * @param ray         - ray that cross the triangle
+     * @param maxDistance - the upper bound of distance of the intersection
+     * @return array of the distance (t) of the intersection on the ray, u and v,
+     * or null if there is no intersection in the distance bound
+     */
+    public double[] findBarycentric(Ray ray, double maxDistance) {
+        double[] result = new double[3];
+        double t = findDistance(ray, maxDistance, result);
+        if (t == 0) {
+            return null;
+        }
+        result[0] = t;
+        return result;
     }
 
+    /**
+     * Möller–Trumbore intersection: solve P0 + t*v = V0 + u*E1 + v*E2 by Cramer's rule.
+     * a ray which is parallel to the triangle, or hits it on an edge or on a vertex, has no intersection
+     *
+     * @param ray         - ray that cross the triangle
+     * @param maxDistance - the upper bound of distance of the intersection
+     * @param uv          - array which u and v are written into (at indexes 1 and 2), null if they are not needed
+     * @return the distance of the intersection on the ray, 0 if there is none
+     */
+    private double findDistance(Ray ray, double maxDistance, double[] uv) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double vX = dir.getX(), vY = dir.getY(), vZ = dir.getZ();
+
+        // P = v x E2, det = E1 * P
+        double pX = crossX(vY, vZ, _e2Y, _e2Z);
+        double pY = crossY(vX, vZ, _e2X, _e2Z);
+        double pZ = crossZ(vX, vY, _e2X, _e2Y);
+        double det = dotProduct(_e1X, _e1Y, _e1Z, pX, pY, pZ);
+        // the ray is parallel to the triangle
+        if (isZero(det)) {
+            return 0;
+        }
+        double invDet = 1 / det;
+
+        // T = P0 - V0, u = T * P / det
+        double tX = p0.getX() - _v0X, tY = p0.getY() - _v0Y, tZ = p0.getZ() - _v0Z;
+        double u = alignZero(dotProduct(tX, tY, tZ, pX, pY, pZ) * invDet);
+        if (u <= 0 || alignZero(u - 1) >= 0) {
+            return 0;
+        }
+
+        // Q = T x E1, v = v * Q / det
+        double qX = crossX(tY, tZ, _e1Y, _e1Z);
+        double qY = crossY(tX, tZ, _e1X, _e1Z);
+        double qZ = crossZ(tX, tY, _e1X, _e1Y);
+        double v = alignZero(dotProduct(vX, vY, vZ, qX, qY, qZ) * invDet);
+        if (v <= 0 || alignZero(u + v - 1) >= 0) {
+            return 0;
+        }
+
+        // t = E2 * Q / det
+        double t = alignZero(dotProduct(_e2X, _e2Y, _e2Z, qX, qY, qZ) * invDet);
+        if (t <= 0 || alignZero(t - maxDistance) > 0) {
+            return 0;
+        }
+        if (uv != null) {
+            uv[1] = u;
+            uv[2] = v;
+        }
+        return t;
+    }
 }
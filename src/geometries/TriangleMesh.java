@@ -0,0 +1,787 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static primitives.Util.*;
+import static primitives.VectorMath.*;
+
+/**
+ * class represents an indexed mesh of triangles with one material and emission for the whole mesh.
+ * the vertices are stored as a flat array of coordinates, and the faces as a flat array of vertex indices,
+ * instead of a separate {@link Triangle} object (with its vertices list, plane and bounding box) for every face.
+ * the mesh has its own bounding volume hierarchy over the faces, packed like {@link FlatBVH} but with float bounds,
+ * so it is one component of the scene's {@link Geometries} however many faces it has.
+ * the intersections are found by the Möller–Trumbore algorithm, and every intersection point carries
+ * the normal of its face (in {@link GeoPoint#n}), since the normal of a mesh depends on the face
+ */
+public class TriangleMesh extends Geometry {
+
+    /**
+     * relative tolerance of a point on a face - of the distance from the face's plane (relatively to the size
+     * of the mesh) and of the barycentric coordinates
+     */
+    private static final double ON_FACE_TOLERANCE = 1e-7;
+
+    /**
+     * coordinates of the vertices, 3 values per vertex: x, y, z
+     */
+    private final double[] _vertices;
+
+    /**
+     * indices of the vertices of the faces, 3 values per face,
+     * ordered so every leaf of the hierarchy covers a continuous range of faces
+     */
+    private final int[] _faces;
+
+    /**
+     * bounds of the nodes of the hierarchy, 6 values per node: minX, minY, minZ, maxX, maxY, maxZ
+     * (rounded outwards to floats)
+     */
+    private final float[] _nodeBounds;
+
+    /**
+     * 2 values per node:
+     * for an inner node - the index of the right child (the left child is always the next node)
+     * and -(split axis + 1),
+     * for a leaf - the index of its first face and the number of faces
+     */
+    private final int[] _nodeData;
+
+    /**
+     * maximal depth of the hierarchy, which is the size of the traversal stack
+     */
+    private final int _maxDepth;
+
+    /**
+     * the traversal stack of every thread, of the maximal depth of the hierarchy -
+     * a query does not query this object again, so a thread uses a single stack
+     */
+    private final ThreadLocal<int[]> _stack;
+
+    /**
+     * constructor of a mesh, the vertices array is not copied - it is owned by the mesh from now on
+     *
+     * @param vertices - coordinates of the vertices, 3 values per vertex: x, y, z
+     * @param faces    - indices of the vertices of the faces, 3 values per face
+     * @throws IllegalArgumentException if the arrays are not in triples, there are no faces,
+     *                                  or a face refers to a vertex which does not exist
+     */
+    public TriangleMesh(double[] vertices, int[] faces) {
+        if (vertices.length % 3 != 0 || faces.length % 3 != 0) {
+            throw new IllegalArgumentException("The vertices and the faces must be given in triples");
+        }
+        if (faces.length == 0) {
+            throw new IllegalArgumentException("A mesh can't have no faces");
+        }
+        int vertexCount = vertices.length / 3;
+        for (int index : faces) {
+            if (index < 0 || index >= vertexCount) {
+                throw new IllegalArgumentException("A face refers to a vertex which does not exist");
+            }
+        }
+        _vertices = vertices;
+
+        // the bounds of the faces for the builder
+        int n = faces.length / 3;
+        double[] bounds = new double[n * 6];
+        for (int f = 0; f < n; ++f) {
+            BVHBuilder.setEmpty(bounds, f * 6);
+            for (int k = 0; k < 3; ++k) {
+                int v = faces[f * 3 + k] * 3;
+                for (int axis = 0; axis < 3; ++axis) {
+                    bounds[f * 6 + axis] = Math.min(bounds[f * 6 + axis], vertices[v + axis]);
+                    bounds[f * 6 + 3 + axis] = Math.max(bounds[f * 6 + 3 + axis], vertices[v + axis]);
+                }
+            }
+        }
+
+        // a binary tree with n leaves has at most 2n - 1 nodes
+        int maxNodes = 2 * n - 1;
+        float[] nodeBounds = new float[maxNodes * 6];
+        int[] nodeData = new int[maxNodes * 2];
+        BVHBuilder builder = new BVHBuilder(bounds, n);
+        int[] maxDepth = {0};
+        int nodeCount = emit(builder, bounds, nodeBounds, nodeData, 0, n, 0, 1, maxDepth);
+        _maxDepth = maxDepth[0];
+        _stack = ThreadLocal.withInitial(() -> new int[_maxDepth + 1]);
+        _nodeBounds = nodeCount == maxNodes ? nodeBounds : Arrays.copyOf(nodeBounds, nodeCount * 6);
+        _nodeData = nodeCount == maxNodes ? nodeData : Arrays.copyOf(nodeData, nodeCount * 2);
+
+        // reorder the faces by the leaves
+        _faces = new int[faces.length];
+        for (int i = 0; i < n; ++i) {
+            System.arraycopy(faces, builder.order[i] * 3, _faces, i * 3, 3);
+        }
+
+        setBoundingBox();
+    }
+
+    /**
+     * constructor of a mesh from vertices as points, e.g. a model which is written as an array of points
+     *
+     * @param vertices - the vertices
+     * @param faces    - indices of the vertices of the faces, 3 values per face
+     * @throws IllegalArgumentException if the faces are not in triples, there are no faces,
+     *                                  or a face refers to a vertex which does not exist
+     */
+    public TriangleMesh(Point3D[] vertices, int... faces) {
+        this(coordinates(vertices), faces.clone());
+    }
+
+    /**
+     * constructor of a mesh whose hierarchy is already built, the arrays are owned by the mesh from now on
+     *
+     * @param vertices   - coordinates of the vertices, 3 values per vertex
+     * @param faces      - indices of the vertices of the faces, ordered by the leaves of the hierarchy
+     * @param nodeBounds - bounds of the nodes of the hierarchy, 6 values per node
+     * @param nodeData   - offsets of the nodes of the hierarchy, 2 values per node
+     * @param maxDepth   - maximal depth of the hierarchy
+     */
+    private TriangleMesh(double[] vertices, int[] faces, float[] nodeBounds, int[] nodeData, int maxDepth) {
+        _vertices = vertices;
+        _faces = faces;
+        _nodeBounds = nodeBounds;
+        _nodeData = nodeData;
+        _maxDepth = maxDepth;
+        _stack = ThreadLocal.withInitial(() -> new int[_maxDepth + 1]);
+        setBoundingBox();
+    }
+
+    /**
+     * write the mesh with its hierarchy, so it is read by {@link #read(ByteBuffer)} without building
+     * the hierarchy again. the emission and the material are not written
+     *
+     * @param output - the output
+     * @throws IOException if the output can not be written
+     */
+    public void write(DataOutput output) throws IOException {
+        output.writeInt(_vertices.length);
+        for (double coordinate : _vertices) {
+            output.writeDouble(coordinate);
+        }
+        output.writeInt(_faces.length);
+        for (int index : _faces) {
+            output.writeInt(index);
+        }
+        output.writeInt(_nodeData.length / 2);
+        for (float bound : _nodeBounds) {
+            output.writeFloat(bound);
+        }
+        for (int data : _nodeData) {
+            output.writeInt(data);
+        }
+        output.writeInt(_maxDepth);
+    }
+
+    /**
+     * read a mesh which was written by {@link #write(DataOutput)}, the arrays are read in bulk from the buffer
+     *
+     * @param input - the buffer, its position is moved to the end of the mesh
+     * @return the mesh
+     */
+    public static TriangleMesh read(ByteBuffer input) {
+        double[] vertices = new double[input.getInt()];
+        input.asDoubleBuffer().get(vertices);
+        input.position(input.position() + vertices.length * Double.BYTES);
+        int[] faces = new int[input.getInt()];
+        input.asIntBuffer().get(faces);
+        input.position(input.position() + faces.length * Integer.BYTES);
+        int nodeCount = input.getInt();
+        float[] nodeBounds = new float[nodeCount * 6];
+        input.asFloatBuffer().get(nodeBounds);
+        input.position(input.position() + nodeBounds.length * Float.BYTES);
+        int[] nodeData = new int[nodeCount * 2];
+        input.asIntBuffer().get(nodeData);
+        input.position(input.position() + nodeData.length * Integer.BYTES);
+        return new TriangleMesh(vertices, faces, nodeBounds, nodeData, input.getInt());
+    }
+
+    /**
+     * copy the coordinates of points to a flat array
+     *
+     * @param points - the points
+     * @return the coordinates, 3 values per point
+     */
+    private static double[] coordinates(Point3D[] points) {
+        double[] coordinates = new double[points.length * 3];
+        for (int i = 0; i < points.length; ++i) {
+            coordinates[i * 3] = points[i].getX();
+            coordinates[i * 3 + 1] = points[i].getY();
+            coordinates[i * 3 + 2] = points[i].getZ();
+        }
+        return coordinates;
+    }
+
+    /**
+     * recursive func to write a node of the hierarchy (and its subtree) in depth first order
+     *
+     * @param builder    - the SAH builder which holds the order of the faces
+     * @param bounds     - the bounds of the faces
+     * @param nodeBounds - the array of the nodes' bounds to fill
+     * @param nodeData   - the array of the nodes' offsets to fill
+     * @param start      - first index of the range in the builder's order (inclusive)
+     * @param end        - last index of the range in the builder's order (exclusive)
+     * @param node       - the index of the node to write
+     * @param depth      - the depth of the node
+     * @param maxDepth   - holder of the maximal depth of the written nodes, updated by the subtree
+     * @return the index of the next free node
+     */
+    private static int emit(BVHBuilder builder, double[] bounds, float[] nodeBounds, int[] nodeData,
+                            int start, int end, int node, int depth, int[] maxDepth) {
+        maxDepth[0] = Math.max(maxDepth[0], depth);
+
+        double[] box = BVHBuilder.emptyBox();
+        for (int i = start; i < end; ++i) {
+            BVHBuilder.grow(box, 0, bounds, builder.order[i] * 6);
+        }
+        for (int axis = 0; axis < 3; ++axis) {
+            nodeBounds[node * 6 + axis] = floorFloat(box[axis]);
+            nodeBounds[node * 6 + 3 + axis] = ceilFloat(box[axis + 3]);
+        }
+
+        int mid = builder.split(start, end);
+        if (mid < 0) {
+            nodeData[node * 2] = start;
+            nodeData[node * 2 + 1] = end - start;
+            return node + 1;
+        }
+
+        int axis = builder.splitAxis;
+        int right = emit(builder, bounds, nodeBounds, nodeData, start, mid, node + 1, depth + 1, maxDepth);
+        nodeData[node * 2] = right;
+        nodeData[node * 2 + 1] = -(axis + 1);
+        return emit(builder, bounds, nodeBounds, nodeData, mid, end, right, depth + 1, maxDepth);
+    }
+
+    /**
+     * @param value - a number
+     * @return the biggest float which is not bigger than the number
+     */
+    private static float floorFloat(double value) {
+        float f = (float) value;
+        return f > value ? Math.nextDown(f) : f;
+    }
+
+    /**
+     * @param value - a number
+     * @return the smallest float which is not smaller than the number
+     */
+    private static float ceilFloat(double value) {
+        float f = (float) value;
+        return f < value ? Math.nextUp(f) : f;
+    }
+
+    /**
+     * @return number of the vertices
+     */
+    public int getVertexCount() {
+        return _vertices.length / 3;
+    }
+
+    /**
+     * get a vertex of the mesh
+     *
+     * @param index - the index of the vertex
+     * @return the vertex
+     */
+    public Point3D getVertex(int index) {
+        return new Point3D(_vertices[index * 3], _vertices[index * 3 + 1], _vertices[index * 3 + 2]);
+    }
+
+    /**
+     * @return number of the faces
+     */
+    public int getFaceCount() {
+        return _faces.length / 3;
+    }
+
+    /**
+     * get the number of nodes in the hierarchy
+     *
+     * @return number of nodes
+     */
+    public int getNodeCount() {
+        return _nodeData.length / 2;
+    }
+
+    /**
+     * check a ray against the bounds of a node (slab test)
+     *
+     * @param node        - the index of the node
+     * @param oX          - x of the starting point of the ray
+     * @param oY          - y of the starting point of the ray
+     * @param oZ          - z of the starting point of the ray
+     * @param iX          - the inverse of x of the direction of the ray
+     * @param iY          - the inverse of y of the direction of the ray
+     * @param iZ          - the inverse of z of the direction of the ray
+     * @param maxDistance - the upper bound of distance
+     * @return the distance where the ray enters the node's bounds (0 if it starts inside),
+     * or positive infinity if the ray misses the bounds within the distance
+     */
+    private double entryDistance(int node, double oX, double oY, double oZ,
+                                 double iX, double iY, double iZ, double maxDistance) {
+        int offset = node * 6;
+        double tMin = 0;
+        double tMax = maxDistance;
+        // the axes are unrolled, a ray which is parallel to an axis (infinite inverse)
+        // is either between the slabs of the axis or misses the box
+        if (Double.isInfinite(iX)) {
+            if (oX < _nodeBounds[offset] || oX > _nodeBounds[offset + 3]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_nodeBounds[offset] - oX) * iX;
+            double t2 = (_nodeBounds[offset + 3] - oX) * iX;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // y axis
+        if (Double.isInfinite(iY)) {
+            if (oY < _nodeBounds[offset + 1] || oY > _nodeBounds[offset + 4]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_nodeBounds[offset + 1] - oY) * iY;
+            double t2 = (_nodeBounds[offset + 4] - oY) * iY;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+
+        // z axis
+        if (Double.isInfinite(iZ)) {
+            if (oZ < _nodeBounds[offset + 2] || oZ > _nodeBounds[offset + 5]) {
+                return Double.POSITIVE_INFINITY;
+            }
+        } else {
+            double t1 = (_nodeBounds[offset + 2] - oZ) * iZ;
+            double t2 = (_nodeBounds[offset + 5] - oZ) * iZ;
+            tMin = Math.max(tMin, Math.min(t1, t2));
+            tMax = Math.min(tMax, Math.max(t1, t2));
+        }
+        return tMin > tMax ? Double.POSITIVE_INFINITY : tMin;
+    }
+
+    /**
+     * Möller–Trumbore intersection of a ray with a face,
+     * a ray which is parallel to the face, or hits it on an edge or on a vertex, has no intersection
+     *
+     * @param face        - the index of the face
+     * @param oX          - x of the starting point of the ray
+     * @param oY          - y of the starting point of the ray
+     * @param oZ          - z of the starting point of the ray
+     * @param vX          - x of the direction of the ray
+     * @param vY          - y of the direction of the ray
+     * @param vZ          - z of the direction of the ray
+     * @param maxDistance - the upper bound of distance
+     * @return the distance of the intersection on the ray, 0 if there is none
+     */
+    private double intersectFace(int face, double oX, double oY, double oZ,
+                                 double vX, double vY, double vZ, double maxDistance) {
+        double[] vertices = _vertices;
+        int a = _faces[face * 3] * 3, b = _faces[face * 3 + 1] * 3, c = _faces[face * 3 + 2] * 3;
+        double v0X = vertices[a], v0Y = vertices[a + 1], v0Z = vertices[a + 2];
+        double e1X = vertices[b] - v0X, e1Y = vertices[b + 1] - v0Y, e1Z = vertices[b + 2] - v0Z;
+        double e2X = vertices[c] - v0X, e2Y = vertices[c + 1] - v0Y, e2Z = vertices[c + 2] - v0Z;
+
+        // P = v x E2, det = E1 * P
+        double pX = crossX(vY, vZ, e2Y, e2Z);
+        double pY = crossY(vX, vZ, e2X, e2Z);
+        double pZ = crossZ(vX, vY, e2X, e2Y);
+        double det = dotProduct(e1X, e1Y, e1Z, pX, pY, pZ);
+        if (isZero(det)) {
+            return 0;
+        }
+        double invDet = 1 / det;
+
+        // T = P0 - V0, u = T * P / det
+        double tX = oX - v0X, tY = oY - v0Y, tZ = oZ - v0Z;
+        double u = alignZero(dotProduct(tX, tY, tZ, pX, pY, pZ) * invDet);
+        if (u <= 0 || alignZero(u - 1) >= 0) {
+            return 0;
+        }
+
+        // Q = T x E1, v = v * Q / det
+        double qX = crossX(tY, tZ, e1Y, e1Z);
+        double qY = crossY(tX, tZ, e1X, e1Z);
+        double qZ = crossZ(tX, tY, e1X, e1Y);
+        double v = alignZero(dotProduct(vX, vY, vZ, qX, qY, qZ) * invDet);
+        if (v <= 0 || alignZero(u + v - 1) >= 0) {
+            return 0;
+        }
+
+        // t = E2 * Q / det
+        double t = alignZero(dotProduct(e2X, e2Y, e2Z, qX, qY, qZ) * invDet);
+        if (t <= 0 || alignZero(t - maxDistance) > 0) {
+            return 0;
+        }
+        return t;
+    }
+
+    /**
+     * calculate the normal of a face, (V1 - V0) x (V2 - V0) normalized
+     *
+     * @param face - the index of the face
+     * @return the normal of the face
+     */
+    private Vector faceNormal(int face) {
+        double[] vertices = _vertices;
+        int a = _faces[face * 3] * 3, b = _faces[face * 3 + 1] * 3, c = _faces[face * 3 + 2] * 3;
+        double e1X = vertices[b] - vertices[a], e1Y = vertices[b + 1] - vertices[a + 1], e1Z = vertices[b + 2] - vertices[a + 2];
+        double e2X = vertices[c] - vertices[a], e2Y = vertices[c + 1] - vertices[a + 1], e2Z = vertices[c + 2] - vertices[a + 2];
+        return new Vector(crossX(e1Y, e1Z, e2Y, e2Z), crossY(e1X, e1Z, e2X, e2Z), crossZ(e1X, e1Y, e2X, e2Y))
+                .normalize();
+    }
+
+    /**
+     * create the intersection point of a ray with a face, with the normal of the face
+     *
+     * @param ray  - the ray
+     * @param face - the index of the face
+     * @param t    - the distance of the intersection on the ray
+     * @return the intersection point
+     */
+    private GeoPoint geoPoint(Ray ray, int face, double t) {
+        GeoPoint geoPoint = new GeoPoint(this, ray.getPoint(t));
+        geoPoint.n = faceNormal(face);
+        return geoPoint;
+    }
+
+    /**
+     * find all the intersections of the ray, without counting the traversal
+     *
+     * @see #findGeoIntersections(Ray, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb) {
+        return findGeoIntersections(ray, maxDistance, bb, null);
+    }
+
+    /**
+     * find all the intersections of the ray with the faces, the hierarchy is always used
+     *
+     * @param ray         - ray that cross the mesh
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          - ignored, the mesh has its own bounding volume hierarchy
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return list of intersection points that were found, null if there are none
+     */
+    @Override
+    public List<GeoPoint> findGeoIntersections(Ray ray, double maxDistance, boolean bb,
+                                               TraversalStatistics statistics) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double oX = p0.getX(), oY = p0.getY(), oZ = p0.getZ();
+        double dX = dir.getX(), dY = dir.getY(), dZ = dir.getZ();
+        double iX = 1 / dX, iY = 1 / dY, iZ = 1 / dZ;
+
+        List<GeoPoint> intersections = null;
+        int[] stack = _stack.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (statistics != null) {
+                statistics.countNodeVisit();
+            }
+            if (entryDistance(node, oX, oY, oZ, iX, iY, iZ, maxDistance) != Double.POSITIVE_INFINITY) {
+                int count = _nodeData[node * 2 + 1];
+                // inner node - visit the left child now and the right child later
+                if (count < 0) {
+                    stack[top++] = _nodeData[node * 2];
+                    ++node;
+                    continue;
+                }
+                // leaf - intersect its faces
+                int first = _nodeData[node * 2];
+                for (int face = first; face < first + count; ++face) {
+                    double t = intersectFace(face, oX, oY, oZ, dX, dY, dZ, maxDistance);
+                    if (t > 0) {
+                        if (intersections == null) {
+                            intersections = new LinkedList<>();
+                        }
+                        intersections.add(geoPoint(ray, face, t));
+                    }
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+        return intersections;
+    }
+
+    /**
+     * find the closest intersection of the ray, without counting the traversal
+     *
+     * @see #findClosestGeoIntersection(Ray, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb) {
+        return findClosestGeoIntersection(ray, maxDistance, bb, null);
+    }
+
+    /**
+     * find the closest intersection of the ray with the faces.
+     * the children of every node are visited front-to-back according to the direction of the ray
+     * on the node's split axis, and the distance bound shrinks whenever a closer face is found,
+     * so only the closest intersection point is created
+     *
+     * @param ray         - ray that cross the mesh
+     * @param maxDistance - the upper bound of distance, any point which
+     *                    its distance is greater than this bound will not be returned
+     * @param bb          - ignored, the mesh has its own bounding volume hierarchy
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the closest intersection, or null if there is none
+     */
+    @Override
+    public GeoPoint findClosestGeoIntersection(Ray ray, double maxDistance, boolean bb,
+                                               TraversalStatistics statistics) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double oX = p0.getX(), oY = p0.getY(), oZ = p0.getZ();
+        double dX = dir.getX(), dY = dir.getY(), dZ = dir.getZ();
+        double iX = 1 / dX, iY = 1 / dY, iZ = 1 / dZ;
+
+        // the direction of the ray is normalized, so the distance on the ray is the distance from its start
+        int closest = -1;
+        double best = maxDistance;
+        int[] stack = _stack.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (statistics != null) {
+                statistics.countNodeVisit();
+            }
+            if (entryDistance(node, oX, oY, oZ, iX, iY, iZ, best) != Double.POSITIVE_INFINITY) {
+                int count = _nodeData[node * 2 + 1];
+                // inner node - visit the near child now and the far child later
+                if (count < 0) {
+                    int axis = -count - 1;
+                    int left = node + 1;
+                    int right = _nodeData[node * 2];
+                    if ((axis == 0 ? dX : axis == 1 ? dY : dZ) >= 0) {
+                        stack[top++] = right;
+                        node = left;
+                    } else {
+                        stack[top++] = left;
+                        node = right;
+                    }
+                    continue;
+                }
+                // leaf - intersect its faces within the current best distance
+                int first = _nodeData[node * 2];
+                for (int face = first; face < first + count; ++face) {
+                    double t = intersectFace(face, oX, oY, oZ, dX, dY, dZ, best);
+                    if (t > 0 && (closest == -1 || t < best)) {
+                        best = t;
+                        closest = face;
+                    }
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+        return closest == -1 ? null : geoPoint(ray, closest, best);
+    }
+
+    /**
+     * find the transparency along the ray, without counting the traversal
+     *
+     * @see #findTransparency(Ray, double, double, boolean, TraversalStatistics)
+     */
+    @Override
+    public double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb) {
+        return findTransparency(ray, maxDistance, minKt, bb, null);
+    }
+
+    /**
+     * occlusion query - all the faces have the material of the mesh, so the transparency is multiplied
+     * for every face along the ray, and the traversal stops as soon as the product drops below the minimum
+     * (for an opaque mesh - at the first face which is hit)
+     *
+     * @param ray         - ray from the point towards the light
+     * @param maxDistance - the distance of the light, intersections beyond it do not block the light
+     * @param minKt       - the minimal transparency which is still considered, below it the ray is blocked
+     * @param bb          - ignored, the mesh has its own bounding volume hierarchy
+     * @param statistics  - the statistics of the rendering to count into, null for no counting
+     * @return the transparency along the ray, 1.0 if nothing blocks it and 0.0 if it is blocked
+     */
+    @Override
+    public double findTransparency(Ray ray, double maxDistance, double minKt, boolean bb,
+                                   TraversalStatistics statistics) {
+        Point3D p0 = ray.getP0();
+        Point3D dir = ray.getDir().getHead();
+        double oX = p0.getX(), oY = p0.getY(), oZ = p0.getZ();
+        double dX = dir.getX(), dY = dir.getY(), dZ = dir.getZ();
+        double iX = 1 / dX, iY = 1 / dY, iZ = 1 / dZ;
+
+        double kt = getMaterial().Kt;
+        double ktr = 1.0;
+        int[] stack = _stack.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            if (statistics != null) {
+                statistics.countNodeVisit();
+            }
+            if (entryDistance(node, oX, oY, oZ, iX, iY, iZ, maxDistance) != Double.POSITIVE_INFINITY) {
+                int count = _nodeData[node * 2 + 1];
+                if (count < 0) {
+                    stack[top++] = _nodeData[node * 2];
+                    ++node;
+                    continue;
+                }
+                int first = _nodeData[node * 2];
+                for (int face = first; face < first + count; ++face) {
+                    if (intersectFace(face, oX, oY, oZ, dX, dY, dZ, maxDistance) > 0) {
+                        ktr *= kt;
+                        if (ktr < minKt) {
+                            return 0.0;
+                        }
+                    }
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+        return ktr;
+    }
+
+    /**
+     * get the normal of the face which contains a point - the faces whose bounds contain the point
+     * are found through the hierarchy, and the first face which contains the point (up to a small tolerance)
+     * is taken (a point on an edge or a vertex is contained in all the faces around it).
+     * the intersections carry the normal of their face ({@link GeoPoint#getNormal()}) without searching
+     *
+     * @param point point on the mesh
+     * @return the normal of the face of the point
+     * @throws IllegalArgumentException if the point is not on any face of the mesh
+     */
+    @Override
+    public Vector getNormal(Point3D point) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        // the tolerance of a point on a face, relatively to the size of the mesh
+        double tolerance = ON_FACE_TOLERANCE * Math.sqrt(lengthSquared(
+                _nodeBounds[3] - _nodeBounds[0], _nodeBounds[4] - _nodeBounds[1], _nodeBounds[5] - _nodeBounds[2]));
+
+        int[] stack = _stack.get();
+        int top = 0;
+        int node = 0;
+        while (true) {
+            int offset = node * 6;
+            if (x >= _nodeBounds[offset] - tolerance && x <= _nodeBounds[offset + 3] + tolerance
+                    && y >= _nodeBounds[offset + 1] - tolerance && y <= _nodeBounds[offset + 4] + tolerance
+                    && z >= _nodeBounds[offset + 2] - tolerance && z <= _nodeBounds[offset + 5] + tolerance) {
+                int count = _nodeData[node * 2 + 1];
+                if (count < 0) {
+                    stack[top++] = _nodeData[node * 2];
+                    ++node;
+                    continue;
+                }
+                int first = _nodeData[node * 2];
+                for (int face = first; face < first + count; ++face) {
+                    if (containsPoint(face, x, y, z, tolerance)) {
+                        return faceNormal(face);
+                    }
+                }
+            }
+            if (top == 0) {
+                break;
+            }
+            node = stack[--top];
+        }
+        throw new IllegalArgumentException("The point is not on the mesh");
+    }
+
+    /**
+     * check whether a face contains a point - the point is on the plane of the face (up to the tolerance)
+     * and its barycentric coordinates are in the face (up to a relative tolerance)
+     *
+     * @param face      - the index of the face
+     * @param x         - x of the point
+     * @param y         - y of the point
+     * @param z         - z of the point
+     * @param tolerance - the maximal distance of the point from the plane of the face
+     * @return true if the face contains the point
+     */
+    private boolean containsPoint(int face, double x, double y, double z, double tolerance) {
+        double[] vertices = _vertices;
+        int a = _faces[face * 3] * 3, b = _faces[face * 3 + 1] * 3, c = _faces[face * 3 + 2] * 3;
+        double e1X = vertices[b] - vertices[a], e1Y = vertices[b + 1] - vertices[a + 1], e1Z = vertices[b + 2] - vertices[a + 2];
+        double e2X = vertices[c] - vertices[a], e2Y = vertices[c + 1] - vertices[a + 1], e2Z = vertices[c + 2] - vertices[a + 2];
+        double wX = x - vertices[a], wY = y - vertices[a + 1], wZ = z - vertices[a + 2];
+
+        // the distance from the plane of the face
+        double nX = crossX(e1Y, e1Z, e2Y, e2Z), nY = crossY(e1X, e1Z, e2X, e2Z), nZ = crossZ(e1X, e1Y, e2X, e2Y);
+        double length = Math.sqrt(lengthSquared(nX, nY, nZ));
+        if (length == 0 || Math.abs(dotProduct(nX, nY, nZ, wX, wY, wZ)) > tolerance * length) {
+            return false;
+        }
+
+        // the barycentric coordinates of the projection of the point on the plane
+        double d11 = dotProduct(e1X, e1Y, e1Z, e1X, e1Y, e1Z);
+        double d12 = dotProduct(e1X, e1Y, e1Z, e2X, e2Y, e2Z);
+        double d22 = dotProduct(e2X, e2Y, e2Z, e2X, e2Y, e2Z);
+        double dw1 = dotProduct(wX, wY, wZ, e1X, e1Y, e1Z);
+        double dw2 = dotProduct(wX, wY, wZ, e2X, e2Y, e2Z);
+        double denominator = d11 * d22 - d12 * d12;
+        double u = (d22 * dw1 - d12 * dw2) / denominator;
+        double v = (d11 * dw2 - d12 * dw1) / denominator;
+        return u >= -ON_FACE_TOLERANCE && v >= -ON_FACE_TOLERANCE && u + v <= 1 + ON_FACE_TOLERANCE;
+    }
+
+    /**
+     * method sets the values of the bounding volume to the bounds of the root of the hierarchy
+     */
+    @Override
+    public void setBoundingBox() {
+        super.setBoundingBox();
+        _boundingBox.setBoundingBox(
+                _nodeBounds[0], _nodeBounds[3],
+                _nodeBounds[1], _nodeBounds[4],
+                _nodeBounds[2], _nodeBounds[5]);
+    }
+
+    /**
+     * perform full comparison between a given object and this
+     *
+     * @param o - object
+     * @return - whether the object equals to this or not
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TriangleMesh mesh = (TriangleMesh) o;
+        return Arrays.equals(_vertices, mesh._vertices) && Arrays.equals(_faces, mesh._faces);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(_vertices) + Arrays.hashCode(_faces);
+    }
+
+    @Override
+    public String toString() {
+        return "TriangleMesh{" +
+                "vertices=" + getVertexCount() +
+                ", faces=" + getFaceCount() +
+                ", nodes=" + getNodeCount() +
+                '}';
+    }
+}
@@ -9,6 +9,7 @@ import java.util.Objects;
 
 import static primitives.Util.Determinant;
 import static primitives.Util.*;
+import static primitives.VectorMath.*;
 
 /**
  * Class Tube represent a smooth infinite surface, curvature at every point on its face fixed.
@@ -81,41 +82,48 @@ public class Tube extends RadialGeometry {
         // in the formulas from the presentation :
         // , is dotProduct
         // () is scale
+        // the vectors are kept as coordinates so no temporary objects are created
 
-        Vector Va = _axisRay.getDir(); // tube's vector
+        Point3D Va = _axisRay.getDir().getHead(); // tube's vector
         Point3D Pa = _axisRay.getP0(); // tube's ray starting point
+        double VaX = Va.getX(), VaY = Va.getY(), VaZ = Va.getZ();
 
         double r = getRadius();
         Point3D P = ray.getP0();        // ray's starting point
-        Vector V = ray.getDir();        // ray's vector
-
-        double VVa = alignZero(V.dotProduct(Va)); // dot product off the tube's ray and ray
-
-        Vector V_VVaVa;
-
-        // if the ray is orthogonal to the tube's ray
-        if (VVa == 0) {
-            V_VVaVa = V; // since VVaVa is 0
-        } else {
-            Vector VVaVa = Va.scale(VVa);
-            try {
-                V_VVaVa = V.subtract(VVaVa); // might be equal to (0,0,0)
-            } catch (IllegalArgumentException ex) {
+        Point3D V = ray.getDir().getHead();        // ray's vector
+        double VX = V.getX(), VY = V.getY(), VZ = V.getZ();
+
+        double VVa = alignZero(dotProduct(VX, VY, VZ, VaX, VaY, VaZ)); // dot product off the tube's ray and ray
+
+        // V - (V, Va)Va, which is V itself if the ray is orthogonal to the tube's ray (since VVaVa is 0)
+        double V_VVaVaX = VX, V_VVaVaY = VY, V_VVaVaZ = VZ;
+        if (VVa != 0) {
+            V_VVaVaX = alignZero(VX - VVa * VaX);
+            V_VVaVaY = alignZero(VY - VVa * VaY);
+            V_VVaVaZ = alignZero(VZ - VVa * VaZ);
+            // the ray is parallel to the tube's ray
+            if (isZeroVector(V_VVaVaX, V_VVaVaY, V_VVaVaZ)) {
                 return null;
             }
         }
 
-        Vector DP;
-        try {
-            DP = P.subtract(Pa);    // ΔP = P - Pa = (0, 0, 0) => P and Pa starts at the same point
-        } catch (IllegalArgumentException ex) {
+        // A = (V - (V * Va) * Va) ^ 2
+        double A = lengthSquared(V_VVaVaX, V_VVaVaY, V_VVaVaZ);
+
+        // ΔP = P - Pa
+        double DPX = alignZero(P.getX() - Pa.getX());
+        double DPY = alignZero(P.getY() - Pa.getY());
+        double DPZ = alignZero(P.getZ() - Pa.getZ());
+
+        // ΔP = (0, 0, 0) => P and Pa starts at the same point
+        if (isZeroVector(DPX, DPY, DPZ)) {
             // if orthogonal, the intersection point will have distance r from P
             if (VVa == 0) {
                 return List.of(new GeoPoint(this, ray.getPoint(r)));
             }
 
             // else, calculate the distance ray <-> intersection
-            double multiplier = alignZero(Math.sqrt(r * r / V_VVaVa.lengthSquared()));
+            double multiplier = alignZero(Math.sqrt(r * r / A));
 
             if (multiplier == 0) {
                 return null;
@@ -124,25 +132,18 @@ public class Tube extends RadialGeometry {
             }
         }
 
-
-        // A = (V - (V * Va) * Va) ^ 2
-        double A = (V_VVaVa).lengthSquared();
-
-        double DPVa = alignZero(DP.dotProduct(Va));
-        Vector DPVaVa;
-        Vector DP_DPVaVa;
-
-        // if orthogonal, the intersection point will have distance r from P
-        if (DPVa == 0) {
-            DP_DPVaVa = DP;
-        } else {
-            // the part of Va from Pa to the intersection with the ray
-            DPVaVa = Va.scale(DPVa);
-            try {
-                // the part of ray from P to the intersection with the tube's ray
-                DP_DPVaVa = DP.subtract(DPVaVa);
-            } catch (IllegalArgumentException ex) {
-                // else, calculate the distance ray <-> intersection
+        double DPVa = alignZero(dotProduct(DPX, DPY, DPZ, VaX, VaY, VaZ));
+
+        // ΔP - (ΔP, Va)Va - the part of ray from P to the intersection with the tube's ray,
+        // which is ΔP itself if it is orthogonal to the tube's ray
+        double DP_DPVaVaX = DPX, DP_DPVaVaY = DPY, DP_DPVaVaZ = DPZ;
+        if (DPVa != 0) {
+            DP_DPVaVaX = alignZero(DPX - DPVa * VaX);
+            DP_DPVaVaY = alignZero(DPY - DPVa * VaY);
+            DP_DPVaVaZ = alignZero(DPZ - DPVa * VaZ);
+            // P is on the tube's ray
+            if (isZeroVector(DP_DPVaVaX, DP_DPVaVaY, DP_DPVaVaZ)) {
+                // calculate the distance ray <-> intersection
                 double multiplier = alignZero(Math.sqrt(r * r / A));
                 if (multiplier == 0) {
                     return null;
@@ -153,10 +154,10 @@ public class Tube extends RadialGeometry {
         }
 
         // B = 2 * ((V - ((V * Va) * Va)) * (ΔP - (ΔP * Va) * Va))
-        double B = 2 * alignZero((V_VVaVa).dotProduct(DP_DPVaVa));
+        double B = 2 * alignZero(dotProduct(V_VVaVaX, V_VVaVaY, V_VVaVaZ, DP_DPVaVaX, DP_DPVaVaY, DP_DPVaVaZ));
 
         // C = (ΔP - (ΔP * Va) * Va) ^ 2 - r ^ 2
-        double C = (DP_DPVaVa.lengthSquared()) - (r * r);
+        double C = lengthSquared(DP_DPVaVaX, DP_DPVaVaY, DP_DPVaVaZ) - (r * r);
 
         double det = Determinant(A, B, C);
 
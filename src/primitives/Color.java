@@ -168,6 +168,33 @@ public class Color {
         );
     }
 
+    /**
+     * red component getter
+     *
+     * @return the red component (may be bigger than 255)
+     */
+    public double getR() {
+        return r;
+    }
+
+    /**
+     * green component getter
+     *
+     * @return the green component (may be bigger than 255)
+     */
+    public double getG() {
+        return g;
+    }
+
+    /**
+     * blue component getter
+     *
+     * @return the blue component (may be bigger than 255)
+     */
+    public double getB() {
+        return b;
+    }
+
     /**
      * Operation of adding this and one or more other colors (by component)
      *
@@ -0,0 +1,158 @@
+package primitives;
+
+/**
+ * ColorAccumulator class is a mutable accumulator of color samples (e.g. the colors of a beam's rays).
+ * it keeps the running sum of the samples' RGB components and their number, and optionally their sum of squares
+ * for the variance, so averaging the samples allocates nothing
+ * (unlike {@link Color#avgColor}, which needs a list of the colors and creates a new color for every addition)
+ */
+public class ColorAccumulator {
+    /**
+     * running sums of the RGB components of the samples
+     */
+    private double _sumR, _sumG, _sumB;
+    /**
+     * the first sample, which the variance sums are shifted by - for numerical stability
+     * (the differences from it are small when the samples are similar, so their squares do not cancel out)
+     */
+    private double _firstR, _firstG, _firstB;
+    /**
+     * running sums of the differences of the RGB components of the samples from the first sample
+     */
+    private double _sumDR, _sumDG, _sumDB;
+    /**
+     * running sums of the squares of the differences of the RGB components of the samples from the first sample
+     */
+    private double _sumSqR, _sumSqG, _sumSqB;
+    /**
+     * number of the samples
+     */
+    private int _count;
+    /**
+     * whether the sums of squares are accumulated for the variance
+     */
+    private final boolean _withVariance;
+
+    /**
+     * constructor of an accumulator for the average only
+     */
+    public ColorAccumulator() {
+        this(false);
+    }
+
+    /**
+     * constructor of an accumulator
+     *
+     * @param withVariance - whether the variance of the samples will be needed
+     */
+    public ColorAccumulator(boolean withVariance) {
+        _withVariance = withVariance;
+    }
+
+    /**
+     * add a sample
+     *
+     * @param color - the color of the sample
+     * @return the accumulator itself
+     */
+    public ColorAccumulator add(Color color) {
+        double r = color.getR();
+        double g = color.getG();
+        double b = color.getB();
+        _sumR += r;
+        _sumG += g;
+        _sumB += b;
+        if (_withVariance) {
+            if (_count == 0) {
+                _firstR = r;
+                _firstG = g;
+                _firstB = b;
+            }
+            r -= _firstR;
+            g -= _firstG;
+            b -= _firstB;
+            _sumDR += r;
+            _sumDG += g;
+            _sumDB += b;
+            _sumSqR += r * r;
+            _sumSqG += g * g;
+            _sumSqB += b * b;
+        }
+        ++_count;
+        return this;
+    }
+
+    /**
+     * remove all the samples, for reusing the accumulator
+     *
+     * @return the accumulator itself
+     */
+    public ColorAccumulator reset() {
+        _sumR = _sumG = _sumB = 0;
+        _sumDR = _sumDG = _sumDB = 0;
+        _sumSqR = _sumSqG = _sumSqB = 0;
+        _count = 0;
+        return this;
+    }
+
+    /**
+     * @return number of the samples
+     */
+    public int getCount() {
+        return _count;
+    }
+
+    /**
+     * calculate the average color of the samples
+     *
+     * @return the average color, black if there are no samples
+     */
+    public Color getAverage() {
+        if (_count == 0) {
+            return Color.BLACK;
+        }
+        double k = 1d / _count;
+        return new Color(_sumR * k, _sumG * k, _sumB * k);
+    }
+
+    /**
+     * calculate the (unbiased) sample variance of each RGB component and return the biggest of them
+     *
+     * @return the maximal variance of the RGB components, 0 if there are less than 2 samples
+     * @throws IllegalStateException if the accumulator was created without variance
+     */
+    public double getMaxVariance() {
+        if (!_withVariance) {
+            throw new IllegalStateException("The accumulator does not accumulate the variance");
+        }
+        if (_count < 2) {
+            return 0;
+        }
+        double max = Math.max(variance(_sumDR, _sumSqR), Math.max(variance(_sumDG, _sumSqG), variance(_sumDB, _sumSqB)));
+        // the rounding errors may make a zero variance a little negative
+        return Math.max(0, max);
+    }
+
+    /**
+     * calculate the standard error of the average (the estimated standard deviation of the average color),
+     * of the RGB component with the biggest variance
+     *
+     * @return the maximal standard error, 0 if there are less than 2 samples
+     * @throws IllegalStateException if the accumulator was created without variance
+     */
+    public double getMaxStandardError() {
+        double variance = getMaxVariance();
+        return _count < 2 ? 0 : Math.sqrt(variance / _count);
+    }
+
+    /**
+     * calculate the sample variance of a component from its sums
+     *
+     * @param sum   - sum of the differences of the component from the first sample
+     * @param sumSq - sum of the squares of the differences
+     * @return the variance of the component
+     */
+    private double variance(double sum, double sumSq) {
+        return (sumSq - sum * sum / _count) / (_count - 1);
+    }
+}
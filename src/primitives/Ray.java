@@ -4,6 +4,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Random;
+import java.util.function.Consumer;
 
 import geometries.Intersectable.GeoPoint;
 
@@ -90,9 +91,13 @@ public class Ray {
             throw new IllegalArgumentException("t must be bigger than 0");
         }
 
-        Vector V = _dir;
-        Point3D p = _p0.add(V.scale(t)); // P = P0 + Vt
-        return p;
+        // P = P0 + Vt, calculated on the coordinates without creating the scaled vector
+        Point3D v = _dir._head;
+        return new Point3D(
+                _p0._x._coord + v._x._coord * t,
+                _p0._y._coord + v._y._coord * t,
+                _p0._z._coord + v._z._coord * t
+        );
     }
 
     /**
@@ -164,57 +169,98 @@ public class Ray {
      */
     public List<Ray> randomRaysInCircle(Point3D center, Vector vUp, Vector vRight, double radius, int numRays, double dist) {
         List<Ray> rays = new LinkedList<>();
+        randomRaysInCircle(center, vUp, vRight, radius, numRays, dist, rays::add);
+        return rays;
+    }
 
-        rays.add(this); // including the original ray
+    /**
+     * auxiliary function to randomly scatter points within a circular surface.
+     * streams the rays which related to the surface to a consumer, one by one, without collecting them
+     *
+     * @param center   - center point of the circular surface.
+     * @param vUp      - upper vector of circular surface.
+     * @param vRight   - right vector of circular surface.
+     * @param radius   - radius of circular surface. (mostly aperture)
+     * @param numRays  - number of rays we create in the circular surface.
+     * @param dist     - distance between the view plane and the focal plane
+     * @param consumer - receives the rays from the area of the aperture to the focal point
+     */
+    public void randomRaysInCircle(Point3D center, Vector vUp, Vector vRight, double radius, int numRays, double dist,
+                                   Consumer<Ray> consumer) {
+        consumer.accept(this); // including the original ray
         if (radius == 0) {
             // radius input zero means there's no circular surface.
-            return rays;
+            return;
         }
 
         Point3D focalPoint = getPoint(dist);
 
         for (int i = 1; i < numRays; ++i) {
+            // add the ray from a new starting point to the focal point
+            consumer.accept(randomRayToPoint(center, vUp, vRight, radius, focalPoint));
+        }
+    }
 
-            // min = -1, max = 1
-            // which means the degree of the line which the points located (between 0 to Pie)
-            double cosTheta = -1 + (Math.random() * 2);
-
-            // using Pythagoras theorem, define the complement to cosTheta (the 'mashlim' in Hebrew)
-            double sinTheta = Math.sqrt(1 - cosTheta * cosTheta);
-
-            // min = -radius, max = +radius
-            // if we get extreme value, it means the new p0 will be located on the diameter,
-            // otherwise, somewhere in the middle of the circle
-            double d = -radius + (Math.random() * (2 * radius));
-
-            // Move from polar to Cartesian system:
-            double x_move = d * cosTheta;
-            double y_move = d * sinTheta;
-
-            // define a new starting point for the new ray
-            // start from the center of the circle
-            Point3D newP0 = center;
-
-            // if the x and y steps are not 0, move the point
-            if (!isZero(x_move)) {
-                newP0 = newP0.add(vRight.scale(x_move));
-            }
-            if (!isZero(y_move)) {
-                newP0 = newP0.add(vUp.scale(y_move));
-            }
-
-            // the vectors normalized inside Ray constructor
-//            if (_p0.equals(center)) {
-
-            // add the ray from the new starting point to the focal point
-            rays.add(new Ray(newP0, (focalPoint.subtract(newP0)))); // from surface
-
+    /**
+     * auxiliary function to create a single ray from a random point within a circular surface
+     * to the focal point of this ray (one of the rays of {@link #randomRaysInCircle})
+     *
+     * @param center - center point of the circular surface.
+     * @param vUp    - upper vector of circular surface.
+     * @param vRight - right vector of circular surface.
+     * @param radius - radius of circular surface. (mostly aperture)
+     * @param dist   - distance between the view plane and the focal plane
+     * @return a ray from the area of the aperture to the focal point, or this ray if the radius is zero
+     */
+    public Ray randomRayInCircle(Point3D center, Vector vUp, Vector vRight, double radius, double dist) {
+        if (radius == 0) {
+            // radius input zero means there's no circular surface.
+            return this;
+        }
+        return randomRayToPoint(center, vUp, vRight, radius, getPoint(dist));
+    }
 
-//            } else {
-//                rays.add(new Ray(_p0, (newP0.subtract(_p0)))); // toward surface
-//            }
+    /**
+     * create a ray from a random point within a circular surface to a target point
+     *
+     * @param center     - center point of the circular surface.
+     * @param vUp        - upper vector of circular surface.
+     * @param vRight     - right vector of circular surface.
+     * @param radius     - radius of circular surface.
+     * @param focalPoint - the point which the ray goes through
+     * @return the ray from the surface to the point
+     */
+    private static Ray randomRayToPoint(Point3D center, Vector vUp, Vector vRight, double radius, Point3D focalPoint) {
+        // min = -1, max = 1
+        // which means the degree of the line which the points located (between 0 to Pie)
+        double cosTheta = -1 + (Math.random() * 2);
+
+        // using Pythagoras theorem, define the complement to cosTheta (the 'mashlim' in Hebrew)
+        double sinTheta = Math.sqrt(1 - cosTheta * cosTheta);
+
+        // min = -radius, max = +radius
+        // if we get extreme value, it means the new p0 will be located on the diameter,
+        // otherwise, somewhere in the middle of the circle
+        double d = -radius + (Math.random() * (2 * radius));
+
+        // Move from polar to Cartesian system:
+        double x_move = d * cosTheta;
+        double y_move = d * sinTheta;
+
+        // define a new starting point for the new ray
+        // start from the center of the circle
+        Point3D newP0 = center;
+
+        // if the x and y steps are not 0, move the point
+        if (!isZero(x_move)) {
+            newP0 = newP0.add(vRight.scale(x_move));
         }
-        return rays;
+        if (!isZero(y_move)) {
+            newP0 = newP0.add(vUp.scale(y_move));
+        }
+
+        // the vectors normalized inside Ray constructor
+        return new Ray(newP0, (focalPoint.subtract(newP0))); // from surface
     }
 
     /**
@@ -231,6 +277,24 @@ public class Ray {
      */
     public List<Ray> randomRaysInGrid(Vector vUp, Vector vRight, int numRays, double dist, double pixelWidth, double pixelHeight) {
         List<Ray> rays = new LinkedList<>();
+        randomRaysInGrid(vUp, vRight, numRays, dist, pixelWidth, pixelHeight, rays::add);
+        return rays;
+    }
+
+    /**
+     * auxiliary function to randomly scatter points within a rectangular surface.
+     * streams the rays which relates to the surface to a consumer, one by one, without collecting them
+     *
+     * @param numRays     - number of rays we create in the rectangular surface.
+     * @param vUp         - upper vector of rectangular surface.
+     * @param vRight      - right vector of rectangular surface.
+     * @param dist        - of the camera from the view plane
+     * @param pixelWidth  - the width of a single pixel in view plane
+     * @param pixelHeight - the height of a single pixel in view plane
+     * @param consumer    - receives the rays from the area of the pixel to the scene
+     */
+    public void randomRaysInGrid(Vector vUp, Vector vRight, int numRays, double dist, double pixelWidth, double pixelHeight,
+                                 Consumer<Ray> consumer) {
 
         // the starting point of the original vector
         Point3D p0 = _p0;
@@ -284,12 +348,11 @@ public class Ray {
 
                 // make sure we do not add the canter ray more than once
                 if (!newRayStartPoint.equals(pixelCenter)) {
-                    rays.add(new Ray(p0, (newRayStartPoint.subtract(p0)))); // normalized inside Ray constructor
+                    consumer.accept(new Ray(p0, (newRayStartPoint.subtract(p0)))); // normalized inside Ray constructor
                 }
 
             }
         }
-        return rays;
     }
 
     @Override
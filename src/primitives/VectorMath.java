@@ -0,0 +1,97 @@
+package primitives;
+
+import static primitives.Util.isZero;
+
+/**
+ * VectorMath class is a primitive math layer for the hot paths of the ray tracing (e.g. intersections).
+ * the methods work on the double values of the coordinates and allocate nothing,
+ * unlike {@link Vector} and {@link Point3D} operations which create new objects for every result.
+ * vectors are passed as their 3 coordinates, and a cross product is calculated coordinate by coordinate
+ */
+public abstract class VectorMath {
+
+    /**
+     * Empty private ctor to hide the public one
+     */
+    private VectorMath() {
+    }
+
+    /**
+     * calculates the dot product of two vectors
+     *
+     * @param x1 - x coordinate of the 1st vector
+     * @param y1 - y coordinate of the 1st vector
+     * @param z1 - z coordinate of the 1st vector
+     * @param x2 - x coordinate of the 2nd vector
+     * @param y2 - y coordinate of the 2nd vector
+     * @param z2 - z coordinate of the 2nd vector
+     * @return x1*x2 + y1*y2 + z1*z2
+     */
+    public static double dotProduct(double x1, double y1, double z1, double x2, double y2, double z2) {
+        return x1 * x2 + y1 * y2 + z1 * z2;
+    }
+
+    /**
+     * calculates the squared length of a vector
+     *
+     * @param x - x coordinate of the vector
+     * @param y - y coordinate of the vector
+     * @param z - z coordinate of the vector
+     * @return x^2 + y^2 + z^2
+     */
+    public static double lengthSquared(double x, double y, double z) {
+        return x * x + y * y + z * z;
+    }
+
+    /**
+     * calculates the x coordinate of the cross product of two vectors
+     *
+     * @param y1 - y coordinate of the 1st vector
+     * @param z1 - z coordinate of the 1st vector
+     * @param y2 - y coordinate of the 2nd vector
+     * @param z2 - z coordinate of the 2nd vector
+     * @return y1*z2 - z1*y2
+     */
+    public static double crossX(double y1, double z1, double y2, double z2) {
+        return y1 * z2 - z1 * y2;
+    }
+
+    /**
+     * calculates the y coordinate of the cross product of two vectors
+     *
+     * @param x1 - x coordinate of the 1st vector
+     * @param z1 - z coordinate of the 1st vector
+     * @param x2 - x coordinate of the 2nd vector
+     * @param z2 - z coordinate of the 2nd vector
+     * @return z1*x2 - x1*z2
+     */
+    public static double crossY(double x1, double z1, double x2, double z2) {
+        return z1 * x2 - x1 * z2;
+    }
+
+    /**
+     * calculates the z coordinate of the cross product of two vectors
+     *
+     * @param x1 - x coordinate of the 1st vector
+     * @param y1 - y coordinate of the 1st vector
+     * @param x2 - x coordinate of the 2nd vector
+     * @param y2 - y coordinate of the 2nd vector
+     * @return x1*y2 - y1*x2
+     */
+    public static double crossZ(double x1, double y1, double x2, double y2) {
+        return x1 * y2 - y1 * x2;
+    }
+
+    /**
+     * checks whether a vector is [almost] the zero vector,
+     * in the same accuracy which {@link Vector} uses to reject the zero vector
+     *
+     * @param x - x coordinate of the vector
+     * @param y - y coordinate of the vector
+     * @param z - z coordinate of the vector
+     * @return true if all the coordinates are zero or almost zero, false otherwise
+     */
+    public static boolean isZeroVector(double x, double y, double z) {
+        return isZero(x) && isZero(y) && isZero(z);
+    }
+}
@@ -1,13 +1,13 @@
 package renderer;
 
 import elements.*;
+import geometries.FlatBVH;
+import geometries.TraversalStatistics;
 import geometries.Intersectable.*;
 import primitives.*;
 
 import scene.*;
 
-import java.util.List;
-
 import static primitives.Util.*;
 
 /**
@@ -58,6 +58,24 @@ public class BasicRayTracer extends RayTracerBase {
         return this;
     }
 
+    /**
+     * compiled flat bounding volume hierarchy of the scene, null when this traversal mode is off
+     */
+    private FlatBVH _flatBVH;
+
+    /**
+     * setter for the flat bounding volume hierarchy traversal mode.
+     * the hierarchy is compiled from the scene's geometries when the mode is turned on,
+     * so all the geometries should be added to the scene before calling this setter
+     *
+     * @param flatBVH whether to trace the rays through the compiled hierarchy
+     * @return this instance
+     */
+    public BasicRayTracer set_flatBVH(boolean flatBVH) {
+        _flatBVH = flatBVH ? new FlatBVH(_scene.geometries) : null;
+        return this;
+    }
+
     /**
      * constructor
      *
@@ -76,6 +94,9 @@ public class BasicRayTracer extends RayTracerBase {
      */
     @Override
     public Color traceRay(Ray ray) {
+        if (_statistics != null) {
+            _statistics.countPrimaryRay();
+        }
 
         GeoPoint closestPoint = findClosestIntersection(ray);
 
@@ -94,20 +115,11 @@ public class BasicRayTracer extends RayTracerBase {
      * @return the point closest to the ray's starting point
      */
     private GeoPoint findClosestIntersection(Ray ray) {
-
-        List<GeoPoint> intersections;
-
-        if (!_bb) {
-            intersections = _scene.geometries.findGeoIntersections(ray);
-        } else {
-            intersections = _scene.geometries.findIntersectBoundingRegion(ray);
-        }
-
-        if (intersections == null || intersections.size() == 0) {
-            return null;
-        } else {
-            return ray.findClosestGeoPoint(intersections);
+        TraversalStatistics traversal = _statistics != null ? _statistics.getTraversal() : null;
+        if (_flatBVH != null) {
+            return _flatBVH.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, true, traversal);
         }
+        return _scene.geometries.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, _bb, traversal);
     }
 
     /**
@@ -166,20 +178,30 @@ public class BasicRayTracer extends RayTracerBase {
         double KKr = K * material.Kr;
 
         // vector normal
-        Vector n = geoPoint.geometry.getNormal(geoPoint.point);
+        Vector n = geoPoint.getNormal();
 
         if (KKr > MIN_CALC_COLOR_K) {
+            if (_statistics != null) {
+                _statistics.countReflectedRay();
+            }
             Ray reflectedRay = constructReflectedRay(n, geoPoint.point, ray);
             GeoPoint reflectedPoint = findClosestIntersection(reflectedRay);
             color = color.add(calcColor(reflectedPoint, reflectedRay, level - 1, KKr).scale(material.Kr));
+        } else if (_statistics != null && material.Kr > 0) {
+            _statistics.countEarlyOut();
         }
 
         double KKt = K * material.Kt;
 
         if (KKt > MIN_CALC_COLOR_K) {
+            if (_statistics != null) {
+                _statistics.countRefractedRay();
+            }
             Ray refractedRay = constructRefractedRay(n, geoPoint.point, ray);
             GeoPoint refractedPoint = findClosestIntersection(refractedRay);
             color = color.add(calcColor(refractedPoint, refractedRay, level - 1, KKt).scale(material.Kt));
+        } else if (_statistics != null && material.Kt > 0) {
+            _statistics.countEarlyOut();
         }
         return color;
     }
@@ -197,7 +219,7 @@ public class BasicRayTracer extends RayTracerBase {
         Color color = point.geometry.getEmission();
 
         Vector v = ray.getDir();
-        Vector n = point.geometry.getNormal(point.point);
+        Vector n = point.getNormal();
 
         double nv = alignZero(n.dotProduct(v));
         if (isZero(nv)) {
@@ -234,6 +256,9 @@ public class BasicRayTracer extends RayTracerBase {
                             calcDiffusive(kd, l, n, lightIntensity),
                             calcSpecular(ks, l, n, v, nShininess, lightIntensity, nl)
                     );
+                } else if (_statistics != null && ktr > 0) {
+                    // the light is not blocked, but its effect is too weak
+                    _statistics.countEarlyOut();
                 }
             }
         }
@@ -359,34 +384,19 @@ public class BasicRayTracer extends RayTracerBase {
         // construct a new ray using the new 3 arguments CTOR
         Ray lightRay = new Ray(geoPoint.point, lightDirection, n);
 
-        // distance between the light source and the point
-        double lightDistance = light.getDistance(geoPoint.point);
-
-        List<GeoPoint> intersections;
-        if (!_bb) {
-            intersections = _scene.geometries.findGeoIntersections(lightRay);
-        } else {
-            intersections = _scene.geometries.findIntersectBoundingRegion(lightRay);
+        if (_statistics != null) {
+            _statistics.countShadowRay();
         }
 
-        // if no intersections, the ray is not blocked at all, meaning full transparency!
-        if (intersections == null) {
-            return 1.0;
-        }
-
-        // else..
-        // initialize the transparency coefficient
-        double KTr = 1.0;
+        // distance between the light source and the point
+        double lightDistance = light.getDistance(geoPoint.point);
 
-        // loop through the intersections and multiply the transparency factors to get final results
-        for (GeoPoint gp : intersections) {
-            if (alignZero(gp.point.distance(geoPoint.point) - lightDistance) <= 0) {
-                KTr *= gp.geometry.getMaterial().Kt;
-                if (KTr < MIN_CALC_COLOR_K) {
-                    return 0.0;
-                }
-            }
+        // multiply the transparency factors of the geometries between the point and the light source,
+        // the query stops as soon as the light is (almost) fully blocked
+        TraversalStatistics traversal = _statistics != null ? _statistics.getTraversal() : null;
+        if (_flatBVH != null) {
+            return _flatBVH.findTransparency(lightRay, lightDistance, MIN_CALC_COLOR_K, true, traversal);
         }
-        return KTr;
+        return _scene.geometries.findTransparency(lightRay, lightDistance, MIN_CALC_COLOR_K, _bb, traversal);
     }
 }
@@ -3,18 +3,34 @@ package renderer;
 import primitives.Color;
 
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import javax.imageio.ImageIO;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-
-import javax.imageio.*;
+import java.util.zip.Deflater;
 
 /**
  * Image writer class combines accumulation of pixel color matrix and finally
  * producing a non-optimized jpeg image from this matrix. The class although is
  * responsible of holding image related parameters of View Plane - pixel matrix
- * size and resolution
+ * size and resolution.
+ * the pixels are kept unclamped (high dynamic range) in a flat float array, which the rendering threads
+ * write to by index without any lock, and they are tone mapped to 8 bits only when the image is written
  *
  * @author Dan
  */
@@ -24,9 +40,71 @@ public class ImageWriter {
 
     private static final String FOLDER_PATH = System.getProperty("user.dir") + "/images";
 
-    private BufferedImage image;
+    /**
+     * the colors of the pixels, 3 values (r, g, b) per pixel, row by row
+     */
+    private final float[] pixels;
     private String imageName;
 
+    /**
+     * the operators which map the colors of the pixels to 8 bits when the image is written
+     */
+    public enum ToneMapping {
+        /**
+         * every component is truncated and clamped to 255
+         */
+        CLAMP,
+        /**
+         * every component is compressed by the Reinhard operator x / (1 + x) (where 255 is 1),
+         * so the bright colors are not burnt out
+         */
+        REINHARD
+    }
+
+    /**
+     * the compression levels of the PNG files
+     */
+    public enum Compression {
+        /**
+         * the default compression of deflate - the smallest files
+         */
+        DEFAULT(Deflater.DEFAULT_COMPRESSION),
+        /**
+         * the fastest compression of deflate, e.g. for intermediate frames
+         */
+        FAST(Deflater.BEST_SPEED),
+        /**
+         * no compression at all (and no filtering of the rows) - the fastest to write, the biggest files
+         */
+        NONE(Deflater.NO_COMPRESSION);
+
+        /**
+         * the compression level of the deflater
+         */
+        private final int level;
+
+        /**
+         * @param level - the compression level of the deflater
+         */
+        Compression(int level) {
+            this.level = level;
+        }
+    }
+
+    /**
+     * the compression level of the PNG file
+     */
+    private Compression compression = Compression.DEFAULT;
+
+    /**
+     * the tone mapping operator of the image
+     */
+    private ToneMapping toneMapping = ToneMapping.CLAMP;
+    /**
+     * the factor which the colors are multiplied by before the tone mapping
+     */
+    private double exposure = 1;
+
     private Logger logger = Logger.getLogger("ImageWriter");
 
     // ***************** Constructors ********************** //
@@ -43,7 +121,37 @@ public class ImageWriter {
         this.nX = nX;
         this.nY = nY;
 
-        image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        pixels = new float[nX * nY * 3];
+    }
+
+    /**
+     * Image Writer constructor which reads an existing image file (e.g. to render a crop window into it) -
+     * its pixels are the 8 bit colors of the file
+     *
+     * @param imageName the name of the png file in the directory of the images, without the extension
+     * @throws UncheckedIOException if the file can not be read
+     */
+    public ImageWriter(String imageName) {
+        this.imageName = imageName;
+        File file = new File(FOLDER_PATH + '/' + imageName + ".png");
+        BufferedImage image;
+        try {
+            image = ImageIO.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Image " + file + " can not be read", e);
+        }
+        if (image == null) {
+            throw new UncheckedIOException(new IOException("Image " + file + " is not a supported image"));
+        }
+        nX = image.getWidth();
+        nY = image.getHeight();
+        pixels = new float[nX * nY * 3];
+        int[] rgb = image.getRGB(0, 0, nX, nY, null, 0, nX);
+        for (int i = 0; i < rgb.length; ++i) {
+            pixels[i * 3] = (rgb[i] >> 16) & 0xFF;
+            pixels[i * 3 + 1] = (rgb[i] >> 8) & 0xFF;
+            pixels[i * 3 + 2] = rgb[i] & 0xFF;
+        }
     }
 
     // ***************** Getters/Setters ********************** //
@@ -75,6 +183,42 @@ public class ImageWriter {
         return imageName;
     }
 
+    /**
+     * setter - chaining method
+     *
+     * @param toneMapping - the operator which maps the colors of the pixels to 8 bits
+     * @return this instance
+     */
+    public ImageWriter setToneMapping(ToneMapping toneMapping) {
+        this.toneMapping = toneMapping;
+        return this;
+    }
+
+    /**
+     * setter - chaining method
+     *
+     * @param exposure - the factor which the colors are multiplied by before the tone mapping
+     * @return this instance
+     */
+    public ImageWriter setExposure(double exposure) {
+        if (exposure <= 0) {
+            throw new IllegalArgumentException("exposure must be positive");
+        }
+        this.exposure = exposure;
+        return this;
+    }
+
+    /**
+     * setter - chaining method
+     *
+     * @param compression - the compression level of the PNG file
+     * @return this instance
+     */
+    public ImageWriter setCompression(Compression compression) {
+        this.compression = compression;
+        return this;
+    }
+
     // ***************** Operations ******************** //
 
     /**
@@ -83,8 +227,137 @@ public class ImageWriter {
      */
     public void writeToImage() {
         try {
-            File file = new File(FOLDER_PATH + '/' + imageName + ".png");
-            ImageIO.write(image, "png", file);
+            encode(toImage(), new File(FOLDER_PATH + '/' + imageName + ".png"));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+    }
+
+    /**
+     * Function writeToImageAsync produces the png file of the image in the background,
+     * on the common fork join pool
+     *
+     * @return future of the file, which completes when the file is written
+     * @see #writeToImageAsync(Executor)
+     */
+    public CompletableFuture<File> writeToImageAsync() {
+        return writeToImageAsync(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Function writeToImageAsync produces the png file of the image in the background.
+     * the pixels are tone mapped on the calling thread (a quick pass), so the pixels may be written again
+     * (e.g. by the rendering of the next frame) as soon as this method returns,
+     * and the encoding and the writing of the file are done on the executor
+     * (the rows are compressed in parallel on the common fork join pool).
+     * the caller should wait for the future before the program exits
+     *
+     * @param executor - the executor to encode the image on
+     * @return future of the file, which completes when the file is written,
+     * or completes exceptionally with an {@link UncheckedIOException} if it can not be written
+     */
+    public CompletableFuture<File> writeToImageAsync(Executor executor) {
+        BufferedImage image = toImage();
+        File file = new File(FOLDER_PATH + '/' + imageName + ".png");
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                encode(image, file);
+                return file;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, executor);
+    }
+
+    /**
+     * encode a tone mapped image to a png file
+     *
+     * @param image - the image
+     * @param file  - the file
+     * @throws IOException if the file can not be written
+     */
+    private void encode(BufferedImage image, File file) throws IOException {
+        int[] rgb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            new PngEncoder(rgb, nX, nY, compression.level).encode(output);
+        }
+    }
+
+    /**
+     * tone map all the pixels to an 8 bit image, in one pass over the pixels
+     * straight into the raster of the image
+     *
+     * @return the image
+     */
+    public BufferedImage toImage() {
+        BufferedImage image = new BufferedImage(nX, nY, BufferedImage.TYPE_INT_RGB);
+        int[] rgb = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        float scale = (float) exposure;
+        if (toneMapping == ToneMapping.CLAMP) {
+            for (int i = 0; i < rgb.length; ++i) {
+                int r = Math.min((int) (pixels[i * 3] * scale), 255);
+                int g = Math.min((int) (pixels[i * 3 + 1] * scale), 255);
+                int b = Math.min((int) (pixels[i * 3 + 2] * scale), 255);
+                rgb[i] = r << 16 | g << 8 | b;
+            }
+        } else {
+            // 255 * x / (1 + x) where x = value / 255
+            float white = 255f;
+            for (int i = 0; i < rgb.length; ++i) {
+                float r = pixels[i * 3] * scale;
+                float g = pixels[i * 3 + 1] * scale;
+                float b = pixels[i * 3 + 2] * scale;
+                rgb[i] = (int) (white * r / (white + r)) << 16
+                        | (int) (white * g / (white + g)) << 8
+                        | (int) (white * b / (white + b));
+            }
+        }
+        return image;
+    }
+
+    /**
+     * copy a window of the image to a new image writer, with the same tone mapping, exposure and compression
+     *
+     * @param imageName the name of the new image
+     * @param col       the first column of the window
+     * @param row       the first row of the window
+     * @param width     number of columns in the window
+     * @param height    number of rows in the window
+     * @return the image writer of the window
+     */
+    public ImageWriter crop(String imageName, int col, int row, int width, int height) {
+        if (col < 0 || row < 0 || width <= 0 || height <= 0 || col + width > nX || row + height > nY) {
+            throw new IllegalArgumentException("Window is out of the image");
+        }
+        ImageWriter window = new ImageWriter(imageName, width, height);
+        window.toneMapping = toneMapping;
+        window.exposure = exposure;
+        window.compression = compression;
+        for (int y = 0; y < height; ++y) {
+            System.arraycopy(pixels, ((row + y) * nX + col) * 3, window.pixels, y * width * 3, width * 3);
+        }
+        return window;
+    }
+
+    /**
+     * Function writeToPfm produces a PFM file (portable float map) of the unclamped colors of the pixels,
+     * in the directory of the project. the colors are written as they are divided by 255 (so 1.0 is white),
+     * without exposure and tone mapping
+     */
+    public void writeToPfm() {
+        File file = new File(FOLDER_PATH + '/' + imageName + ".pfm");
+        try (OutputStream output = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            // a negative scale means little endian
+            output.write(("PF\n" + nX + " " + nY + "\n-1.0\n").getBytes(StandardCharsets.US_ASCII));
+            ByteBuffer row = ByteBuffer.allocate(nX * 3 * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            // the rows of a PFM file are from the bottom to the top
+            for (int y = nY - 1; y >= 0; --y) {
+                row.clear();
+                for (int i = y * nX * 3; i < (y + 1) * nX * 3; ++i) {
+                    row.putFloat(pixels[i] / 255f);
+                }
+                output.write(row.array());
+            }
         } catch (IOException e) {
             logger.log(Level.SEVERE, "I/O error", e);
         }
@@ -92,15 +365,72 @@ public class ImageWriter {
 
 
 
+    /**
+     * Function writeToCsv produces a CSV file of values of the pixels (e.g. diagnostic data of the rendering)
+     * in the directory of the project, named by the image - a row of the file for each row of pixels
+     *
+     * @param values the values of the pixels row by row (nX * nY values)
+     */
+    public void writeToCsv(long[] values) {
+        if (values.length != nX * nY) {
+            throw new IllegalArgumentException("There must be a value for each pixel");
+        }
+        File file = new File(FOLDER_PATH + '/' + imageName + ".csv");
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file)))) {
+            for (int row = 0; row < nY; ++row) {
+                StringBuilder line = new StringBuilder();
+                for (int col = 0; col < nX; ++col) {
+                    if (col > 0) {
+                        line.append(',');
+                    }
+                    line.append(values[row * nX + col]);
+                }
+                writer.println(line);
+            }
+            if (writer.checkError()) {
+                logger.log(Level.SEVERE, "I/O error in writing " + file);
+            }
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "I/O error", e);
+        }
+    }
+
     /**
      * The function writePixel writes a color of a specific pixel into pixel color
-     * matrix
+     * matrix. the color is kept unclamped, and different pixels may be written concurrently
      *
      * @param xIndex X axis index of the pixel
      * @param yIndex Y axis index of the pixel
      * @param color  final color of the pixel
      */
     public void writePixel(int xIndex, int yIndex, Color color) {
-        image.setRGB(xIndex, yIndex, color.getColor().getRGB());
+        int index = (yIndex * nX + xIndex) * 3;
+        pixels[index] = floorFloat(color.getR());
+        pixels[index + 1] = floorFloat(color.getG());
+        pixels[index + 2] = floorFloat(color.getB());
+    }
+
+    /**
+     * round a component down to a float, so it is truncated to 8 bits exactly like the double
+     * (e.g. 127.99999999 is not rounded up to 128)
+     *
+     * @param value - a component of a color
+     * @return the biggest float which is not bigger than the component
+     */
+    private static float floorFloat(double value) {
+        float f = (float) value;
+        return f > value ? Math.nextDown(f) : f;
+    }
+
+    /**
+     * The function readPixel reads the (unclamped) color of a specific pixel
+     *
+     * @param xIndex X axis index of the pixel
+     * @param yIndex Y axis index of the pixel
+     * @return the color of the pixel
+     */
+    public Color readPixel(int xIndex, int yIndex) {
+        int index = (yIndex * nX + xIndex) * 3;
+        return new Color(pixels[index], pixels[index + 1], pixels[index + 2]);
     }
 }
\ No newline at end of file
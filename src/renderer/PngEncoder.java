@@ -0,0 +1,348 @@
+package renderer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.IntStream;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * class encodes 8 bit RGB pixels as a PNG file, with the rows split into strips which are
+ * filtered and compressed in parallel.
+ * every strip is compressed by its own deflater and ends with a sync flush (the last one is finished),
+ * so the compressed strips are concatenated into one valid zlib stream, like a sequential compression
+ * with a flush every few rows - it costs a few bytes per strip and a little of the compression ratio
+ */
+class PngEncoder {
+
+    /**
+     * the signature of every PNG file
+     */
+    private static final byte[] SIGNATURE = {(byte) 137, 'P', 'N', 'G', '\r', '\n', 26, '\n'};
+
+    /**
+     * number of rows in a strip
+     */
+    private static final int STRIP_ROWS = 32;
+
+    /**
+     * the PNG filter types
+     */
+    private static final int NONE = 0, SUB = 1, UP = 2, AVERAGE = 3, PAETH = 4;
+
+    /**
+     * the pixels, as 0xRRGGBB per pixel, row by row
+     */
+    private final int[] _rgb;
+    /**
+     * width of the image
+     */
+    private final int _width;
+    /**
+     * height of the image
+     */
+    private final int _height;
+    /**
+     * the compression level of the deflater (0 - no compression)
+     */
+    private final int _level;
+
+    /**
+     * constructor of an encoder of an image
+     *
+     * @param rgb    - the pixels, as 0xRRGGBB per pixel, row by row
+     * @param width  - width of the image
+     * @param height - height of the image
+     * @param level  - the compression level of the deflater, from {@link Deflater#NO_COMPRESSION}
+     *               to {@link Deflater#BEST_COMPRESSION}, or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    PngEncoder(int[] rgb, int width, int height, int level) {
+        _rgb = rgb;
+        _width = width;
+        _height = height;
+        _level = level;
+    }
+
+    /**
+     * encode the image to an output
+     *
+     * @param output - the output
+     * @throws IOException if the output can not be written
+     */
+    void encode(OutputStream output) throws IOException {
+        int strips = (_height + STRIP_ROWS - 1) / STRIP_ROWS;
+
+        // filter the strips in parallel, and then compress them in parallel
+        byte[][] filtered = new byte[strips][];
+        byte[][] compressed = new byte[strips][];
+        IntStream.range(0, strips).parallel().forEach(strip -> {
+            filtered[strip] = filter(strip);
+            compressed[strip] = compress(filtered[strip], strip == strips - 1);
+        });
+
+        // the checksum of the zlib stream is of all the filtered data
+        Adler32 adler = new Adler32();
+        for (byte[] data : filtered) {
+            adler.update(data);
+        }
+
+        output.write(SIGNATURE);
+
+        byte[] header = new byte[13];
+        putInt(header, 0, _width);
+        putInt(header, 4, _height);
+        header[8] = 8;  // bits per component
+        header[9] = 2;  // RGB
+        writeChunk(output, "IHDR", header);
+
+        // a single IDAT chunk of the zlib header, the compressed strips and the checksum
+        int length = 2 + 4;
+        for (byte[] data : compressed) {
+            length += data.length;
+        }
+        byte[] zlibHeader = {0x78, (byte) (_level == Deflater.DEFAULT_COMPRESSION || _level > 5 ? 0x9C : 0x01)};
+        byte[] checksum = new byte[4];
+        putInt(checksum, 0, (int) adler.getValue());
+
+        CRC32 crc = new CRC32();
+        byte[] lengthAndType = new byte[8];
+        putInt(lengthAndType, 0, length);
+        lengthAndType[4] = 'I';
+        lengthAndType[5] = 'D';
+        lengthAndType[6] = 'A';
+        lengthAndType[7] = 'T';
+        output.write(lengthAndType);
+        crc.update(lengthAndType, 4, 4);
+        output.write(zlibHeader);
+        crc.update(zlibHeader);
+        for (byte[] data : compressed) {
+            output.write(data);
+            crc.update(data);
+        }
+        output.write(checksum);
+        crc.update(checksum);
+        writeCrc(output, crc);
+
+        writeChunk(output, "IEND", new byte[0]);
+    }
+
+    /**
+     * filter the rows of a strip - every row starts with its filter type, and the filter is the one
+     * whose output has the smallest sum of absolute values (the usual heuristic).
+     * with the fastest compression all the rows are filtered by the up filter,
+     * and without compression the rows are not filtered at all
+     *
+     * @param strip - the index of the strip
+     * @return the filtered rows
+     */
+    private byte[] filter(int strip) {
+        int first = strip * STRIP_ROWS;
+        int last = Math.min(first + STRIP_ROWS, _height);
+        int rowBytes = _width * 3;
+        byte[] data = new byte[(last - first) * (rowBytes + 1)];
+        byte[] previous = new byte[rowBytes];
+        byte[] current = new byte[rowBytes];
+        byte[] candidate = new byte[rowBytes];
+        byte[] best = new byte[rowBytes];
+        if (first > 0) {
+            row(first - 1, previous);
+        }
+
+        int offset = 0;
+        for (int y = first; y < last; ++y) {
+            row(y, current);
+            int bestType = NONE;
+            System.arraycopy(current, 0, best, 0, rowBytes);
+            if (_level == Deflater.BEST_SPEED) {
+                // the fastest compression uses the up filter for all the rows, without trying the others
+                filterRow(UP, current, previous, best, y > 0);
+                bestType = UP;
+            } else if (_level != Deflater.NO_COMPRESSION) {
+                long bestSum = sum(current);
+                for (int type = SUB; type <= PAETH; ++type) {
+                    filterRow(type, current, previous, candidate, y > 0);
+                    long sum = sum(candidate);
+                    if (sum < bestSum) {
+                        bestSum = sum;
+                        bestType = type;
+                        byte[] temp = best;
+                        best = candidate;
+                        candidate = temp;
+                    }
+                }
+            }
+            data[offset] = (byte) bestType;
+            System.arraycopy(best, 0, data, offset + 1, rowBytes);
+            offset += rowBytes + 1;
+
+            byte[] temp = previous;
+            previous = current;
+            current = temp;
+        }
+        return data;
+    }
+
+    /**
+     * get the bytes of a row of pixels
+     *
+     * @param y   - the index of the row
+     * @param row - the array of the bytes to fill, 3 per pixel
+     */
+    private void row(int y, byte[] row) {
+        int pixel = y * _width;
+        for (int x = 0; x < _width; ++x) {
+            int rgb = _rgb[pixel + x];
+            row[x * 3] = (byte) (rgb >> 16);
+            row[x * 3 + 1] = (byte) (rgb >> 8);
+            row[x * 3 + 2] = (byte) rgb;
+        }
+    }
+
+    /**
+     * filter a row by a filter type
+     *
+     * @param type        - the filter type
+     * @param current     - the bytes of the row
+     * @param previous    - the bytes of the previous row
+     * @param output      - the array of the filtered bytes to fill
+     * @param hasPrevious - false for the first row of the image, whose previous row is considered zeros
+     */
+    private static void filterRow(int type, byte[] current, byte[] previous, byte[] output, boolean hasPrevious) {
+        for (int i = 0; i < current.length; ++i) {
+            int x = current[i] & 0xFF;
+            int a = i >= 3 ? current[i - 3] & 0xFF : 0;
+            int b = hasPrevious ? previous[i] & 0xFF : 0;
+            int c = hasPrevious && i >= 3 ? previous[i - 3] & 0xFF : 0;
+            int predictor;
+            switch (type) {
+                case SUB:
+                    predictor = a;
+                    break;
+                case UP:
+                    predictor = b;
+                    break;
+                case AVERAGE:
+                    predictor = (a + b) >> 1;
+                    break;
+                default:
+                    predictor = paeth(a, b, c);
+            }
+            output[i] = (byte) (x - predictor);
+        }
+    }
+
+    /**
+     * the Paeth predictor - the one of the left, the upper and the upper left bytes
+     * which is the closest to left + upper - upper left
+     *
+     * @param a - the left byte
+     * @param b - the upper byte
+     * @param c - the upper left byte
+     * @return the predictor
+     */
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    /**
+     * @param row - filtered bytes
+     * @return the sum of the bytes as signed values, in absolute value
+     */
+    private static long sum(byte[] row) {
+        long sum = 0;
+        for (byte value : row) {
+            sum += Math.abs(value);
+        }
+        return sum;
+    }
+
+    /**
+     * compress the filtered rows of a strip to raw deflate data
+     *
+     * @param data - the filtered rows
+     * @param last - whether it is the last strip, which ends the deflate stream
+     * @return the compressed data
+     */
+    private byte[] compress(byte[] data, boolean last) {
+        Deflater deflater = new Deflater(_level, true);
+        try {
+            deflater.setInput(data);
+            ByteArrayOutputStream output = new ByteArrayOutputStream(data.length / 2 + 64);
+            byte[] buffer = new byte[1 << 16];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    output.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                // the sync flush ends the strip on a byte boundary, so the next strip can follow it
+                int count;
+                do {
+                    count = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    output.write(buffer, 0, count);
+                } while (count == buffer.length);
+            }
+            return output.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * write a chunk of the PNG file
+     *
+     * @param output - the output
+     * @param type   - the type of the chunk (4 letters)
+     * @param data   - the data of the chunk
+     * @throws IOException if the output can not be written
+     */
+    private static void writeChunk(OutputStream output, String type, byte[] data) throws IOException {
+        byte[] lengthAndType = new byte[8];
+        putInt(lengthAndType, 0, data.length);
+        for (int i = 0; i < 4; ++i) {
+            lengthAndType[4 + i] = (byte) type.charAt(i);
+        }
+        output.write(lengthAndType);
+        output.write(data);
+        CRC32 crc = new CRC32();
+        crc.update(lengthAndType, 4, 4);
+        crc.update(data);
+        writeCrc(output, crc);
+    }
+
+    /**
+     * write the checksum of a chunk
+     *
+     * @param output - the output
+     * @param crc    - the checksum of the type and the data of the chunk
+     * @throws IOException if the output can not be written
+     */
+    private static void writeCrc(OutputStream output, CRC32 crc) throws IOException {
+        byte[] bytes = new byte[4];
+        putInt(bytes, 0, (int) crc.getValue());
+        output.write(bytes);
+    }
+
+    /**
+     * put an integer in big endian order (the order of the PNG format)
+     *
+     * @param bytes  - the array
+     * @param offset - the offset of the integer in the array
+     * @param value  - the integer
+     */
+    private static void putInt(byte[] bytes, int offset, int value) {
+        bytes[offset] = (byte) (value >>> 24);
+        bytes[offset + 1] = (byte) (value >>> 16);
+        bytes[offset + 2] = (byte) (value >>> 8);
+        bytes[offset + 3] = (byte) value;
+    }
+}
@@ -15,6 +15,11 @@ public abstract class RayTracerBase {
      */
     protected Scene _scene;
 
+    /**
+     * statistics which the tracing counts into, null when they are not collected
+     */
+    protected RenderStatistics _statistics = null;
+
     /**
      * constructor for the ray tracer
      * @param scene to be intersected
@@ -23,6 +28,17 @@ public abstract class RayTracerBase {
         _scene = scene;
     }
 
+    /**
+     * setter for the statistics - chaining method
+     *
+     * @param statistics - the statistics to count the traced rays into, null to stop counting
+     * @return this instance
+     */
+    public RayTracerBase setStatistics(RenderStatistics statistics) {
+        _statistics = statistics;
+        return this;
+    }
+
     /**
      * abstract function to determine the color of a pixel
      * @param ray - ray to intersect
@@ -3,10 +3,25 @@ package renderer;
 import primitives.*;
 import elements.*;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.MissingResourceException;
 import java.text.NumberFormat;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Renderer class is responsible for generating pixel color map from a graphic
@@ -32,6 +47,7 @@ public class Render {
     private static final String IMAGE_WRITER_COMPONENT = "Image writer";
     private static final String CAMERA_COMPONENT = "Camera";
     private static final String RAY_TRACER_COMPONENT = "Ray tracer";
+    private static final Logger logger = Logger.getLogger("Render");
 
     /**
      * number of threads for the rendering method
@@ -47,6 +63,176 @@ public class Render {
      */
     private boolean print = false;
 
+    /**
+     * side of the blocks of the coarse pass of the progressive rendering (a power of 2), 0 when it is off
+     */
+    private int progressiveBlock = 0;
+    /**
+     * interval in milliseconds between previews which are written during a pass of the progressive rendering,
+     * 0 writes a preview only after each pass
+     */
+    private long previewInterval = 0;
+
+    /**
+     * the checkpoint file of the tile rendering, null when there is no checkpoint
+     */
+    private String checkpointFile = null;
+    /**
+     * interval in milliseconds between flushes of the checkpoint file to the disk
+     */
+    private long checkpointInterval = 10_000;
+
+    /**
+     * the crop window - the first column and row of the rendered pixels, and their number of columns and rows
+     * (a width of 0 renders the whole image)
+     */
+    private int cropCol = 0, cropRow = 0, cropWidth = 0, cropHeight = 0;
+    /**
+     * the resolution of the whole image which the rays are constructed by, when the image writer holds only
+     * the crop window (0 takes the resolution of the image writer)
+     */
+    private int resolutionX = 0, resolutionY = 0;
+    /**
+     * the pixel of the whole image which is the top left pixel of the image writer in the last rendering -
+     * the corner of the window when the image writer holds only the window
+     */
+    private int writerCol = 0, writerRow = 0;
+
+    /**
+     * the orders in which the tiles of the image can be rendered
+     */
+    public enum TileOrder {
+        /**
+         * row after row, from left to right
+         */
+        SCANLINE,
+        /**
+         * along the Z-order (Morton) curve
+         */
+        MORTON,
+        /**
+         * along the Hilbert curve, each tile is a neighbour of the previous one
+         */
+        HILBERT
+    }
+
+    /**
+     * size of the tiles' side in pixels, 0 renders the image pixel by pixel
+     */
+    private int tileSize = 0;
+    /**
+     * the order in which the tiles are rendered
+     */
+    private TileOrder tileOrder = TileOrder.SCANLINE;
+    /**
+     * the costs of a pixel which the diagnostic heatmap mode can record
+     */
+    public enum CostMetric {
+        /**
+         * the time of rendering the pixel in nanoseconds
+         */
+        TIME,
+        /**
+         * the number of rays which are cast from the camera for the pixel
+         */
+        RAYS
+    }
+
+    /**
+     * the recorded cost of the pixels in the diagnostic heatmap mode, null when it is off
+     */
+    private CostMetric costMetric = null;
+    /**
+     * the costs of the pixels of the last rendered window, row by row
+     */
+    private long[] pixelCosts = null;
+    /**
+     * the cost which was recorded in the pixel costs (the mode may be changed after the rendering)
+     */
+    private CostMetric pixelCostMetric = null;
+    /**
+     * number of rays which each thread cast from the camera, for the rays cost of the pixels
+     */
+    private final ThreadLocal<long[]> threadRays = ThreadLocal.withInitial(() -> new long[1]);
+
+    /**
+     * colors of the pixels' corners in adaptive anti-aliasing, (width + 1) * (height + 1) corners
+     * of the rendered window row by row
+     */
+    private AtomicReferenceArray<Color> pixelCorners = null;
+
+    /**
+     * the window of the last rendered image (the crop window or the whole image) -
+     * the buffers of the rendering (the costs and the corners of the pixels) cover only the window,
+     * so rendering a small crop window (e.g. a tile of a distributed rendering) allocates small buffers
+     */
+    private int windowCol = 0;
+    /**
+     * the first row of the last rendered window
+     */
+    private int windowRow = 0;
+    /**
+     * number of columns in the last rendered window
+     */
+    private int windowWidth = 0;
+    /**
+     * number of rows in the last rendered window
+     */
+    private int windowHeight = 0;
+
+    /**
+     * number of rays traced by adaptive DOF in the last rendered image
+     */
+    private final LongAdder raysTraced = new LongAdder();
+    /**
+     * number of rays which adaptive DOF did not need to trace in the last rendered image (out of the full beams)
+     */
+    private final LongAdder raysSaved = new LongAdder();
+
+    /**
+     * statistics of the rendering, null when they are not collected
+     */
+    private RenderStatistics statistics = null;
+    /**
+     * boolean value of printing the statistics after the rendering
+     */
+    private boolean printStatistics = false;
+
+    /**
+     * executor which runs the rendering threads' work, null creates new threads for every rendering
+     */
+    private ExecutorService executor = null;
+
+    /**
+     * holder of the pool which is shared by all the renders (created on first use),
+     * bounded by the number of cores less the spare threads
+     */
+    private static class SharedPool {
+        private static final ForkJoinPool POOL = new ForkJoinPool(
+                Math.max(1, Runtime.getRuntime().availableProcessors() - SPARE_THREADS));
+    }
+
+    /**
+     * holder of the virtual threads executor (created on first use) -
+     * the shared pool if the JVM does not support virtual threads
+     */
+    private static class VirtualThreads {
+        private static final ExecutorService EXECUTOR = create();
+
+        /**
+         * create an executor which starts a new virtual thread for each task (Java 21 and later)
+         *
+         * @return the executor, or the shared pool if virtual threads are not supported
+         */
+        private static ExecutorService create() {
+            try {
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                return SharedPool.POOL;
+            }
+        }
+    }
+
     /**
      * Set multi-threading <br>
      * - if the parameter is 0 - number of cores less 2 is taken
@@ -66,6 +252,180 @@ public class Render {
         return this;
     }
 
+    /**
+     * Set tile rendering - the image is split into square tiles, and each thread renders
+     * a whole tile at a time instead of a single pixel
+     *
+     * @param tileSize size of the tiles' side in pixels (e.g. 16 or 32), 0 for rendering pixel by pixel
+     * @return the Render object itself
+     */
+    public Render setTileSize(int tileSize) {
+        if (tileSize < 0)
+            throw new IllegalArgumentException("Tile size must be 0 or higher");
+        this.tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * Set the progressive rendering - the first pass traces one pixel of every block and fills the whole block
+     * with its color, and every next pass halves the blocks and traces only the pixels which were not traced yet,
+     * until the last pass completes all the pixels. a preview image is written after each pass (but the last),
+     * so the final image and the number of traced rays are the same as in a normal rendering.
+     * the previews are written in the background ({@link ImageWriter#writeToImageAsync()}), one at a time,
+     * and the rendering returns after the last of them is written
+     * it takes precedence over the tile rendering
+     *
+     * @param blockSize side of the blocks of the first pass in pixels, a power of 2 (e.g. 8), 0 turns it off
+     * @return the Render object itself
+     */
+    public Render setProgressive(int blockSize) {
+        if (blockSize < 0 || (blockSize & (blockSize - 1)) != 0)
+            throw new IllegalArgumentException("Progressive block size must be 0 or a power of 2");
+        this.progressiveBlock = blockSize;
+        return this;
+    }
+
+    /**
+     * Set the interval of the previews of the progressive rendering - a preview is written also during a pass
+     * when the interval has passed since the last one
+     *
+     * @param millis interval in milliseconds, 0 writes a preview only after each pass
+     * @return the Render object itself
+     */
+    public Render setPreviewInterval(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Preview interval must be 0 or higher");
+        this.previewInterval = millis;
+        return this;
+    }
+
+    /**
+     * Set a checkpoint of the tile rendering - every rendered tile is kept in a memory mapped file, so a rendering
+     * which was stopped (crashed or preempted) is resumed by rendering again with the same file:
+     * the tiles which were done are restored from the file instead of being rendered.
+     * the file is deleted when the image is complete.
+     * the file belongs to one image (its resolution and tile size are checked, but not its scene and camera)
+     *
+     * @param file the checkpoint file, null for no checkpoint
+     * @return the Render object itself
+     */
+    public Render setCheckpoint(String file) {
+        this.checkpointFile = file;
+        return this;
+    }
+
+    /**
+     * Set the interval of flushing the checkpoint file to the disk (in the background) -
+     * the tiles which were done since the last flush are still kept by the OS if the JVM crashes,
+     * but they are lost if the machine does
+     *
+     * @param millis interval in milliseconds, 10 seconds by default
+     * @return the Render object itself
+     */
+    public Render setCheckpointInterval(long millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Checkpoint interval must be 0 or higher");
+        this.checkpointInterval = millis;
+        return this;
+    }
+
+    /**
+     * Set a crop window - only the pixels of the window are rendered into the image writer, and the rest of its
+     * pixels are kept (e.g. an image which was read by {@link ImageWriter#ImageWriter(String)}, to composite
+     * the window into it). the rays are constructed by the resolution of the whole image, so the pixels of the
+     * window are exactly those of the whole rendered image
+     *
+     * @param col    the first column of the window
+     * @param row    the first row of the window
+     * @param width  number of columns in the window, 0 (with height 0) renders the whole image
+     * @param height number of rows in the window
+     * @return the Render object itself
+     */
+    public Render setCropWindow(int col, int row, int width, int height) {
+        if (col < 0 || row < 0 || width < 0 || height < 0 || (width == 0) != (height == 0))
+            throw new IllegalArgumentException("Crop window must have a non negative corner and a positive size");
+        this.cropCol = col;
+        this.cropRow = row;
+        this.cropWidth = width;
+        this.cropHeight = height;
+        return this;
+    }
+
+    /**
+     * Set the resolution of the whole image, when the image writer holds only the crop window
+     * (e.g. a tile of a distributed rendering) - the rays are constructed by this resolution, and the pixels
+     * of the window are written into the image writer from its top left corner
+     *
+     * @param nX number of columns in the whole image, 0 (with nY 0) takes the resolution of the image writer
+     * @param nY number of rows in the whole image
+     * @return the Render object itself
+     */
+    public Render setResolution(int nX, int nY) {
+        if (nX < 0 || nY < 0 || (nX == 0) != (nY == 0))
+            throw new IllegalArgumentException("Resolution must be positive");
+        this.resolutionX = nX;
+        this.resolutionY = nY;
+        return this;
+    }
+
+    /**
+     * Set the diagnostic heatmap mode - the cost of every rendered pixel (its rendering time or its number of rays)
+     * is recorded, to be written by {@link #writeCostHeatmap()}
+     *
+     * @param costMetric the recorded cost, null turns the mode off
+     * @return the Render object itself
+     */
+    public Render setCostHeatmap(CostMetric costMetric) {
+        this.costMetric = costMetric;
+        return this;
+    }
+
+    /**
+     * Set the order of rendering the tiles (when tile rendering is on)
+     *
+     * @param tileOrder the order of the tiles
+     * @return the Render object itself
+     */
+    public Render setTileOrder(TileOrder tileOrder) {
+        this.tileOrder = tileOrder;
+        return this;
+    }
+
+    /**
+     * Set an executor for the rendering work, instead of creating new threads for every rendering.
+     * the executor is not shut down by the Render, so it can be reused by the next renderings
+     * (e.g. animation frames) with its threads already warm.
+     * the number of rendering tasks is the multi-threading parameter if it was set,
+     * otherwise the parallelism of a ForkJoinPool or the number of cores
+     *
+     * @param executor the executor, null for creating new threads
+     * @return the Render object itself
+     */
+    public Render setExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Set the rendering work to run in a ForkJoinPool which is shared by all the Render objects,
+     * so concurrent renderings together use at most the number of cores less the spare threads
+     *
+     * @return the Render object itself
+     */
+    public Render setSharedPool() {
+        return setExecutor(SharedPool.POOL);
+    }
+
+    /**
+     * Set the rendering work to run in virtual threads, if the JVM supports them (Java 21 and later) -
+     * otherwise the shared pool is used
+     *
+     * @return the Render object itself
+     */
+    public Render setVirtualThreads() {
+        return setExecutor(VirtualThreads.EXECUTOR);
+    }
+
     /**
      * Set debug printing on
      *
@@ -76,6 +436,47 @@ public class Render {
         return this;
     }
 
+    /**
+     * Set the statistics which the rendering counts into (traced rays, traversal of the geometries and phase times).
+     * the counters keep accumulating over the renderings until they are reset
+     *
+     * @param statistics - the statistics, null to stop collecting them
+     * @return the Render object itself
+     */
+    public Render setStatistics(RenderStatistics statistics) {
+        this.statistics = statistics;
+        if (statistics == null) {
+            printStatistics = false;
+            if (tracer != null) {
+                tracer.setStatistics(null);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Set printing of the statistics on - they are printed after the rendering
+     * (and the time of writing the image after it is written), the statistics are collected if they are not yet
+     *
+     * @return the Render object itself
+     */
+    public Render setStatisticsPrint() {
+        if (statistics == null) {
+            statistics = new RenderStatistics();
+        }
+        printStatistics = true;
+        return this;
+    }
+
+    /**
+     * get the statistics of the rendering
+     *
+     * @return the statistics, null if they are not collected
+     */
+    public RenderStatistics getStatistics() {
+        return statistics;
+    }
+
     /**
      * Pixel is an internal helper class whose objects are associated with a Render
      * object that they are generated in scope of. It is used for multithreading in
@@ -195,13 +596,35 @@ public class Render {
                             wait();
                         }
                         System.out.printf("\r %02d%%", this.percents);
-                    } catch (Exception e) {
+                    } catch (InterruptedException e) {
+                        // the rendering is stopped
+                        Thread.currentThread().interrupt();
+                        return;
                     }
                 }
             }
         }
     }
 
+    /**
+     * get the number of rays traced by adaptive DOF in the last rendered image
+     *
+     * @return number of traced rays
+     */
+    public long getRaysTraced() {
+        return raysTraced.sum();
+    }
+
+    /**
+     * get the number of rays which adaptive DOF saved in the last rendered image -
+     * the rays of the full beams (rays in the aperture times rays in the pixel) which were not traced
+     *
+     * @return number of saved rays
+     */
+    public long getRaysSaved() {
+        return raysSaved.sum();
+    }
+
     /**
      * Camera setter
      * chaining method design pattern
@@ -243,7 +666,99 @@ public class Render {
         if (imageWriter == null) {
             throw new MissingResourceException(RESOURCE_ERROR, RENDER_CLASS, IMAGE_WRITER_COMPONENT);
         }
+        long start = System.nanoTime();
         imageWriter.writeToImage();
+        if (statistics != null) {
+            long time = System.nanoTime() - start;
+            statistics.addWriteTime(time);
+            if (printStatistics) {
+                System.out.printf("image write %.1f ms%n", time / 1e6);
+            }
+        }
+    }
+
+    /**
+     * Produce an image file of the crop window only, named by the image and the window's corner,
+     * e.g. "name_64_32.png"
+     */
+    public void writeCropToImage() {
+        if (imageWriter == null) {
+            throw new MissingResourceException(RESOURCE_ERROR, RENDER_CLASS, IMAGE_WRITER_COMPONENT);
+        }
+        if (cropWidth == 0) {
+            throw new IllegalStateException("Crop window is not set");
+        }
+        imageWriter.crop(imageWriter.getImageName() + "_" + cropCol + "_" + cropRow,
+                cropCol - writerCol, cropRow - writerRow, cropWidth, cropHeight).writeToImage();
+    }
+
+    /**
+     * get the recorded cost of a pixel of the last rendered image (diagnostic heatmap mode)
+     *
+     * @param col - pixel's column number (pixel index in row)
+     * @param row - pixel's row number (pixel index in column)
+     * @return the time of the pixel in nanoseconds or its number of rays, by the recorded cost
+     * @throws IllegalArgumentException if the pixel is out of the rendered window
+     */
+    public long getPixelCost(int col, int row) {
+        if (pixelCosts == null) {
+            throw new IllegalStateException("The costs of the pixels were not recorded");
+        }
+        if (col < windowCol || col >= windowCol + windowWidth || row < windowRow || row >= windowRow + windowHeight) {
+            throw new IllegalArgumentException("Pixel is out of the rendered window");
+        }
+        return pixelCosts[(row - windowRow) * windowWidth + col - windowCol];
+    }
+
+    /**
+     * Produce the files of the diagnostic heatmap mode for the last rendered image (of its crop window) -
+     * a false color image of the pixels' costs (from black through blue, red and yellow to white in a logarithmic
+     * scale, so both the few expensive pixels and the differences between the cheap ones are seen)
+     * named by the image and the cost, e.g. "name_time.png", and the raw costs of the pixels as CSV rows
+     * ("name_time.csv")
+     */
+    public void writeCostHeatmap() {
+        if (pixelCosts == null) {
+            throw new IllegalStateException("The costs of the pixels were not recorded");
+        }
+        int nX = windowWidth;
+        int nY = windowHeight;
+
+        long max = 1;
+        for (long cost : pixelCosts) {
+            max = Math.max(max, cost);
+        }
+        double logMax = Math.log1p(max);
+
+        ImageWriter heatmap = new ImageWriter(
+                imageWriter.getImageName() + "_" + pixelCostMetric.name().toLowerCase(), nX, nY);
+        for (int row = 0; row < nY; ++row) {
+            for (int col = 0; col < nX; ++col) {
+                heatmap.writePixel(col, row, heatColor(Math.log1p(pixelCosts[row * nX + col]) / logMax));
+            }
+        }
+        heatmap.writeToImage();
+        heatmap.writeToCsv(pixelCosts);
+    }
+
+    /**
+     * the false color of a relative cost - black, blue, red, yellow and white in equal steps
+     *
+     * @param t - the cost relatively to the maximal cost, between 0 and 1
+     * @return the color of the cost
+     */
+    private static Color heatColor(double t) {
+        double step = t * 4;
+        if (step < 1) {
+            return new Color(0, 0, 255 * step);
+        }
+        if (step < 2) {
+            return new Color(255 * (step - 1), 0, 255 * (2 - step));
+        }
+        if (step < 3) {
+            return new Color(255, 255 * (step - 2), 0);
+        }
+        return new Color(255, 255, 255 * (step - 3));
     }
 
     /**
@@ -257,7 +772,7 @@ public class Render {
     private void castRay(int nX, int nY, int col, int row) {
         Ray ray = camera.constructRayThroughPixel(nX, nY, col, row);
         Color color = tracer.traceRay(ray);
-        imageWriter.writePixel(col, row, color);
+        writePixel(col, row, color);
     }
 
     /**
@@ -269,61 +784,572 @@ public class Render {
      * @param row - pixel's row number (pixel index in column)
      */
     private void castBeam(int nX, int nY, int col, int row) {
-        List<Ray> rays = camera.constructRaysThroughPixel(nX, nY, col, row);
+        // the rays are traced as they are constructed, and only the sum of their colors is kept
+        ColorAccumulator colors = new ColorAccumulator();
+        camera.constructRaysThroughPixel(nX, nY, col, row, ray -> colors.add(tracer.traceRay(ray)));
+        writePixel(col, row, colors.getAverage());
+    }
 
-        List<Color> colors = new LinkedList<>();
-        for (Ray ray : rays) {
-            colors.add(tracer.traceRay(ray));
-        }
-        imageWriter.writePixel(col, row, Color.avgColor(colors));
+    /**
+     * Write the color of a pixel of the whole image into the image writer
+     * (which may hold only the rendered window)
+     *
+     * @param col   - pixel's column number in the whole image
+     * @param row   - pixel's row number in the whole image
+     * @param color - the color of the pixel
+     */
+    private void writePixel(int col, int row, Color color) {
+        imageWriter.writePixel(col - writerCol, row - writerRow, color);
     }
 
     /**
      * This function renders image's pixel color map from the scene included with
      * the Renderer object - with multi-threading
+     *
+     * @param nX       - resolution on X axis (number of pixels in row)
+     * @param nY       - resolution on Y axis (number of pixels in column)
+     * @param firstCol - the first column of the rendered window
+     * @param firstRow - the first row of the rendered window
+     * @param endCol   - the column after the rendered window
+     * @param endRow   - the row after the rendered window
+     */
+    private void renderImageThreaded(int nX, int nY, int firstCol, int firstRow, int endCol, int endRow) {
+        final Pixel thePixel = new Pixel(endRow - firstRow, endCol - firstCol);
+        runWorkers(() -> {
+            Pixel pixel = new Pixel();
+            while (!Thread.currentThread().isInterrupted() && thePixel.nextPixel(pixel)) {
+                castPixel(nX, nY, firstCol + pixel.col, firstRow + pixel.row);
+            }
+        }, thePixel::print);
+    }
+
+    /**
+     * Run the rendering work in parallel - in new threads, or as tasks of the executor if it is set.
+     * if the calling thread is interrupted (or a task fails), the remaining work is cancelled, and the method
+     * returns only after all the workers stopped, so nothing is written to the image after it returns
+     *
+     * @param worker  the work of each thread, which takes the next pixels until all of them are rendered
+     *                or its thread is interrupted
+     * @param printer prints the progress percentage on the console until the rendering is done
+     * @throws IllegalStateException if the calling thread is interrupted (its interrupt flag stays set)
      */
-    private void renderImageThreaded() {
-        final int nX = imageWriter.getNx();
-        final int nY = imageWriter.getNy();
-        final Pixel thePixel = new Pixel(nY, nX);
-        // Generate threads
-        Thread[] threads = new Thread[threadsCount];
-        for (int i = threadsCount - 1; i >= 0; --i) {
-            threads[i] = new Thread(() -> {
-                Pixel pixel = new Pixel();
-                while (thePixel.nextPixel(pixel)) {
-                    // check whether the camera has DOF effect turned on,
-                    // if it is not, proceed as usual (cast a single ray)
-                    if (!camera.is_DOF() && !camera.is_AA()) {
-                        castRay(nX, nY, pixel.col, pixel.row);
+    private void runWorkers(Runnable worker, Runnable printer) {
+        if (executor == null) {
+            // Generate threads
+            Thread[] threads = new Thread[threadsCount];
+            for (int i = threadsCount - 1; i >= 0; --i) {
+                threads[i] = new Thread(worker);
+            }
+
+            // Start threads
+            for (Thread thread : threads)
+                thread.start();
+
+            // Print percents on the console
+            printer.run();
+
+            // Ensure all threads have finished
+            try {
+                for (Thread thread : threads)
+                    thread.join();
+            } catch (InterruptedException e) {
+                for (Thread thread : threads)
+                    thread.interrupt();
+                for (Thread thread : threads)
+                    joinUninterruptibly(thread);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rendering was interrupted", e);
+            }
+        } else {
+            int tasks = threadsCount;
+            if (tasks == 0) {
+                tasks = executor instanceof ForkJoinPool
+                        ? ((ForkJoinPool) executor).getParallelism()
+                        : Runtime.getRuntime().availableProcessors();
+            }
+
+            // the number of running tasks - a task which starts after it was cancelled does nothing
+            AtomicInteger running = new AtomicInteger();
+            Runnable task = () -> {
+                running.incrementAndGet();
+                try {
+                    if (!Thread.currentThread().isInterrupted())
+                        worker.run();
+                } finally {
+                    synchronized (running) {
+                        if (running.decrementAndGet() == 0)
+                            running.notifyAll();
                     }
-                    // if it is on, cast a beam, instead of a single ray
-                    else castBeam(nX, nY, pixel.col, pixel.row);
                 }
-            });
+            };
+            List<Future<?>> futures = new ArrayList<>(tasks);
+            for (int i = 0; i < tasks; ++i) {
+                futures.add(executor.submit(task));
+            }
+
+            // Print percents on the console
+            printer.run();
+
+            // Ensure all tasks have finished
+            try {
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException e) {
+                cancelTasks(futures, running);
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Rendering was interrupted", e);
+            } catch (ExecutionException e) {
+                cancelTasks(futures, running);
+                if (e.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) e.getCause();
+                throw new IllegalStateException("Rendering task failed", e.getCause());
+            }
         }
 
-        // Start threads
-        for (Thread thread : threads)
-            thread.start();
+        if (print)
+            System.out.print("\r100%");
+    }
 
-        // Print percents on the console
-        thePixel.print();
+    /**
+     * Cancel the rendering tasks and wait until the running ones stopped (the cancelled tasks are interrupted,
+     * and the workers stop at the next pixel or tile)
+     *
+     * @param futures the tasks
+     * @param running the number of running tasks
+     */
+    private static void cancelTasks(List<Future<?>> futures, AtomicInteger running) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+        boolean interrupted = false;
+        synchronized (running) {
+            while (running.get() > 0) {
+                try {
+                    running.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
 
-        // Ensure all threads have finished
-        for (Thread thread : threads)
+    /**
+     * Wait for a thread to end, also if the calling thread is interrupted (its interrupt flag is kept)
+     *
+     * @param thread the thread
+     */
+    private static void joinUninterruptibly(Thread thread) {
+        boolean interrupted = false;
+        while (thread.isAlive()) {
             try {
                 thread.join();
-            } catch (Exception e) {
+            } catch (InterruptedException e) {
+                interrupted = true;
             }
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+    }
 
-        if (print)
-            System.out.print("\r100%");
+    /**
+     * Check whether the rendering in the calling thread was interrupted, so a partial image is not taken
+     * as a complete one
+     *
+     * @throws IllegalStateException if the calling thread is interrupted (its interrupt flag stays set)
+     */
+    private static void checkInterrupted() {
+        if (Thread.currentThread().isInterrupted())
+            throw new IllegalStateException("Rendering was interrupted");
+    }
+
+    /**
+     * Cast the rays of a pixel - a single ray, or a beam if the camera has DOF or AA effect turned on
+     * (adaptive sampling if adaptive AA is on)
+     *
+     * @param nX  - resolution on X axis (number of pixels in row)
+     * @param nY  - resolution on Y axis (number of pixels in column)
+     * @param col - pixel's column number (pixel index in row)
+     * @param row - pixel's row number (pixel index in column)
+     */
+    private void castPixel(int nX, int nY, int col, int row) {
+        if (pixelCosts != null) {
+            castMeasuredPixel(nX, nY, col, row);
+        } else {
+            castPixelRays(nX, nY, col, row);
+        }
+    }
+
+    /**
+     * Cast the rays of a pixel by the camera's effects
+     *
+     * @param nX  - resolution on X axis (number of pixels in row)
+     * @param nY  - resolution on Y axis (number of pixels in column)
+     * @param col - pixel's column number (pixel index in row)
+     * @param row - pixel's row number (pixel index in column)
+     */
+    private void castPixelRays(int nX, int nY, int col, int row) {
+        // check whether the camera has DOF effect turned on,
+        // if it is not, proceed as usual (cast a single ray)
+        if (!camera.is_DOF() && !camera.is_AA()) {
+            castRay(nX, nY, col, row);
+        } else if (camera.is_DOF() && camera.is_adaptiveDOF()) {
+            castAdaptiveBeam(nX, nY, col, row);
+        } else if (pixelCorners != null) {
+            castAdaptive(nX, nY, col, row);
+        } else {
+            castBeam(nX, nY, col, row);
+        }
+    }
+
+    /**
+     * Cast the rays of a pixel and record its cost (diagnostic heatmap mode)
+     *
+     * @param nX  - resolution on X axis (number of pixels in row)
+     * @param nY  - resolution on Y axis (number of pixels in column)
+     * @param col - pixel's column number (pixel index in row)
+     * @param row - pixel's row number (pixel index in column)
+     */
+    private void castMeasuredPixel(int nX, int nY, int col, int row) {
+        // the pixel is cast by a single thread, which counts its rays
+        long[] rays = threadRays.get();
+        long startRays = rays[0];
+        long start = System.nanoTime();
+
+        castPixelRays(nX, nY, col, row);
+
+        pixelCosts[(row - windowRow) * windowWidth + col - windowCol] =
+                pixelCostMetric == CostMetric.TIME ? System.nanoTime() - start : rays[0] - startRays;
+    }
+
+    /**
+     * Cast the beam of a pixel with DOF effect in batches (adaptive DOF) - after each batch the 95% confidence
+     * interval of the average color is estimated from the variance of the samples, and no more batches are cast
+     * when it is narrower than the camera's tolerance or when the full beam was cast.
+     * the first ray is the pixel's center ray, and the rest go through random points of the aperture
+     * (through the AA rays of the pixel in turn)
+     *
+     * @param nX  - resolution on X axis (number of pixels in row)
+     * @param nY  - resolution on Y axis (number of pixels in column)
+     * @param col - pixel's column number (pixel index in row)
+     * @param row - pixel's row number (pixel index in column)
+     */
+    private void castAdaptiveBeam(int nX, int nY, int col, int row) {
+        List<Ray> pixelRays = camera.constructAARaysThroughPixel(nX, nY, col, row);
+        double apertureRadius = camera.getApertureRadius(nX, nY);
+        int budget = pixelRays.size() * Math.max(1, camera.get_numberOfRaysInAperture());
+        int batchSize = camera.get_DOFBatchSize();
+        // half width of the 95% confidence interval is 1.96 standard errors
+        double maxError = camera.get_DOFTolerance() / 1.96;
+
+        ColorAccumulator colors = new ColorAccumulator(true);
+        int n = 0;
+        while (n < budget) {
+            int end = Math.min(n + batchSize, budget);
+            for (; n < end; ++n) {
+                Ray ray = pixelRays.get(n % pixelRays.size());
+                colors.add(tracer.traceRay(n == 0 ? ray : camera.constructFocalRay(ray, apertureRadius)));
+            }
+            if (colors.getMaxStandardError() <= maxError) {
+                break;
+            }
+        }
+
+        raysTraced.add(n);
+        raysSaved.add(budget - n);
+        writePixel(col, row, colors.getAverage());
+    }
+
+    /**
+     * Cast rays adaptively in a pixel (adaptive anti-aliasing) - the corners and the center of the pixel are
+     * traced first, and the pixel is recursively subdivided into 4 squares only where their colors differ
+     *
+     * @param nX  - resolution on X axis (number of pixels in row)
+     * @param nY  - resolution on Y axis (number of pixels in column)
+     * @param col - pixel's column number (pixel index in row)
+     * @param row - pixel's row number (pixel index in column)
+     */
+    private void castAdaptive(int nX, int nY, int col, int row) {
+        Color color = adaptiveColor(nX, nY, col - 0.5, row - 0.5, 1,
+                cornerColor(nX, nY, col, row), cornerColor(nX, nY, col + 1, row),
+                cornerColor(nX, nY, col, row + 1), cornerColor(nX, nY, col + 1, row + 1),
+                0);
+        writePixel(col, row, color);
+    }
+
+    /**
+     * get the color of a pixels' corner, which is traced only by the first pixel which needs it
+     *
+     * @param nX - resolution on X axis (number of pixels in row)
+     * @param nY - resolution on Y axis (number of pixels in column)
+     * @param x  - the corner's column (the top left corner of pixel (col, row) is (col, row))
+     * @param y  - the corner's row
+     * @return the color of the corner
+     */
+    private Color cornerColor(int nX, int nY, int x, int y) {
+        int index = (y - windowRow) * (windowWidth + 1) + x - windowCol;
+        Color color = pixelCorners.get(index);
+        if (color == null) {
+            color = tracer.traceRay(camera.constructRayThroughPoint(nX, nY, x - 0.5, y - 0.5));
+            // another thread may trace the same corner at the same time, the colors are the same
+            pixelCorners.set(index, color);
+        }
+        return color;
+    }
+
+    /**
+     * calculate the color of a square in the view plane by adaptive sampling
+     *
+     * @param nX          - resolution on X axis (number of pixels in row)
+     * @param nY          - resolution on Y axis (number of pixels in column)
+     * @param x           - the left side of the square (in pixels)
+     * @param y           - the top side of the square (in pixels)
+     * @param size        - the side of the square (in pixels)
+     * @param topLeft     - the color of the top left corner
+     * @param topRight    - the color of the top right corner
+     * @param bottomLeft  - the color of the bottom left corner
+     * @param bottomRight - the color of the bottom right corner
+     * @param depth       - number of subdivisions so far
+     * @return the color of the square
+     */
+    private Color adaptiveColor(int nX, int nY, double x, double y, double size,
+                                Color topLeft, Color topRight, Color bottomLeft, Color bottomRight, int depth) {
+        double half = size / 2;
+        Color center = tracer.traceRay(camera.constructRayThroughPoint(nX, nY, x + half, y + half));
+
+        if (depth >= camera.get_maxAdaptiveDepth()
+                || !exceedsThreshold(camera.get_adaptiveThreshold(), topLeft, topRight, bottomLeft, bottomRight, center)) {
+            return topLeft.add(topRight, bottomLeft, bottomRight, center).reduce(5);
+        }
+
+        // subdivide the square into 4 squares which share the center and the middles of the sides
+        Color top = tracer.traceRay(camera.constructRayThroughPoint(nX, nY, x + half, y));
+        Color left = tracer.traceRay(camera.constructRayThroughPoint(nX, nY, x, y + half));
+        Color right = tracer.traceRay(camera.constructRayThroughPoint(nX, nY, x + size, y + half));
+        Color bottom = tracer.traceRay(camera.constructRayThroughPoint(nX, nY, x + half, y + size));
+
+        return adaptiveColor(nX, nY, x, y, half, topLeft, top, left, center, depth + 1).add(
+                adaptiveColor(nX, nY, x + half, y, half, top, topRight, center, right, depth + 1),
+                adaptiveColor(nX, nY, x, y + half, half, left, center, bottomLeft, bottom, depth + 1),
+                adaptiveColor(nX, nY, x + half, y + half, half, center, right, bottom, bottomRight, depth + 1)
+        ).reduce(4);
+    }
+
+    /**
+     * check whether the colors of samples are too different -
+     * whether the standard deviation of any of the RGB components is bigger than a threshold
+     *
+     * @param threshold - the maximal standard deviation
+     * @param colors    - the colors of the samples
+     * @return true if the colors differ more than the threshold
+     */
+    private static boolean exceedsThreshold(double threshold, Color... colors) {
+        double r = 0, g = 0, b = 0;
+        for (Color color : colors) {
+            r += color.getR();
+            g += color.getG();
+            b += color.getB();
+        }
+        r /= colors.length;
+        g /= colors.length;
+        b /= colors.length;
+
+        double varR = 0, varG = 0, varB = 0;
+        for (Color color : colors) {
+            varR += (color.getR() - r) * (color.getR() - r);
+            varG += (color.getG() - g) * (color.getG() - g);
+            varB += (color.getB() - b) * (color.getB() - b);
+        }
+        double max = threshold * threshold * colors.length;
+        return varR > max || varG > max || varB > max;
+    }
+
+    /**
+     * This function renders image's pixel color map from the scene included with
+     * the Renderer object - progressively, in passes of halving blocks, with the configured number of threads.
+     * in a pass of blocks of side step, the traced pixels are those whose column and row are multiples of step,
+     * less those which were traced by the previous pass (both multiples of 2 * step) - relatively to the window
+     *
+     * @param nX       - resolution on X axis (number of pixels in row)
+     * @param nY       - resolution on Y axis (number of pixels in column)
+     * @param firstCol - the first column of the rendered window
+     * @param firstRow - the first row of the rendered window
+     * @param endCol   - the column after the rendered window
+     * @param endRow   - the row after the rendered window
+     */
+    private void renderImageProgressive(int nX, int nY, int firstCol, int firstRow, int endCol, int endRow) {
+        final AtomicLong nextPreview = new AtomicLong(System.nanoTime() + previewInterval * 1_000_000);
+        // the preview which is written in the background - a preview during a pass is skipped while it is written
+        final AtomicReference<CompletableFuture<File>> preview =
+                new AtomicReference<>(CompletableFuture.completedFuture(null));
+
+        for (int size = progressiveBlock; size >= 1; size /= 2) {
+            final int step = size;
+            final boolean first = step == progressiveBlock;
+            final AtomicInteger nextRow = new AtomicInteger(firstRow);
+            Runnable worker = () -> {
+                int row;
+                while (!Thread.currentThread().isInterrupted() && (row = nextRow.getAndAdd(step)) < endRow) {
+                    // in a row of the previous pass, every other pixel was already traced
+                    boolean traced = !first && (row - firstRow) % (2 * step) == 0;
+                    for (int col = firstCol + (traced ? step : 0); col < endCol; col += traced ? 2 * step : step) {
+                        castPixel(nX, nY, col, row);
+                        if (step > 1)
+                            fillBlock(col, row, step, endCol, endRow);
+                    }
+                    if (previewInterval > 0) {
+                        long now = System.nanoTime();
+                        long next = nextPreview.get();
+                        if (now >= next && preview.get().isDone()
+                                && nextPreview.compareAndSet(next, now + previewInterval * 1_000_000))
+                            preview.set(writePreview());
+                    }
+                }
+            };
+
+            if (threadsCount == 0 && executor == null) {
+                worker.run();
+                checkInterrupted();
+            } else
+                runWorkers(worker, () -> {
+                });
+
+            if (step > 1) {
+                // the preview of the pass is newer, so it is written after the preview during the pass
+                preview.get().join();
+                preview.set(writePreview());
+                nextPreview.set(System.nanoTime() + previewInterval * 1_000_000);
+            }
+            if (print)
+                System.out.println("\rpass of " + step + "x" + step + " blocks done");
+        }
+        preview.get().join();
+    }
+
+    /**
+     * Write a preview of the progressive rendering in the background -
+     * a preview which can not be written is logged, and does not stop the rendering
+     *
+     * @return future of the preview, which completes when it is written or failed
+     */
+    private CompletableFuture<File> writePreview() {
+        return imageWriter.writeToImageAsync().exceptionally(e -> {
+            logger.log(Level.WARNING, "Preview can not be written", e);
+            return null;
+        });
+    }
+
+    /**
+     * Fill a block of pixels by the color of its traced top left pixel (the block is clipped by the window)
+     *
+     * @param col    - column of the traced pixel
+     * @param row    - row of the traced pixel
+     * @param step   - side of the block
+     * @param endCol - the column after the rendered window
+     * @param endRow - the row after the rendered window
+     */
+    private void fillBlock(int col, int row, int step, int endCol, int endRow) {
+        Color color = imageWriter.readPixel(col - writerCol, row - writerRow);
+        int lastRow = Math.min(row + step, endRow);
+        int lastCol = Math.min(col + step, endCol);
+        for (int i = row; i < lastRow; ++i) {
+            for (int j = col; j < lastCol; ++j) {
+                if (i != row || j != col)
+                    writePixel(j, i, color);
+            }
+        }
+    }
+
+    /**
+     * This function renders image's pixel color map from the scene included with
+     * the Renderer object - tile by tile, with the configured number of threads
+     * (the calling thread renders all the tiles when multi-threading is off)
+     *
+     * @param nX       - resolution on X axis (number of pixels in row)
+     * @param nY       - resolution on Y axis (number of pixels in column)
+     * @param firstCol - the first column of the rendered window
+     * @param firstRow - the first row of the rendered window
+     * @param endCol   - the column after the rendered window
+     * @param endRow   - the row after the rendered window
+     */
+    private void renderImageTiled(int nX, int nY, int firstCol, int firstRow, int endCol, int endRow) {
+        final TileScheduler scheduler = new TileScheduler(firstCol, firstRow, endCol - firstCol, endRow - firstRow,
+                tileSize, tileOrder);
+        final RenderCheckpoint checkpoint = checkpointFile == null ? null
+                : new RenderCheckpoint(Path.of(checkpointFile), scheduler, nX, nY, tileSize, checkpointInterval);
+        final AtomicInteger doneTiles = new AtomicInteger();
+        if (checkpoint != null && print && checkpoint.getResumedCount() > 0)
+            System.out.println("resuming " + checkpoint.getResumedCount() + " tiles of " + scheduler.getTileCount());
+
+        Runnable worker = () -> {
+            int tile;
+            while (!Thread.currentThread().isInterrupted() && (tile = scheduler.nextTile()) != -1) {
+                if (checkpoint != null && checkpoint.isDone(tile)) {
+                    // the tile was rendered before the rendering was stopped
+                    checkpoint.restore(scheduler, tile, imageWriter);
+                } else {
+                    int tileEndRow = scheduler.getEndRow(tile);
+                    int tileEndCol = scheduler.getEndCol(tile);
+                    for (int row = scheduler.getFirstRow(tile); row < tileEndRow; ++row) {
+                        for (int col = scheduler.getFirstCol(tile); col < tileEndCol; ++col) {
+                            castPixel(nX, nY, col, row);
+                        }
+                    }
+                    // a tile which was stopped in the middle is not done
+                    if (Thread.currentThread().isInterrupted())
+                        return;
+                    if (checkpoint != null)
+                        checkpoint.save(scheduler, tile, imageWriter);
+                }
+                doneTiles.incrementAndGet();
+                if (scheduler.tileDone(tile) > 0 && print) {
+                    synchronized (scheduler) {
+                        scheduler.notifyAll();
+                    }
+                }
+            }
+        };
+
+        try {
+            if (threadsCount == 0 && executor == null) {
+                worker.run();
+                checkInterrupted();
+                if (print)
+                    System.out.print("\r100%");
+                return;
+            }
+
+            runWorkers(worker, () -> {
+                // Print percents on the console
+                if (print) {
+                    synchronized (scheduler) {
+                        while (scheduler.getPercents() < 100) {
+                            try {
+                                scheduler.wait();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                break;
+                            }
+                            System.out.printf("\r %02d%%", scheduler.getPercents());
+                        }
+                    }
+                }
+            });
+        } finally {
+            // a complete image needs no checkpoint, otherwise the done tiles are kept for resuming
+            if (checkpoint != null)
+                checkpoint.close(doneTiles.get() == scheduler.getTileCount());
+        }
     }
 
     /**
      * This function renders image's pixel color map from the scene included with
      * the Renderer object
+     *
+     * @throws IllegalStateException if the rendering thread is interrupted - the rendering is stopped,
+     *                               and the image is partial
      */
     public void renderImage() {
         if (imageWriter == null)
@@ -333,28 +1359,81 @@ public class Render {
         if (tracer == null)
             throw new MissingResourceException(RESOURCE_ERROR, RENDER_CLASS, RAY_TRACER_COMPONENT);
 
-        final int nX = imageWriter.getNx();
-        final int nY = imageWriter.getNy();
-        if (threadsCount == 0) {
-            // check whether the camera has DOF effect turned on,
-            // if it is not, proceed as usual (cast a single ray)
-            if (!camera.is_DOF() && !camera.is_AA()) {
-                for (int i = 0; i < nY; ++i) {
-                    for (int j = 0; j < nX; ++j) {
-                        castRay(nX, nY, j, i);
-                    }
+        if (checkpointFile != null && (tileSize == 0 || progressiveBlock > 0))
+            throw new IllegalStateException("Checkpoint requires tile rendering");
+
+        final int nX = resolutionX == 0 ? imageWriter.getNx() : resolutionX;
+        final int nY = resolutionY == 0 ? imageWriter.getNy() : resolutionY;
+        // the rendered window - the crop window, or the whole image
+        final int firstCol = cropWidth == 0 ? 0 : cropCol;
+        final int firstRow = cropWidth == 0 ? 0 : cropRow;
+        final int endCol = cropWidth == 0 ? nX : cropCol + cropWidth;
+        final int endRow = cropWidth == 0 ? nY : cropRow + cropHeight;
+        if (endCol > nX || endRow > nY)
+            throw new IllegalStateException("Crop window is out of the image");
+        if (resolutionX != 0) {
+            if (imageWriter.getNx() != endCol - firstCol || imageWriter.getNy() != endRow - firstRow)
+                throw new IllegalStateException("Image writer must be of the size of the crop window");
+            if (checkpointFile != null)
+                throw new IllegalStateException("Checkpoint requires the image writer of the whole image");
+        }
+        // the image writer holds the whole image, or only the window
+        writerCol = resolutionX == 0 ? 0 : firstCol;
+        writerRow = resolutionX == 0 ? 0 : firstRow;
+        raysTraced.reset();
+        raysSaved.reset();
+        windowCol = firstCol;
+        windowRow = firstRow;
+        windowWidth = endCol - firstCol;
+        windowHeight = endRow - firstRow;
+        // the corners are shared by neighbouring pixels of the window, so each of them is traced once
+        pixelCorners = camera.is_AA() && camera.is_adaptiveAA() && !camera.is_DOF()
+                ? new AtomicReferenceArray<>((windowWidth + 1) * (windowHeight + 1))
+                : null;
+
+        pixelCosts = costMetric != null ? new long[windowWidth * windowHeight] : null;
+        pixelCostMetric = costMetric;
+        // in the rays heatmap mode the rays are counted by the thread which traces them
+        RayTracerBase renderTracer = tracer;
+        if (pixelCostMetric == CostMetric.RAYS) {
+            tracer = new RayTracerBase(renderTracer._scene) {
+                @Override
+                public Color traceRay(Ray ray) {
+                    ++threadRays.get()[0];
+                    return renderTracer.traceRay(ray);
                 }
-            }
-            // if it is on, cast a beam, instead of a single ray
-            else {
-                for (int i = 0; i < nY; ++i) {
-                    for (int j = 0; j < nX; ++j) {
-                        castBeam(nX, nY, j, i);
+            };
+        }
+
+        // the tracer counts into the statistics of this rendering, and passes them down to the geometries
+        if (statistics != null) {
+            renderTracer.setStatistics(statistics);
+        }
+        long start = System.nanoTime();
+        try {
+            if (progressiveBlock > 0) {
+                renderImageProgressive(nX, nY, firstCol, firstRow, endCol, endRow);
+            } else if (tileSize > 0) {
+                renderImageTiled(nX, nY, firstCol, firstRow, endCol, endRow);
+            } else if (threadsCount == 0 && executor == null) {
+                for (int i = firstRow; i < endRow; ++i) {
+                    for (int j = firstCol; j < endCol; ++j) {
+                        castPixel(nX, nY, j, i);
                     }
                 }
+            } else {
+                renderImageThreaded(nX, nY, firstCol, firstRow, endCol, endRow);
             }
-        } else {
-            renderImageThreaded();
+        } finally {
+            tracer = renderTracer;
+            if (statistics != null) {
+                statistics.addRenderTime(System.nanoTime() - start);
+            }
+        }
+
+        if (printStatistics) {
+            System.out.println();
+            System.out.println(statistics.snapshot());
         }
     }
 
@@ -0,0 +1,275 @@
+package renderer;
+
+import primitives.Color;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+
+/**
+ * RenderCheckpoint is an internal helper class of the Render, which keeps the rendered tiles of an image
+ * in a memory mapped file, so a rendering which was stopped (crashed or preempted) can be resumed
+ * without rendering again the tiles which were done.
+ * the file is a header, a flag and a checksum per tile and the colors of all the pixels as floats (like the pixels
+ * of the {@link ImageWriter}, so a restored pixel is exactly the rendered one). a worker which finishes a tile
+ * copies its pixels into the mapping, and then sets the tile's checksum and flag - the writes go to memory only,
+ * and the pages are flushed to the disk in the background, on an interval and when the rendering ends.
+ * after a crash of the JVM the OS still writes all the pages, but after a crash of the machine any of the pages
+ * may be lost, so a done tile is resumed only if its pixels match its checksum
+ */
+class RenderCheckpoint {
+
+    /**
+     * the first bytes of a checkpoint file ("RCKP")
+     */
+    private static final int MAGIC = 0x52434B50;
+    /**
+     * version of the format, a file of another version is not resumed
+     */
+    private static final int VERSION = 2;
+    /**
+     * size of the header in bytes - magic, version, resolution, tile size and the window of the tiles
+     */
+    private static final int HEADER = 9 * Integer.BYTES;
+
+    /**
+     * the file
+     */
+    private final Path _file;
+    /**
+     * the mapping of the whole file
+     */
+    private final MappedByteBuffer _buffer;
+    /**
+     * the colors of the pixels, 3 floats per pixel, row by row
+     */
+    private final FloatBuffer _pixels;
+    /**
+     * position of the checksums of the tiles in the file
+     */
+    private final int _checksumsOffset;
+    /**
+     * position of the pixels in the file
+     */
+    private final int _pixelsOffset;
+    /**
+     * number of pixels in a row
+     */
+    private final int _nX;
+    /**
+     * number of tiles in the image
+     */
+    private final int _tiles;
+    /**
+     * interval in nanoseconds between flushes of the mapping
+     */
+    private final long _interval;
+    /**
+     * the time of the next flush
+     */
+    private final AtomicLong _nextFlush;
+    /**
+     * whether a background flush is running
+     */
+    private final AtomicBoolean _flushing = new AtomicBoolean();
+    /**
+     * number of tiles which were done in a previous rendering
+     */
+    private final int _resumed;
+
+    /**
+     * open the checkpoint file of an image - an existing file of the same image is resumed,
+     * and otherwise a new file is created
+     *
+     * @param file      - the file
+     * @param scheduler - the tiles of the image (or of a window of it)
+     * @param nX        - resolution on X axis (number of pixels in row)
+     * @param nY        - resolution on Y axis (number of pixels in column)
+     * @param tileSize  - size of the tiles' side in pixels
+     * @param interval  - interval in milliseconds between flushes of the file to the disk
+     * @throws IllegalArgumentException if the image is too big, or the existing file is a checkpoint of another image
+     * @throws UncheckedIOException     if the file can not be opened
+     */
+    RenderCheckpoint(Path file, TileScheduler scheduler, int nX, int nY, int tileSize, long interval) {
+        int tiles = scheduler.getTileCount();
+        // the window of the tiles is from the corner of the first tile to the corner of the last tile
+        int[] header = {MAGIC, VERSION, nX, nY, tileSize, scheduler.getFirstCol(0), scheduler.getFirstRow(0),
+                scheduler.getEndCol(tiles - 1), scheduler.getEndRow(tiles - 1)};
+        // the checksums and the pixels are aligned to an int
+        long checksumsOffset = (HEADER + tiles + Integer.BYTES - 1) / Integer.BYTES * Integer.BYTES;
+        long pixelsOffset = checksumsOffset + (long) Integer.BYTES * tiles;
+        long size = pixelsOffset + 3L * Float.BYTES * nX * nY;
+        if (size > Integer.MAX_VALUE)
+            throw new IllegalArgumentException("Image is too big for a checkpoint");
+
+        _file = file;
+        _nX = nX;
+        _tiles = tiles;
+        _checksumsOffset = (int) checksumsOffset;
+        _pixelsOffset = (int) pixelsOffset;
+        _interval = interval * 1_000_000;
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)) {
+            // a file whose header is zeros is new or was cleared, and is started anew
+            ByteBuffer existing = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(existing, 0);
+            if (existing.getInt(0) != 0) {
+                boolean same = channel.size() == size;
+                for (int i = 0; i < header.length; ++i) {
+                    same &= existing.getInt(i * Integer.BYTES) == header[i];
+                }
+                if (!same)
+                    throw new IllegalArgumentException("Checkpoint " + file + " is of another image");
+            }
+            // the mapping stays valid after the channel is closed
+            _buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Checkpoint " + file + " can not be opened", e);
+        }
+        _buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (_buffer.getInt(0) == 0) {
+            for (int i = 0; i < header.length; ++i) {
+                _buffer.putInt(i * Integer.BYTES, header[i]);
+            }
+        }
+
+        // a tile whose pixels were lost (not all the pages were written before a crash) is rendered again
+        int resumed = 0;
+        for (int tile = 0; tile < tiles; ++tile) {
+            if (isDone(tile)) {
+                if (_buffer.getInt(_checksumsOffset + tile * Integer.BYTES) == checksum(scheduler, tile))
+                    ++resumed;
+                else
+                    _buffer.put(HEADER + tile, (byte) 0);
+            }
+        }
+        _resumed = resumed;
+        _pixels = _buffer.slice((int) pixelsOffset, (int) (size - pixelsOffset))
+                .order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        _nextFlush = new AtomicLong(System.nanoTime() + _interval);
+    }
+
+    /**
+     * @return number of tiles which were done in a previous rendering
+     */
+    int getResumedCount() {
+        return _resumed;
+    }
+
+    /**
+     * @param tile - index of the tile
+     * @return true if the tile was done (by this or by a previous rendering)
+     */
+    boolean isDone(int tile) {
+        return _buffer.get(HEADER + tile) != 0;
+    }
+
+    /**
+     * copy the pixels of a done tile from the file to the image
+     *
+     * @param scheduler - the tiles of the image
+     * @param tile      - index of the tile
+     * @param writer    - the image
+     */
+    void restore(TileScheduler scheduler, int tile, ImageWriter writer) {
+        int endRow = scheduler.getEndRow(tile);
+        int endCol = scheduler.getEndCol(tile);
+        for (int row = scheduler.getFirstRow(tile); row < endRow; ++row) {
+            for (int col = scheduler.getFirstCol(tile); col < endCol; ++col) {
+                int index = (row * _nX + col) * 3;
+                writer.writePixel(col, row,
+                        new Color(_pixels.get(index), _pixels.get(index + 1), _pixels.get(index + 2)));
+            }
+        }
+    }
+
+    /**
+     * copy the pixels of a rendered tile from the image to the file and mark it done - thread safe
+     * for different tiles. the file is flushed in the background if the interval has passed
+     *
+     * @param scheduler - the tiles of the image
+     * @param tile      - index of the tile
+     * @param writer    - the image
+     */
+    void save(TileScheduler scheduler, int tile, ImageWriter writer) {
+        int endRow = scheduler.getEndRow(tile);
+        int endCol = scheduler.getEndCol(tile);
+        for (int row = scheduler.getFirstRow(tile); row < endRow; ++row) {
+            for (int col = scheduler.getFirstCol(tile); col < endCol; ++col) {
+                int index = (row * _nX + col) * 3;
+                Color color = writer.readPixel(col, row);
+                _pixels.put(index, (float) color.getR()).put(index + 1, (float) color.getG())
+                        .put(index + 2, (float) color.getB());
+            }
+        }
+        // the flag is set after the pixels and their checksum, so after a crash of the JVM a tile is never resumed
+        // with missing pixels (after a crash of the machine the checksum is checked when the file is opened)
+        _buffer.putInt(_checksumsOffset + tile * Integer.BYTES, checksum(scheduler, tile));
+        _buffer.put(HEADER + tile, (byte) 1);
+
+        long now = System.nanoTime();
+        long next = _nextFlush.get();
+        if (now >= next && _nextFlush.compareAndSet(next, now + _interval) && _flushing.compareAndSet(false, true)) {
+            CompletableFuture.runAsync(() -> {
+                try {
+                    _buffer.force();
+                } finally {
+                    _flushing.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * calculate the checksum (CRC-32) of the pixels of a tile in the file
+     *
+     * @param scheduler - the tiles of the image
+     * @param tile      - index of the tile
+     * @return the checksum
+     */
+    private int checksum(TileScheduler scheduler, int tile) {
+        CRC32 crc = new CRC32();
+        int firstCol = scheduler.getFirstCol(tile);
+        int rowBytes = (scheduler.getEndCol(tile) - firstCol) * 3 * Float.BYTES;
+        int endRow = scheduler.getEndRow(tile);
+        for (int row = scheduler.getFirstRow(tile); row < endRow; ++row) {
+            crc.update(_buffer.slice(_pixelsOffset + (row * _nX + firstCol) * 3 * Float.BYTES, rowBytes));
+        }
+        return (int) crc.getValue();
+    }
+
+    /**
+     * end the checkpoint - if all the tiles are done there is nothing to resume, so the file is cleared
+     * and deleted (a file which can not be deleted, e.g. while it is still mapped on Windows,
+     * is left cleared and started anew by the next rendering), otherwise it is flushed
+     *
+     * @param complete - whether all the tiles are done
+     */
+    void close(boolean complete) {
+        if (complete) {
+            // the header and the flags of the tiles
+            for (int i = 0; i < HEADER + _tiles; ++i) {
+                _buffer.put(i, (byte) 0);
+            }
+        }
+        _buffer.force();
+        if (complete) {
+            try {
+                Files.deleteIfExists(_file);
+            } catch (IOException ignored) {
+                // the cleared file is started anew
+            }
+        }
+    }
+}
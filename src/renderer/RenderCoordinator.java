@@ -0,0 +1,484 @@
+package renderer;
+
+import elements.Camera;
+import primitives.Color;
+import scene.Scene;
+import scene.SceneCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * Coordinator of a rendering which is distributed to worker processes ({@link RenderWorker}) over TCP sockets.
+ * the scene and the camera are serialized once (in the format of {@link SceneCache}) and sent to every worker
+ * which connects, and then the tiles of the image are given out to the workers one at a time - a worker renders
+ * a tile and returns its pixels, which are written into the image writer.
+ * a worker which is lost (its connection is closed, it does not answer in the timeout or it returns invalid pixels)
+ * is dropped, and its tile is given out again to another worker. workers may connect at any time during the rendering
+ * <pre>
+ * try (RenderCoordinator coordinator = new RenderCoordinator(5000)) {
+ *     coordinator.setScene(scene).setCamera(camera).setImageWriter(imageWriter).renderImage();
+ * }
+ * // on every machine: java renderer.RenderWorker host 5000
+ * </pre>
+ */
+public class RenderCoordinator implements AutoCloseable {
+
+    /**
+     * the first bytes of the messages of a rendering ("RDST")
+     */
+    static final int MAGIC = 0x52445354;
+    /**
+     * version of the protocol
+     */
+    static final int VERSION = 1;
+    /**
+     * the tile index which tells a worker that the rendering is done
+     */
+    static final int END = -1;
+
+    private static final String RESOURCE_ERROR = "Renderer resource not set";
+    private static final String RENDER_CLASS = "RenderCoordinator";
+    private static final String IMAGE_WRITER_COMPONENT = "Image writer";
+    private static final String CAMERA_COMPONENT = "Camera";
+    private static final String SCENE_COMPONENT = "Scene";
+
+    /**
+     * the socket which the workers connect to
+     */
+    private final ServerSocket _server;
+
+    /**
+     * the scene which is rendered
+     */
+    private Scene _scene;
+    /**
+     * the camera of the rendering
+     */
+    private Camera _camera;
+    /**
+     * the image writer which the returned pixels are written into
+     */
+    private ImageWriter _imageWriter;
+    /**
+     * size of the tiles' side in pixels
+     */
+    private int _tileSize = 32;
+    /**
+     * the order in which the tiles are given out
+     */
+    private Render.TileOrder _tileOrder = Render.TileOrder.SCANLINE;
+    /**
+     * whether the workers' ray tracers use the bounding boxes of the geometries
+     */
+    private boolean _bb = false;
+    /**
+     * whether the workers' ray tracers trace through the flat bounding volume hierarchy
+     */
+    private boolean _flatBVH = false;
+    /**
+     * time in milliseconds which a worker has to receive the job or to return a tile before it is considered lost,
+     * 0 waits forever (then a hung worker holds its tile, and the rendering does not end)
+     */
+    private int _workerTimeout = 60_000;
+
+    /**
+     * the tiles of the rendering which are waiting for a worker
+     */
+    private final Deque<Integer> _pending = new ArrayDeque<>();
+    /**
+     * number of the tiles of the rendering which were returned
+     */
+    private int _doneTiles;
+    /**
+     * number of the tiles of the rendering
+     */
+    private int _tiles;
+    /**
+     * number of the workers which were lost during the rendering
+     */
+    private int _lostWorkers;
+
+    /**
+     * constructor of a coordinator which listens for workers on a port of all the network interfaces
+     *
+     * @param port - the port, 0 for any free port (see {@link #getPort()})
+     * @throws UncheckedIOException if the port can not be listened on
+     */
+    public RenderCoordinator(int port) {
+        this(port, null);
+    }
+
+    /**
+     * constructor of a coordinator which listens for workers on a port of an address
+     * (e.g. the loopback address, for workers on the same machine only)
+     *
+     * @param port    - the port, 0 for any free port (see {@link #getPort()})
+     * @param address - the address, null for all the network interfaces
+     * @throws UncheckedIOException if the port can not be listened on
+     */
+    public RenderCoordinator(int port, InetAddress address) {
+        try {
+            _server = new ServerSocket(port, 50, address);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Port " + port + " can not be listened on", e);
+        }
+    }
+
+    /**
+     * @return the port which the workers connect to
+     */
+    public int getPort() {
+        return _server.getLocalPort();
+    }
+
+    /**
+     * Scene setter
+     *
+     * @param scene the scene to render
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setScene(Scene scene) {
+        _scene = scene;
+        return this;
+    }
+
+    /**
+     * Camera setter
+     *
+     * @param camera the camera to render by
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setCamera(Camera camera) {
+        _camera = camera;
+        return this;
+    }
+
+    /**
+     * Image writer setter
+     *
+     * @param imageWriter the image writer which the rendered pixels are written into
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setImageWriter(ImageWriter imageWriter) {
+        _imageWriter = imageWriter;
+        return this;
+    }
+
+    /**
+     * Set the size of the tiles which are given out to the workers
+     *
+     * @param tileSize size of the tiles' side in pixels, 32 by default
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setTileSize(int tileSize) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("Tile size must be positive");
+        _tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * Set the order of giving out the tiles
+     *
+     * @param tileOrder the order of the tiles
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setTileOrder(Render.TileOrder tileOrder) {
+        _tileOrder = tileOrder;
+        return this;
+    }
+
+    /**
+     * Set the options of the workers' ray tracers ({@link BasicRayTracer})
+     *
+     * @param bb      whether to use the bounding boxes of the geometries
+     * @param flatBVH whether to trace through the flat bounding volume hierarchy
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setTracerOptions(boolean bb, boolean flatBVH) {
+        _bb = bb;
+        _flatBVH = flatBVH;
+        return this;
+    }
+
+    /**
+     * Set the time which a worker has to receive the job or to return a tile - a worker which does not
+     * do it in time is considered lost and its tile is given out again
+     *
+     * @param millis time in milliseconds (a minute by default), 0 waits forever
+     * @return the coordinator itself - for chaining
+     */
+    public RenderCoordinator setWorkerTimeout(int millis) {
+        if (millis < 0)
+            throw new IllegalArgumentException("Worker timeout must be 0 or higher");
+        _workerTimeout = millis;
+        return this;
+    }
+
+    /**
+     * get the number of the workers which were lost during the last rendering
+     *
+     * @return number of lost workers
+     */
+    public synchronized int getLostWorkers() {
+        return _lostWorkers;
+    }
+
+    /**
+     * Render the image by the workers which connect to the coordinator -
+     * returns when all the tiles were returned, however many workers are lost meanwhile
+     *
+     * @throws UncheckedIOException if the workers can not be accepted
+     */
+    public void renderImage() {
+        if (_imageWriter == null)
+            throw new MissingResourceException(RESOURCE_ERROR, RENDER_CLASS, IMAGE_WRITER_COMPONENT);
+        if (_camera == null)
+            throw new MissingResourceException(RESOURCE_ERROR, RENDER_CLASS, CAMERA_COMPONENT);
+        if (_scene == null)
+            throw new MissingResourceException(RESOURCE_ERROR, RENDER_CLASS, SCENE_COMPONENT);
+
+        byte[] header = header();
+        TileScheduler scheduler = new TileScheduler(_imageWriter.getNx(), _imageWriter.getNy(), _tileSize, _tileOrder);
+        synchronized (this) {
+            _pending.clear();
+            int tile;
+            while ((tile = scheduler.nextTile()) != -1) {
+                _pending.add(tile);
+            }
+            _tiles = scheduler.getTileCount();
+            _doneTiles = 0;
+            _lostWorkers = 0;
+        }
+
+        // closes the connections of the workers which do not read the job in the timeout
+        Timer watchdog = new Timer("render worker watchdog", true);
+        List<Thread> connections = new ArrayList<>();
+        try {
+            // the accepting wakes up from time to time to check whether the rendering is done
+            _server.setSoTimeout(100);
+            while (!isDone()) {
+                Socket socket;
+                try {
+                    socket = _server.accept();
+                } catch (SocketTimeoutException e) {
+                    continue;
+                }
+                Thread connection = new Thread(() -> serve(socket, header, scheduler, watchdog),
+                        "render worker connection");
+                connection.setDaemon(true);
+                connection.start();
+                connections.add(connection);
+            }
+        } catch (IOException e) {
+            watchdog.cancel();
+            throw new UncheckedIOException("Render workers can not be accepted", e);
+        }
+
+        // the connections tell their workers that the rendering is done
+        try {
+            for (Thread connection : connections) {
+                connection.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            watchdog.cancel();
+        }
+    }
+
+    /**
+     * serialize the job of the rendering once for all the workers - the scene with the camera,
+     * the resolution and the options of the ray tracer
+     *
+     * @return the bytes of the job
+     */
+    private byte[] header() {
+        // a copy of the scene, so the camera is sent without changing the caller's scene
+        Scene scene = new Scene(_scene._name)
+                .setBackground(_scene.background)
+                .setAmbientLight(_scene.ambientLight)
+                .setGeometries(_scene.geometries)
+                .setLights(_scene.lights)
+                .setCamera(_camera);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            SceneCache.WriteScene(scene, bytes);
+            ByteArrayOutputStream header = new ByteArrayOutputStream(bytes.size() + 32);
+            DataOutputStream output = new DataOutputStream(header);
+            output.writeInt(MAGIC);
+            output.writeInt(VERSION);
+            output.writeInt(_imageWriter.getNx());
+            output.writeInt(_imageWriter.getNy());
+            output.writeBoolean(_bb);
+            output.writeBoolean(_flatBVH);
+            output.writeInt(bytes.size());
+            bytes.writeTo(output);
+            return header.toByteArray();
+        } catch (IOException e) {
+            // writing to memory does not fail
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * serve a worker until the rendering is done or the worker is lost - send it the job,
+     * and then give it a tile and read its pixels, one tile at a time.
+     * a worker which is not served to the end for any reason (also an unexpected exception) is lost,
+     * and the tile it had is given out again
+     *
+     * @param socket    - the connection of the worker
+     * @param header    - the bytes of the job
+     * @param scheduler - the tiles of the image
+     * @param watchdog  - the timer which closes the connection if the job is not sent in the timeout
+     */
+    private void serve(Socket socket, byte[] header, TileScheduler scheduler, Timer watchdog) {
+        int tile = END;
+        boolean served = false;
+        try (socket) {
+            socket.setSoTimeout(_workerTimeout);
+            socket.setTcpNoDelay(true);
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            // the timeout of the socket bounds only the reading - the job is larger than the buffers
+            // of the connection, so it is sent while a timer closes the socket when the timeout passes
+            TimerTask close = new TimerTask() {
+                @Override
+                public void run() {
+                    try {
+                        socket.close();
+                    } catch (IOException e) {
+                        // the sending fails anyway
+                    }
+                }
+            };
+            if (_workerTimeout > 0)
+                watchdog.schedule(close, _workerTimeout);
+            output.write(header);
+            output.flush();
+            close.cancel();
+
+            while ((tile = nextTile()) != END) {
+                int firstCol = scheduler.getFirstCol(tile);
+                int firstRow = scheduler.getFirstRow(tile);
+                int endCol = scheduler.getEndCol(tile);
+                int endRow = scheduler.getEndRow(tile);
+                output.writeInt(tile);
+                output.writeInt(firstCol);
+                output.writeInt(firstRow);
+                output.writeInt(endCol - firstCol);
+                output.writeInt(endRow - firstRow);
+                output.flush();
+
+                if (input.readInt() != tile)
+                    throw new IOException("The worker returned another tile");
+                // the pixels are read and checked completely before any of them is written,
+                // so a lost worker or a worker which returns invalid colors writes nothing
+                byte[] bytes = new byte[(endCol - firstCol) * (endRow - firstRow) * 3 * Float.BYTES];
+                input.readFully(bytes);
+                FloatBuffer pixels = ByteBuffer.wrap(bytes).asFloatBuffer();
+                for (int i = 0; i < pixels.limit(); ++i) {
+                    float value = pixels.get(i);
+                    if (!Float.isFinite(value) || value < 0)
+                        throw new IOException("The worker returned an invalid color");
+                }
+                int i = 0;
+                for (int row = firstRow; row < endRow; ++row) {
+                    for (int col = firstCol; col < endCol; ++col, i += 3) {
+                        _imageWriter.writePixel(col, row,
+                                new Color(pixels.get(i), pixels.get(i + 1), pixels.get(i + 2)));
+                    }
+                }
+                tileDone();
+                tile = END;
+            }
+            output.writeInt(END);
+            output.flush();
+            served = true;
+        } catch (IOException e) {
+            // the worker is lost - its connection failed, it did not answer in time or it returned invalid pixels
+        } finally {
+            if (!served)
+                workerLost(tile);
+        }
+    }
+
+    /**
+     * take the next tile for a worker - waits while all the remaining tiles are rendered by other workers,
+     * since any of them may be lost
+     *
+     * @return the index of the tile, or END if all the tiles were returned
+     */
+    private synchronized int nextTile() {
+        while (_pending.isEmpty() && _doneTiles < _tiles) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return END;
+            }
+        }
+        return _pending.isEmpty() ? END : _pending.poll();
+    }
+
+    /**
+     * report that the pixels of a tile were returned
+     */
+    private synchronized void tileDone() {
+        ++_doneTiles;
+        notifyAll();
+    }
+
+    /**
+     * report that a worker was lost
+     *
+     * @param tile - the tile which the worker rendered, or END if it had none
+     */
+    private synchronized void workerLost(int tile) {
+        ++_lostWorkers;
+        if (tile != END) {
+            _pending.push(tile);
+            notifyAll();
+        }
+    }
+
+    /**
+     * @return true if all the tiles were returned
+     */
+    private synchronized boolean isDone() {
+        return _doneTiles == _tiles;
+    }
+
+    /**
+     * stop listening for workers
+     *
+     * @throws UncheckedIOException if the socket can not be closed
+     */
+    @Override
+    public void close() {
+        try {
+            _server.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
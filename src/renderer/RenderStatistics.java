@@ -0,0 +1,285 @@
+package renderer;
+
+import geometries.TraversalStatistics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RenderStatistics class is an opt-in metrics surface of the rendering -
+ * it counts the traced rays by their kind, the recursion and shadow calculations which were cut
+ * by the minimal color factor, the traversal of the geometries ({@link TraversalStatistics}),
+ * and the time of each phase: building the bounding volume hierarchy, rendering and writing the image.
+ * the counters are {@link LongAdder}s, so the rendering threads do not serialize on them,
+ * and the results are read as an immutable {@link Snapshot}
+ */
+public class RenderStatistics {
+    /**
+     * number of rays from the camera
+     */
+    private final LongAdder _primaryRays = new LongAdder();
+    /**
+     * number of reflected rays
+     */
+    private final LongAdder _reflectedRays = new LongAdder();
+    /**
+     * number of refracted rays
+     */
+    private final LongAdder _refractedRays = new LongAdder();
+    /**
+     * number of shadow rays (from the intersection points to the light sources)
+     */
+    private final LongAdder _shadowRays = new LongAdder();
+    /**
+     * number of reflections, refractions and lights which were not calculated
+     * since their effect is below the minimal color factor
+     */
+    private final LongAdder _earlyOuts = new LongAdder();
+    /**
+     * time of building the bounding volume hierarchy in nanoseconds
+     */
+    private final LongAdder _buildNanos = new LongAdder();
+    /**
+     * time of rendering in nanoseconds
+     */
+    private final LongAdder _renderNanos = new LongAdder();
+    /**
+     * time of writing the image in nanoseconds
+     */
+    private final LongAdder _writeNanos = new LongAdder();
+    /**
+     * the traversal counters of the geometries, which the tracer passes down its queries
+     */
+    private final TraversalStatistics _traversal = new TraversalStatistics();
+
+    /**
+     * count a ray from the camera
+     */
+    void countPrimaryRay() {
+        _primaryRays.increment();
+    }
+
+    /**
+     * count a reflected ray
+     */
+    void countReflectedRay() {
+        _reflectedRays.increment();
+    }
+
+    /**
+     * count a refracted ray
+     */
+    void countRefractedRay() {
+        _refractedRays.increment();
+    }
+
+    /**
+     * count a shadow ray
+     */
+    void countShadowRay() {
+        _shadowRays.increment();
+    }
+
+    /**
+     * count a reflection, refraction or light which was cut by the minimal color factor
+     */
+    void countEarlyOut() {
+        _earlyOuts.increment();
+    }
+
+    /**
+     * add the time of the rendering phase
+     *
+     * @param nanos - time in nanoseconds
+     */
+    void addRenderTime(long nanos) {
+        _renderNanos.add(nanos);
+    }
+
+    /**
+     * add the time of the image writing phase
+     *
+     * @param nanos - time in nanoseconds
+     */
+    void addWriteTime(long nanos) {
+        _writeNanos.add(nanos);
+    }
+
+    /**
+     * @return the traversal counters of the geometries
+     */
+    TraversalStatistics getTraversal() {
+        return _traversal;
+    }
+
+    /**
+     * build the bounding volume hierarchy and measure the time of the build phase,
+     * e.g. {@code statistics.timeBuild(scene.geometries::BuildTreeSAH)}
+     *
+     * @param build - the building of the hierarchy
+     * @return the statistics itself
+     */
+    public RenderStatistics timeBuild(Runnable build) {
+        long start = System.nanoTime();
+        build.run();
+        _buildNanos.add(System.nanoTime() - start);
+        return this;
+    }
+
+    /**
+     * reset all the counters and the times
+     *
+     * @return the statistics itself
+     */
+    public RenderStatistics reset() {
+        _primaryRays.reset();
+        _reflectedRays.reset();
+        _refractedRays.reset();
+        _shadowRays.reset();
+        _earlyOuts.reset();
+        _buildNanos.reset();
+        _renderNanos.reset();
+        _writeNanos.reset();
+        _traversal.reset();
+        return this;
+    }
+
+    /**
+     * read the current values of the counters
+     *
+     * @return immutable snapshot of the statistics
+     */
+    public Snapshot snapshot() {
+        return new Snapshot(this);
+    }
+
+    /**
+     * Snapshot is an immutable copy of the values of the statistics at some moment
+     */
+    public static class Snapshot {
+        private final long _primaryRays;
+        private final long _reflectedRays;
+        private final long _refractedRays;
+        private final long _shadowRays;
+        private final long _earlyOuts;
+        private final long _nodeVisits;
+        private final Map<String, Long> _primitiveTests;
+        private final long _buildNanos;
+        private final long _renderNanos;
+        private final long _writeNanos;
+
+        /**
+         * copy the values of the statistics
+         *
+         * @param statistics - the statistics
+         */
+        private Snapshot(RenderStatistics statistics) {
+            _primaryRays = statistics._primaryRays.sum();
+            _reflectedRays = statistics._reflectedRays.sum();
+            _refractedRays = statistics._refractedRays.sum();
+            _shadowRays = statistics._shadowRays.sum();
+            _earlyOuts = statistics._earlyOuts.sum();
+            _nodeVisits = statistics._traversal.getNodeVisits();
+            _primitiveTests = Collections.unmodifiableMap(statistics._traversal.getPrimitiveTests());
+            _buildNanos = statistics._buildNanos.sum();
+            _renderNanos = statistics._renderNanos.sum();
+            _writeNanos = statistics._writeNanos.sum();
+        }
+
+        /**
+         * @return number of rays from the camera
+         */
+        public long getPrimaryRays() {
+            return _primaryRays;
+        }
+
+        /**
+         * @return number of reflected rays
+         */
+        public long getReflectedRays() {
+            return _reflectedRays;
+        }
+
+        /**
+         * @return number of refracted rays
+         */
+        public long getRefractedRays() {
+            return _refractedRays;
+        }
+
+        /**
+         * @return number of shadow rays
+         */
+        public long getShadowRays() {
+            return _shadowRays;
+        }
+
+        /**
+         * @return number of reflections, refractions and lights which were cut by the minimal color factor
+         */
+        public long getEarlyOuts() {
+            return _earlyOuts;
+        }
+
+        /**
+         * @return number of visited nodes of the bounding volume hierarchy
+         */
+        public long getNodeVisits() {
+            return _nodeVisits;
+        }
+
+        /**
+         * @return number of intersection tests by the name of the primitives' type
+         */
+        public Map<String, Long> getPrimitiveTests() {
+            return _primitiveTests;
+        }
+
+        /**
+         * @return total number of intersection tests of the primitives
+         */
+        public long getTotalPrimitiveTests() {
+            long total = 0;
+            for (long tests : _primitiveTests.values()) {
+                total += tests;
+            }
+            return total;
+        }
+
+        /**
+         * @return time of building the bounding volume hierarchy in milliseconds
+         */
+        public double getBuildMillis() {
+            return _buildNanos / 1e6;
+        }
+
+        /**
+         * @return time of rendering in milliseconds
+         */
+        public double getRenderMillis() {
+            return _renderNanos / 1e6;
+        }
+
+        /**
+         * @return time of writing the image in milliseconds
+         */
+        public double getWriteMillis() {
+            return _writeNanos / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("rays: %d primary, %d reflected, %d refracted, %d shadow%n",
+                    _primaryRays, _reflectedRays, _refractedRays, _shadowRays));
+            builder.append(String.format("early outs (min color factor): %d%n", _earlyOuts));
+            builder.append(String.format("BVH node visits: %d%n", _nodeVisits));
+            builder.append(String.format("primitive tests: %d", getTotalPrimitiveTests()));
+            _primitiveTests.forEach((type, tests) -> builder.append(String.format(", %s %d", type, tests)));
+            builder.append(String.format("%ntime: BVH build %.1f ms, render %.1f ms, image write %.1f ms",
+                    getBuildMillis(), getRenderMillis(), getWriteMillis()));
+            return builder.toString();
+        }
+    }
+}
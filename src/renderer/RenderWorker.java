@@ -0,0 +1,145 @@
+package renderer;
+
+import primitives.Color;
+import scene.Scene;
+import scene.SceneCache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Worker of a rendering which is distributed by a {@link RenderCoordinator} - connects to the coordinator,
+ * receives the scene and the camera, and then renders the tiles which the coordinator gives out
+ * (each one as a crop window of the image) and returns their pixels, until the rendering is done.
+ * every tile is rendered into an image writer of the tile's size, and the rays are constructed by the resolution
+ * of the whole image ({@link Render#setResolution(int, int)}).
+ * a worker process is started by
+ * <pre>
+ * java renderer.RenderWorker host port [threads]
+ * </pre>
+ */
+public class RenderWorker implements Runnable {
+
+    /**
+     * the host of the coordinator
+     */
+    private final String _host;
+    /**
+     * the port of the coordinator
+     */
+    private final int _port;
+    /**
+     * number of threads which render a tile, 0 renders it in the calling thread
+     */
+    private int _threads = 0;
+
+    /**
+     * constructor of a worker of a coordinator
+     *
+     * @param host - the host of the coordinator
+     * @param port - the port of the coordinator
+     */
+    public RenderWorker(String host, int port) {
+        _host = host;
+        _port = port;
+    }
+
+    /**
+     * Set multi-threading - the pixels of every tile are rendered by the threads
+     *
+     * @param threads number of threads, 0 renders the tiles in the calling thread
+     * @return the worker itself - for chaining
+     */
+    public RenderWorker setMultithreading(int threads) {
+        if (threads < 0)
+            throw new IllegalArgumentException("Multithreading parameter must be 0 or higher");
+        _threads = threads;
+        return this;
+    }
+
+    /**
+     * Render the tiles of a rendering of the coordinator, until it is done
+     *
+     * @throws UncheckedIOException if the coordinator can not be connected, or the connection is lost
+     */
+    @Override
+    public void run() {
+        ExecutorService executor = _threads > 0 ? Executors.newFixedThreadPool(_threads) : null;
+        try (Socket socket = new Socket(_host, _port)) {
+            socket.setTcpNoDelay(true);
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            DataOutputStream output = new DataOutputStream(
+                    new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+
+            if (input.readInt() != RenderCoordinator.MAGIC || input.readInt() != RenderCoordinator.VERSION)
+                throw new IOException("The coordinator is not of this version");
+            int nX = input.readInt();
+            int nY = input.readInt();
+            boolean bb = input.readBoolean();
+            boolean flatBVH = input.readBoolean();
+            byte[] bytes = new byte[input.readInt()];
+            input.readFully(bytes);
+            Scene scene = SceneCache.ReadScene(ByteBuffer.wrap(bytes));
+
+            Render render = new Render() //
+                    .setResolution(nX, nY) //
+                    .setCamera(scene.camera) //
+                    .setRayTracer(new BasicRayTracer(scene).set_bb(bb).set_flatBVH(flatBVH));
+            if (executor != null)
+                render.setMultithreading(_threads).setExecutor(executor);
+
+            ImageWriter imageWriter = null;
+            int tile;
+            while ((tile = input.readInt()) != RenderCoordinator.END) {
+                int firstCol = input.readInt();
+                int firstRow = input.readInt();
+                int width = input.readInt();
+                int height = input.readInt();
+                // the tiles are of the same size but those on the right and bottom edges
+                if (imageWriter == null || imageWriter.getNx() != width || imageWriter.getNy() != height)
+                    imageWriter = new ImageWriter("worker", width, height);
+                render.setImageWriter(imageWriter).setCropWindow(firstCol, firstRow, width, height).renderImage();
+
+                ByteBuffer pixels = ByteBuffer.allocate(width * height * 3 * Float.BYTES);
+                for (int row = 0; row < height; ++row) {
+                    for (int col = 0; col < width; ++col) {
+                        Color color = imageWriter.readPixel(col, row);
+                        pixels.putFloat((float) color.getR())
+                                .putFloat((float) color.getG())
+                                .putFloat((float) color.getB());
+                    }
+                }
+                output.writeInt(tile);
+                output.write(pixels.array());
+                output.flush();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("The connection to the coordinator " + _host + ":" + _port + " failed", e);
+        } finally {
+            if (executor != null)
+                executor.shutdown();
+        }
+    }
+
+    /**
+     * start a worker process
+     *
+     * @param args the host and the port of the coordinator, and optionally the number of threads
+     */
+    public static void main(String[] args) {
+        if (args.length < 2 || args.length > 3)
+            throw new IllegalArgumentException("Usage: java renderer.RenderWorker host port [threads]");
+        RenderWorker worker = new RenderWorker(args[0], Integer.parseInt(args[1]));
+        if (args.length == 3)
+            worker.setMultithreading(Integer.parseInt(args[2]));
+        worker.run();
+    }
+}
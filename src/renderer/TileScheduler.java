@@ -0,0 +1,251 @@
+package renderer;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TileScheduler is an internal helper class of the Render, which splits the image into square tiles
+ * and gives them out to the rendering threads.
+ * the next tile is taken with a lock-free atomic cursor, and a thread renders all the pixels of a tile
+ * together, so neighbouring pixels (which usually hit the same geometries) are traced by the same core.
+ * the tiles are given out in the chosen {@link Render.TileOrder}
+ */
+class TileScheduler {
+    /**
+     * the first column and row of the rendered window of the image
+     */
+    private final int _firstCol, _firstRow;
+    /**
+     * the column and the row after the rendered window of the image
+     */
+    private final int _endCol, _endRow;
+    /**
+     * size of the tiles' side in pixels (the tiles in the last row and column may be smaller)
+     */
+    private final int _tileSize;
+    /**
+     * number of tiles in a row
+     */
+    private final int _tilesX;
+    /**
+     * the tiles (index = column + row * tiles in a row) in the order they are given out
+     */
+    private final int[] _order;
+    /**
+     * index in _order of the next tile to give out
+     */
+    private final AtomicInteger _cursor = new AtomicInteger();
+    /**
+     * number of rendered pixels, for the progress percentage
+     */
+    private final AtomicLong _donePixels = new AtomicLong();
+    /**
+     * last reported progress percentage
+     */
+    private final AtomicInteger _percents = new AtomicInteger();
+
+    /**
+     * constructor of the scheduler
+     *
+     * @param nX       - resolution on X axis (number of pixels in row)
+     * @param nY       - resolution on Y axis (number of pixels in column)
+     * @param tileSize - size of the tiles' side in pixels
+     * @param order    - the order of giving out the tiles
+     */
+    TileScheduler(int nX, int nY, int tileSize, Render.TileOrder order) {
+        this(0, 0, nX, nY, tileSize, order);
+    }
+
+    /**
+     * constructor of the scheduler of a window (crop) of the image - the tiles start at the window's corner
+     *
+     * @param firstCol - the first column of the window
+     * @param firstRow - the first row of the window
+     * @param width    - number of columns in the window
+     * @param height   - number of rows in the window
+     * @param tileSize - size of the tiles' side in pixels
+     * @param order    - the order of giving out the tiles
+     */
+    TileScheduler(int firstCol, int firstRow, int width, int height, int tileSize, Render.TileOrder order) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("Tile size must be positive");
+        _firstCol = firstCol;
+        _firstRow = firstRow;
+        _endCol = firstCol + width;
+        _endRow = firstRow + height;
+        _tileSize = tileSize;
+        _tilesX = (width + tileSize - 1) / tileSize;
+        int tilesY = (height + tileSize - 1) / tileSize;
+
+        switch (order) {
+            case MORTON:
+                _order = mortonOrder(_tilesX, tilesY);
+                break;
+            case HILBERT:
+                _order = hilbertOrder(_tilesX, tilesY);
+                break;
+            default:
+                _order = new int[_tilesX * tilesY];
+                for (int i = 0; i < _order.length; ++i) {
+                    _order[i] = i;
+                }
+        }
+    }
+
+    /**
+     * give out the next tile - thread safe and lock free
+     *
+     * @return the index of the tile, or -1 if all the tiles were given out
+     */
+    int nextTile() {
+        int next = _cursor.getAndIncrement();
+        return next < _order.length ? _order[next] : -1;
+    }
+
+    /**
+     * @return number of tiles in the image
+     */
+    int getTileCount() {
+        return _order.length;
+    }
+
+    /**
+     * @param tile - index of the tile
+     * @return the first column of the tile
+     */
+    int getFirstCol(int tile) {
+        return _firstCol + (tile % _tilesX) * _tileSize;
+    }
+
+    /**
+     * @param tile - index of the tile
+     * @return the first row of the tile
+     */
+    int getFirstRow(int tile) {
+        return _firstRow + (tile / _tilesX) * _tileSize;
+    }
+
+    /**
+     * @param tile - index of the tile
+     * @return the column after the last column of the tile
+     */
+    int getEndCol(int tile) {
+        return Math.min(getFirstCol(tile) + _tileSize, _endCol);
+    }
+
+    /**
+     * @param tile - index of the tile
+     * @return the row after the last row of the tile
+     */
+    int getEndRow(int tile) {
+        return Math.min(getFirstRow(tile) + _tileSize, _endRow);
+    }
+
+    /**
+     * report that all the pixels of a tile were rendered - thread safe
+     *
+     * @param tile - index of the tile
+     * @return the progress percentage if it changed, 0 otherwise
+     */
+    int tileDone(int tile) {
+        long pixels = (long) (getEndCol(tile) - getFirstCol(tile)) * (getEndRow(tile) - getFirstRow(tile));
+        int percents = (int) (_donePixels.addAndGet(pixels) * 100 / ((long) (_endCol - _firstCol) * (_endRow - _firstRow)));
+        int last = _percents.get();
+        while (percents > last) {
+            if (_percents.compareAndSet(last, percents)) {
+                return percents;
+            }
+            last = _percents.get();
+        }
+        return 0;
+    }
+
+    /**
+     * @return the last reported progress percentage
+     */
+    int getPercents() {
+        return _percents.get();
+    }
+
+    /**
+     * order the tiles along the Z-order (Morton) curve -
+     * sorted by the interleaved bits of the tile's column and row
+     *
+     * @param tilesX - number of tiles in a row
+     * @param tilesY - number of tiles in a column
+     * @return the tiles in Morton order
+     */
+    static int[] mortonOrder(int tilesX, int tilesY) {
+        int count = tilesX * tilesY;
+        long[] keys = new long[count];
+        for (int i = 0; i < count; ++i) {
+            // the key holds the Morton code in the high bits and the tile index in the low bits
+            keys[i] = (interleave(i % tilesX) | (interleave(i / tilesX) << 1)) << 32 | i;
+        }
+        Arrays.sort(keys);
+        int[] order = new int[count];
+        for (int i = 0; i < count; ++i) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+
+    /**
+     * spread the lower 16 bits of a number to the even bits
+     *
+     * @param n - the number
+     * @return the number with a zero bit inserted before each of its bits
+     */
+    private static long interleave(int n) {
+        long x = n & 0xFFFF;
+        x = (x | (x << 8)) & 0x00FF00FFL;
+        x = (x | (x << 4)) & 0x0F0F0F0FL;
+        x = (x | (x << 2)) & 0x33333333L;
+        x = (x | (x << 1)) & 0x55555555L;
+        return x;
+    }
+
+    /**
+     * order the tiles along the Hilbert curve, which (unlike Morton order) always moves to a neighbouring tile.
+     * the curve covers the smallest power of 2 square which contains the tiles, and the tiles outside are skipped
+     *
+     * @param tilesX - number of tiles in a row
+     * @param tilesY - number of tiles in a column
+     * @return the tiles in Hilbert order
+     */
+    static int[] hilbertOrder(int tilesX, int tilesY) {
+        int side = 1;
+        while (side < tilesX || side < tilesY) {
+            side <<= 1;
+        }
+        int[] order = new int[tilesX * tilesY];
+        int next = 0;
+        for (long d = 0; next < order.length; ++d) {
+            // convert the distance along the curve to the cell (x, y)
+            int x = 0;
+            int y = 0;
+            long t = d;
+            for (int s = 1; s < side; s <<= 1) {
+                int rx = (int) (1 & (t / 2));
+                int ry = (int) (1 & (t ^ rx));
+                if (ry == 0) {
+                    if (rx == 1) {
+                        x = s - 1 - x;
+                        y = s - 1 - y;
+                    }
+                    int temp = x;
+                    x = y;
+                    y = temp;
+                }
+                x += s * rx;
+                y += s * ry;
+                t /= 4;
+            }
+            if (x < tilesX && y < tilesY) {
+                order[next++] = x + y * tilesX;
+            }
+        }
+        return order;
+    }
+}
@@ -0,0 +1,404 @@
+package scene;
+
+import geometries.TriangleMesh;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * this class is used to read a Wavefront OBJ file into a {@link TriangleMesh}.
+ * the file is memory mapped and parsed byte by byte in one pass - the numbers are parsed by hand
+ * straight from the bytes (no lines as strings, no split and no {@link Double#parseDouble} in the common case),
+ * and the vertices and faces go directly to growing primitive arrays, which become the mesh's arrays.
+ * the vertices ("v") and the faces ("f") are read, a face with more than 3 vertices is split into a fan of
+ * triangles, and all the other statements (normals, texture coordinates, groups, materials...) are ignored
+ */
+public class OBJtoMesh {
+
+    /**
+     * maximal size of a mapped window of the file
+     */
+    private static final int WINDOW_SIZE = 1 << 30;
+
+    /**
+     * the powers of 10 which are exact doubles, for the fast path of the number parser
+     */
+    private static final double[] POWERS_OF_10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /**
+     * the biggest mantissa which is exact as a double (2^53)
+     */
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    /**
+     * maximal number of the significant digits of a number which are parsed, the rest only count in the exponent
+     */
+    private static final int MAX_TEXT_DIGITS = 40;
+
+    /**
+     * the read file
+     */
+    private final FileChannel _channel;
+    /**
+     * size of the file
+     */
+    private final long _size;
+    /**
+     * the mapped window of the file
+     */
+    private MappedByteBuffer _window;
+    /**
+     * position of the mapped window in the file
+     */
+    private long _windowStart;
+    /**
+     * number of the current line, for the error messages
+     */
+    private int _line = 1;
+
+    /**
+     * coordinates of the vertices read so far, 3 per vertex
+     */
+    private double[] _vertices = new double[3 * 1024];
+    /**
+     * number of coordinates in the vertices array
+     */
+    private int _vertexCoordinates;
+    /**
+     * indices of the vertices of the faces read so far, 3 per face
+     */
+    private int[] _faces = new int[3 * 1024];
+    /**
+     * number of indices in the faces array
+     */
+    private int _faceIndices;
+    /**
+     * buffer of the vertex indices of the current face (a polygon may have any number of vertices)
+     */
+    private int[] _polygon = new int[16];
+    /**
+     * buffer of the text of the current number (its sign, significant digits and exponent),
+     * for the numbers which are not parsed by the fast path
+     */
+    private final byte[] _text = new byte[64];
+
+    /**
+     * constructor of a reader of an opened file
+     *
+     * @param channel - the file
+     * @throws IOException if the file can not be read
+     */
+    private OBJtoMesh(FileChannel channel) throws IOException {
+        _channel = channel;
+        _size = channel.size();
+        map(0);
+    }
+
+    /**
+     * reads the OBJ file into a mesh
+     *
+     * @param file - path of the OBJ file
+     * @return the mesh
+     * @throws IOException              if the file can not be read
+     * @throws IllegalArgumentException if the file is not a valid OBJ file or it has no faces
+     */
+    public static TriangleMesh ReadMesh(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            OBJtoMesh reader = new OBJtoMesh(channel);
+            reader.parse();
+            return new TriangleMesh(
+                    Arrays.copyOf(reader._vertices, reader._vertexCoordinates),
+                    Arrays.copyOf(reader._faces, reader._faceIndices));
+        }
+    }
+
+    /**
+     * map the window of the file which starts at a position
+     *
+     * @param position - the position in the file
+     * @throws IOException if the file can not be read
+     */
+    private void map(long position) throws IOException {
+        _windowStart = position;
+        _window = _channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, _size - position));
+    }
+
+    /**
+     * look at the next byte of the file without reading it
+     *
+     * @return the next byte, -1 at the end of the file
+     * @throws IOException if the file can not be read
+     */
+    private int peek() throws IOException {
+        if (!_window.hasRemaining()) {
+            long position = _windowStart + _window.limit();
+            if (position >= _size) {
+                return -1;
+            }
+            map(position);
+        }
+        return _window.get(_window.position());
+    }
+
+    /**
+     * read the next byte of the file
+     *
+     * @return the byte, -1 at the end of the file
+     * @throws IOException if the file can not be read
+     */
+    private int next() throws IOException {
+        int c = peek();
+        if (c != -1) {
+            _window.position(_window.position() + 1);
+        }
+        return c;
+    }
+
+    /**
+     * skip the spaces (not the end of the line)
+     *
+     * @return the next byte after the spaces, which is not read yet
+     * @throws IOException if the file can not be read
+     */
+    private int skipSpaces() throws IOException {
+        int c = peek();
+        while (c == ' ' || c == '\t' || c == '\r') {
+            next();
+            c = peek();
+        }
+        return c;
+    }
+
+    /**
+     * skip the rest of the line, including the end of the line
+     *
+     * @throws IOException if the file can not be read
+     */
+    private void skipLine() throws IOException {
+        int c;
+        while ((c = next()) != -1 && c != '\n') {
+            // skip
+        }
+        ++_line;
+    }
+
+    /**
+     * parse all the statements of the file
+     *
+     * @throws IOException if the file can not be read
+     */
+    private void parse() throws IOException {
+        int c;
+        while ((c = skipSpaces()) != -1) {
+            if (c == 'v') {
+                next();
+                // "v " is a vertex, "vn", "vt" and "vp" are ignored
+                c = peek();
+                if (c == ' ' || c == '\t') {
+                    readVertex();
+                }
+            } else if (c == 'f') {
+                next();
+                c = peek();
+                if (c == ' ' || c == '\t') {
+                    readFace();
+                }
+            }
+            skipLine();
+        }
+        if (_faceIndices == 0) {
+            throw new IllegalArgumentException("The OBJ file has no faces");
+        }
+    }
+
+    /**
+     * read the coordinates of a vertex (an optional 4th weight coordinate is ignored)
+     *
+     * @throws IOException if the file can not be read
+     */
+    private void readVertex() throws IOException {
+        if (_vertexCoordinates + 3 > _vertices.length) {
+            _vertices = Arrays.copyOf(_vertices, _vertices.length * 2);
+        }
+        for (int i = 0; i < 3; ++i) {
+            skipSpaces();
+            _vertices[_vertexCoordinates + i] = readDouble();
+        }
+        _vertexCoordinates += 3;
+    }
+
+    /**
+     * read the vertices of a face and add it as a fan of triangles.
+     * every vertex is "v", "v/vt", "v//vn" or "v/vt/vn", and only v is used.
+     * the indices start at 1, and negative indices are relative to the end of the vertices read so far
+     *
+     * @throws IOException if the file can not be read
+     */
+    private void readFace() throws IOException {
+        int vertexCount = _vertexCoordinates / 3;
+        int count = 0;
+        int c;
+        while ((c = skipSpaces()) != -1 && c != '\n' && c != '#') {
+            long index = readLong();
+            if (index > 0 && index <= vertexCount) {
+                index -= 1;
+            } else if (index < 0 && -index <= vertexCount) {
+                index += vertexCount;
+            } else {
+                throw new IllegalArgumentException("Wrong vertex index in line " + _line);
+            }
+            // skip the indices of the texture coordinates and the normal
+            while ((c = peek()) != -1 && c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                next();
+            }
+            if (count == _polygon.length) {
+                _polygon = Arrays.copyOf(_polygon, count * 2);
+            }
+            _polygon[count++] = (int) index;
+        }
+        if (count < 3) {
+            throw new IllegalArgumentException("A face must have at least 3 vertices, in line " + _line);
+        }
+
+        int triangles = count - 2;
+        while (_faceIndices + triangles * 3 > _faces.length) {
+            _faces = Arrays.copyOf(_faces, _faces.length * 2);
+        }
+        for (int i = 1; i <= triangles; ++i) {
+            _faces[_faceIndices++] = _polygon[0];
+            _faces[_faceIndices++] = _polygon[i];
+            _faces[_faceIndices++] = _polygon[i + 1];
+        }
+    }
+
+    /**
+     * read an integer number
+     *
+     * @return the number
+     * @throws IOException if the file can not be read
+     */
+    private long readLong() throws IOException {
+        boolean negative = false;
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            next();
+            c = peek();
+        }
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Number expected in line " + _line);
+        }
+        long value = 0;
+        while (c >= '0' && c <= '9') {
+            value = value * 10 + (c - '0');
+            next();
+            c = peek();
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * read a decimal number ([sign] digits [. digits] [e [sign] digits]).
+     * the digits are gathered into a long mantissa and a decimal exponent, and when both are small enough
+     * the value is their exact product or quotient, which is correctly rounded like {@link Double#parseDouble}.
+     * otherwise (more than 15 significant digits or a big exponent) the significant digits with their exponent
+     * are parsed by {@link Double#parseDouble} - the digits after the first 40 significant ones are dropped
+     * (they only count in the exponent), which changes the value far below the precision of a double
+     *
+     * @return the number
+     * @throws IOException if the file can not be read
+     */
+    private double readDouble() throws IOException {
+        byte[] text = _text;
+        int length = 0;
+        boolean negative = false;
+        long mantissa = 0;
+        int exponent = 0;
+        int digits = 0;
+        boolean exact = true;
+        // the exponent of the significant digits in the text
+        int textExponent = 0;
+
+        int c = peek();
+        if (c == '-' || c == '+') {
+            negative = c == '-';
+            if (negative) {
+                text[length++] = '-';
+            }
+            next();
+            c = peek();
+        }
+        boolean fraction = false;
+        boolean any = false;
+        boolean significant = false;
+        while ((c >= '0' && c <= '9') || (c == '.' && !fraction)) {
+            next();
+            if (c == '.') {
+                fraction = true;
+            } else {
+                any = true;
+                significant |= c != '0';
+                if (!significant) {
+                    // leading zeros are not significant
+                    if (fraction) {
+                        --exponent;
+                        --textExponent;
+                    }
+                } else {
+                    if (length < MAX_TEXT_DIGITS) {
+                        text[length++] = (byte) c;
+                        if (fraction) {
+                            --textExponent;
+                        }
+                    } else if (!fraction) {
+                        ++textExponent;
+                    }
+                    if (digits < 18) {
+                        mantissa = mantissa * 10 + (c - '0');
+                        ++digits;
+                        if (fraction) {
+                            --exponent;
+                        }
+                    } else {
+                        // the rest of the digits do not fit in the mantissa
+                        exact = false;
+                        if (!fraction) {
+                            ++exponent;
+                        }
+                    }
+                }
+            }
+            c = peek();
+        }
+        if (!any) {
+            throw new IllegalArgumentException("Number expected in line " + _line);
+        }
+        if (c == 'e' || c == 'E') {
+            next();
+            long e = Math.max(-10000, Math.min(10000, readLong()));
+            exponent += (int) e;
+            textExponent += (int) e;
+        }
+
+        if (!significant) {
+            return negative ? -0.0 : 0.0;
+        }
+        if (exact && mantissa < MAX_EXACT_MANTISSA && Math.abs(exponent) < POWERS_OF_10.length) {
+            double value = exponent >= 0 ? mantissa * POWERS_OF_10[exponent] : mantissa / POWERS_OF_10[-exponent];
+            return negative ? -value : value;
+        }
+        String exponentText = "e" + textExponent;
+        for (int i = 0; i < exponentText.length(); ++i) {
+            text[length++] = (byte) exponentText.charAt(i);
+        }
+        return Double.parseDouble(new String(text, 0, length, StandardCharsets.US_ASCII));
+    }
+}
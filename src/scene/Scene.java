@@ -1,6 +1,7 @@
 package scene;
 
 import elements.AmbientLight;
+import elements.Camera;
 import elements.LightSource;
 import geometries.Geometries;
 import primitives.Color;
@@ -44,6 +45,10 @@ public class Scene {
      * lights - the lights in scene
      */
     public List<LightSource> lights = new LinkedList<LightSource>();
+    /**
+     * camera - the camera the scene is seen by, optional (e.g. a camera which is saved with the scene)
+     */
+    public Camera camera = null;
 
 
     /**
@@ -103,6 +108,17 @@ public class Scene {
         return this;
     }
 
+    /**
+     * setter - chaining method style
+     *
+     * @param camera - the camera the scene is seen by
+     * @return this instance
+     */
+    public Scene setCamera(Camera camera) {
+        this.camera = camera;
+        return this;
+    }
+
     /**
      * get the geometries in scene
      * @return geometries in scene
@@ -0,0 +1,644 @@
+package scene;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * this class is used to save a scene to a compact binary file and to load it back quickly.
+ * the file holds everything which is needed to render the scene again - the background, the lights,
+ * the camera (if the scene has one), and the geometries with their emission and materials.
+ * the geometries are written as they are, including the composites of a built hierarchy
+ * ({@link Geometries#BuildTreeSAH()}) with their bounding boxes, and the meshes with their own hierarchies,
+ * so nothing is built again when the scene is loaded.
+ * the file is memory mapped and read sequentially by a tag per object (no reflection),
+ * and the big arrays of the meshes are copied in bulk
+ */
+public class SceneCache {
+
+    /**
+     * the first bytes of a scene cache file ("RTSC")
+     */
+    private static final int MAGIC = 0x52545343;
+    /**
+     * version of the format, a file of another version is not read
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * the tags of the containers
+     */
+    private static final byte GEOMETRIES = 0, SPHERE = 1, PLANE = 2, POLYGON = 3, TRIANGLE = 4,
+            TUBE = 5, CYLINDER = 6, MESH = 7;
+    /**
+     * the tags of the lights
+     */
+    private static final byte DIRECTIONAL_LIGHT = 0, POINT_LIGHT = 1, SPOT_LIGHT = 2;
+
+    /**
+     * the output of the writer
+     */
+    private DataOutputStream _output;
+    /**
+     * the indices of the materials written so far (a material is written once, however many geometries share it)
+     */
+    private Map<Material, Integer> _writtenMaterials;
+    /**
+     * the input of the reader
+     */
+    private ByteBuffer _input;
+    /**
+     * the materials read so far, by their indices
+     */
+    private List<Material> _readMaterials;
+
+    /**
+     * constructor of a writer
+     *
+     * @param output - the output
+     */
+    private SceneCache(DataOutputStream output) {
+        _output = output;
+        _writtenMaterials = new IdentityHashMap<>();
+    }
+
+    /**
+     * constructor of a reader
+     *
+     * @param input - the mapped file
+     */
+    private SceneCache(ByteBuffer input) {
+        _input = input;
+        _readMaterials = new ArrayList<>();
+    }
+
+    /**
+     * writes a scene to a cache file
+     *
+     * @param scene - the scene
+     * @param file  - path of the cache file
+     * @throws IOException              if the file can not be written
+     * @throws IllegalArgumentException if the scene has a geometry or a light which can not be cached
+     */
+    public static void WriteScene(Scene scene, String file) throws IOException {
+        try (OutputStream output = Files.newOutputStream(Path.of(file))) {
+            WriteScene(scene, output);
+        }
+    }
+
+    /**
+     * writes a scene to a stream (e.g. to send it to another process), in the format of a cache file
+     *
+     * @param scene  - the scene
+     * @param output - the stream, which is flushed but not closed
+     * @throws IOException              if the stream can not be written
+     * @throws IllegalArgumentException if the scene has a geometry or a light which can not be cached
+     */
+    public static void WriteScene(Scene scene, OutputStream output) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(output, 1 << 16));
+        new SceneCache(data).writeScene(scene);
+        data.flush();
+    }
+
+    /**
+     * reads a scene from a cache file
+     *
+     * @param file - path of the cache file
+     * @return the scene
+     * @throws IOException              if the file can not be read
+     * @throws IllegalArgumentException if the file is not a scene cache file of this version
+     */
+    public static Scene ReadScene(String file) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            return ReadScene(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * reads a scene from a buffer in the format of a cache file (e.g. which was received from another process)
+     *
+     * @param input - the buffer, from its position
+     * @return the scene
+     * @throws IllegalArgumentException if the buffer is not a scene cache of this version
+     */
+    public static Scene ReadScene(ByteBuffer input) {
+        try {
+            return new SceneCache(input).readScene();
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("The scene cache file is truncated", e);
+        }
+    }
+
+    /**
+     * loads a XML scene through its cache - if the cache file is newer than the XML file it is read,
+     * otherwise the XML file is read (by {@link StAXtoScene}), its hierarchy is built
+     * ({@link Geometries#BuildTreeSAH()}) and the cache file is written for the next time.
+     * only the time of the XML file is checked, not the times of the files of its meshes
+     *
+     * @param xmlFile   - path of the XML file
+     * @param cacheFile - path of the cache file
+     * @return the scene
+     * @throws IOException if a file can not be read or the cache file can not be written
+     */
+    public static Scene LoadScene(String xmlFile, String cacheFile) throws IOException {
+        Path xml = Path.of(xmlFile);
+        Path cache = Path.of(cacheFile);
+        if (Files.exists(cache) && Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(xml)) >= 0) {
+            try {
+                return ReadScene(cacheFile);
+            } catch (IllegalArgumentException e) {
+                // a cache of another version is replaced
+            }
+        }
+        Scene scene = StAXtoScene.ReadScene(xmlFile);
+        scene.geometries.BuildTreeSAH();
+        WriteScene(scene, cacheFile);
+        return scene;
+    }
+
+    // ***************** writing ***************** //
+
+    /**
+     * write the whole scene
+     *
+     * @param scene - the scene
+     * @throws IOException if the output can not be written
+     */
+    private void writeScene(Scene scene) throws IOException {
+        _output.writeInt(MAGIC);
+        _output.writeInt(VERSION);
+        byte[] name = scene._name.getBytes(StandardCharsets.UTF_8);
+        _output.writeInt(name.length);
+        _output.write(name);
+        writeColor(scene.background);
+        writeColor(scene.ambientLight.getIntensity());
+
+        _output.writeInt(scene.lights.size());
+        for (LightSource light : scene.lights) {
+            writeLight(light);
+        }
+
+        _output.writeBoolean(scene.camera != null);
+        if (scene.camera != null) {
+            writeCamera(scene.camera);
+        }
+
+        writeContainer(scene.geometries);
+    }
+
+    /**
+     * write a light
+     *
+     * @param light - the light
+     * @throws IOException if the output can not be written
+     */
+    private void writeLight(LightSource light) throws IOException {
+        if (light instanceof SpotLight) {
+            SpotLight spotLight = (SpotLight) light;
+            _output.writeByte(SPOT_LIGHT);
+            writeColor(spotLight.getIntensity());
+            writePoint(spotLight.getPosition());
+            writeVector(spotLight.getDirection());
+            writeAttenuation(spotLight);
+            _output.writeDouble(spotLight.getFocus());
+        } else if (light instanceof PointLight) {
+            PointLight pointLight = (PointLight) light;
+            _output.writeByte(POINT_LIGHT);
+            writeColor(pointLight.getIntensity());
+            writePoint(pointLight.getPosition());
+            writeAttenuation(pointLight);
+        } else if (light instanceof DirectionalLight) {
+            DirectionalLight directionalLight = (DirectionalLight) light;
+            _output.writeByte(DIRECTIONAL_LIGHT);
+            writeColor(directionalLight.getIntensity());
+            writeVector(directionalLight.getDirection());
+        } else {
+            throw new IllegalArgumentException("A light of type " + light.getClass().getSimpleName() + " can't be cached");
+        }
+    }
+
+    /**
+     * write the attenuation factors of a point light (or a spot light)
+     *
+     * @param light - the light
+     * @throws IOException if the output can not be written
+     */
+    private void writeAttenuation(PointLight light) throws IOException {
+        _output.writeDouble(light.getkC());
+        _output.writeDouble(light.getkL());
+        _output.writeDouble(light.getkQ());
+    }
+
+    /**
+     * write all the parameters of a camera
+     *
+     * @param camera - the camera
+     * @throws IOException if the output can not be written
+     */
+    private void writeCamera(Camera camera) throws IOException {
+        writePoint(camera.getP0());
+        writeVector(camera.getVto());
+        writeVector(camera.getVup());
+        _output.writeDouble(camera.get_width());
+        _output.writeDouble(camera.get_height());
+        _output.writeDouble(camera.get_distance());
+        _output.writeDouble(camera.get_apertureSize());
+        _output.writeDouble(camera.get_focalDistance());
+        _output.writeInt(camera.get_numberOfRaysInAperture());
+        _output.writeBoolean(camera.is_DOF());
+        _output.writeBoolean(camera.is_adaptiveDOF());
+        _output.writeInt(camera.get_DOFBatchSize());
+        _output.writeDouble(camera.get_DOFTolerance());
+        _output.writeInt(camera.get_numberOfRaysInPixel());
+        _output.writeBoolean(camera.is_AA());
+        _output.writeBoolean(camera.is_adaptiveAA());
+        _output.writeInt(camera.get_maxAdaptiveDepth());
+        _output.writeDouble(camera.get_adaptiveThreshold());
+    }
+
+    /**
+     * write a container - a composite with all its components, or a geometry with its emission and material,
+     * and then its bounding box
+     *
+     * @param container - the container
+     * @throws IOException if the output can not be written
+     */
+    private void writeContainer(Container container) throws IOException {
+        if (container instanceof Geometries) {
+            List<Container> components = ((Geometries) container).getContainers();
+            _output.writeByte(GEOMETRIES);
+            _output.writeInt(components.size());
+            for (Container component : components) {
+                writeContainer(component);
+            }
+        } else if (container instanceof Geometry) {
+            writeGeometry((Geometry) container);
+        } else {
+            throw new IllegalArgumentException(
+                    "A container of type " + container.getClass().getSimpleName() + " can't be cached");
+        }
+        writeBoundingBox(container._boundingBox);
+    }
+
+    /**
+     * write a geometry with its emission and material
+     *
+     * @param geometry - the geometry
+     * @throws IOException if the output can not be written
+     */
+    private void writeGeometry(Geometry geometry) throws IOException {
+        // the subclasses are checked before their base classes
+        if (geometry instanceof Sphere) {
+            Sphere sphere = (Sphere) geometry;
+            _output.writeByte(SPHERE);
+            writePoint(sphere.getCenter());
+            _output.writeDouble(sphere.getRadius());
+        } else if (geometry instanceof Cylinder) {
+            Cylinder cylinder = (Cylinder) geometry;
+            _output.writeByte(CYLINDER);
+            writeRay(cylinder.getAxisRay());
+            _output.writeDouble(cylinder.getRadius());
+            _output.writeDouble(cylinder.getHeight());
+        } else if (geometry instanceof Tube) {
+            Tube tube = (Tube) geometry;
+            _output.writeByte(TUBE);
+            writeRay(tube.getAxisRay());
+            _output.writeDouble(tube.getRadius());
+        } else if (geometry instanceof Triangle) {
+            _output.writeByte(TRIANGLE);
+            for (Point3D vertex : ((Triangle) geometry).getVertices()) {
+                writePoint(vertex);
+            }
+        } else if (geometry instanceof Polygon) {
+            List<Point3D> vertices = ((Polygon) geometry).getVertices();
+            _output.writeByte(POLYGON);
+            _output.writeInt(vertices.size());
+            for (Point3D vertex : vertices) {
+                writePoint(vertex);
+            }
+        } else if (geometry instanceof Plane) {
+            Plane plane = (Plane) geometry;
+            _output.writeByte(PLANE);
+            writePoint(plane.getQ0());
+            writeVector(plane.getNormal());
+        } else if (geometry instanceof TriangleMesh) {
+            _output.writeByte(MESH);
+            ((TriangleMesh) geometry).write(_output);
+        } else {
+            throw new IllegalArgumentException(
+                    "A geometry of type " + geometry.getClass().getSimpleName() + " can't be cached");
+        }
+        writeColor(geometry.getEmission());
+        writeMaterial(geometry.getMaterial());
+    }
+
+    /**
+     * write the index of a material, followed by the material itself if it was not written before
+     *
+     * @param material - the material
+     * @throws IOException if the output can not be written
+     */
+    private void writeMaterial(Material material) throws IOException {
+        Integer index = _writtenMaterials.get(material);
+        if (index != null) {
+            _output.writeInt(index);
+            return;
+        }
+        _output.writeInt(_writtenMaterials.size());
+        _writtenMaterials.put(material, _writtenMaterials.size());
+        _output.writeDouble(material.Kd);
+        _output.writeDouble(material.Ks);
+        _output.writeInt(material.Shininess);
+        _output.writeDouble(material.Kt);
+        _output.writeDouble(material.Kr);
+    }
+
+    /**
+     * write a bounding box, which may be missing
+     *
+     * @param box - the bounding box, or null
+     * @throws IOException if the output can not be written
+     */
+    private void writeBoundingBox(BoundingBox box) throws IOException {
+        _output.writeBoolean(box != null);
+        if (box != null) {
+            _output.writeDouble(box.getMinX());
+            _output.writeDouble(box.getMaxX());
+            _output.writeDouble(box.getMinY());
+            _output.writeDouble(box.getMaxY());
+            _output.writeDouble(box.getMinZ());
+            _output.writeDouble(box.getMaxZ());
+        }
+    }
+
+    /**
+     * @param ray - a ray to write
+     * @throws IOException if the output can not be written
+     */
+    private void writeRay(Ray ray) throws IOException {
+        writePoint(ray.getP0());
+        writeVector(ray.getDir());
+    }
+
+    /**
+     * @param vector - a vector to write
+     * @throws IOException if the output can not be written
+     */
+    private void writeVector(Vector vector) throws IOException {
+        writePoint(vector.getHead());
+    }
+
+    /**
+     * @param point - a point to write
+     * @throws IOException if the output can not be written
+     */
+    private void writePoint(Point3D point) throws IOException {
+        _output.writeDouble(point.getX());
+        _output.writeDouble(point.getY());
+        _output.writeDouble(point.getZ());
+    }
+
+    /**
+     * @param color - a color to write
+     * @throws IOException if the output can not be written
+     */
+    private void writeColor(Color color) throws IOException {
+        _output.writeDouble(color.getR());
+        _output.writeDouble(color.getG());
+        _output.writeDouble(color.getB());
+    }
+
+    // ***************** reading ***************** //
+
+    /**
+     * read the whole scene
+     *
+     * @return the scene
+     */
+    private Scene readScene() {
+        if (_input.remaining() < 8 || _input.getInt() != MAGIC) {
+            throw new IllegalArgumentException("The file is not a scene cache file");
+        }
+        if (_input.getInt() != VERSION) {
+            throw new IllegalArgumentException("The scene cache file is of another version");
+        }
+        byte[] name = new byte[_input.getInt()];
+        _input.get(name);
+        Scene scene = new Scene(new String(name, StandardCharsets.UTF_8))
+                .setBackground(readColor())
+                .setAmbientLight(new AmbientLight(readColor(), 1));
+
+        int lights = _input.getInt();
+        for (int i = 0; i < lights; ++i) {
+            scene.lights.add(readLight());
+        }
+
+        if (_input.get() != 0) {
+            scene.setCamera(readCamera());
+        }
+
+        Container geometries = readContainer();
+        if (!(geometries instanceof Geometries)) {
+            throw new IllegalArgumentException("The geometries of the scene are missing in the scene cache file");
+        }
+        return scene.setGeometries((Geometries) geometries);
+    }
+
+    /**
+     * read a light
+     *
+     * @return the light
+     */
+    private LightSource readLight() {
+        byte tag = _input.get();
+        switch (tag) {
+            case DIRECTIONAL_LIGHT:
+                return new DirectionalLight(readColor(), readVector());
+            case POINT_LIGHT:
+                return readAttenuation(new PointLight(readColor(), readPoint()));
+            case SPOT_LIGHT:
+                // the arguments are evaluated in the order of the written fields
+                SpotLight spotLight = new SpotLight(readColor(), readPoint(), readVector());
+                readAttenuation(spotLight);
+                return spotLight.setFocus(_input.getDouble());
+            default:
+                throw new IllegalArgumentException("Unknown light in the scene cache file: " + tag);
+        }
+    }
+
+    /**
+     * read the attenuation factors of a point light (or a spot light)
+     *
+     * @param light - the light
+     * @return the light
+     */
+    private PointLight readAttenuation(PointLight light) {
+        return light.setkC(_input.getDouble()).setkL(_input.getDouble()).setkQ(_input.getDouble());
+    }
+
+    /**
+     * read all the parameters of a camera
+     *
+     * @return the camera
+     */
+    private Camera readCamera() {
+        return new Camera(readPoint(), readVector(), readVector())
+                .setViewPlaneSize(_input.getDouble(), _input.getDouble())
+                .setDistance(_input.getDouble())
+                .setApertureSize(_input.getDouble())
+                .setFocalDistance(_input.getDouble())
+                .setNumberOfRaysInAperture(_input.getInt())
+                .set_DOF(_input.get() != 0)
+                .setAdaptiveDOF(_input.get() != 0)
+                .setDOFBatchSize(_input.getInt())
+                .setDOFTolerance(_input.getDouble())
+                .setNumberOfRaysInPixel(_input.getInt())
+                .setAA(_input.get() != 0)
+                .setAdaptiveAA(_input.get() != 0)
+                .setMaxAdaptiveDepth(_input.getInt())
+                .setAdaptiveThreshold(_input.getDouble());
+    }
+
+    /**
+     * read a container - a composite with all its components or a geometry, and its bounding box
+     *
+     * @return the container
+     */
+    private Container readContainer() {
+        Container container;
+        byte tag = _input.get();
+        if (tag == GEOMETRIES) {
+            int count = _input.getInt();
+            Container[] components = new Container[count];
+            for (int i = 0; i < count; ++i) {
+                components[i] = readContainer();
+            }
+            Geometries geometries = new Geometries();
+            geometries.add(components);
+            container = geometries;
+        } else {
+            Geometry geometry = readGeometry(tag);
+            geometry.setEmission(readColor());
+            geometry.setMaterial(readMaterial());
+            container = geometry;
+        }
+        // the bounding box is restored as it was written, without calculating it again
+        container._boundingBox = readBoundingBox();
+        return container;
+    }
+
+    /**
+     * read a geometry, without its emission and material
+     *
+     * @param tag - the tag of the geometry
+     * @return the geometry
+     */
+    private Geometry readGeometry(byte tag) {
+        switch (tag) {
+            case SPHERE:
+                return new Sphere(readPoint(), _input.getDouble());
+            case CYLINDER:
+                return new Cylinder(readRay(), _input.getDouble(), _input.getDouble());
+            case TUBE:
+                return new Tube(readRay(), _input.getDouble());
+            case TRIANGLE:
+                return new Triangle(readPoint(), readPoint(), readPoint());
+            case POLYGON:
+                Point3D[] vertices = new Point3D[_input.getInt()];
+                for (int i = 0; i < vertices.length; ++i) {
+                    vertices[i] = readPoint();
+                }
+                return new Polygon(vertices);
+            case PLANE:
+                return new Plane(readPoint(), readVector());
+            case MESH:
+                return TriangleMesh.read(_input);
+            default:
+                throw new IllegalArgumentException("Unknown geometry in the scene cache file: " + tag);
+        }
+    }
+
+    /**
+     * read the index of a material, and the material itself if it was not read before
+     *
+     * @return the material
+     */
+    private Material readMaterial() {
+        int index = _input.getInt();
+        if (index < _readMaterials.size()) {
+            return _readMaterials.get(index);
+        }
+        Material material = new Material()
+                .setKd(_input.getDouble())
+                .setKs(_input.getDouble())
+                .setShininess(_input.getInt())
+                .setKt(_input.getDouble())
+                .setKr(_input.getDouble());
+        _readMaterials.add(material);
+        return material;
+    }
+
+    /**
+     * read a bounding box, which may be missing
+     *
+     * @return the bounding box, or null
+     */
+    private BoundingBox readBoundingBox() {
+        if (_input.get() == 0) {
+            return null;
+        }
+        BoundingBox box = new BoundingBox();
+        double minX = _input.getDouble(), maxX = _input.getDouble();
+        double minY = _input.getDouble(), maxY = _input.getDouble();
+        double minZ = _input.getDouble(), maxZ = _input.getDouble();
+        // a box which was never set (e.g. of a plane) stays empty
+        if (minX <= maxX) {
+            box.setBoundingBox(minX, maxX, minY, maxY, minZ, maxZ);
+        }
+        return box;
+    }
+
+    /**
+     * @return the ray which is read
+     */
+    private Ray readRay() {
+        return new Ray(readPoint(), readVector());
+    }
+
+    /**
+     * @return the vector which is read
+     */
+    private Vector readVector() {
+        return new Vector(_input.getDouble(), _input.getDouble(), _input.getDouble());
+    }
+
+    /**
+     * @return the point which is read
+     */
+    private Point3D readPoint() {
+        return new Point3D(_input.getDouble(), _input.getDouble(), _input.getDouble());
+    }
+
+    /**
+     * @return the color which is read
+     */
+    private Color readColor() {
+        return new Color(_input.getDouble(), _input.getDouble(), _input.getDouble());
+    }
+}
@@ -0,0 +1,376 @@
+package scene;
+
+import elements.*;
+import geometries.*;
+import primitives.*;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * this class is used to read a XML file of a scene in one streaming pass (StAX), without building a DOM:
+ * every element becomes a geometry or a light as soon as it is read.
+ * all the state of the reading is in the reader instance, so scenes can be read concurrently.
+ * the format is the format of {@link XMLtoScene}, extended with all the geometries, the lights and the materials:
+ * <pre>
+ * &lt;scene background-color="r g b"&gt;
+ *     &lt;ambient-light color="r g b" ka="1"/&gt;
+ *     &lt;geometries&gt;
+ *         &lt;sphere center="x y z" radius="r" emission="r g b" kd="0.5" ks="0.5" shininess="30" kt="0" kr="0"/&gt;
+ *         &lt;triangle p0="x y z" p1="x y z" p2="x y z"/&gt;
+ *         &lt;polygon p0="x y z" p1="x y z" p2="x y z" p3="x y z"/&gt;
+ *         &lt;plane q0="x y z" normal="x y z"/&gt;
+ *         &lt;tube p0="x y z" direction="x y z" radius="r"/&gt;
+ *         &lt;cylinder p0="x y z" direction="x y z" radius="r" height="h"/&gt;
+ *         &lt;mesh file="model.obj"/&gt;
+ *         &lt;geometries&gt; ... &lt;/geometries&gt;
+ *     &lt;/geometries&gt;
+ *     &lt;lights&gt;
+ *         &lt;directional-light color="r g b" direction="x y z"/&gt;
+ *         &lt;point-light color="r g b" position="x y z" kc="1" kl="0" kq="0"/&gt;
+ *         &lt;spot-light color="r g b" position="x y z" direction="x y z" kc="1" kl="0" kq="0" focus="1"/&gt;
+ *     &lt;/lights&gt;
+ * &lt;/scene&gt;
+ * </pre>
+ * the emission and the material attributes are optional on every geometry, a nested geometries element
+ * is a composite, and the file of a mesh (an OBJ file, read by {@link OBJtoMesh}) is relative to the XML file
+ */
+public class StAXtoScene {
+
+    /**
+     * the attributes of the material of a geometry
+     */
+    private static final String[] MATERIAL_ATTRIBUTES = {"kd", "ks", "shininess", "kt", "kr"};
+
+    /**
+     * the XML reader
+     */
+    private final XMLStreamReader _reader;
+    /**
+     * the directory which the files of the meshes are relative to
+     */
+    private final Path _directory;
+    /**
+     * the scene which is filled
+     */
+    private final Scene _scene;
+    /**
+     * the composites of the geometries elements which are open, the innermost on top
+     */
+    private final Deque<Geometries> _composites = new ArrayDeque<>();
+
+    /**
+     * constructor of a reader of a XML stream
+     *
+     * @param reader    - the XML reader
+     * @param name      - the name of the scene
+     * @param directory - the directory which the files of the meshes are relative to
+     */
+    private StAXtoScene(XMLStreamReader reader, String name, Path directory) {
+        _reader = reader;
+        _directory = directory;
+        _scene = new Scene(name);
+    }
+
+    /**
+     * reads the XML file into a scene
+     *
+     * @param file - path of the XML file
+     * @return the scene
+     * @throws IOException              if the file (or the file of a mesh) can not be read
+     * @throws IllegalArgumentException if the file is not a valid scene
+     */
+    public static Scene ReadScene(String file) throws IOException {
+        Path path = Path.of(file).toAbsolutePath();
+        try (InputStream input = Files.newInputStream(path)) {
+            return ReadScene(input, path.getFileName().toString(), path.getParent());
+        }
+    }
+
+    /**
+     * reads a XML stream into a scene
+     *
+     * @param input     - the XML stream
+     * @param name      - the name of the scene
+     * @param directory - the directory which the files of the meshes are relative to
+     * @return the scene
+     * @throws IOException              if the file of a mesh can not be read
+     * @throws IllegalArgumentException if the stream is not a valid scene
+     */
+    public static Scene ReadScene(InputStream input, String name, Path directory) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // a scene has no DTD, and external entities are not resolved
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLStreamReader reader = null;
+        try {
+            reader = factory.createXMLStreamReader(input);
+            StAXtoScene parser = new StAXtoScene(reader, name, directory);
+            parser.parse();
+            return parser._scene;
+        } catch (XMLStreamException e) {
+            throw new IllegalArgumentException("Invalid XML: " + e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException ignored) {
+                    // the stream is closed by the caller
+                }
+            }
+        }
+    }
+
+    /**
+     * read all the elements of the stream
+     *
+     * @throws XMLStreamException if the XML is not valid
+     * @throws IOException        if the file of a mesh can not be read
+     */
+    private void parse() throws XMLStreamException, IOException {
+        boolean root = false;
+        while (_reader.hasNext()) {
+            int event = _reader.next();
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                // the bounding box of a composite is known once all its components are read
+                if (_reader.getLocalName().equals("geometries")) {
+                    _composites.pop().setBoundingBox();
+                }
+                continue;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+
+            String element = _reader.getLocalName();
+            if (!root) {
+                if (!element.equals("scene")) {
+                    throw error("The root element must be scene");
+                }
+                root = true;
+                String background = _reader.getAttributeValue(null, "background-color");
+                if (background != null) {
+                    _scene.setBackground(color("background-color"));
+                }
+                continue;
+            }
+
+            switch (element) {
+                case "ambient-light":
+                    _scene.setAmbientLight(new AmbientLight(color("color"), number("ka", 1)));
+                    break;
+                case "geometries":
+                    // the outermost geometries element is the scene's composite
+                    Geometries composite = _composites.isEmpty() ? _scene.geometries : new Geometries();
+                    if (!_composites.isEmpty()) {
+                        _composites.peek().add(composite);
+                    }
+                    _composites.push(composite);
+                    break;
+                case "lights":
+                    break;
+                case "directional-light":
+                    _scene.lights.add(new DirectionalLight(color("color"), vector("direction")));
+                    break;
+                case "point-light":
+                    _scene.lights.add(attenuation(new PointLight(color("color"), point("position"))));
+                    break;
+                case "spot-light":
+                    SpotLight spotLight = new SpotLight(color("color"), point("position"), vector("direction"));
+                    attenuation(spotLight);
+                    _scene.lights.add(spotLight.setFocus(number("focus", 1)));
+                    break;
+                default:
+                    addGeometry(geometry(element));
+            }
+        }
+        if (!root) {
+            throw error("The root element must be scene");
+        }
+    }
+
+    /**
+     * create the geometry of an element
+     *
+     * @param element - the name of the element
+     * @return the geometry
+     * @throws IOException if the file of a mesh can not be read
+     */
+    private Geometry geometry(String element) throws IOException {
+        switch (element) {
+            case "sphere":
+                return new Sphere(point("center"), number("radius"));
+            case "triangle":
+                return new Triangle(point("p0"), point("p1"), point("p2"));
+            case "polygon":
+                int count = 0;
+                while (_reader.getAttributeValue(null, "p" + count) != null) {
+                    ++count;
+                }
+                Point3D[] vertices = new Point3D[count];
+                for (int i = 0; i < count; ++i) {
+                    vertices[i] = point("p" + i);
+                }
+                return new Polygon(vertices);
+            case "plane":
+                return _reader.getAttributeValue(null, "normal") != null
+                        ? new Plane(point("q0"), vector("normal"))
+                        : new Plane(point("p0"), point("p1"), point("p2"));
+            case "tube":
+                return new Tube(new Ray(point("p0"), vector("direction")), number("radius"));
+            case "cylinder":
+                return new Cylinder(new Ray(point("p0"), vector("direction")), number("radius"), number("height"));
+            case "mesh":
+                return OBJtoMesh.ReadMesh(_directory.resolve(attribute("file")).toString());
+            default:
+                throw error("Unknown element " + element);
+        }
+    }
+
+    /**
+     * set the emission and the material of a geometry and add it to the innermost composite
+     *
+     * @param geometry - the geometry
+     */
+    private void addGeometry(Geometry geometry) {
+        if (_composites.isEmpty()) {
+            throw error("A geometry must be inside a geometries element");
+        }
+        if (_reader.getAttributeValue(null, "emission") != null) {
+            geometry.setEmission(color("emission"));
+        }
+        for (String name : MATERIAL_ATTRIBUTES) {
+            if (_reader.getAttributeValue(null, name) != null) {
+                geometry.setMaterial(new Material()
+                        .setKd(number("kd", 0)).setKs(number("ks", 0)).setShininess((int) number("shininess", 0))
+                        .setKt(number("kt", 0)).setKr(number("kr", 0)));
+                break;
+            }
+        }
+        _composites.peek().add(geometry);
+    }
+
+    /**
+     * set the attenuation factors of a point light (or a spot light)
+     *
+     * @param light - the light
+     * @return the light
+     */
+    private PointLight attenuation(PointLight light) {
+        return light.setkC(number("kc", 1)).setkL(number("kl", 0)).setkQ(number("kq", 0));
+    }
+
+    /**
+     * get a required attribute of the current element
+     *
+     * @param name - the name of the attribute
+     * @return the value of the attribute
+     */
+    private String attribute(String name) {
+        String value = _reader.getAttributeValue(null, name);
+        if (value == null) {
+            throw error("Missing attribute " + name + " of " + _reader.getLocalName());
+        }
+        return value;
+    }
+
+    /**
+     * parse numbers from an attribute which is a list of numbers separated by spaces
+     * (scanned in place, without splitting the value)
+     *
+     * @param name    - the name of the attribute
+     * @param numbers - the array to fill, its length is the number of numbers
+     * @return the array of the numbers
+     */
+    private double[] numbers(String name, double[] numbers) {
+        String value = attribute(name);
+        int length = value.length();
+        int position = 0;
+        for (int i = 0; i < numbers.length; ++i) {
+            while (position < length && Character.isWhitespace(value.charAt(position))) {
+                ++position;
+            }
+            int start = position;
+            while (position < length && !Character.isWhitespace(value.charAt(position))) {
+                ++position;
+            }
+            if (start == position) {
+                throw error("Attribute " + name + " must have " + numbers.length + " numbers");
+            }
+            try {
+                numbers[i] = Double.parseDouble(value.substring(start, position));
+            } catch (NumberFormatException e) {
+                throw error("Attribute " + name + " is not a number");
+            }
+        }
+        while (position < length && Character.isWhitespace(value.charAt(position))) {
+            ++position;
+        }
+        if (position < length) {
+            throw error("Attribute " + name + " must have " + numbers.length + " numbers");
+        }
+        return numbers;
+    }
+
+    /**
+     * @param name - the name of a required attribute
+     * @return the number in the attribute
+     */
+    private double number(String name) {
+        return numbers(name, new double[1])[0];
+    }
+
+    /**
+     * @param name         - the name of an optional attribute
+     * @param defaultValue - the value if the attribute is missing
+     * @return the number in the attribute
+     */
+    private double number(String name, double defaultValue) {
+        return _reader.getAttributeValue(null, name) == null ? defaultValue : number(name);
+    }
+
+    /**
+     * @param name - the name of a required attribute
+     * @return the point in the attribute
+     */
+    private Point3D point(String name) {
+        double[] xyz = numbers(name, new double[3]);
+        return new Point3D(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * @param name - the name of a required attribute
+     * @return the vector in the attribute
+     */
+    private Vector vector(String name) {
+        double[] xyz = numbers(name, new double[3]);
+        return new Vector(xyz[0], xyz[1], xyz[2]);
+    }
+
+    /**
+     * @param name - the name of a required attribute
+     * @return the color in the attribute
+     */
+    private Color color(String name) {
+        double[] rgb = numbers(name, new double[3]);
+        return new Color(rgb[0], rgb[1], rgb[2]);
+    }
+
+    /**
+     * create an exception for an invalid scene, with the line of the current element
+     *
+     * @param message - the description of the problem
+     * @return the exception
+     */
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " in line " + _reader.getLocation().getLineNumber());
+    }
+}
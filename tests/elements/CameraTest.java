@@ -3,6 +3,9 @@ package elements;
 import org.junit.jupiter.api.Test;
 import primitives.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 /**
@@ -50,4 +53,29 @@ public class CameraTest {
         assertEquals(new Ray(Point3D.ZERO, new Vector(-2, 0, 10)),
                 camera.setViewPlaneSize(6, 6).constructRayThroughPixel(3, 3, 0, 1), "Bad ray");
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for
+     * {@link elements.Camera#constructRaysThroughPixel(int, int, int, int, java.util.function.Consumer)}.
+     */
+    @Test
+    public void testConstructRaysThroughPixelStream() {
+        Camera camera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, -1, 0)).setDistance(10)
+                .setViewPlaneSize(6, 6).setAA(true).setNumberOfRaysInPixel(9);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: AA - the center ray first and the same number of rays as the list
+        List<Ray> rays = new ArrayList<>();
+        camera.constructRaysThroughPixel(3, 3, 0, 0, rays::add);
+        assertEquals(camera.constructRaysThroughPixel(3, 3, 0, 0).size(), rays.size(), "wrong number of rays");
+        assertEquals(camera.constructRayThroughPixel(3, 3, 0, 0), rays.get(0), "the center ray is not first");
+
+        // TC02: AA and DOF - the rays of the aperture for each of the AA rays
+        camera.set_DOF(true).setApertureSize(4).setFocalDistance(20).setNumberOfRaysInAperture(5);
+        rays.clear();
+        camera.constructRaysThroughPixel(3, 3, 0, 0, rays::add);
+        assertEquals(camera.constructRaysThroughPixel(3, 3, 0, 0).size(), rays.size(), "wrong number of rays");
+        assertEquals(camera.constructRayThroughPixel(3, 3, 0, 0), rays.get(0), "the center ray is not first");
+    }
+}
@@ -0,0 +1,167 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.FlatBVH class
+ */
+class FlatBVHTest {
+
+    /**
+     * create a scene of random (half transparent) spheres and triangles, a sphere in the center and a plane under them
+     *
+     * @return the geometries
+     */
+    private static Geometries randomScene() {
+        Random rand = new Random(3);
+        Geometries geometries = new Geometries();
+        for (int i = 0; i < 200; ++i) {
+            double x = rand.nextDouble() * 100;
+            double y = rand.nextDouble() * 100;
+            double z = rand.nextDouble() * 100;
+            if (i % 2 == 0) {
+                geometries.add(new Sphere(new Point3D(x, y, z), 0.5 + rand.nextDouble() * 2)
+                        .setMaterial(new Material().setKt(0.5)));
+            } else {
+                geometries.add(new Triangle(
+                        new Point3D(x, y, z),
+                        new Point3D(x + 1 + rand.nextDouble() * 3, y, z),
+                        new Point3D(x, y + 1 + rand.nextDouble() * 3, z + rand.nextDouble())));
+            }
+        }
+        geometries.add(new Sphere(new Point3D(50, 50, 50), 3));
+        geometries.add(new Plane(new Point3D(0, 0, -10), new Vector(0, 0, 1)));
+        return geometries;
+    }
+
+    /**
+     * assert that two lists contain the same intersections (in any order)
+     *
+     * @param expected - the expected intersections
+     * @param result   - the found intersections
+     */
+    private static void assertSameIntersections(List<Intersectable.GeoPoint> expected,
+                                                List<Intersectable.GeoPoint> result) {
+        assertEquals(expected.size(), result.size(), "wrong number of intersections");
+        assertTrue(result.containsAll(expected), "wrong intersections");
+    }
+
+    /**
+     * Test method for {@link geometries.FlatBVH#findGeoIntersections(Ray, double, boolean)}.
+     */
+    @Test
+    void findGeoIntersections() {
+        Geometries geometries = randomScene();
+        FlatBVH bvh = new FlatBVH(geometries);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the compiled hierarchy finds exactly the same intersections as the composite
+        Random rand = new Random(5);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(
+                    new Point3D(-50, rand.nextDouble() * 100, rand.nextDouble() * 100),
+                    new Vector(1, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5));
+            List<Intersectable.GeoPoint> expected = geometries.findGeoIntersections(ray);
+            List<Intersectable.GeoPoint> result = bvh.findGeoIntersections(ray);
+            if (expected == null) {
+                assertNull(result, "found intersections that do not exist");
+            } else {
+                assertNotNull(result, "missed intersections");
+                assertSameIntersections(expected, result);
+            }
+        }
+
+        // TC02: the distance bound is respected
+        Ray ray = new Ray(new Point3D(50, 50, 200), new Vector(0, 0, -1));
+        assertNull(bvh.findGeoIntersections(ray, 100, true), "found intersections beyond the distance");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: a ray parallel to the axes (zero direction components)
+        Ray axisRay = new Ray(new Point3D(-50, 50, 50), new Vector(1, 0, 0));
+        List<Intersectable.GeoPoint> expected = geometries.findGeoIntersections(axisRay);
+        List<Intersectable.GeoPoint> result = bvh.findGeoIntersections(axisRay);
+        assertNotNull(result, "missed intersections of axis parallel ray");
+        assertSameIntersections(expected, result);
+
+        // TC12: an empty composite
+        FlatBVH empty = new FlatBVH(new Geometries());
+        assertEquals(0, empty.getNodeCount(), "empty hierarchy has nodes");
+        assertNull(empty.findGeoIntersections(ray), "empty hierarchy found intersections");
+    }
+
+    /**
+     * Test method for {@link geometries.FlatBVH#findClosestGeoIntersection(Ray, double, boolean)}.
+     */
+    @Test
+    void findClosestGeoIntersection() {
+        Geometries geometries = randomScene();
+        FlatBVH bvh = new FlatBVH(geometries);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the closest intersection is the closest of all the intersections
+        Random rand = new Random(9);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(
+                    new Point3D(rand.nextDouble() * 100, -50, rand.nextDouble() * 100),
+                    new Vector(rand.nextDouble() - 0.5, 1, rand.nextDouble() - 0.5));
+            assertEquals(ray.findClosestGeoPoint(geometries.findGeoIntersections(ray)),
+                    bvh.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, true),
+                    "wrong closest intersection");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: the closest intersection is beyond the distance bound
+        Ray ray = new Ray(new Point3D(50, 50, 200), new Vector(0, 0, -1));
+        assertNull(bvh.findClosestGeoIntersection(ray, 100, true), "found intersection beyond the distance");
+
+        // TC12: only the unbounded plane is hit
+        Ray down = new Ray(new Point3D(-500, -500, 0), new Vector(0, 0, -1));
+        assertEquals(new Point3D(-500, -500, -10),
+                bvh.findClosestGeoIntersection(down, Double.POSITIVE_INFINITY, true).point,
+                "wrong intersection with the plane");
+    }
+
+    /**
+     * Test method for {@link geometries.FlatBVH#findTransparency(Ray, double, double, boolean)}.
+     */
+    @Test
+    void findTransparency() {
+        Geometries geometries = randomScene();
+        FlatBVH bvh = new FlatBVH(geometries);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the compiled hierarchy finds the same transparency as the composite, for lights in various distances
+        Random rand = new Random(21);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(
+                    new Point3D(rand.nextDouble() * 100, rand.nextDouble() * 100, -5),
+                    new Vector(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, 1));
+            double distance = rand.nextDouble() * 150;
+            assertEquals(geometries.findTransparency(ray, distance, 0.001, false),
+                    bvh.findTransparency(ray, distance, 0.001, true), 1e-10, "wrong transparency");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: the light is above the unbounded plane
+        Ray up = new Ray(new Point3D(-500, -500, -20), new Vector(0, 0, 1));
+        assertEquals(1, bvh.findTransparency(up, 5, 0.001, true), "plane beyond the light blocks it");
+
+        // TC12: the unbounded plane blocks the light
+        assertEquals(0, bvh.findTransparency(up, 100, 0.001, true), "plane does not block the light");
+    }
+}
@@ -1,11 +1,13 @@
 package geometries;
 
 import org.junit.jupiter.api.Test;
+import primitives.Material;
 import primitives.Point3D;
 import primitives.Ray;
 import primitives.Vector;
 
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -70,4 +72,169 @@ class GeometriesTest {
 
         assertEquals(3, TC05result.size(), "Wrong number of intersection points");
     }
+
+    /**
+     * create a random soup of small triangles inside a cube
+     *
+     * @param count - number of triangles
+     * @param seed  - seed of the random generator
+     * @return the triangles
+     */
+    private static Triangle[] randomTriangles(int count, long seed) {
+        Random rand = new Random(seed);
+        Triangle[] triangles = new Triangle[count];
+        for (int i = 0; i < count; ++i) {
+            double x = rand.nextDouble() * 100;
+            double y = rand.nextDouble() * 100;
+            double z = rand.nextDouble() * 100;
+            triangles[i] = new Triangle(
+                    new Point3D(x, y, z),
+                    new Point3D(x + 1 + rand.nextDouble() * 3, y, z + rand.nextDouble()),
+                    new Point3D(x, y + 1 + rand.nextDouble() * 3, z + rand.nextDouble())
+            );
+        }
+        return triangles;
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#BuildTreeSAH()},
+     * compares the build time and the traversal cost with {@link geometries.Geometries#BuildTree()}
+     */
+    @Test
+    void buildTreeSAH() {
+        Triangle[] triangles = randomTriangles(300, 7);
+        Geometries agglomerative = new Geometries(triangles);
+        Geometries sah = new Geometries(triangles);
+
+        long start = System.nanoTime();
+        agglomerative.BuildTree();
+        long agglomerativeTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        sah.BuildTreeSAH();
+        long sahTime = System.nanoTime() - start;
+
+        double agglomerativeCost = BVHBuilder.sahCost(agglomerative);
+        double sahCost = BVHBuilder.sahCost(sah);
+        System.out.printf("BuildTree: %d ms, cost %.2f | BuildTreeSAH: %d ms, cost %.2f%n",
+                agglomerativeTime / 1_000_000, agglomerativeCost, sahTime / 1_000_000, sahCost);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the SAH tree is not more expensive to traverse than the agglomerative tree
+        assertTrue(sahCost <= agglomerativeCost, "SAH tree has a higher traversal cost");
+
+        // TC02: both trees contain the same geometries
+        assertEquals(agglomerative._boundingBox, sah._boundingBox, "wrong bounding box of the tree");
+
+        // TC03: both trees find the same closest intersections
+        Random rand = new Random(11);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(
+                    new Point3D(-50, rand.nextDouble() * 100, rand.nextDouble() * 100),
+                    new Vector(1, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5));
+            assertEquals(
+                    ray.findClosestGeoPoint(agglomerative.findIntersectBoundingRegion(ray)),
+                    ray.findClosestGeoPoint(sah.findIntersectBoundingRegion(ray)),
+                    "different closest intersection");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: a plane has no finite bounding box and stays out of the hierarchy
+        Plane plane = new Plane(new Point3D(0, 0, -10), new Vector(0, 0, 1));
+        Geometries withPlane = new Geometries(new Geometries(triangles), plane);
+        withPlane.BuildTreeSAH();
+        assertEquals(2, withPlane.getContainers().size(), "plane was put into the hierarchy");
+
+        // TC12: a single geometry
+        Geometries single = new Geometries(triangles[0]);
+        single.BuildTreeSAH();
+        assertEquals(List.of(triangles[0]), single.getContainers(), "wrong tree of a single geometry");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findClosestGeoIntersection(Ray, double, boolean)}.
+     */
+    @Test
+    void findClosestGeoIntersection() {
+        Triangle[] triangles = randomTriangles(300, 13);
+        Geometries flat = new Geometries(triangles);
+        Geometries tree = new Geometries(triangles);
+        tree.BuildTreeSAH();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the closest intersection is the closest of all the intersections,
+        // with and without bounding boxes, in a flat composite and in a tree
+        Random rand = new Random(17);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(
+                    new Point3D(-50, rand.nextDouble() * 100, rand.nextDouble() * 100),
+                    new Vector(1, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5));
+            Intersectable.GeoPoint expected = ray.findClosestGeoPoint(flat.findGeoIntersections(ray));
+            assertEquals(expected, flat.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, false),
+                    "wrong closest intersection without bounding boxes");
+            assertEquals(expected, flat.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, true),
+                    "wrong closest intersection in a flat composite");
+            assertEquals(expected, tree.findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, true),
+                    "wrong closest intersection in a tree");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: empty composite
+        Ray ray = new Ray(new Point3D(1, 1, 0), new Vector(1, 0, 0));
+        assertNull(new Geometries().findClosestGeoIntersection(ray, Double.POSITIVE_INFINITY, true),
+                "empty composite found intersection");
+    }
+
+    /**
+     * Test method for {@link geometries.Geometries#findTransparency(Ray, double, double, boolean)}.
+     */
+    @Test
+    void findTransparency() {
+        // two half transparent spheres and an opaque sphere behind them, on the x axis
+        Geometries flat = new Geometries(
+                new Sphere(new Point3D(10, 0, 0), 1).setMaterial(new Material().setKt(0.5)),
+                new Sphere(new Point3D(20, 0, 0), 1).setMaterial(new Material().setKt(0.5)),
+                new Sphere(new Point3D(40, 0, 0), 1));
+        Geometries tree = new Geometries(
+                new Sphere(new Point3D(10, 0, 0), 1).setMaterial(new Material().setKt(0.5)),
+                new Sphere(new Point3D(20, 0, 0), 1).setMaterial(new Material().setKt(0.5)),
+                new Sphere(new Point3D(40, 0, 0), 1));
+        tree.BuildTreeSAH();
+        Ray ray = new Ray(new Point3D(0, 0, 0), new Vector(1, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the light is between the transparent spheres and the opaque sphere (4 intersections of Kt 0.5)
+        assertEquals(0.0625, flat.findTransparency(ray, 30, 0.001, false), 1e-10,
+                "wrong transparency without bounding boxes");
+        assertEquals(0.0625, flat.findTransparency(ray, 30, 0.001, true), 1e-10,
+                "wrong transparency in a flat composite");
+        assertEquals(0.0625, tree.findTransparency(ray, 30, 0.001, true), 1e-10,
+                "wrong transparency in a tree");
+
+        // TC02: the opaque sphere blocks the light
+        assertEquals(0, flat.findTransparency(ray, 100, 0.001, true), "opaque sphere does not block");
+        assertEquals(0, tree.findTransparency(ray, 100, 0.001, true), "opaque sphere does not block");
+
+        // TC03: the ray misses all the spheres
+        Ray miss = new Ray(new Point3D(0, 5, 0), new Vector(1, 0, 0));
+        assertEquals(1, tree.findTransparency(miss, 100, 0.001, true), "light is blocked by nothing");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: the light is before all the spheres
+        assertEquals(1, flat.findTransparency(ray, 5, 0.001, true), "spheres behind the light block it");
+
+        // TC12: the accumulated transparency drops below the minimum
+        assertEquals(0, flat.findTransparency(ray, 30, 0.1, true), "transparency below the minimum");
+        assertEquals(0, tree.findTransparency(ray, 30, 0.1, true), "transparency below the minimum");
+
+        // TC13: empty composite
+        assertEquals(1, new Geometries().findTransparency(ray, 100, 0.001, true),
+                "empty composite blocks the light");
+    }
 }
@@ -8,6 +8,7 @@ import primitives.*;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * Testing Polygons
@@ -155,4 +156,57 @@ public class PolygonTest {
 
         assertNull(TC06result, "Wrong number of intersection points");
     }
+
+    /**
+     * Test method for {@link geometries.Polygon#findGeoIntersections(Ray, double, boolean)} -
+     * a convex polygon is intersected as the fan of triangles it is made of
+     */
+    @Test
+    void findGeoIntersections() {
+        Point3D[] vertices = {
+                new Point3D(2, 0, 0.5), new Point3D(1, 2, 0.45), new Point3D(-1, 2, -0.05),
+                new Point3D(-2, 0, -0.5), new Point3D(0, -1, -0.1)
+        };
+        Polygon polygon = new Polygon(vertices);
+        Triangle[] fan = new Triangle[vertices.length - 2];
+        for (int i = 0; i < fan.length; ++i) {
+            fan[i] = new Triangle(vertices[0], vertices[i + 1], vertices[i + 2]);
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: random rays intersect the polygon exactly where they intersect one of its triangles
+        Random rand = new Random(5);
+        int hits = 0;
+        for (int i = 0; i < 10000; ++i) {
+            Ray ray = new Ray(new Point3D(rand.nextDouble() * 6 - 3, rand.nextDouble() * 6 - 3, 5),
+                    new Vector(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, -1));
+            List<Point3D> expected = null;
+            for (Triangle triangle : fan) {
+                if (expected == null) {
+                    expected = triangle.findIntersections(ray);
+                }
+            }
+            List<Point3D> actual = polygon.findIntersections(ray);
+            if (expected == null) {
+                assertNull(actual, "intersection found outside the polygon");
+            } else {
+                ++hits;
+                assertNotNull(actual, "intersection not found");
+                assertTrue(expected.get(0).distance(actual.get(0)) < 1e-9, "wrong intersection point");
+            }
+        }
+        assertTrue(hits > 0, "no ray hit the polygon");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: intersection beyond the distance bound
+        Ray ray = new Ray(new Point3D(0, 0.5, 5), new Vector(0, 0, -1));
+        assertNotNull(polygon.findGeoIntersections(ray, 10, false), "intersection not found");
+        assertNull(polygon.findGeoIntersections(ray, 1, false), "intersection beyond the distance bound");
+
+        // TC12: ray parallel to the polygon
+        assertNull(polygon.findIntersections(new Ray(new Point3D(0, 0.5, 5), new Vector(1, 0, 0))),
+                "parallel ray intersects the polygon");
+    }
 }
@@ -0,0 +1,228 @@
+package geometries;
+
+import org.junit.jupiter.api.Test;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.Random;
+
+import static geometries.Intersectable.GeoPoint;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for geometries.TriangleMesh class
+ */
+class TriangleMeshTest {
+
+    /**
+     * a random heightfield mesh and the same faces as separate triangles
+     */
+    private final double[] vertices;
+    private final int[] faces;
+    private final Triangle[] triangles;
+    private final TriangleMesh mesh;
+
+    /**
+     * build a 20x20 heightfield of random heights
+     */
+    TriangleMeshTest() {
+        int size = 20;
+        Random rand = new Random(11);
+        vertices = new double[(size + 1) * (size + 1) * 3];
+        for (int i = 0; i <= size; ++i) {
+            for (int j = 0; j <= size; ++j) {
+                int v = (i * (size + 1) + j) * 3;
+                vertices[v] = i;
+                vertices[v + 1] = j;
+                vertices[v + 2] = rand.nextDouble() * 2;
+            }
+        }
+        faces = new int[size * size * 6];
+        int f = 0;
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j;
+                int b = a + size + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = b + 1;
+                faces[f++] = a;
+                faces[f++] = b + 1;
+                faces[f++] = a + 1;
+            }
+        }
+        triangles = new Triangle[faces.length / 3];
+        for (int i = 0; i < triangles.length; ++i) {
+            triangles[i] = new Triangle(point(faces[i * 3]), point(faces[i * 3 + 1]), point(faces[i * 3 + 2]));
+        }
+        mesh = new TriangleMesh(vertices.clone(), faces.clone());
+    }
+
+    /**
+     * @param index - index of a vertex
+     * @return the vertex as a point
+     */
+    private Point3D point(int index) {
+        return new Point3D(vertices[index * 3], vertices[index * 3 + 1], vertices[index * 3 + 2]);
+    }
+
+    /**
+     * @param rand - random generator
+     * @return a random ray from above the heightfield downwards
+     */
+    private static Ray randomRay(Random rand) {
+        return new Ray(new Point3D(rand.nextDouble() * 20, rand.nextDouble() * 20, 10),
+                new Vector(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, -1));
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#TriangleMesh(double[], int[])}.
+     */
+    @Test
+    void testConstructor() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: correct mesh
+        assertEquals(441, mesh.getVertexCount(), "wrong number of vertices");
+        assertEquals(800, mesh.getFaceCount(), "wrong number of faces");
+        assertEquals(0, mesh._boundingBox.getMinX(), "wrong bounding box");
+        assertEquals(20, mesh._boundingBox.getMaxY(), "wrong bounding box");
+
+        // TC02: face refers to a vertex which does not exist
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1, 3}),
+                "face with a wrong vertex index is accepted");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: faces not in triples
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0, 1, 0, 0, 0, 1, 0}, new int[]{0, 1}),
+                "faces not in triples are accepted");
+
+        // TC12: no faces
+        assertThrows(IllegalArgumentException.class,
+                () -> new TriangleMesh(new double[]{0, 0, 0}, new int[0]),
+                "mesh without faces is accepted");
+
+        // TC13: a single face
+        TriangleMesh single = new TriangleMesh(
+                new Point3D[]{new Point3D(1, 0, 0), new Point3D(0, 1, 0), new Point3D(0, 0, 1)}, 0, 1, 2);
+        List<Point3D> result = single.findIntersections(new Ray(new Point3D(0, -1, 0), new Vector(1, 3, 1)));
+        assertEquals(List.of(new Point3D(0.4, 0.2, 0.4)), result, "wrong intersection of a single face");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#getNormal(Point3D)}.
+     */
+    @Test
+    void testGetNormal() {
+        // a face on the plane z = 0, and a tilted face which crosses that plane
+        TriangleMesh crossing = new TriangleMesh(new double[]{
+                10, 0, 0, 11, 0, 0, 10, 1, 0,
+                0, 0, -1, 1, 0, 1, 0, 1, 1}, new int[]{0, 1, 2, 3, 4, 5});
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: point on the tilted face, which is also on the plane of the other face
+        assertEquals(new Vector(-2, -2, 1).normalize(), crossing.getNormal(new Point3D(0.25, 0.25, 0)),
+                "the normal is not of the face of the point");
+
+        // TC02: point out of the mesh
+        assertThrows(IllegalArgumentException.class, () -> crossing.getNormal(new Point3D(5, 0, 0)),
+                "normal of a point out of the mesh");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: point on a vertex
+        assertEquals(new Vector(0, 0, 1), crossing.getNormal(new Point3D(11, 0, 0)),
+                "wrong normal at a vertex");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findClosestGeoIntersection(Ray, double, boolean)}.
+     */
+    @Test
+    void findClosestGeoIntersection() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the same closest point and normal as the separate triangles
+        Random rand = new Random(12);
+        int hits = 0;
+        for (int i = 0; i < 2000; ++i) {
+            Ray ray = randomRay(rand);
+            GeoPoint expected = null;
+            double best = Double.POSITIVE_INFINITY;
+            for (Triangle triangle : triangles) {
+                GeoPoint geoPoint = triangle.findClosestGeoIntersection(ray);
+                if (geoPoint != null && geoPoint.point.distance(ray.getP0()) < best) {
+                    best = geoPoint.point.distance(ray.getP0());
+                    expected = geoPoint;
+                }
+            }
+            GeoPoint actual = mesh.findClosestGeoIntersection(ray);
+            if (expected == null) {
+                assertNull(actual, "intersection found outside the mesh");
+                continue;
+            }
+            ++hits;
+            assertNotNull(actual, "intersection not found");
+            assertSame(mesh, actual.geometry, "wrong geometry of the intersection");
+            assertTrue(expected.point.distance(actual.point) < 1e-9, "wrong closest point");
+            assertEquals(expected.geometry.getNormal(expected.point), actual.getNormal(), "wrong normal");
+            assertEquals(actual.getNormal(), mesh.getNormal(actual.point), "wrong normal at the point");
+        }
+        assertTrue(hits > 1000, "too few rays hit the mesh");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: intersection beyond the distance bound
+        Ray ray = new Ray(new Point3D(10.3, 10.6, 10), new Vector(0, 0, -1));
+        assertNotNull(mesh.findClosestGeoIntersection(ray, 20, false), "intersection not found");
+        assertNull(mesh.findClosestGeoIntersection(ray, 7, false), "intersection beyond the distance bound");
+
+        // TC12: ray parallel to the axes which misses the mesh
+        assertNull(mesh.findClosestGeoIntersection(new Ray(new Point3D(-1, 5, 1), new Vector(0, 1, 0))),
+                "intersection found outside the mesh");
+    }
+
+    /**
+     * Test method for {@link geometries.TriangleMesh#findGeoIntersections(Ray, double, boolean)}
+     * and {@link geometries.TriangleMesh#findTransparency(Ray, double, double, boolean)}.
+     */
+    @Test
+    void findGeoIntersections() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the same number of intersections as the separate triangles, for rays along the heightfield
+        Random rand = new Random(13);
+        for (int i = 0; i < 500; ++i) {
+            Ray ray = new Ray(new Point3D(-1, rand.nextDouble() * 20, rand.nextDouble() * 2),
+                    new Vector(1, rand.nextDouble() - 0.5, 0));
+            int expected = 0;
+            for (Triangle triangle : triangles) {
+                List<GeoPoint> geoPoints = triangle.findGeoIntersections(ray);
+                expected += geoPoints == null ? 0 : geoPoints.size();
+            }
+            List<GeoPoint> actual = mesh.findGeoIntersections(ray);
+            assertEquals(expected, actual == null ? 0 : actual.size(), "wrong number of intersections");
+        }
+
+        // TC02: transparency of a half transparent mesh along a ray through two faces
+        Ray ray = new Ray(new Point3D(0.3, 0.2, 0.5), new Vector(1, 0.01, 0));
+        int crossings = mesh.findGeoIntersections(ray).size();
+        mesh.setMaterial(new Material().setKt(0.5));
+        assertEquals(Math.pow(0.5, crossings), mesh.findTransparency(ray, Double.POSITIVE_INFINITY, 1e-6, false),
+                1e-12, "wrong transparency");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: opaque mesh blocks the ray at the first face
+        mesh.setMaterial(new Material());
+        assertEquals(0.0, mesh.findTransparency(ray, Double.POSITIVE_INFINITY, 0.001, false),
+                "opaque mesh does not block the ray");
+    }
+}
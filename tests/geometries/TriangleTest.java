@@ -6,6 +6,7 @@ import primitives.Ray;
 import primitives.Vector;
 
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -87,4 +88,54 @@ class TriangleTest {
         assertNull(TC06result, "Wrong number of intersection points");
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Test method for {@link geometries.Triangle#findBarycentric(primitives.Ray, double)}.
+     */
+    @Test
+    void findBarycentric() {
+        Triangle t = new Triangle(
+                new Point3D(1, 0, 0),
+                new Point3D(0, 1, 0),
+                new Point3D(0, 0, 1)
+        );
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: Ray intersects the triangle - the barycentric coordinates give the intersection point
+        double[] result = t.findBarycentric(new Ray(new Point3D(0, -1, 0), new Vector(1, 3, 1)), Double.POSITIVE_INFINITY);
+        assertNotNull(result, "intersection not found");
+        assertEquals(0.4 * Math.sqrt(11), result[0], 1e-10, "wrong distance");
+        assertEquals(0.2, result[1], 1e-10, "wrong u coordinate");
+        assertEquals(0.4, result[2], 1e-10, "wrong v coordinate");
+
+        // TC02: the same results as the general polygon intersection for random rays
+        Polygon polygon = new Polygon(new Point3D(1, 0, 0), new Point3D(0, 1, 0), new Point3D(0, 0, 1));
+        Random rand = new Random(3);
+        int hits = 0;
+        for (int i = 0; i < 10000; ++i) {
+            Ray ray = new Ray(new Point3D(rand.nextDouble() * 4 - 2, rand.nextDouble() * 4 - 2, rand.nextDouble() * 4 - 2),
+                    new Vector(rand.nextDouble() - 0.5, rand.nextDouble() - 0.5, rand.nextDouble() - 0.5));
+            List<Point3D> expected = polygon.findIntersections(ray);
+            List<Point3D> actual = t.findIntersections(ray);
+            if (expected == null) {
+                assertNull(actual, "intersection found outside the triangle");
+            } else {
+                ++hits;
+                assertNotNull(actual, "intersection not found");
+                assertTrue(expected.get(0).distance(actual.get(0)) < 1e-9, "wrong intersection point");
+            }
+        }
+        assertTrue(hits > 0, "no ray hit the triangle");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: Ray parallel to the triangle
+        assertNull(t.findBarycentric(new Ray(new Point3D(0, 0, 0), new Vector(1, -1, 0)), Double.POSITIVE_INFINITY),
+                "parallel ray intersects the triangle");
+
+        // TC12: intersection beyond the distance bound
+        assertNull(t.findBarycentric(new Ray(new Point3D(0, -1, 0), new Vector(1, 3, 1)), 1),
+                "intersection beyond the distance bound");
+    }
+}
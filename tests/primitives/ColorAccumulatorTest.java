@@ -0,0 +1,71 @@
+package primitives;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.ColorAccumulator class
+ */
+class ColorAccumulatorTest {
+
+    /**
+     * Test method for {@link primitives.ColorAccumulator#getAverage()}.
+     */
+    @Test
+    void getAverage() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: same average as the average of a list of colors
+        List<Color> colors = List.of(new Color(10, 20, 30), new Color(40, 0, 90), new Color(1, 2, 3));
+        ColorAccumulator accumulator = new ColorAccumulator();
+        for (Color color : colors) {
+            accumulator.add(color);
+        }
+        assertEquals(3, accumulator.getCount(), "wrong number of samples");
+        assertEquals(Color.avgColor(colors).toString(), accumulator.getAverage().toString(), "wrong average");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: no samples
+        assertEquals(Color.BLACK.toString(), accumulator.reset().getAverage().toString(),
+                "average of no samples is not black");
+    }
+
+    /**
+     * Test method for {@link primitives.ColorAccumulator#getMaxVariance()}
+     * and {@link primitives.ColorAccumulator#getMaxStandardError()}.
+     */
+    @Test
+    void getMaxVariance() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the variance of the component which changes the most
+        // (the green samples 0, 10, 20, 30 have mean 15 and sample variance 500/3)
+        ColorAccumulator accumulator = new ColorAccumulator(true);
+        for (int i = 0; i < 4; ++i) {
+            accumulator.add(new Color(100, 10 * i, 50 + i));
+        }
+        assertEquals(500d / 3, accumulator.getMaxVariance(), 1e-10, "wrong variance");
+        assertEquals(Math.sqrt(500d / 3 / 4), accumulator.getMaxStandardError(), 1e-10, "wrong standard error");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: identical samples
+        accumulator.reset();
+        for (int i = 0; i < 5; ++i) {
+            accumulator.add(new Color(0.1, 0.2, 0.3));
+        }
+        assertEquals(0, accumulator.getMaxVariance(), "variance of identical samples is not 0");
+
+        // TC12: a single sample
+        assertEquals(0, accumulator.reset().add(Color.WHITE).getMaxStandardError(),
+                "standard error of a single sample is not 0");
+
+        // TC13: the accumulator does not accumulate the variance
+        assertThrows(IllegalStateException.class, () -> new ColorAccumulator().add(Color.WHITE).getMaxVariance(),
+                "variance is calculated without the sums of squares");
+    }
+}
@@ -0,0 +1,144 @@
+package primitives;
+
+import geometries.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for primitives.VectorMath class
+ */
+class VectorMathTest {
+
+    /**
+     * Test method for {@link primitives.VectorMath#dotProduct(double, double, double, double, double, double)}.
+     */
+    @Test
+    void dotProduct() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: same result as the dot product of vectors
+        Vector v1 = new Vector(1, 2, 3);
+        Vector v2 = new Vector(-2, 4.5, -6);
+        assertEquals(v1.dotProduct(v2), VectorMath.dotProduct(1, 2, 3, -2, 4.5, -6), 1e-10,
+                "wrong dot product");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: orthogonal vectors
+        assertEquals(0, VectorMath.dotProduct(1, 2, 3, 0, 3, -2), "dot product of orthogonal vectors is not 0");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#crossX(double, double, double, double)},
+     * {@link primitives.VectorMath#crossY(double, double, double, double)}
+     * and {@link primitives.VectorMath#crossZ(double, double, double, double)}.
+     */
+    @Test
+    void crossProduct() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: same result as the cross product of vectors
+        Vector v1 = new Vector(1, 2, 3);
+        Vector v2 = new Vector(0, 3, -2);
+        Point3D expected = v1.crossProduct(v2).getHead();
+        assertEquals(expected, new Point3D(
+                        VectorMath.crossX(2, 3, 3, -2),
+                        VectorMath.crossY(1, 3, 0, -2),
+                        VectorMath.crossZ(1, 2, 0, 3)),
+                "wrong cross product");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: parallel vectors give the zero vector
+        assertTrue(VectorMath.isZeroVector(
+                        VectorMath.crossX(2, 3, -4, -6),
+                        VectorMath.crossY(1, 3, -2, -6),
+                        VectorMath.crossZ(1, 2, -2, -4)),
+                "cross product of parallel vectors is not zero");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#lengthSquared(double, double, double)}.
+     */
+    @Test
+    void lengthSquared() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: same result as the squared length of a vector
+        assertEquals(new Vector(1, 2, 3).lengthSquared(), VectorMath.lengthSquared(1, 2, 3), 1e-10,
+                "wrong squared length");
+    }
+
+    /**
+     * Test method for {@link primitives.VectorMath#isZeroVector(double, double, double)}.
+     */
+    @Test
+    void isZeroVector() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: not a zero vector
+        assertFalse(VectorMath.isZeroVector(0, 0, 1e-5), "small vector is zero");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: almost zero vector (in the accuracy of Vector)
+        assertTrue(VectorMath.isZeroVector(1e-13, 0, -1e-13), "almost zero vector is not zero");
+    }
+
+    /**
+     * measure the bytes which the intersections of the geometries allocate per ray:
+     * a ray which misses a geometry should allocate nothing at all,
+     * and a ray which hits it only allocates the result
+     */
+    @Test
+    void allocationsPerRay() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        int rays = 100000;
+
+        Intersectable[] geometries = {
+                new Sphere(new Point3D(0, 0, 10), 1),
+                new Plane(new Point3D(0, 0, 10), new Vector(0, 0, 1)),
+                new Polygon(new Point3D(-1, -1, 10), new Point3D(1, -1, 10),
+                        new Point3D(1, 1, 10), new Point3D(-1, 1, 10)),
+                new Triangle(new Point3D(-1, -1, 10), new Point3D(1, -1, 10), new Point3D(0, 1, 10)),
+                new Tube(new Ray(new Point3D(0, 0, 10), new Vector(1, 0, 0)), 1)
+        };
+        Ray hit = new Ray(new Point3D(0.1, 0.2, 0), new Vector(0, 0, 1));
+        Ray miss = new Ray(new Point3D(5, 5, 0), new Vector(0, 0.1, -1));
+
+        // warm up
+        for (int i = 0; i < rays; ++i) {
+            for (Intersectable geometry : geometries) {
+                geometry.findGeoIntersections(hit, Double.POSITIVE_INFINITY, false);
+                geometry.findGeoIntersections(miss, Double.POSITIVE_INFINITY, false);
+            }
+        }
+
+        for (Intersectable geometry : geometries) {
+            String name = geometry.getClass().getSimpleName();
+            String missMessage = name + " found intersections with the missing ray";
+            String hitMessage = name + " missed the intersections of the ray";
+
+            long start = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < rays; ++i) {
+                assertNull(geometry.findGeoIntersections(miss, Double.POSITIVE_INFINITY, false), missMessage);
+            }
+            double missBytes = (double) (threads.getThreadAllocatedBytes(thread) - start) / rays;
+
+            start = threads.getThreadAllocatedBytes(thread);
+            for (int i = 0; i < rays; ++i) {
+                assertNotNull(geometry.findGeoIntersections(hit, Double.POSITIVE_INFINITY, false), hitMessage);
+            }
+            double hitBytes = (double) (threads.getThreadAllocatedBytes(thread) - start) / rays;
+
+            System.out.printf("%s: %.1f bytes per missing ray, %.1f bytes per hitting ray%n",
+                    name, missBytes, hitBytes);
+            assertTrue(missBytes < 1, name + " allocates memory for a missing ray");
+        }
+    }
+}
@@ -3,6 +3,18 @@ package renderer;
 import org.junit.jupiter.api.Test;
 import primitives.Color;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 /**
@@ -46,5 +58,169 @@ class ImageWriterTest {
         imageWriter.writeToImage();
     }
 
-}
+    /**
+     * Test method for {@link renderer.ImageWriter#toImage()}.
+     */
+    @Test
+    void testToImage() {
+        ImageWriter imageWriter = new ImageWriter("tone mapping", 3, 1);
+        imageWriter.writePixel(0, 0, new Color(10.7, 127.99999999, 1000));
+        imageWriter.writePixel(1, 0, new Color(255, 0, 51));
+        imageWriter.writePixel(2, 0, new Color(0, 0, 0));
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the components are truncated and clamped
+        BufferedImage image = imageWriter.toImage();
+        assertEquals(new java.awt.Color(10, 127, 255).getRGB(), image.getRGB(0, 0), "wrong clamped color");
+        assertEquals(new java.awt.Color(255, 0, 51).getRGB(), image.getRGB(1, 0), "wrong clamped color");
+
+        // TC02: the Reinhard operator compresses the bright components
+        image = imageWriter.setToneMapping(ImageWriter.ToneMapping.REINHARD).toImage();
+        assertEquals(new java.awt.Color(127, 0, 42).getRGB(), image.getRGB(1, 0), "wrong Reinhard color");
+        assertEquals(203, image.getRGB(0, 0) & 0xFF, "wrong Reinhard color");
+
+        // TC03: the exposure is applied before the tone mapping
+        image = imageWriter.setToneMapping(ImageWriter.ToneMapping.CLAMP).setExposure(2).toImage();
+        assertEquals(new java.awt.Color(255, 0, 102).getRGB(), image.getRGB(1, 0), "wrong exposed color");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: black stays black with every operator
+        assertEquals(0, image.getRGB(2, 0) & 0xFFFFFF, "black is not black");
+        image = imageWriter.setToneMapping(ImageWriter.ToneMapping.REINHARD).toImage();
+        assertEquals(0, image.getRGB(2, 0) & 0xFFFFFF, "black is not black");
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#writeToPfm()}.
+     */
+    @Test
+    void testWriteToPfm() throws IOException {
+        ImageWriter imageWriter = new ImageWriter("pfm test", 2, 2);
+        imageWriter.writePixel(0, 0, new Color(255, 0, 0));
+        imageWriter.writePixel(1, 0, new Color(0, 510, 0));
+        imageWriter.writePixel(0, 1, new Color(0, 0, 25.5));
+        imageWriter.writePixel(1, 1, new Color(2550, 2550, 2550));
+        imageWriter.writeToPfm();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the header and the unclamped colors, from the bottom row to the top row
+        Path file = Path.of(System.getProperty("user.dir"), "images", "pfm test.pfm");
+        byte[] bytes = Files.readAllBytes(file);
+        String header = "PF\n2 2\n-1.0\n";
+        assertEquals(header, new String(bytes, 0, header.length(), StandardCharsets.US_ASCII), "wrong header");
+        ByteBuffer data = ByteBuffer.wrap(bytes, header.length(), bytes.length - header.length())
+                .order(ByteOrder.LITTLE_ENDIAN);
+        float[] expected = {0, 0, 0.1f, 10, 10, 10, 1, 0, 0, 0, 2, 0};
+        assertEquals(expected.length * Float.BYTES, data.remaining(), "wrong size of the data");
+        for (float value : expected) {
+            assertEquals(value, data.getFloat(), 1e-6, "wrong value");
+        }
+        Files.delete(file);
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#writeToImageAsync()}.
+     */
+    @Test
+    void testWriteToImageAsync() throws IOException {
+        // a gradient with noise, in strips of rows which are not a multiple of the strip size
+        Random rand = new Random(3);
+        ImageWriter imageWriter = new ImageWriter("async test", 123, 77);
+        for (int i = 0; i < 123; ++i) {
+            for (int j = 0; j < 77; ++j) {
+                imageWriter.writePixel(i, j, new Color(i * 2, j * 3, rand.nextInt(256)));
+            }
+        }
+        BufferedImage expected = imageWriter.toImage();
+
+        // ============ Equivalence Partitions Tests ==============
 
+        // TC01: every compression level gives the same pixels, and the pixels may be written again at once
+        long[] sizes = new long[ImageWriter.Compression.values().length];
+        for (ImageWriter.Compression compression : ImageWriter.Compression.values()) {
+            File file = imageWriter.setCompression(compression).writeToImageAsync().join();
+            sizes[compression.ordinal()] = file.length();
+            assertImage(expected, ImageIO.read(file));
+        }
+        assertTrue(sizes[ImageWriter.Compression.DEFAULT.ordinal()] < sizes[ImageWriter.Compression.NONE.ordinal()],
+                "the compressed file is not smaller");
+
+        // TC02: the image is taken when the method is called, not when it is encoded
+        imageWriter.setCompression(ImageWriter.Compression.DEFAULT);
+        File file = imageWriter.writeToImageAsync(command -> {
+            imageWriter.writePixel(0, 0, new Color(255, 255, 255));
+            command.run();
+        }).join();
+        assertImage(expected, ImageIO.read(file));
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: an image of a single pixel
+        ImageWriter single = new ImageWriter("async single", 1, 1);
+        single.writePixel(0, 0, new Color(1, 2, 3));
+        assertImage(single.toImage(), ImageIO.read(single.writeToImageAsync().join()));
+    }
+
+    /**
+     * Test method for {@link renderer.ImageWriter#crop(String, int, int, int, int)}
+     * and {@link renderer.ImageWriter#ImageWriter(String)}.
+     */
+    @Test
+    void testCrop() {
+        ImageWriter imageWriter = new ImageWriter("crop test", 60, 40);
+        for (int i = 0; i < 60; ++i) {
+            for (int j = 0; j < 40; ++j) {
+                imageWriter.writePixel(i, j, new Color(i * 4, j * 6, 300));
+            }
+        }
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: window inside the image
+        ImageWriter window = imageWriter.crop("crop test window", 10, 5, 30, 20);
+        assertEquals(30, window.getNx(), "wrong width");
+        assertEquals(20, window.getNy(), "wrong height");
+        BufferedImage image = imageWriter.toImage();
+        assertImage(image.getSubimage(10, 5, 30, 20), window.toImage());
+
+        // TC02: the written window is read back with its 8 bit colors
+        window.writeToImage();
+        ImageWriter read = new ImageWriter("crop test window");
+        assertEquals(30, read.getNx(), "wrong width");
+        assertEquals(20, read.getNy(), "wrong height");
+        assertImage(window.toImage(), read.toImage());
+        assertEquals(255, read.readPixel(0, 0).getB(), 0, "the color is not of 8 bits");
+
+        // TC03: window out of the image
+        assertThrows(IllegalArgumentException.class, () -> imageWriter.crop("out", 40, 5, 30, 20),
+                "window out of the image is accepted");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: window of the whole image
+        assertImage(image, imageWriter.crop("whole", 0, 0, 60, 40).toImage());
+
+        // TC12: image which does not exist
+        assertThrows(UncheckedIOException.class, () -> new ImageWriter("no such image"),
+                "missing image is read");
+    }
+
+    /**
+     * assert that two images have the same pixels
+     *
+     * @param expected - the expected image
+     * @param actual   - the actual image
+     */
+    private static void assertImage(BufferedImage expected, BufferedImage actual) {
+        assertEquals(expected.getWidth(), actual.getWidth(), "wrong width");
+        assertEquals(expected.getHeight(), actual.getHeight(), "wrong height");
+        for (int x = 0; x < expected.getWidth(); ++x) {
+            for (int y = 0; y < expected.getHeight(); ++y) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "wrong pixel " + x + "," + y);
+            }
+        }
+    }
+}
@@ -599,8 +599,6 @@ public class MP1 {
     @Test
     public void TreeTestMP1_try() throws IOException {
 
-        Scene scene = new Scene("Test scene");
-
         Camera camera = new Camera(
                 new Point3D(30, 150, 20),
                 new Vector(-5, -27, -3),
@@ -616,6 +614,33 @@ public class MP1 {
 
         int pixels = 250;
 
+        Scene scene = createTreeScene();
+        scene.getGeometries().BuildTree();
+
+        Render render = new Render() //
+                .setCamera(camera) //
+                .setImageWriter(new ImageWriter("TreeTest_DOF_AA_BB_TREE_MP1_try", pixels, pixels)) //
+                .setRayTracer(new BasicRayTracer(scene).set_bb(true)) //
+                .setMultithreading(10)
+                .setDebugPrint();
+        render.renderImage();
+        render.writeToImage();
+
+        Path currentRelativePath = Paths.get("");
+        String s = currentRelativePath.toAbsolutePath().toString();
+        s += "\\images\\" + render.getImageWriter().getImageName() + ".png";
+        File picture = new File(s);
+        Desktop.getDesktop().open(picture);
+    }
+
+    /**
+     * Create the scene of the trees - the trees, the moon, the stars and the lights (without the BVH tree)
+     *
+     * @return the trees scene
+     */
+    static Scene createTreeScene() {
+        Scene scene = new Scene("Test scene");
+
         scene.setBackground(Color.BLUE.add(Color.GREEN.reduce(2)).reduce(5));
         scene.setAmbientLight(new AmbientLight(Color.WHITE.reduce(5), 0.1));
 
@@ -807,23 +832,7 @@ public class MP1 {
                         moonPoint)
         );
         //endregion
-
-        scene.getGeometries().BuildTree();
-
-        Render render = new Render() //
-                .setCamera(camera) //
-                .setImageWriter(new ImageWriter("TreeTest_DOF_AA_BB_TREE_MP1_try", pixels, pixels)) //
-                .setRayTracer(new BasicRayTracer(scene).set_bb(true)) //
-                .setMultithreading(10)
-                .setDebugPrint();
-        render.renderImage();
-        render.writeToImage();
-
-        Path currentRelativePath = Paths.get("");
-        String s = currentRelativePath.toAbsolutePath().toString();
-        s += "\\images\\" + render.getImageWriter().getImageName() + ".png";
-        File picture = new File(s);
-        Desktop.getDesktop().open(picture);
+        return scene;
     }
 }
 
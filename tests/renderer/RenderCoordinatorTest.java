@@ -0,0 +1,314 @@
+package renderer;
+
+import elements.*;
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.MissingResourceException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for renderer.RenderCoordinator and renderer.RenderWorker classes
+ */
+class RenderCoordinatorTest {
+
+    private final Camera camera = new Camera(new Point3D(0, 0, 500), new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+            .setDistance(500).setViewPlaneSize(200, 200);
+
+    /**
+     * @return a scene of spheres on a plane, lit by a spot light
+     */
+    private static Scene createScene() {
+        Scene scene = new Scene("Test scene") //
+                .setBackground(new Color(20, 20, 40)) //
+                .setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1));
+        Material material = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        for (int i = 0; i < 5; ++i) {
+            scene.geometries.add(new Sphere(new Point3D(-80 + i * 40, 0, -50), 15) //
+                    .setEmission(new Color(40 * i, 100, 200 - 40 * i)).setMaterial(material));
+        }
+        scene.geometries.add(new Plane(new Point3D(0, -15, 0), new Vector(0, 1, 0)) //
+                .setMaterial(new Material().setKd(0.4).setKr(0.3)));
+        scene.lights.add(new SpotLight(new Color(600, 500, 400), new Point3D(0, 150, 100), new Vector(0, -1, -1)) //
+                .setkL(0.0001).setkQ(0.00001));
+        return scene;
+    }
+
+    /**
+     * @param scene - the scene
+     * @return the image of the scene which is rendered in this process
+     */
+    private BufferedImage renderLocally(Scene scene) {
+        ImageWriter imageWriter = new ImageWriter("distributed", 90, 70);
+        new Render().setImageWriter(imageWriter).setCamera(camera).setRayTracer(new BasicRayTracer(scene))
+                .renderImage();
+        return imageWriter.toImage();
+    }
+
+    /**
+     * assert that two images have the same pixels
+     *
+     * @param expected - the expected image
+     * @param actual   - the actual image
+     */
+    private static void assertImage(BufferedImage expected, BufferedImage actual) {
+        for (int x = 0; x < expected.getWidth(); ++x) {
+            for (int y = 0; y < expected.getHeight(); ++y) {
+                assertEquals(expected.getRGB(x, y), actual.getRGB(x, y), "wrong pixel " + x + "," + y);
+            }
+        }
+    }
+
+    /**
+     * start a worker in a thread of this process
+     *
+     * @param port - the port of the coordinator
+     * @return the thread
+     */
+    private static Thread startWorker(int port) {
+        Thread thread = new Thread(new RenderWorker("localhost", port));
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @param size  - number of the squares of the heightfield along each axis
+     * @param depth - the distance of the heightfield behind the camera
+     * @return a heightfield mesh of two faces in every square, behind the camera
+     */
+    private static TriangleMesh mesh(int size, double depth) {
+        double[] vertices = new double[(size + 1) * (size + 1) * 3];
+        for (int i = 0; i <= size; ++i) {
+            for (int j = 0; j <= size; ++j) {
+                int v = (i * (size + 1) + j) * 3;
+                vertices[v] = i;
+                vertices[v + 1] = j;
+                vertices[v + 2] = depth + (i * j) % 7;
+            }
+        }
+        int[] faces = new int[size * size * 6];
+        int f = 0;
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j;
+                int b = a + size + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = b + 1;
+                faces[f++] = a;
+                faces[f++] = b + 1;
+                faces[f++] = a + 1;
+            }
+        }
+        return new TriangleMesh(vertices, faces);
+    }
+
+    /**
+     * connect to a coordinator as a worker which reads the job and its first tile, and does not return it
+     *
+     * @param port - the port of the coordinator
+     * @return the connection
+     * @throws IOException if the coordinator can not be connected
+     */
+    private static Socket takeTile(int port) throws IOException {
+        Socket socket = new Socket("localhost", port);
+        DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        input.skipNBytes(4 * Integer.BYTES + 2);
+        input.skipNBytes(input.readInt());
+        // the index and the window of the tile
+        input.skipNBytes(5 * Integer.BYTES);
+        return socket;
+    }
+
+    /**
+     * connect to a coordinator as a worker which returns its first tile with valid colors but the last one
+     *
+     * @param port - the port of the coordinator
+     * @throws IOException if the coordinator can not be connected
+     */
+    private static void returnInvalidTile(int port) throws IOException {
+        try (Socket socket = new Socket("localhost", port)) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            input.skipNBytes(4 * Integer.BYTES + 2);
+            input.skipNBytes(input.readInt());
+            int tile = input.readInt();
+            input.skipNBytes(2 * Integer.BYTES);
+            int pixels = input.readInt() * input.readInt();
+            DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            output.writeInt(tile);
+            for (int i = 0; i < pixels * 3 - 1; ++i) {
+                output.writeFloat(255);
+            }
+            output.writeFloat(Float.NaN);
+            output.flush();
+            // the coordinator closes the connection
+            assertEquals(-1, input.read(), "the invalid tile was accepted");
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCoordinator#renderImage()} - workers in threads of this process
+     */
+    @Test
+    void renderImage() throws InterruptedException {
+        Scene scene = createScene();
+        BufferedImage expected = renderLocally(scene);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: three workers render the same image as a single process
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, InetAddress.getLoopbackAddress())) {
+            List<Thread> workers = new ArrayList<>();
+            for (int i = 0; i < 3; ++i) {
+                workers.add(startWorker(coordinator.getPort()));
+            }
+            ImageWriter imageWriter = new ImageWriter("distributed", 90, 70);
+            coordinator.setScene(scene).setCamera(camera).setImageWriter(imageWriter).setTileSize(16).renderImage();
+            for (Thread worker : workers) {
+                worker.join();
+            }
+            assertImage(expected, imageWriter.toImage());
+            assertEquals(0, coordinator.getLostWorkers(), "a worker was lost");
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: missing camera
+        try (RenderCoordinator coordinator = new RenderCoordinator(0)) {
+            coordinator.setScene(scene).setImageWriter(new ImageWriter("distributed", 90, 70));
+            assertThrows(MissingResourceException.class, coordinator::renderImage, "rendering without a camera");
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderCoordinator#renderImage()} - the tiles of lost workers are given out
+     * again: a worker which closes its connection and a worker which does not answer in the timeout
+     */
+    @Test
+    void renderWithLostWorkers() throws Exception {
+        Scene scene = createScene();
+        BufferedImage expected = renderLocally(scene);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: a closed worker, a hung worker, and a worker which renders all the tiles
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, InetAddress.getLoopbackAddress())) {
+            int port = coordinator.getPort();
+            List<Socket> hung = new ArrayList<>();
+            Thread workers = new Thread(() -> {
+                try {
+                    takeTile(port).close();
+                    hung.add(takeTile(port));
+                    new RenderWorker("localhost", port).run();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            });
+            workers.start();
+            ImageWriter imageWriter = new ImageWriter("distributed", 90, 70);
+            coordinator.setScene(scene).setCamera(camera).setImageWriter(imageWriter) //
+                    .setTileSize(16).setWorkerTimeout(500) //
+                    .renderImage();
+            workers.join();
+            for (Socket socket : hung) {
+                socket.close();
+            }
+            assertImage(expected, imageWriter.toImage());
+            assertEquals(2, coordinator.getLostWorkers(), "wrong number of lost workers");
+        }
+
+        // TC02: a worker which returns an invalid color - none of its tile is written, and the tile is given out again
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, InetAddress.getLoopbackAddress())) {
+            int port = coordinator.getPort();
+            Thread workers = new Thread(() -> {
+                try {
+                    returnInvalidTile(port);
+                    new RenderWorker("localhost", port).run();
+                } catch (IOException e) {
+                    fail(e);
+                }
+            });
+            workers.start();
+            AtomicInteger writes = new AtomicInteger();
+            ImageWriter imageWriter = new ImageWriter("distributed", 90, 70) {
+                @Override
+                public void writePixel(int xIndex, int yIndex, Color color) {
+                    writes.incrementAndGet();
+                    super.writePixel(xIndex, yIndex, color);
+                }
+            };
+            coordinator.setScene(scene).setCamera(camera).setImageWriter(imageWriter).setTileSize(16).renderImage();
+            workers.join();
+            assertImage(expected, imageWriter.toImage());
+            assertEquals(90 * 70, writes.get(), "pixels of the invalid tile were written");
+            assertEquals(1, coordinator.getLostWorkers(), "wrong number of lost workers");
+        }
+
+        // TC03: a worker which does not read the job - the coordinator does not wait for it after the timeout
+        // (the job is larger than the buffers of the connection, by a mesh behind the camera)
+        Scene large = createScene();
+        large.geometries.add(mesh(400, 1000));
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, InetAddress.getLoopbackAddress())) {
+            int port = coordinator.getPort();
+            Socket stuck = new Socket();
+            stuck.setReceiveBufferSize(1024);
+            stuck.connect(new InetSocketAddress("localhost", port));
+            Thread worker = startWorker(port);
+            ImageWriter imageWriter = new ImageWriter("distributed", 90, 70);
+            assertTimeoutPreemptively(Duration.ofSeconds(30), () -> coordinator.setScene(large).setCamera(camera) //
+                    .setImageWriter(imageWriter).setTileSize(16).setWorkerTimeout(500).renderImage(), //
+                    "the coordinator waits for a worker which does not read the job");
+            worker.join();
+            stuck.close();
+            assertImage(expected, imageWriter.toImage());
+            assertEquals(1, coordinator.getLostWorkers(), "wrong number of lost workers");
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.RenderWorker#main(String[])} - workers in processes on this machine
+     */
+    @Test
+    void renderWithProcesses() throws Exception {
+        Scene scene = createScene();
+        BufferedImage expected = renderLocally(scene);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: two worker processes, one of them with threads
+        try (RenderCoordinator coordinator = new RenderCoordinator(0, InetAddress.getLoopbackAddress())) {
+            String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+            String classPath = System.getProperty("java.class.path");
+            String port = String.valueOf(coordinator.getPort());
+            List<Process> processes = List.of(
+                    new ProcessBuilder(java, "-cp", classPath, "renderer.RenderWorker", "localhost", port)
+                            .inheritIO().start(),
+                    new ProcessBuilder(java, "-cp", classPath, "renderer.RenderWorker", "localhost", port, "2")
+                            .inheritIO().start());
+            ImageWriter imageWriter = new ImageWriter("distributed", 90, 70);
+            coordinator.setScene(scene).setCamera(camera).setImageWriter(imageWriter).setTileSize(16).renderImage();
+            for (Process process : processes) {
+                assertTrue(process.waitFor(30, TimeUnit.SECONDS), "a worker process did not end");
+                assertEquals(0, process.exitValue(), "a worker process failed");
+            }
+            assertImage(expected, imageWriter.toImage());
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package renderer;
+
+import elements.*;
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for renderer.RenderStatistics class
+ */
+class RenderStatisticsTest {
+
+    /**
+     * create a scene of a reflecting sphere and a transparent sphere on a reflecting floor, lit by a spot light
+     * (the reflections of the floor in the sphere are too weak, and are cut by the minimal color factor)
+     *
+     * @return the scene
+     */
+    private static Scene createScene() {
+        Scene scene = new Scene("Test scene").setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1));
+        scene.geometries.add( //
+                new Sphere(new Point3D(-30, 0, -150), 25).setEmission(new Color(java.awt.Color.BLUE)) //
+                        .setMaterial(new Material().setKd(0.4).setKs(0.4).setShininess(30).setKr(0.04)), //
+                new Sphere(new Point3D(30, 0, -150), 25).setEmission(new Color(java.awt.Color.RED)) //
+                        .setMaterial(new Material().setKd(0.4).setKs(0.4).setShininess(30).setKt(0.6)), //
+                new Triangle(new Point3D(-200, -25, 0), new Point3D(200, -25, 0), new Point3D(0, -25, -400)) //
+                        .setEmission(new Color(40, 40, 40)).setMaterial(new Material().setKd(0.5).setKr(0.02)));
+        scene.lights.add(new SpotLight(new Color(500, 500, 500), new Point3D(0, 100, 0), new Vector(0, -1, -1)));
+        return scene;
+    }
+
+    /**
+     * render the scene with statistics
+     *
+     * @param threads - number of threads
+     * @param flatBVH - whether to trace the rays through the flat BVH
+     * @return the statistics of the rendering
+     */
+    private static RenderStatistics.Snapshot render(int threads, boolean flatBVH) {
+        Scene scene = createScene();
+        RenderStatistics statistics = new RenderStatistics().timeBuild(scene.geometries::BuildTreeSAH);
+        Camera camera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(100, 100);
+        Render render = new Render() //
+                .setImageWriter(new ImageWriter("statistics", 60, 50)) //
+                .setCamera(camera) //
+                .setRayTracer(new BasicRayTracer(scene).set_bb(true).set_flatBVH(flatBVH)) //
+                .setMultithreading(threads) //
+                .setStatistics(statistics);
+        render.renderImage();
+        return statistics.snapshot();
+    }
+
+    /**
+     * Test method for {@link renderer.RenderStatistics#snapshot()}.
+     */
+    @Test
+    void snapshot() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: all the kinds of rays and the traversal are counted
+        RenderStatistics.Snapshot serial = render(0, false);
+        System.out.println(serial);
+        assertEquals(60 * 50, serial.getPrimaryRays(), "wrong number of primary rays");
+        assertTrue(serial.getReflectedRays() > 0, "reflected rays are not counted");
+        assertTrue(serial.getRefractedRays() > 0, "refracted rays are not counted");
+        assertTrue(serial.getShadowRays() > 0, "shadow rays are not counted");
+        assertTrue(serial.getEarlyOuts() > 0, "early outs are not counted");
+        assertTrue(serial.getNodeVisits() > 0, "node visits are not counted");
+        assertTrue(serial.getPrimitiveTests().get("Sphere") > 0, "sphere tests are not counted");
+        assertTrue(serial.getPrimitiveTests().get("Triangle") > 0, "triangle tests are not counted");
+        assertTrue(serial.getRenderMillis() > 0, "render time is not measured");
+        assertTrue(serial.getBuildMillis() > 0, "build time is not measured");
+
+        // TC02: the counting threads do not lose counts
+        RenderStatistics.Snapshot threaded = render(3, false);
+        assertEquals(serial.getPrimaryRays(), threaded.getPrimaryRays(), "threads lost primary rays");
+        assertEquals(serial.getShadowRays(), threaded.getShadowRays(), "threads lost shadow rays");
+        assertEquals(serial.getNodeVisits(), threaded.getNodeVisits(), "threads lost node visits");
+        assertEquals(serial.getPrimitiveTests(), threaded.getPrimitiveTests(), "threads lost primitive tests");
+
+        // TC03: the flat BVH traversal is counted
+        RenderStatistics.Snapshot flat = render(0, true);
+        assertEquals(serial.getShadowRays(), flat.getShadowRays(), "wrong number of shadow rays");
+        assertTrue(flat.getNodeVisits() > 0, "flat BVH node visits are not counted");
+        assertTrue(flat.getTotalPrimitiveTests() > 0, "flat BVH primitive tests are not counted");
+
+        // TC04: concurrent renders count their traversal separately
+        RenderStatistics.Snapshot[] concurrent = new RenderStatistics.Snapshot[2];
+        Thread other = new Thread(() -> concurrent[1] = render(0, true));
+        other.start();
+        concurrent[0] = render(0, false);
+        try {
+            other.join();
+        } catch (InterruptedException e) {
+            fail(e);
+        }
+        assertEquals(serial.getNodeVisits(), concurrent[0].getNodeVisits(), "renders counted together");
+        assertEquals(serial.getPrimitiveTests(), concurrent[0].getPrimitiveTests(), "renders counted together");
+        assertEquals(flat.getNodeVisits(), concurrent[1].getNodeVisits(), "renders counted together");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: nothing is counted when the statistics are not set
+        RenderStatistics statistics = new RenderStatistics();
+        Scene scene = createScene();
+        new Render() //
+                .setImageWriter(new ImageWriter("statistics", 60, 50)) //
+                .setCamera(new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                        .setDistance(100).setViewPlaneSize(100, 100)) //
+                .setRayTracer(new BasicRayTracer(scene).setStatistics(statistics)) //
+                .setStatistics(null) //
+                .renderImage();
+        assertEquals(0, statistics.snapshot().getNodeVisits(), "traversal is counted without statistics");
+        assertEquals(0, statistics.reset().snapshot().getPrimaryRays(), "reset does not clear the counters");
+    }
+}
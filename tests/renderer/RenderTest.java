@@ -7,6 +7,25 @@ import primitives.*;
 import scene.Scene;
 import scene.XMLtoScene;
 
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
 /**
  * Test rendering a basic image
  *
@@ -87,6 +106,523 @@ class RenderTest {
         render.writeToImage();
     }
 
+    /**
+     * Produce the two color scene with adaptive anti-aliasing and with the full grid anti-aliasing,
+     * and compare the number of traced rays
+     */
+    @Test
+    public void basicRenderTwoColorTestAdaptiveAA() {
+        Scene scene = new Scene("Test scene")//
+                .setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1)) //
+                .setBackground(new Color(75, 127, 90));
+
+        scene.geometries.add(new Sphere(new Point3D(0, 0, -100), 50),
+                new Triangle(new Point3D(-100, 0, -100), new Point3D(0, 100, -100), new Point3D(-100, 100, -100)),
+                new Triangle(new Point3D(100, 0, -100), new Point3D(0, 100, -100), new Point3D(100, 100, -100)),
+                new Triangle(new Point3D(-100, 0, -100), new Point3D(0, -100, -100), new Point3D(-100, -100, -100)),
+                new Triangle(new Point3D(100, 0, -100), new Point3D(0, -100, -100), new Point3D(100, -100, -100)));
+
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase tracer = new RayTracerBase(scene) {
+            private final BasicRayTracer basic = new BasicRayTracer(scene);
+
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return basic.traceRay(ray);
+            }
+        };
+
+        // grid anti-aliasing with 36 rays in each pixel
+        camera.setAA(true).setNumberOfRaysInPixel(36);
+        new Render() //
+                .setImageWriter(new ImageWriter("base render test grid AA", 200, 200)) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .renderImage();
+        int gridRays = rays.getAndSet(0);
+
+        // adaptive anti-aliasing, up to 64 squares in each pixel
+        camera.setAdaptiveAA(true).setMaxAdaptiveDepth(3).setAdaptiveThreshold(8);
+        Render render = new Render() //
+                .setImageWriter(new ImageWriter("base render test adaptive AA", 200, 200)) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .setMultithreading(3);
+        render.renderImage();
+        render.writeToImage();
+        int adaptiveRays = rays.get();
+
+        System.out.printf("grid AA: %d rays | adaptive AA: %d rays (%.1fx fewer)%n",
+                gridRays, adaptiveRays, (double) gridRays / adaptiveRays);
+        assertTrue(adaptiveRays * 3 < gridRays, "adaptive AA does not save rays");
+    }
+
+    /**
+     * Produce a scene with depth of field with adaptive DOF and with full beams,
+     * and compare the number of traced rays
+     */
+    @Test
+    public void renderAdaptiveDOF() {
+        Scene scene = new Scene("Test scene").setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1));
+        scene.geometries.add( //
+                new Sphere(new Point3D(-60, 0, -300), 40).setEmission(new Color(java.awt.Color.BLUE)) //
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)), //
+                new Sphere(new Point3D(60, 0, -600), 40).setEmission(new Color(java.awt.Color.RED)) //
+                        .setMaterial(new Material().setKd(0.5).setKs(0.5).setShininess(30)), //
+                new Plane(new Point3D(0, -40, 0), new Vector(0, 1, 0)).setEmission(new Color(40, 40, 40)) //
+                        .setMaterial(new Material().setKd(0.5)));
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(0, 200, 0)));
+
+        Camera dofCamera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(100, 100) //
+                .set_DOF(true).setFocalDistance(300).setApertureSize(10).setNumberOfRaysInAperture(36);
+
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase tracer = new RayTracerBase(scene) {
+            private final BasicRayTracer basic = new BasicRayTracer(scene);
+
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return basic.traceRay(ray);
+            }
+        };
+
+        // full beams of 36 rays in each pixel
+        new Render() //
+                .setImageWriter(new ImageWriter("DOF render test full beams", 150, 150)) //
+                .setCamera(dofCamera) //
+                .setRayTracer(tracer) //
+                .renderImage();
+        int fullRays = rays.getAndSet(0);
+
+        // adaptive DOF, batches of 8 rays until the average color is known up to 2 RGB units
+        dofCamera.setAdaptiveDOF(true).setDOFBatchSize(8).setDOFTolerance(2);
+        Render render = new Render() //
+                .setImageWriter(new ImageWriter("DOF render test adaptive", 150, 150)) //
+                .setCamera(dofCamera) //
+                .setRayTracer(tracer) //
+                .setMultithreading(3);
+        render.renderImage();
+        render.writeToImage();
+        int adaptiveRays = rays.get();
+
+        System.out.printf("full DOF: %d rays | adaptive DOF: %d rays, %d saved (%.1fx fewer)%n",
+                fullRays, render.getRaysTraced(), render.getRaysSaved(), (double) fullRays / adaptiveRays);
+        assertEquals(adaptiveRays, render.getRaysTraced(), "wrong number of traced rays");
+        assertEquals(fullRays, render.getRaysTraced() + render.getRaysSaved(), "wrong number of saved rays");
+        assertTrue(adaptiveRays * 2 < fullRays, "adaptive DOF does not save rays");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setCostHeatmap(Render.CostMetric)} - the rays heatmap of adaptive AA
+     * in the calling thread and in threads, and the time heatmap
+     */
+    @Test
+    public void renderCostHeatmap() {
+        Scene scene = new Scene("Test scene").setBackground(new Color(75, 127, 90));
+        scene.geometries.add(new Sphere(new Point3D(0, 0, -100), 50).setEmission(new Color(200, 50, 50)));
+        Camera aaCamera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(500, 500) //
+                .setAA(true).setNumberOfRaysInPixel(36).setAdaptiveAA(true).setAdaptiveThreshold(8);
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase tracer = new RayTracerBase(scene) {
+            private final BasicRayTracer basic = new BasicRayTracer(scene);
+
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return basic.traceRay(ray);
+            }
+        };
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: the rays of all the pixels are the traced rays, and the edge of the sphere costs more
+        for (int threads : new int[]{0, 3}) {
+            rays.set(0);
+            Render render = new Render() //
+                    .setImageWriter(new ImageWriter("cost heatmap", 100, 100)) //
+                    .setCamera(aaCamera) //
+                    .setRayTracer(tracer) //
+                    .setMultithreading(threads) //
+                    .setCostHeatmap(Render.CostMetric.RAYS);
+            render.renderImage();
+            long total = 0;
+            for (int row = 0; row < 100; ++row) {
+                for (int col = 0; col < 100; ++col) {
+                    total += render.getPixelCost(col, row);
+                }
+            }
+            assertEquals(rays.get(), total, "wrong number of rays of the pixels with " + threads + " threads");
+            // the pixels on the edge of the sphere in the middle row cost more than the center of the sphere
+            long maxCost = 0;
+            for (int col = 0; col < 100; ++col) {
+                maxCost = Math.max(maxCost, render.getPixelCost(col, 50));
+            }
+            assertTrue(maxCost > render.getPixelCost(50, 50), "the edge costs no more rays");
+            render.writeCostHeatmap();
+        }
+
+        // TC02: time heatmap
+        Render render = new Render() //
+                .setImageWriter(new ImageWriter("cost heatmap", 100, 100)) //
+                .setCamera(aaCamera) //
+                .setRayTracer(tracer) //
+                .setCostHeatmap(Render.CostMetric.TIME);
+        render.renderImage();
+        assertTrue(render.getPixelCost(50, 50) > 0, "time of a pixel is not recorded");
+        render.writeCostHeatmap();
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: the heatmap mode is turned off after the rendering - the heatmap of the rendering is written
+        render.setCostHeatmap(null).writeCostHeatmap();
+        assertTrue(render.getPixelCost(50, 50) > 0, "the costs of the rendering are lost");
+
+        // TC12: the heatmap mode is off
+        render.renderImage();
+        assertThrows(IllegalStateException.class, render::writeCostHeatmap, "heatmap without costs is written");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setProgressive(int)} - the coarse pass preview and the final image
+     * in the calling thread and in threads
+     */
+    @Test
+    public void renderProgressive() {
+        // the color of a ray is by its direction, so every pixel has its own color
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase tracer = new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                Point3D direction = ray.getDir().getHead();
+                return new Color(128 + 100 * direction.getX(), 128 + 100 * direction.getY(), 50);
+            }
+        };
+        Render normal = new Render() //
+                .setImageWriter(new ImageWriter("progressive", 50, 37)) //
+                .setCamera(camera) //
+                .setRayTracer(tracer);
+        normal.renderImage();
+        int normalRays = rays.get();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: a preview after each pass but the last, the first of uniform 8x8 blocks,
+        // and the final image and the traced rays are those of the normal rendering
+        for (int threads : new int[]{0, 3}) {
+            rays.set(0);
+            List<BufferedImage> previews = new ArrayList<>();
+            ImageWriter writer = new ImageWriter("progressive", 50, 37) {
+                @Override
+                public CompletableFuture<File> writeToImageAsync() {
+                    synchronized (previews) {
+                        previews.add(toImage());
+                    }
+                    return CompletableFuture.completedFuture(null);
+                }
+            };
+            new Render() //
+                    .setImageWriter(writer) //
+                    .setCamera(camera) //
+                    .setRayTracer(tracer) //
+                    .setMultithreading(threads) //
+                    .setProgressive(8) //
+                    .renderImage();
+            assertEquals(normalRays, rays.get(), "wrong number of traced rays");
+            assertEquals(3, previews.size(), "wrong number of previews");
+            BufferedImage coarse = previews.get(0);
+            BufferedImage expected = normal.getImageWriter().toImage();
+            BufferedImage result = writer.toImage();
+            for (int row = 0; row < 37; ++row) {
+                for (int col = 0; col < 50; ++col) {
+                    assertEquals(coarse.getRGB(col - col % 8, row - row % 8), coarse.getRGB(col, row),
+                            "coarse preview is not of 8x8 blocks");
+                    assertEquals(expected.getRGB(col, row), result.getRGB(col, row),
+                            "final image is not the normal image");
+                }
+            }
+        }
+
+        // TC02: previews on a time interval, besides the previews after the passes
+        List<BufferedImage> previews = new ArrayList<>();
+        RayTracerBase slowTracer = new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Color.BLACK;
+            }
+        };
+        new Render() //
+                .setImageWriter(new ImageWriter("progressive", 40, 40) {
+                    @Override
+                    public CompletableFuture<File> writeToImageAsync() {
+                        synchronized (previews) {
+                            previews.add(toImage());
+                        }
+                        return CompletableFuture.completedFuture(null);
+                    }
+                }) //
+                .setCamera(camera) //
+                .setRayTracer(slowTracer) //
+                .setProgressive(4) //
+                .setPreviewInterval(100) //
+                .renderImage();
+        assertTrue(previews.size() > 2, "previews are not written on the interval");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: block size which is not a power of 2
+        assertThrows(IllegalArgumentException.class, () -> new Render().setProgressive(6),
+                "block size which is not a power of 2 is accepted");
+
+        // TC12: block of a single pixel is a single pass without previews
+        rays.set(0);
+        previews.clear();
+        ImageWriter single = new ImageWriter("progressive", 50, 37) {
+            @Override
+            public CompletableFuture<File> writeToImageAsync() {
+                previews.add(toImage());
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        new Render().setImageWriter(single).setCamera(camera).setRayTracer(tracer).setProgressive(1).renderImage();
+        assertEquals(normalRays, rays.get(), "wrong number of traced rays");
+        assertTrue(previews.isEmpty(), "preview of a single pass is written");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setCheckpoint(String)} - a rendering which crashed
+     * is resumed without rendering again the tiles which were done
+     */
+    @Test
+    public void renderCheckpoint() throws IOException {
+        Path file = Files.createTempFile("render", ".checkpoint");
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        AtomicInteger rays = new AtomicInteger();
+        AtomicInteger crashAfter = new AtomicInteger(Integer.MAX_VALUE);
+        RayTracerBase tracer = new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                if (rays.incrementAndGet() > crashAfter.get())
+                    throw new IllegalStateException("crash");
+                Point3D direction = ray.getDir().getHead();
+                return new Color(128 + 100 * direction.getX(), 128 + 100 * direction.getY(), 50);
+            }
+        };
+        ImageWriter expected = new ImageWriter("checkpoint", 50, 40);
+        new Render().setImageWriter(expected).setCamera(camera).setRayTracer(tracer).renderImage();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: crash in the middle of the 12th tile of 10x10, and resume in threads
+        rays.set(0);
+        crashAfter.set(1150);
+        Render crashed = new Render() //
+                .setImageWriter(new ImageWriter("checkpoint", 50, 40)) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .setTileSize(10) //
+                .setCheckpoint(file.toString());
+        assertThrows(IllegalStateException.class, crashed::renderImage, "the rendering did not crash");
+        assertTrue(Files.exists(file), "the checkpoint is not kept");
+
+        rays.set(0);
+        crashAfter.set(Integer.MAX_VALUE);
+        ImageWriter resumed = new ImageWriter("checkpoint", 50, 40);
+        new Render() //
+                .setImageWriter(resumed) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .setTileSize(10) //
+                .setMultithreading(3) //
+                .setCheckpoint(file.toString()) //
+                .renderImage();
+        assertEquals(50 * 40 - 11 * 100, rays.get(), "the done tiles are rendered again");
+        BufferedImage expectedImage = expected.toImage();
+        BufferedImage resumedImage = resumed.toImage();
+        for (int row = 0; row < 40; ++row) {
+            for (int col = 0; col < 50; ++col) {
+                assertEquals(expectedImage.getRGB(col, row), resumedImage.getRGB(col, row),
+                        "resumed image is not the normal image");
+            }
+        }
+        assertFalse(Files.exists(file), "the checkpoint of a complete image is kept");
+
+        // TC02: checkpoint of another image
+        rays.set(0);
+        crashAfter.set(100);
+        assertThrows(IllegalStateException.class, crashed::renderImage, "the rendering did not crash");
+        crashAfter.set(Integer.MAX_VALUE);
+        Render other = new Render() //
+                .setImageWriter(new ImageWriter("checkpoint", 40, 40)) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .setTileSize(10) //
+                .setCheckpoint(file.toString());
+        assertThrows(IllegalArgumentException.class, other::renderImage, "checkpoint of another image is resumed");
+        Files.delete(file);
+
+        // TC03: the pixels of a done tile were lost (by a crash of the machine) - only that tile is rendered again
+        rays.set(0);
+        crashAfter.set(1150);
+        assertThrows(IllegalStateException.class, crashed::renderImage, "the rendering did not crash");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // the pixels are at the end of the file, the first pixel is in the first tile
+            channel.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}), channel.size() - 50 * 40 * 3 * Float.BYTES);
+        }
+        rays.set(0);
+        crashAfter.set(Integer.MAX_VALUE);
+        resumed = new ImageWriter("checkpoint", 50, 40);
+        new Render() //
+                .setImageWriter(resumed) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .setTileSize(10) //
+                .setCheckpoint(file.toString()) //
+                .renderImage();
+        assertEquals(50 * 40 - 10 * 100, rays.get(), "wrong number of the tiles which are rendered again");
+        resumedImage = resumed.toImage();
+        for (int row = 0; row < 40; ++row) {
+            for (int col = 0; col < 50; ++col) {
+                assertEquals(expectedImage.getRGB(col, row), resumedImage.getRGB(col, row),
+                        "resumed image is not the normal image");
+            }
+        }
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: checkpoint without tile rendering
+        Render pixels = new Render() //
+                .setImageWriter(new ImageWriter("checkpoint", 50, 40)) //
+                .setCamera(camera) //
+                .setRayTracer(tracer) //
+                .setCheckpoint(file.toString());
+        assertThrows(IllegalStateException.class, pixels::renderImage, "checkpoint without tiles is accepted");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setCropWindow(int, int, int, int)} and
+     * {@link renderer.Render#setResolution(int, int)} - only the pixels of the window are rendered,
+     * and they are those of the whole image, in all the rendering modes
+     */
+    @Test
+    public void renderCropWindow() {
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase tracer = new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                Point3D direction = ray.getDir().getHead();
+                return new Color(128 + 100 * direction.getX(), 128 + 100 * direction.getY(), 50);
+            }
+        };
+        ImageWriter whole = new ImageWriter("crop", 60, 45);
+        new Render().setImageWriter(whole).setCamera(camera).setRayTracer(tracer).renderImage();
+        BufferedImage expected = whole.toImage();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: pixel by pixel, in threads, in tiles and progressive
+        Render[] modes = {
+                new Render(),
+                new Render().setMultithreading(3),
+                new Render().setTileSize(8).setMultithreading(2),
+                new Render().setProgressive(4)};
+        for (Render render : modes) {
+            rays.set(0);
+            ImageWriter writer = new ImageWriter("crop", 60, 45);
+            render.setImageWriter(writer).setCamera(camera).setRayTracer(tracer) //
+                    .setCropWindow(13, 7, 30, 21) //
+                    .renderImage();
+            assertEquals(30 * 21, rays.get(), "wrong number of traced rays");
+            BufferedImage result = writer.toImage();
+            for (int row = 0; row < 45; ++row) {
+                for (int col = 0; col < 60; ++col) {
+                    boolean inside = col >= 13 && col < 43 && row >= 7 && row < 28;
+                    assertEquals(inside ? expected.getRGB(col, row) : 0xFF000000, result.getRGB(col, row),
+                            "wrong pixel " + col + "," + row);
+                }
+            }
+        }
+
+        // TC02: window out of the image
+        Render out = new Render().setImageWriter(new ImageWriter("crop", 60, 45)).setCamera(camera)
+                .setRayTracer(tracer).setCropWindow(40, 0, 30, 10);
+        assertThrows(IllegalStateException.class, out::renderImage, "window out of the image is rendered");
+
+        // TC03: adaptive AA with the costs of the pixels - the corners and the costs cover the window
+        Scene scene = new Scene("Test scene").setBackground(new Color(75, 127, 90));
+        scene.geometries.add(new Sphere(new Point3D(0, 0, -100), 30).setEmission(new Color(200, 50, 50)));
+        Camera aaCamera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(200, 150) //
+                .setAA(true).setNumberOfRaysInPixel(16).setAdaptiveAA(true).setAdaptiveThreshold(8);
+        ImageWriter aaWhole = new ImageWriter("crop", 60, 45);
+        new Render().setImageWriter(aaWhole).setCamera(aaCamera).setRayTracer(new BasicRayTracer(scene))
+                .renderImage();
+        ImageWriter aaWriter = new ImageWriter("crop", 60, 45);
+        Render aaRender = new Render().setImageWriter(aaWriter).setCamera(aaCamera)
+                .setRayTracer(new BasicRayTracer(scene)).setCostHeatmap(Render.CostMetric.RAYS)
+                .setCropWindow(13, 7, 30, 21);
+        aaRender.renderImage();
+        for (int row = 7; row < 28; ++row) {
+            for (int col = 13; col < 43; ++col) {
+                assertEquals(aaWhole.toImage().getRGB(col, row), aaWriter.toImage().getRGB(col, row),
+                        "wrong pixel " + col + "," + row);
+                assertTrue(aaRender.getPixelCost(col, row) > 0, "cost of a pixel is not recorded");
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> aaRender.getPixelCost(12, 7),
+                "cost of a pixel out of the window");
+
+        // TC04: image writer of the window only, with the resolution of the whole image, in all the rendering modes
+        Render[] windowModes = {
+                new Render(),
+                new Render().setMultithreading(3),
+                new Render().setTileSize(8).setMultithreading(2),
+                new Render().setProgressive(4)};
+        for (Render render : windowModes) {
+            ImageWriter window = new ImageWriter("crop", 30, 21);
+            render.setImageWriter(window).setResolution(60, 45).setCamera(camera).setRayTracer(tracer) //
+                    .setCropWindow(13, 7, 30, 21) //
+                    .renderImage();
+            BufferedImage result = window.toImage();
+            for (int row = 0; row < 21; ++row) {
+                for (int col = 0; col < 30; ++col) {
+                    assertEquals(expected.getRGB(col + 13, row + 7), result.getRGB(col, row),
+                            "wrong pixel " + col + "," + row);
+                }
+            }
+        }
+
+        // TC05: image writer which is not of the size of the window
+        Render wrongSize = new Render().setImageWriter(new ImageWriter("crop", 30, 20)).setResolution(60, 45)
+                .setCamera(camera).setRayTracer(tracer).setCropWindow(13, 7, 30, 21);
+        assertThrows(IllegalStateException.class, wrongSize::renderImage, "window into a wrong image writer");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: window of a single pixel
+        rays.set(0);
+        ImageWriter writer = new ImageWriter("crop", 60, 45);
+        new Render().setImageWriter(writer).setCamera(camera).setRayTracer(tracer) //
+                .setCropWindow(59, 44, 1, 1).renderImage();
+        assertEquals(1, rays.get(), "wrong number of traced rays");
+        assertEquals(expected.getRGB(59, 44), writer.toImage().getRGB(59, 44), "wrong pixel");
+
+        // TC12: window without size
+        assertThrows(IllegalArgumentException.class, () -> new Render().setCropWindow(0, 0, 10, 0),
+                "window without size is accepted");
+    }
+
     /**
      * Test for XML based scene - for bonus
      */
@@ -137,6 +673,149 @@ class RenderTest {
     }
 
 
+    /**
+     * create a ray tracer which only counts the traced rays and the threads which traced them
+     *
+     * @param rays    - counter of the traced rays
+     * @param threads - names of the threads which traced the rays
+     * @return the ray tracer
+     */
+    private static RayTracerBase countingTracer(AtomicInteger rays, Set<String> threads) {
+        return new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                threads.add(Thread.currentThread().getName());
+                return Color.BLACK;
+            }
+        };
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setExecutor(ExecutorService)} -
+     * consecutive renderings (frames) reuse the threads of a caller supplied executor
+     */
+    @Test
+    public void renderWithExecutor() {
+        AtomicInteger rays = new AtomicInteger();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // TC01: three frames, pixel by pixel and in tiles
+            for (int frame = 0; frame < 3; ++frame) {
+                new Render() //
+                        .setImageWriter(new ImageWriter("executor", 50, 40)) //
+                        .setCamera(camera) //
+                        .setRayTracer(countingTracer(rays, threads)) //
+                        .setExecutor(executor) //
+                        .setTileSize(frame == 0 ? 0 : 8) //
+                        .renderImage();
+            }
+            assertEquals(3 * 50 * 40, rays.get(), "wrong number of traced rays");
+            assertTrue(threads.size() <= 3, "new threads were created for the frames");
+            assertFalse(executor.isShutdown(), "the render shut the executor down");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Render#renderImage()} - an interrupted rendering stops all its workers
+     * before it returns, and is not taken as complete
+     */
+    @Test
+    public void renderInterrupted() throws InterruptedException {
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase slowTracer = new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Color.BLACK;
+            }
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            // TC01: in threads, in tasks of an executor, in tiles and progressive
+            Render[] modes = {
+                    new Render().setMultithreading(3),
+                    new Render().setExecutor(executor),
+                    new Render().setExecutor(executor).setTileSize(8),
+                    new Render().setMultithreading(3).setProgressive(4)};
+            for (Render render : modes) {
+                rays.set(0);
+                RuntimeException[] thrown = new RuntimeException[1];
+                boolean[] interrupted = new boolean[1];
+                Thread rendering = new Thread(() -> {
+                    try {
+                        render.setImageWriter(new ImageWriter("interrupted", 100, 100)).setCamera(camera)
+                                .setRayTracer(slowTracer).renderImage();
+                    } catch (RuntimeException e) {
+                        thrown[0] = e;
+                        interrupted[0] = Thread.currentThread().isInterrupted();
+                    }
+                });
+                rendering.start();
+                Thread.sleep(100);
+                rendering.interrupt();
+                rendering.join();
+                assertTrue(thrown[0] instanceof IllegalStateException, "interrupted rendering is complete");
+                assertTrue(interrupted[0], "the interrupt flag is not kept");
+                int traced = rays.get();
+                assertTrue(traced < 100 * 100, "the rendering was not stopped");
+                Thread.sleep(50);
+                assertEquals(traced, rays.get(), "a worker is running after the rendering returned");
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setSharedPool()} and {@link renderer.Render#setVirtualThreads()} -
+     * concurrent renderings share one bounded pool
+     */
+    @Test
+    public void renderWithSharedPool() throws InterruptedException {
+        AtomicInteger rays = new AtomicInteger();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+
+        // TC01: two concurrent renderings in the shared pool
+        Thread other = new Thread(() -> new Render() //
+                .setImageWriter(new ImageWriter("shared", 60, 60)) //
+                .setCamera(camera) //
+                .setRayTracer(countingTracer(rays, threads)) //
+                .setSharedPool() //
+                .renderImage());
+        other.start();
+        new Render() //
+                .setImageWriter(new ImageWriter("shared", 60, 60)) //
+                .setCamera(camera) //
+                .setRayTracer(countingTracer(rays, threads)) //
+                .setSharedPool() //
+                .setTileSize(16) //
+                .renderImage();
+        other.join();
+        assertEquals(2 * 60 * 60, rays.get(), "wrong number of traced rays");
+        assertTrue(threads.size() <= Math.max(1, Runtime.getRuntime().availableProcessors() - 2),
+                "the shared pool is not bounded");
+
+        // TC02: virtual threads (or the shared pool if they are not supported)
+        rays.set(0);
+        new Render() //
+                .setImageWriter(new ImageWriter("virtual", 60, 60)) //
+                .setCamera(camera) //
+                .setRayTracer(countingTracer(rays, threads)) //
+                .setVirtualThreads() //
+                .setTileSize(16) //
+                .renderImage();
+        assertEquals(60 * 60, rays.get(), "wrong number of traced rays");
+    }
+
     /**
      * Testing basic shadows
      *
@@ -7,6 +7,13 @@ import geometries.*;
 import primitives.*;
 import scene.Scene;
 
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
 /**
  * Test rendering an image
  *
@@ -18,7 +25,6 @@ public class TeapotTest {
             new Vector(0, 0, 1),
             new Vector(0, 1, 0)) //
             .setDistance(1000).setViewPlaneSize(200, 200);
-    private final Scene scene = new Scene("Test scene");
 
     private static final Color color = new Color(200, 0, 0);
     private static final Material mat = new Material().setKd(0.5).setKs(0.5).setShininess(60);
@@ -566,8 +572,99 @@ public class TeapotTest {
      */
     @Test
     public void teapot1() {
+        Scene scene = createScene();
+        scene.geometries.BuildTreeSAH();
+
+        ImageWriter imageWriter = new ImageWriter("teapot", 800, 800);
+        Render render = new Render() //
+                .setCamera(camera) //
+                .setImageWriter(imageWriter) //
+                .setRayTracer(new BasicRayTracer(scene).set_bb(true)) //
+                .setMultithreading(3).setDebugPrint();
+        render.renderImage();
+//        render.printGrid(50, new Color(java.awt.Color.YELLOW));
+        render.writeToImage();
+    }
+
+    /**
+     * Produce the teapot as one triangle mesh - the same image as the separate triangles
+     */
+    @Test
+    public void teapotMesh() {
+        Scene scene = createMeshScene();
+
+        ImageWriter imageWriter = new ImageWriter("teapot mesh", 400, 400);
+        Render render = new Render() //
+                .setCamera(camera) //
+                .setImageWriter(imageWriter) //
+                .setRayTracer(new BasicRayTracer(scene).set_bb(true)) //
+                .setMultithreading(3);
+        render.renderImage();
+        render.writeToImage();
+
+        // the mesh traces the same colors as the separate triangles
+        Scene triangles = createScene();
+        triangles.geometries.BuildTreeSAH();
+        RayTracerBase expected = new BasicRayTracer(triangles).set_bb(true);
+        RayTracerBase actual = new BasicRayTracer(scene).set_bb(true);
+        for (int i = 0; i < 100; i += 3) {
+            for (int j = 0; j < 100; j += 3) {
+                Ray ray = camera.constructRayThroughPixel(100, 100, j, i);
+                Color e = expected.traceRay(ray);
+                Color a = actual.traceRay(ray);
+                assertArrayEquals(new double[]{e.getR(), e.getG(), e.getB()}, new double[]{a.getR(), a.getG(), a.getB()},
+                        1e-9, "wrong color of pixel " + j + "," + i);
+            }
+        }
+    }
+
+    /**
+     * Create the scene of the teapot model - its triangles and light (without the BVH tree)
+     *
+     * @return the teapot scene
+     */
+    static Scene createScene() {
+        Scene scene = new Scene("Test scene");
+        scene.geometries.add(createTriangles());
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(100, 0, -100)) //
+                .setkQ(0.000001));
+        return scene;
+    }
+
+    /**
+     * Create the scene of the teapot model as one triangle mesh (with its own BVH) and light
+     *
+     * @return the teapot scene
+     */
+    static Scene createMeshScene() {
+        Map<Point3D, Integer> indices = new IdentityHashMap<>();
+        for (int i = 1; i < pnts.length; ++i) {
+            indices.put(pnts[i], i - 1);
+        }
+        Geometry[] triangles = createTriangles();
+        int[] faces = new int[triangles.length * 3];
+        for (int i = 0; i < triangles.length; ++i) {
+            List<Point3D> vertices = ((Triangle) triangles[i]).getVertices();
+            for (int k = 0; k < 3; ++k) {
+                faces[i * 3 + k] = indices.get(vertices.get(k));
+            }
+        }
+        Scene scene = new Scene("Test scene");
+        scene.geometries.add(new TriangleMesh(Arrays.copyOfRange(pnts, 1, pnts.length), faces)
+                .setEmission(color).setMaterial(mat));
+        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(100, 0, -100)) //
+                .setkQ(0.000001));
+        return scene;
+    }
+
+    /**
+     * Create the triangles of the teapot model
+     *
+     * @return the triangles
+     */
+    private static Geometry[] createTriangles() {
         //region polygons
-        scene.geometries.add( //
+        return new Geometry[]{ //
                 new Triangle(pnts[7], pnts[6], pnts[1]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[1], pnts[2], pnts[7]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[8], pnts[7], pnts[2]).setEmission(color).setMaterial(mat), //
@@ -1560,21 +1657,7 @@ public class TeapotTest {
                 new Triangle(pnts[528], pnts[529], pnts[469]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[470], pnts[469], pnts[529]).setEmission(color).setMaterial(mat), //
                 new Triangle(pnts[529], pnts[530], pnts[470]).setEmission(color).setMaterial(mat) //
-        );
+        };
         //endregion
-        scene.lights.add(new PointLight(new Color(500, 500, 500), new Point3D(100, 0, -100)) //
-                .setkQ(0.000001));
-
-        scene.geometries.BuildTree();
-
-        ImageWriter imageWriter = new ImageWriter("teapot", 800, 800);
-        Render render = new Render() //
-                .setCamera(camera) //
-                .setImageWriter(imageWriter) //
-                .setRayTracer(new BasicRayTracer(scene).set_bb(true)) //
-                .setMultithreading(3).setDebugPrint();
-        render.renderImage();
-//        render.printGrid(50, new Color(java.awt.Color.YELLOW));
-        render.writeToImage();
     }
 }
\ No newline at end of file
@@ -0,0 +1,132 @@
+package renderer;
+
+import elements.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import scene.Scene;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for renderer.TileScheduler class
+ */
+class TileSchedulerTest {
+
+    /**
+     * Test method for {@link renderer.TileScheduler#nextTile()}.
+     */
+    @Test
+    void nextTile() {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: every pixel is in exactly one tile, in every order
+        // (the tile size does not divide the resolution)
+        for (Render.TileOrder order : Render.TileOrder.values()) {
+            int nX = 100;
+            int nY = 70;
+            TileScheduler scheduler = new TileScheduler(nX, nY, 16, order);
+            int[][] counts = new int[nY][nX];
+            int tiles = 0;
+            int tile;
+            while ((tile = scheduler.nextTile()) != -1) {
+                ++tiles;
+                for (int row = scheduler.getFirstRow(tile); row < scheduler.getEndRow(tile); ++row) {
+                    for (int col = scheduler.getFirstCol(tile); col < scheduler.getEndCol(tile); ++col) {
+                        ++counts[row][col];
+                    }
+                }
+                scheduler.tileDone(tile);
+            }
+            assertEquals(7 * 5, tiles, "wrong number of tiles in " + order + " order");
+            for (int[] row : counts) {
+                for (int count : row) {
+                    assertEquals(1, count, "pixel is not rendered exactly once in " + order + " order");
+                }
+            }
+            assertEquals(100, scheduler.getPercents(), "progress did not reach 100% in " + order + " order");
+        }
+
+        // TC02: Hilbert order always moves to a neighbouring tile
+        int[] hilbert = TileScheduler.hilbertOrder(8, 8);
+        for (int i = 1; i < hilbert.length; ++i) {
+            int dx = Math.abs(hilbert[i] % 8 - hilbert[i - 1] % 8);
+            int dy = Math.abs(hilbert[i] / 8 - hilbert[i - 1] / 8);
+            assertEquals(1, dx + dy, "Hilbert order jumps between tiles");
+        }
+
+        // TC03: Morton order renders the top left quarter first
+        int[] morton = TileScheduler.mortonOrder(4, 4);
+        assertArrayEquals(new int[]{0, 1, 4, 5, 2, 3, 6, 7}, java.util.Arrays.copyOf(morton, 8),
+                "wrong Morton order");
+
+        // TC04: the tiles of a window cover exactly the window
+        TileScheduler window = new TileScheduler(30, 20, 45, 25, 16, Render.TileOrder.MORTON);
+        int[][] counts = new int[70][100];
+        int tile;
+        while ((tile = window.nextTile()) != -1) {
+            for (int row = window.getFirstRow(tile); row < window.getEndRow(tile); ++row) {
+                for (int col = window.getFirstCol(tile); col < window.getEndCol(tile); ++col) {
+                    ++counts[row][col];
+                }
+            }
+            window.tileDone(tile);
+        }
+        for (int row = 0; row < 70; ++row) {
+            for (int col = 0; col < 100; ++col) {
+                boolean inside = col >= 30 && col < 75 && row >= 20 && row < 45;
+                assertEquals(inside ? 1 : 0, counts[row][col], "pixel is not in the window's tiles exactly once");
+            }
+        }
+        assertEquals(100, window.getPercents(), "progress of the window did not reach 100%");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: a single tile bigger than the image
+        TileScheduler single = new TileScheduler(10, 5, 32, Render.TileOrder.HILBERT);
+        assertEquals(1, single.getTileCount(), "wrong number of tiles");
+        tile = single.nextTile();
+        assertEquals(10, single.getEndCol(tile), "tile is not clipped to the image");
+        assertEquals(5, single.getEndRow(tile), "tile is not clipped to the image");
+        assertEquals(-1, single.nextTile(), "tile given out twice");
+    }
+
+    /**
+     * Test method for {@link renderer.Render#setTileSize(int)} - each pixel is traced once by all the threads
+     */
+    @Test
+    void renderTiled() {
+        AtomicInteger rays = new AtomicInteger();
+        RayTracerBase counter = new RayTracerBase(new Scene("Test scene")) {
+            @Override
+            public Color traceRay(Ray ray) {
+                rays.incrementAndGet();
+                return Color.BLACK;
+            }
+        };
+        Camera camera = new Camera(Point3D.ZERO, new Vector(0, 0, -1), new Vector(0, 1, 0)) //
+                .setDistance(100).setViewPlaneSize(100, 100);
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: multi-threaded tile rendering traces every pixel once
+        new Render().setImageWriter(new ImageWriter("tiles", 99, 61)).setCamera(camera).setRayTracer(counter)
+                .setTileSize(16).setTileOrder(Render.TileOrder.HILBERT).setMultithreading(4)
+                .renderImage();
+        assertEquals(99 * 61, rays.get(), "wrong number of traced rays");
+
+        // TC02: tile rendering in the calling thread
+        rays.set(0);
+        new Render().setImageWriter(new ImageWriter("tiles", 99, 61)).setCamera(camera).setRayTracer(counter)
+                .setTileSize(16).setTileOrder(Render.TileOrder.MORTON)
+                .renderImage();
+        assertEquals(99 * 61, rays.get(), "wrong number of traced rays");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: negative tile size
+        assertThrows(IllegalArgumentException.class, () -> new Render().setTileSize(-1),
+                "negative tile size is accepted");
+    }
+}
@@ -0,0 +1,182 @@
+package scene;
+
+import geometries.TriangleMesh;
+import org.junit.jupiter.api.Test;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.OBJtoMesh class
+ */
+class OBJtoMeshTest {
+
+    /**
+     * write a text to a temporary OBJ file
+     *
+     * @param text - the content of the file
+     * @return the path of the file
+     * @throws IOException if the file can not be written
+     */
+    private static Path write(String text) throws IOException {
+        Path file = Files.createTempFile("mesh", ".obj");
+        file.toFile().deleteOnExit();
+        Files.writeString(file, text);
+        return file;
+    }
+
+    /**
+     * Test method for {@link scene.OBJtoMesh#ReadMesh(String)}.
+     */
+    @Test
+    void readMesh() throws IOException {
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: vertices, a triangle and a quad with texture and normal indices, comments and ignored statements
+        Path file = write("# unit square and a triangle above it\n" +
+                "mtllib square.mtl\n" +
+                "o square\n" +
+                "v 0 0 0\n" +
+                "v 1.0 0 0\r\n" +
+                "v  1 1 0 1.0\n" +
+                "v\t0 1 0\n" +
+                "vt 0.5 0.5\n" +
+                "vn 0 0 1\n" +
+                "usemtl red\n" +
+                "s off\n" +
+                "f 1/1/1 2/1/1 3/1/1 4/1/1 # quad\n" +
+                "v -2.5e-1 0.25 +1E0\n" +
+                "f -3//1 -2//1 -1//1\n");
+        TriangleMesh mesh = OBJtoMesh.ReadMesh(file.toString());
+        assertEquals(5, mesh.getVertexCount(), "wrong number of vertices");
+        assertEquals(3, mesh.getFaceCount(), "wrong number of faces");
+        assertEquals(new Point3D(-0.25, 0.25, 1), mesh.getVertex(4), "wrong vertex");
+        List<Point3D> result = mesh.findIntersections(new Ray(new Point3D(0.75, 0.25, 1), new Vector(0, 0, -1)));
+        assertEquals(List.of(new Point3D(0.75, 0.25, 0)), result, "wrong intersection of the quad");
+
+        // TC02: the numbers are parsed exactly like Double.parseDouble
+        Random rand = new Random(17);
+        StringBuilder builder = new StringBuilder();
+        double[] expected = new double[3000];
+        for (int i = 0; i < expected.length; ++i) {
+            double value = (rand.nextDouble() - 0.5) * Math.pow(10, rand.nextInt(24) - 8);
+            // short decimals (the fast path) and full precision (the fallback)
+            String text = i % 2 == 0 ? String.format(Locale.ROOT, "%.5f", value) : Double.toString(value);
+            expected[i] = Double.parseDouble(text);
+            builder.append(i % 3 == 0 ? "v " : " ").append(text).append(i % 3 == 2 ? "\n" : "");
+        }
+        builder.append("f 1 2 3\n");
+        mesh = OBJtoMesh.ReadMesh(write(builder.toString()).toString());
+        for (int i = 0; i < expected.length / 3; ++i) {
+            Point3D vertex = mesh.getVertex(i);
+            assertEquals(expected[i * 3], vertex.getX(), 0, "wrong number parsed");
+            assertEquals(expected[i * 3 + 1], vertex.getY(), 0, "wrong number parsed");
+            assertEquals(expected[i * 3 + 2], vertex.getZ(), 0, "wrong number parsed");
+        }
+
+        // TC03: face which refers to a vertex which does not exist
+        Path wrongIndex = write("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 4\n");
+        assertThrows(IllegalArgumentException.class, () -> OBJtoMesh.ReadMesh(wrongIndex.toString()),
+                "wrong vertex index is accepted");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: file without faces
+        Path noFaces = write("v 0 0 0\nv 1 0 0\nv 0 1 0\n");
+        assertThrows(IllegalArgumentException.class, () -> OBJtoMesh.ReadMesh(noFaces.toString()),
+                "file without faces is accepted");
+
+        // TC12: face with 2 vertices
+        Path line = write("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2\n");
+        assertThrows(IllegalArgumentException.class, () -> OBJtoMesh.ReadMesh(line.toString()),
+                "face with 2 vertices is accepted");
+
+        // TC13: last line without an end of line
+        mesh = OBJtoMesh.ReadMesh(write("v 0 0 0\nv 1 0 0\nv 0 1 0\nf 1 2 3").toString());
+        assertEquals(1, mesh.getFaceCount(), "wrong number of faces");
+
+        // TC14: numbers longer than the buffer of the parser - many significant digits, and many leading zeros
+        String digits = "31415926535897932384626433832795028841971693993751058209749445923078164062862";
+        String zeros = "0".repeat(200);
+        String[] numbers = {
+                "0." + digits, "-" + digits + "." + digits, digits + zeros,
+                "0." + zeros + digits + "e205", "1" + zeros + "e-200", "-0." + zeros};
+        mesh = OBJtoMesh.ReadMesh(write("v " + numbers[0] + " " + numbers[1] + " " + numbers[2] + "\n" +
+                "v " + numbers[3] + " " + numbers[4] + " " + numbers[5] + "\nv 0 1 0\nf 1 2 3\n").toString());
+        for (int i = 0; i < numbers.length; ++i) {
+            Point3D vertex = mesh.getVertex(i / 3);
+            double value = i % 3 == 0 ? vertex.getX() : i % 3 == 1 ? vertex.getY() : vertex.getZ();
+            assertEquals(Double.parseDouble(numbers[i]), value, 0, "wrong long number parsed");
+        }
+    }
+
+    /**
+     * Test method for {@link scene.OBJtoMesh#ReadMesh(String)} - a heightfield of quads
+     */
+    @Test
+    void readHeightfield() throws IOException {
+        Path file = Files.createTempFile("heightfield", ".obj");
+        try {
+            int size = 40;
+            writeHeightfield(file, size, new Random(19));
+
+            // ============ Equivalence Partitions Tests ==============
+
+            // TC01: every quad is split into two faces, and the heights are read
+            TriangleMesh mesh = OBJtoMesh.ReadMesh(file.toString());
+            assertEquals(2 * size * size, mesh.getFaceCount(), "wrong number of faces");
+            assertEquals((size + 1) * (size + 1), mesh.getVertexCount(), "wrong number of vertices");
+            Random rand = new Random(19);
+            for (int v = 0; v < mesh.getVertexCount(); ++v) {
+                Point3D vertex = mesh.getVertex(v);
+                assertEquals(v / (size + 1), vertex.getX(), 0, "wrong vertex");
+                assertEquals(v % (size + 1), vertex.getY(), 0, "wrong vertex");
+                assertEquals(Math.round(rand.nextDouble() * 1e4) / 1e4, vertex.getZ(), 0, "wrong vertex");
+            }
+
+            // TC02: a ray from above hits the heightfield once
+            List<Point3D> result = mesh.findIntersections(
+                    new Ray(new Point3D(size / 2.0 + 0.3, size / 2.0 + 0.6, 10), new Vector(0, 0, -1)));
+            assertEquals(1, result.size(), "wrong number of intersections");
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    /**
+     * write an OBJ file of a heightfield - a grid of squares with random heights (of 4 decimal digits)
+     * between 0 and 1, and a quad face in every square
+     *
+     * @param file - the file
+     * @param size - number of the squares along each axis, the heightfield has 2 * size^2 triangles
+     * @param rand - the random generator of the heights
+     * @throws IOException if the file can not be written
+     */
+    static void writeHeightfield(Path file, int size, Random rand) throws IOException {
+        try (Writer writer = new BufferedWriter(Files.newBufferedWriter(file), 1 << 16)) {
+            for (int i = 0; i <= size; ++i) {
+                for (int j = 0; j <= size; ++j) {
+                    writer.write("v " + i + " " + j + " " + Math.round(rand.nextDouble() * 1e4) / 1e4 + "\n");
+                }
+            }
+            for (int i = 0; i < size; ++i) {
+                for (int j = 0; j < size; ++j) {
+                    int a = i * (size + 1) + j + 1;
+                    int b = a + size + 1;
+                    writer.write("f " + a + " " + b + " " + (b + 1) + " " + (a + 1) + "\n");
+                }
+            }
+        }
+    }
+}
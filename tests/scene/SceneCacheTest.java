@@ -0,0 +1,235 @@
+package scene;
+
+import elements.*;
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.*;
+import renderer.BasicRayTracer;
+import renderer.RayTracerBase;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.SceneCache class
+ */
+class SceneCacheTest {
+
+    /**
+     * @param prefix - prefix of the name of the file
+     * @return a temporary file which is deleted on exit
+     * @throws IOException if the file can not be created
+     */
+    private static Path temporaryFile(String prefix) throws IOException {
+        Path file = Files.createTempFile(prefix, ".bin");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /**
+     * @return a scene with every geometry, light and a camera, whose hierarchy is built
+     */
+    private static Scene createScene() {
+        Material shared = new Material().setKd(0.5).setKs(0.5).setShininess(30);
+        Scene scene = new Scene("cache test")
+                .setBackground(new Color(10, 20, 30))
+                .setAmbientLight(new AmbientLight(new Color(255, 255, 255), 0.1))
+                .setCamera(new Camera(new Point3D(0, 0, 100), new Vector(0, 0, -1), new Vector(0, 1, 0))
+                        .setViewPlaneSize(100, 100).setDistance(100)
+                        .setNumberOfRaysInPixel(9).setAA(true).setAdaptiveAA(true).setMaxAdaptiveDepth(2));
+        scene.geometries.add(
+                new Sphere(new Point3D(-20, 20, -20), 10).setEmission(new Color(100, 0, 0)).setMaterial(shared),
+                new Triangle(new Point3D(0, 10, -20), new Point3D(20, 10, -20), new Point3D(10, 30, -20))
+                        .setMaterial(shared),
+                new Polygon(new Point3D(-30, -30, -20), new Point3D(-10, -30, -20),
+                        new Point3D(-10, -10, -20), new Point3D(-30, -10, -20))
+                        .setMaterial(new Material().setKt(0.3).setKr(0.2)),
+                new Plane(new Point3D(0, 0, -50), new Vector(0, 0.1, 1)).setEmission(new Color(0, 30, 0)),
+                new Tube(new Ray(new Point3D(40, 0, -40), new Vector(0, 1, 0)), 3),
+                new Cylinder(new Ray(new Point3D(0, -40, -30), new Vector(1, 0, 0)), 5, 20).setMaterial(shared),
+                new Geometries(new Sphere(new Point3D(30, -30, -20), 5), new Sphere(new Point3D(40, -30, -20), 5)),
+                heightfield(10).setEmission(new Color(0, 0, 60)).setMaterial(new Material().setKd(0.8)));
+        scene.geometries.BuildTreeSAH();
+        scene.lights.add(new DirectionalLight(new Color(100, 100, 100), new Vector(1, -1, -1)));
+        scene.lights.add(new PointLight(new Color(200, 100, 100), new Point3D(0, 50, 50)).setkL(0.001).setkQ(0.0001));
+        scene.lights.add(new SpotLight(new Color(100, 200, 100), new Point3D(-50, 0, 50), new Vector(1, 0, -1))
+                .setFocus(5).setkL(0.0005));
+        return scene;
+    }
+
+    /**
+     * @param size - number of squares along every side
+     * @return a mesh of a random heightfield in front of the camera
+     */
+    private static TriangleMesh heightfield(int size) {
+        Random rand = new Random(21);
+        double[] vertices = new double[(size + 1) * (size + 1) * 3];
+        for (int i = 0; i <= size; ++i) {
+            for (int j = 0; j <= size; ++j) {
+                int v = (i * (size + 1) + j) * 3;
+                vertices[v] = 10 + i * 2;
+                vertices[v + 1] = -20 + j * 2;
+                vertices[v + 2] = -40 + rand.nextDouble() * 5;
+            }
+        }
+        int[] faces = new int[size * size * 6];
+        int f = 0;
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                int a = i * (size + 1) + j;
+                int b = a + size + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = b + 1;
+                faces[f++] = a;
+                faces[f++] = b + 1;
+                faces[f++] = a + 1;
+            }
+        }
+        return new TriangleMesh(vertices, faces);
+    }
+
+    /**
+     * assert that two scenes trace the same colors through the pixels of a camera
+     *
+     * @param expected - the original scene
+     * @param actual   - the loaded scene
+     * @param camera   - the camera
+     */
+    private static void assertSameColors(Scene expected, Scene actual, Camera camera) {
+        RayTracerBase expectedTracer = new BasicRayTracer(expected).set_bb(true);
+        RayTracerBase actualTracer = new BasicRayTracer(actual).set_bb(true);
+        int size = 40;
+        for (int i = 0; i < size; ++i) {
+            for (int j = 0; j < size; ++j) {
+                Ray ray = camera.constructRayThroughPixel(size, size, j, i);
+                Color color1 = expectedTracer.traceRay(ray);
+                Color color2 = actualTracer.traceRay(ray);
+                assertArrayEquals(new double[]{color1.getR(), color1.getG(), color1.getB()},
+                        new double[]{color2.getR(), color2.getG(), color2.getB()},
+                        1e-9, "wrong color of pixel " + j + "," + i);
+            }
+        }
+    }
+
+    /**
+     * Test method for {@link scene.SceneCache#WriteScene(Scene, String)} and {@link scene.SceneCache#ReadScene(String)}.
+     */
+    @Test
+    void readScene() throws IOException {
+        Path file = temporaryFile("scene");
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: every geometry, light and the camera, the same colors are traced
+        Scene scene = createScene();
+        SceneCache.WriteScene(scene, file.toString());
+        Scene loaded = SceneCache.ReadScene(file.toString());
+        assertEquals("cache test", loaded._name, "wrong name");
+        assertEquals(25.5, loaded.ambientLight.getIntensity().getG(), 1e-12, "wrong ambient light");
+        assertEquals(3, loaded.lights.size(), "wrong number of lights");
+        assertTrue(loaded.lights.get(2) instanceof SpotLight, "wrong type of light");
+        assertEquals(5, ((SpotLight) loaded.lights.get(2)).getFocus(), "wrong focus");
+        assertEquals(scene.camera.getP0(), loaded.camera.getP0(), "wrong camera location");
+        assertEquals(9, loaded.camera.get_numberOfRaysInPixel(), "wrong camera rays");
+        assertTrue(loaded.camera.is_adaptiveAA(), "wrong camera adaptive AA");
+        assertEquals(2, loaded.camera.get_maxAdaptiveDepth(), "wrong camera adaptive depth");
+        assertSameColors(scene, loaded, scene.camera);
+
+        // TC02: the built hierarchy is loaded as it is, with the same bounding boxes
+        assertEquals(scene.geometries.getContainers().size(), loaded.geometries.getContainers().size(),
+                "wrong number of components");
+        Container root = scene.geometries.getContainers().get(0);
+        Container loadedRoot = loaded.geometries.getContainers().get(0);
+        assertTrue(loadedRoot instanceof Geometries, "the hierarchy is not loaded");
+        assertEquals(root._boundingBox.getMinX(), loadedRoot._boundingBox.getMinX(), "wrong bounding box");
+        assertEquals(root._boundingBox.getMaxZ(), loadedRoot._boundingBox.getMaxZ(), "wrong bounding box");
+
+        // TC03: a file which is not a scene cache file
+        Path other = temporaryFile("other");
+        Files.writeString(other, "<scene/>");
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.ReadScene(other.toString()),
+                "a file which is not a scene cache file is read");
+
+        // TC04: a geometry which can not be cached
+        Scene flat = new Scene("flat");
+        flat.geometries.add(new FlatBVH(new Geometries(new Sphere(Point3D.ZERO, 1))));
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.WriteScene(flat, file.toString()),
+                "a compiled hierarchy is cached");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: an empty scene without a camera
+        SceneCache.WriteScene(new Scene("empty"), file.toString());
+        loaded = SceneCache.ReadScene(file.toString());
+        assertNull(loaded.camera, "camera in a scene without a camera");
+        assertTrue(loaded.lights.isEmpty(), "lights in a scene without lights");
+        assertTrue(loaded.geometries.getContainers().isEmpty(), "geometries in a scene without geometries");
+
+        // TC12: a truncated file
+        SceneCache.WriteScene(scene, file.toString());
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length / 2));
+        assertThrows(IllegalArgumentException.class, () -> SceneCache.ReadScene(file.toString()),
+                "a truncated file is read");
+    }
+
+    /**
+     * Test method for {@link scene.SceneCache#LoadScene(String, String)}.
+     */
+    @Test
+    void loadScene() throws IOException {
+        Path directory = Files.createTempDirectory("cache");
+        Path mesh = directory.resolve("heightfield.obj");
+        Path xml = directory.resolve("scene.xml");
+        Path cache = directory.resolve("scene.bin");
+        try {
+            // a heightfield of 5K faces and a few hundreds spheres
+            int size = 50;
+            Random rand = new Random(23);
+            OBJtoMeshTest.writeHeightfield(mesh, size, rand);
+            try (Writer writer = new BufferedWriter(Files.newBufferedWriter(xml))) {
+                writer.write("<scene background-color=\"0 0 0\">\n<geometries>\n");
+                writer.write("<mesh file=\"heightfield.obj\" kd=\"0.5\"/>\n");
+                for (int i = 0; i < 400; ++i) {
+                    writer.write("<sphere center=\"" + rand.nextDouble() * size + " " + rand.nextDouble() * size
+                            + " 5\" radius=\"0.5\" emission=\"50 50 50\"/>\n");
+                }
+                writer.write("</geometries>\n<lights>\n<point-light color=\"500 500 500\" position=\"0 0 100\"/>\n");
+                writer.write("</lights>\n</scene>\n");
+            }
+
+            // ============ Equivalence Partitions Tests ==============
+
+            // TC01: the first load reads the XML file and writes the cache
+            Scene first = SceneCache.LoadScene(xml.toString(), cache.toString());
+            assertTrue(Files.exists(cache), "the cache is not written");
+
+            // TC02: the second load reads the cache, and traces the same colors
+            Scene second = SceneCache.LoadScene(xml.toString(), cache.toString());
+            assertSameColors(first, second, new Camera(new Point3D(size / 2.0, size / 2.0, 200),
+                    new Vector(0, 0, -1), new Vector(0, 1, 0)).setViewPlaneSize(100, 100).setDistance(100));
+
+            // =============== Boundary Values Tests ==================
+
+            // TC11: a cache which is older than the XML file is replaced
+            Files.setLastModifiedTime(cache, FileTime.fromMillis(Files.getLastModifiedTime(xml).toMillis() - 1000));
+            SceneCache.LoadScene(xml.toString(), cache.toString());
+            assertTrue(Files.getLastModifiedTime(cache).compareTo(Files.getLastModifiedTime(xml)) >= 0,
+                    "an old cache is not replaced");
+        } finally {
+            Files.deleteIfExists(mesh);
+            Files.deleteIfExists(xml);
+            Files.deleteIfExists(cache);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
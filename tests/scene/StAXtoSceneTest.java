@@ -0,0 +1,174 @@
+package scene;
+
+import elements.DirectionalLight;
+import elements.PointLight;
+import elements.SpotLight;
+import geometries.*;
+import org.junit.jupiter.api.Test;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static geometries.Intersectable.GeoPoint;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for scene.StAXtoScene class
+ */
+class StAXtoSceneTest {
+
+    /**
+     * a scene with every geometry and light, the geometries are side by side along the x axis
+     */
+    private static final String SCENE = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<scene background-color=\"1 2 3\">\n" +
+            "    <ambient-light color=\"20 20 20\" ka=\"0.5\"/>\n" +
+            "    <geometries>\n" +
+            "        <sphere center=\"0 0 -10\" radius=\"1\" emission=\"10 20 30\"\n" +
+            "                kd=\"0.5\" ks=\"0.25\" shininess=\"20\" kt=\"0.1\" kr=\"0.2\"/>\n" +
+            "        <triangle p0=\"9 -1 -10\" p1=\"11 -1 -10\" p2=\"10 1 -10\"/>\n" +
+            "        <polygon p0=\"19 -1 -10\" p1=\"21 -1 -10\" p2=\"21 1 -10\" p3=\"19 1 -10\"/>\n" +
+            "        <plane q0=\"0 0 -100\" normal=\"0 0 1\"/>\n" +
+            "        <tube p0=\"30 0 -10\" direction=\"0 1 0\" radius=\"1\"/>\n" +
+            "        <cylinder p0=\"40 -1 -10\" direction=\"0 1 0\" radius=\"1\" height=\"2\"/>\n" +
+            "        <mesh file=\"mesh.obj\" emission=\"5 5 5\"/>\n" +
+            "        <geometries>\n" +
+            "            <sphere center=\"60 0 -10\" radius=\"1\"/>\n" +
+            "        </geometries>\n" +
+            "    </geometries>\n" +
+            "    <lights>\n" +
+            "        <directional-light color=\"100 100 100\" direction=\"0 0 -1\"/>\n" +
+            "        <point-light color=\"100 100 100\" position=\"0 10 0\" kl=\"0.1\"/>\n" +
+            "        <spot-light color=\"100 100 100\" position=\"0 10 0\" direction=\"0 -1 0\" focus=\"4\"/>\n" +
+            "    </lights>\n" +
+            "</scene>\n";
+
+    /**
+     * read a scene from a text
+     *
+     * @param xml       - the text of the scene
+     * @param directory - the directory of the meshes' files
+     * @return the scene
+     * @throws IOException if a mesh can not be read
+     */
+    private static Scene read(String xml, Path directory) throws IOException {
+        return StAXtoScene.ReadScene(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)), "test", directory);
+    }
+
+    /**
+     * @param scene - a scene
+     * @param x     - x coordinate of the ray
+     * @return the closest intersection of a ray towards -z from (x, 0, 0)
+     */
+    private static GeoPoint closest(Scene scene, double x) {
+        return scene.geometries.findClosestGeoIntersection(new Ray(new Point3D(x, 0, 0), new Vector(0, 0, -1)));
+    }
+
+    /**
+     * @return a directory with the file of the mesh of the scene, a triangle around x = 50
+     * @throws IOException if the file can not be written
+     */
+    private static Path meshDirectory() throws IOException {
+        Path directory = Files.createTempDirectory("scene");
+        Path mesh = directory.resolve("mesh.obj");
+        Files.writeString(mesh, "v 49 -1 -10\nv 51 -1 -10\nv 50 1 -10\nf 1 2 3\n");
+        mesh.toFile().deleteOnExit();
+        directory.toFile().deleteOnExit();
+        return directory;
+    }
+
+    /**
+     * Test method for {@link scene.StAXtoScene#ReadScene(java.io.InputStream, String, Path)}.
+     */
+    @Test
+    void readScene() throws IOException {
+        Path directory = meshDirectory();
+
+        // ============ Equivalence Partitions Tests ==============
+
+        // TC01: every geometry, with emission and material
+        Scene scene = read(SCENE, directory);
+        assertEquals(1, scene.background.getR(), "wrong background");
+        assertEquals(10, scene.ambientLight.getIntensity().getR(), 1e-10, "wrong ambient light");
+        GeoPoint sphere = closest(scene, 0);
+        assertTrue(sphere.geometry instanceof Sphere, "sphere not read");
+        assertEquals(20, sphere.geometry.getEmission().getG(), "wrong emission");
+        assertEquals(0.25, sphere.geometry.getMaterial().Ks, "wrong material");
+        assertEquals(20, sphere.geometry.getMaterial().Shininess, "wrong material");
+        assertEquals(0.2, sphere.geometry.getMaterial().Kr, "wrong material");
+        assertTrue(closest(scene, 10).geometry instanceof Triangle, "triangle not read");
+        assertTrue(closest(scene, 20).geometry instanceof Polygon, "polygon not read");
+        assertTrue(closest(scene, -20).geometry instanceof Plane, "plane not read");
+        assertTrue(closest(scene, 30).geometry instanceof Tube, "tube not read");
+        assertTrue(closest(scene, 40).geometry instanceof Cylinder, "cylinder not read");
+        GeoPoint mesh = closest(scene, 50);
+        assertTrue(mesh.geometry instanceof TriangleMesh, "mesh not read");
+        assertEquals(5, mesh.geometry.getEmission().getB(), "wrong emission");
+        assertTrue(closest(scene, 60).geometry instanceof Sphere, "nested geometries not read");
+
+        // TC02: every light
+        assertEquals(3, scene.lights.size(), "wrong number of lights");
+        assertTrue(scene.lights.get(0) instanceof DirectionalLight, "directional light not read");
+        assertTrue(scene.lights.get(1) instanceof PointLight, "point light not read");
+        assertTrue(scene.lights.get(2) instanceof SpotLight, "spot light not read");
+
+        // TC03: scenes are read concurrently without sharing state
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Scene>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; ++i) {
+                futures.add(pool.submit(() -> read(SCENE, directory)));
+            }
+            for (Future<Scene> future : futures) {
+                Scene concurrent = future.get();
+                assertEquals(3, concurrent.lights.size(), "wrong number of lights");
+                assertTrue(closest(concurrent, 50).geometry instanceof TriangleMesh, "mesh not read");
+            }
+        } catch (Exception e) {
+            fail(e);
+        } finally {
+            pool.shutdown();
+        }
+
+        // TC04: invalid scenes
+        assertThrows(IllegalArgumentException.class, () -> read("<scene><geometries><cube/></geometries></scene>", directory),
+                "unknown element is accepted");
+        assertThrows(IllegalArgumentException.class,
+                () -> read("<scene><geometries><sphere center=\"0 0\" radius=\"1\"/></geometries></scene>", directory),
+                "point with 2 coordinates is accepted");
+        assertThrows(IllegalArgumentException.class,
+                () -> read("<scene><geometries><sphere center=\"0 0 0\"/></geometries></scene>", directory),
+                "missing attribute is accepted");
+        assertThrows(IllegalArgumentException.class, () -> read("<scene><geometries>", directory),
+                "unclosed XML is accepted");
+
+        // =============== Boundary Values Tests ==================
+
+        // TC11: the format of XMLtoScene, without lights and materials
+        scene = read("<scene background-color=\"75 127 90\">\n" +
+                "<ambient-light color=\"255 191 191\"/>\n" +
+                "<geometries>\n" +
+                "<sphere center=\"0 0 -100\" radius=\"50\"/>\n" +
+                "<triangle p0=\"-100 0 -100\" p1=\"0 100 -100\" p2=\"-100 100 -100\"/>\n" +
+                "</geometries>\n" +
+                "</scene>", directory);
+        assertEquals(127, scene.background.getG(), "wrong background");
+        assertTrue(scene.lights.isEmpty(), "lights in a scene without lights");
+        assertTrue(closest(scene, 0).geometry instanceof Sphere, "sphere not read");
+
+        // TC12: geometry outside of a geometries element
+        assertThrows(IllegalArgumentException.class, () -> read("<scene><sphere center=\"0 0 0\" radius=\"1\"/></scene>", directory),
+                "geometry outside of geometries is accepted");
+    }
+}